@@ -0,0 +1,112 @@
+package com.cinema.benchmark;
+
+import com.cinema.CinemaApplication;
+import com.cinema.config.SampleDataInitializer;
+import com.cinema.model.Seat;
+import com.cinema.model.Showtime;
+import com.cinema.model.User;
+import com.cinema.repository.SeatRepository;
+import com.cinema.repository.ShowtimeRepository;
+import com.cinema.repository.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spring context dùng chung cho một fork JMH.
+ *
+ * <p>
+ * Khởi động ứng dụng với profile {@code benchmark} (H2 in-memory, dữ liệu mẫu
+ * thu nhỏ từ {@link SampleDataInitializer}) rồi chuẩn bị sẵn fixture: các suất
+ * chiếu từ ngày mai trở đi (đủ xa để được đặt vé), ghế của chúng và khách hàng mẫu.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public ConfigurableApplicationContext context;
+
+    /** Suất chiếu từ ngày mai, đã fetch movie/room/theater */
+    public List<Showtime> showtimes;
+
+    /** Ghế của phòng chiếu tương ứng với từng phần tử trong {@link #showtimes} */
+    public List<List<Seat>> seatsByShowtime;
+
+    public List<User> customers;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(CinemaApplication.class)
+                .profiles("benchmark")
+                .logStartupInfo(false)
+                .run();
+
+        ShowtimeRepository showtimeRepository = bean(ShowtimeRepository.class);
+        SeatRepository seatRepository = bean(SeatRepository.class);
+        UserRepository userRepository = bean(UserRepository.class);
+
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        showtimes = showtimeRepository.findByShowDateBetweenWithDetails(tomorrow, tomorrow.plusDays(30));
+        if (showtimes.isEmpty()) {
+            throw new IllegalStateException("No future showtimes; check app.sample-data.showtime-days >= 2");
+        }
+
+        seatsByShowtime = new ArrayList<>(showtimes.size());
+        for (Showtime showtime : showtimes) {
+            seatsByShowtime.add(seatRepository.findByRoomIdOrderByRowAndNumber(showtime.getRoom().getId()));
+        }
+
+        customers = new ArrayList<>();
+        for (int i = 1;; i++) {
+            var customer = userRepository.findByEmail(SampleDataInitializer.sampleCustomerEmail(i));
+            if (customer.isEmpty()) {
+                break;
+            }
+            customers.add(customer.get());
+        }
+        if (customers.isEmpty()) {
+            throw new IllegalStateException("No sample customers; set app.sample-data.customers > 0");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Bean gốc phía sau proxy AOP (dùng khi cần gọi method package-private).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T target(Class<T> type) {
+        T bean = bean(type);
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        return target != null ? (T) target : bean;
+    }
+
+    /**
+     * Đăng nhập khách hàng cho thread hiện tại (BookingService đọc user từ SecurityContext).
+     */
+    public static void authenticate(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))));
+    }
+}
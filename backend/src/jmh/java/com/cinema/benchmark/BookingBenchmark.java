@@ -0,0 +1,95 @@
+package com.cinema.benchmark;
+
+import com.cinema.dto.request.BookingRequest;
+import com.cinema.dto.response.BookingResponse;
+import com.cinema.model.Food;
+import com.cinema.model.Seat;
+import com.cinema.model.User;
+import com.cinema.repository.FoodRepository;
+import com.cinema.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookingService#createBooking} không tranh chấp: mỗi thread đặt trên một
+ * suất chiếu riêng, xoay vòng qua các nhóm ghế. Mỗi lần đo gồm đặt + hủy để ghế
+ * được trả lại cho vòng sau.
+ *
+ * <p>
+ * {@code seatsPerBooking} / {@code foodItems} lớn cho thấy chi phí ghi booking_seats và
+ * booking_foods (xem thêm timer {@code cinema.booking.write}).
+ * </p>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Customer {
+        @Param({ "2", "10" })
+        int seatsPerBooking;
+
+        @Param({ "0", "3" })
+        int foodItems;
+
+        BookingService bookingService;
+        User user;
+        Long showtimeId;
+        List<Seat> seats;
+        List<BookingRequest.FoodItem> foods;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx, ThreadParams threadParams) {
+            int index = threadParams.getThreadIndex();
+            bookingService = ctx.bean(BookingService.class);
+            user = ctx.customers.get(index % ctx.customers.size());
+            int showtimeIndex = index % ctx.showtimes.size();
+            showtimeId = ctx.showtimes.get(showtimeIndex).getId();
+            seats = ctx.seatsByShowtime.get(showtimeIndex);
+            foods = ctx.bean(FoodRepository.class).findAll().stream()
+                    .filter(Food::getIsAvailable)
+                    .limit(foodItems)
+                    .map(food -> new BookingRequest.FoodItem(food.getId(), 2))
+                    .toList();
+            BenchmarkContext.authenticate(user);
+        }
+
+        BookingRequest nextRequest() {
+            List<Long> seatIds = new ArrayList<>(seatsPerBooking);
+            for (int i = 0; i < seatsPerBooking; i++) {
+                seatIds.add(seats.get((next + i) % seats.size()).getId());
+            }
+            next += seatsPerBooking;
+            return BookingRequest.builder()
+                    .showtimeId(showtimeId)
+                    .seatIds(seatIds)
+                    .foodItems(foods.isEmpty() ? null : foods)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public BookingResponse createAndCancelBooking(Customer customer) {
+        BookingResponse booking = customer.bookingService.createBooking(customer.nextRequest());
+        return customer.bookingService.cancelBooking(booking.getId());
+    }
+}
@@ -0,0 +1,103 @@
+package com.cinema.benchmark;
+
+import com.cinema.dto.request.BookingRequest;
+import com.cinema.dto.response.BookingResponse;
+import com.cinema.exception.SeatAlreadyBookedException;
+import com.cinema.model.Seat;
+import com.cinema.service.BookingService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * N thread cùng đặt các cặp ghế chồng lấn trên MỘT suất chiếu (mô phỏng mở bán).
+ *
+ * <p>
+ * Chỉ {@code hotSeats} ghế đầu tiên của phòng được chọn, nên tỉ lệ conflict tăng
+ * theo số thread. Số lần đặt thành công / bị conflict được báo cáo qua
+ * {@link Outcome}. Đổi số thread bằng {@code -t}, VD: {@code -Djmh.args="BookingContention -t 32"}.
+ * </p>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class BookingContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class HotShowtime {
+        @Param({ "8", "32" })
+        int hotSeats;
+
+        BookingService bookingService;
+        Long showtimeId;
+        List<Seat> seats;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx) {
+            bookingService = ctx.bean(BookingService.class);
+            showtimeId = ctx.showtimes.get(0).getId();
+            List<Seat> roomSeats = ctx.seatsByShowtime.get(0);
+            seats = roomSeats.subList(0, Math.min(hotSeats, roomSeats.size()));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Customer {
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx, ThreadParams threadParams) {
+            BenchmarkContext.authenticate(ctx.customers.get(threadParams.getThreadIndex() % ctx.customers.size()));
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long booked;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            booked = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public BookingResponse bookOverlappingSeats(HotShowtime hot, Customer customer, Outcome outcome) {
+        int first = ThreadLocalRandom.current().nextInt(hot.seats.size());
+        int second = (first + 1) % hot.seats.size();
+        BookingRequest request = BookingRequest.builder()
+                .showtimeId(hot.showtimeId)
+                .seatIds(List.of(hot.seats.get(first).getId(), hot.seats.get(second).getId()))
+                .build();
+
+        BookingResponse booking;
+        try {
+            booking = hot.bookingService.createBooking(request);
+        } catch (SeatAlreadyBookedException e) {
+            outcome.conflicts++;
+            return null;
+        }
+        outcome.booked++;
+        return hot.bookingService.cancelBooking(booking.getId());
+    }
+}
@@ -0,0 +1,85 @@
+package com.cinema.benchmark;
+
+import com.cinema.service.CodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tốc độ insert vào unique index của mã booking: mã ngẫu nhiên kiểu cũ
+ * ({@code BK} + 8 ký tự UUID) so với mã tăng dần theo thời gian của {@link CodeGenerator}.
+ *
+ * <p>
+ * Mỗi iteration bắt đầu với bảng rỗng có cùng kiểu cột / unique index như
+ * {@code bookings.booking_code}; mỗi lần gọi insert một batch {@link #BATCH_SIZE} mã,
+ * nên index lớn dần trong suốt iteration.
+ * </p>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CodeIndexBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    private static final String TABLE = "code_index_bench";
+
+    @State(Scope.Benchmark)
+    public static class Fixture {
+
+        @Param({ "uuid", "time-ordered" })
+        String scheme;
+
+        JdbcTemplate jdbcTemplate;
+        CodeGenerator codeGenerator;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx) {
+            jdbcTemplate = ctx.bean(JdbcTemplate.class);
+            codeGenerator = ctx.bean(CodeGenerator.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void resetTable() {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "booking_code VARCHAR(20) NOT NULL, CONSTRAINT uk_" + TABLE + " UNIQUE (booking_code))");
+        }
+
+        String nextCode() {
+            return "uuid".equals(scheme)
+                    ? "BK" + UUID.randomUUID().toString().substring(0, 8).toUpperCase()
+                    : codeGenerator.nextBookingCode();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch(Fixture f) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            rows.add(new Object[] { f.nextCode() });
+        }
+        // Mã UUID 8 ký tự có thể trùng khi bảng lớn: bỏ qua dòng trùng thay vì làm hỏng batch
+        return f.jdbcTemplate.batchUpdate("MERGE INTO " + TABLE + " (booking_code) KEY (booking_code) VALUES (?)",
+                rows);
+    }
+}
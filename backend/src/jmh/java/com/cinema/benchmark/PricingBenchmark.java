@@ -0,0 +1,61 @@
+package com.cinema.benchmark;
+
+import com.cinema.model.Seat;
+import com.cinema.model.Showtime;
+import com.cinema.model.User;
+import com.cinema.service.PricingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PricingService#calculateTicketPrice} trên rate card đã biên dịch,
+ * xoay vòng qua suất chiếu / ghế / khách hàng mẫu.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PricingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Fixture {
+        PricingService pricingService;
+        List<Showtime> showtimes;
+        List<List<Seat>> seats;
+        List<User> customers;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx) {
+            pricingService = ctx.bean(PricingService.class);
+            showtimes = ctx.showtimes;
+            seats = ctx.seatsByShowtime;
+            customers = ctx.customers;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateTicketPrice(Fixture f) {
+        int i = f.next++;
+        int showtimeIndex = i % f.showtimes.size();
+        List<Seat> roomSeats = f.seats.get(showtimeIndex);
+        return f.pricingService.calculateTicketPrice(
+                f.showtimes.get(showtimeIndex),
+                roomSeats.get(i % roomSeats.size()),
+                f.customers.get(i % f.customers.size()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.cinema.benchmark;
+
+import com.cinema.dto.response.SeatMapResponse;
+import com.cinema.dto.response.SeatResponse;
+import com.cinema.model.Showtime;
+import com.cinema.service.BestSeatSelector;
+import com.cinema.service.SeatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sơ đồ ghế theo suất chiếu: bản đầy đủ ({@link SeatService#getSeatsByShowtime})
+ * và bản delta theo version ({@link SeatService#getSeatMap}), cùng với việc chọn
+ * tự động 4 ghế liền nhau ({@link BestSeatSelector#select}, không giữ chỗ).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SeatMapBenchmark {
+
+    @State(Scope.Thread)
+    public static class Fixture {
+        SeatService seatService;
+        BestSeatSelector bestSeatSelector;
+        List<Showtime> showtimes;
+        long[] versions;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx) {
+            seatService = ctx.bean(SeatService.class);
+            bestSeatSelector = ctx.bean(BestSeatSelector.class);
+            showtimes = ctx.showtimes;
+            versions = new long[showtimes.size()];
+            for (int i = 0; i < showtimes.size(); i++) {
+                versions[i] = seatService.getSeatMap(showtimes.get(i).getId(), null).getVersion();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SeatResponse> getSeatsByShowtime(Fixture f) {
+        Showtime showtime = f.showtimes.get(f.next++ % f.showtimes.size());
+        return f.seatService.getSeatsByShowtime(showtime.getRoom().getId(), showtime.getId());
+    }
+
+    @Benchmark
+    public SeatMapResponse getSeatMapDelta(Fixture f) {
+        int i = f.next++ % f.showtimes.size();
+        return f.seatService.getSeatMap(f.showtimes.get(i).getId(), f.versions[i]);
+    }
+
+    @Benchmark
+    public List<Long> selectBestAvailable(Fixture f) {
+        Showtime showtime = f.showtimes.get(f.next++ % f.showtimes.size());
+        return f.bestSeatSelector.select(showtime.getId(), showtime.getRoom().getId(), 4, null);
+    }
+}
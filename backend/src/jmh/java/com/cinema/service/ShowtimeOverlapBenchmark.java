@@ -0,0 +1,56 @@
+package com.cinema.service;
+
+import com.cinema.benchmark.BenchmarkContext;
+import com.cinema.exception.BadRequestException;
+import com.cinema.model.Showtime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShowtimeService#validateOverlap} (package-private nên benchmark nằm cùng
+ * package): kiểm tra lại chính các suất chiếu mẫu, loại trừ bản thân suất đó.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ShowtimeOverlapBenchmark {
+
+    @State(Scope.Thread)
+    public static class Fixture {
+        ShowtimeService showtimeService;
+        List<Showtime> showtimes;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkContext ctx) {
+            showtimeService = ctx.target(ShowtimeService.class);
+            showtimes = ctx.showtimes;
+        }
+    }
+
+    @Benchmark
+    public boolean validateOverlap(Fixture f) {
+        Showtime showtime = f.showtimes.get(f.next++ % f.showtimes.size());
+        try {
+            f.showtimeService.validateOverlap(showtime.getRoom().getId(), showtime.getId(),
+                    showtime.getShowDate(), showtime.getStartTime(), showtime.getEndTime());
+            return true;
+        } catch (BadRequestException e) {
+            return false;
+        }
+    }
+}
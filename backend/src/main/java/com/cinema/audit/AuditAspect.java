@@ -0,0 +1,185 @@
+package com.cinema.audit;
+
+import com.cinema.audit.AuditLogWriter.AuditEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bắt các endpoint có {@link Auditable} và đưa sự kiện audit vào {@link AuditLogWriter}.
+ *
+ * <p>
+ * Metadata (action, entity, vị trí các {@code @PathVariable}) được phân tích một
+ * lần cho mỗi method; mỗi request chỉ còn đọc user / IP và enqueue, không chạm DB.
+ * </p>
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class AuditAspect {
+
+    private static final int MAX_DETAILS_LENGTH = 1000;
+
+    private final AuditLogWriter auditLogWriter;
+
+    private final Map<Method, AuditTarget> targets = new ConcurrentHashMap<>();
+
+    @Around("@within(com.cinema.audit.Auditable) || @annotation(com.cinema.audit.Auditable)")
+    public Object audit(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        AuditTarget target = targets.computeIfAbsent(method, m -> resolve(m, joinPoint.getTarget().getClass()));
+        if (!target.audited()) {
+            return joinPoint.proceed();
+        }
+
+        try {
+            Object result = joinPoint.proceed();
+            record(target, joinPoint.getArgs(), null);
+            return result;
+        } catch (Throwable ex) {
+            record(target, joinPoint.getArgs(), ex);
+            throw ex;
+        }
+    }
+
+    private void record(AuditTarget target, Object[] args, Throwable failure) {
+        HttpServletRequest request = currentRequest();
+
+        StringBuilder details = new StringBuilder();
+        if (request != null) {
+            details.append(request.getMethod()).append(' ').append(request.getRequestURI());
+        }
+        if (failure != null) {
+            details.append(details.length() > 0 ? " " : "")
+                    .append("FAILED: ").append(failure.getClass().getSimpleName());
+            if (failure.getMessage() != null) {
+                details.append(": ").append(failure.getMessage());
+            }
+        }
+
+        auditLogWriter.enqueue(new AuditEvent(
+                target.action(),
+                target.entity(),
+                entityId(target, args),
+                currentUsername(),
+                request != null ? clientIp(request) : null,
+                details.length() > MAX_DETAILS_LENGTH ? details.substring(0, MAX_DETAILS_LENGTH) : details.toString(),
+                LocalDateTime.now()));
+    }
+
+    private String entityId(AuditTarget target, Object[] args) {
+        if (target.pathVariableIndexes().length == 0) {
+            return null;
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        for (int index : target.pathVariableIndexes()) {
+            joiner.add(String.valueOf(args[index]));
+        }
+        return joiner.toString();
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+    }
+
+    /**
+     * Địa chỉ của kết nối. Không đọc X-Forwarded-For trực tiếp (client tự đặt được);
+     * khi chạy sau reverse proxy, bật {@code server.forward-headers-strategy} để
+     * remote address là IP client do proxy tin cậy chuyển tiếp.
+     */
+    private String clientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Phân tích method một lần: có audit không, action, entity và các tham số {@code @PathVariable}.
+     */
+    private AuditTarget resolve(Method method, Class<?> targetClass) {
+        Auditable onMethod = AnnotatedElementUtils.findMergedAnnotation(method, Auditable.class);
+        Auditable onClass = AnnotatedElementUtils.findMergedAnnotation(targetClass, Auditable.class);
+
+        // Trên class: chỉ audit endpoint thay đổi dữ liệu
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        boolean mutating = false;
+        if (mapping != null) {
+            for (RequestMethod requestMethod : mapping.method()) {
+                mutating |= requestMethod != RequestMethod.GET && requestMethod != RequestMethod.HEAD
+                        && requestMethod != RequestMethod.OPTIONS;
+            }
+        }
+        if (onMethod == null && !mutating) {
+            return AuditTarget.SKIP;
+        }
+
+        String action = onMethod != null && !onMethod.action().isEmpty()
+                ? onMethod.action()
+                : toUpperSnake(method.getName());
+        String entity = onMethod != null && !onMethod.entity().isEmpty() ? onMethod.entity()
+                : onClass != null && !onClass.entity().isEmpty() ? onClass.entity()
+                : defaultEntity(targetClass);
+
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        int[] pathVariableIndexes = new int[parameterAnnotations.length];
+        int count = 0;
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof PathVariable) {
+                    pathVariableIndexes[count++] = i;
+                    break;
+                }
+            }
+        }
+
+        return new AuditTarget(true, action, entity, Arrays.copyOf(pathVariableIndexes, count));
+    }
+
+    private static String defaultEntity(Class<?> targetClass) {
+        String name = targetClass.getSimpleName();
+        int proxySuffix = name.indexOf("$$");
+        if (proxySuffix >= 0) {
+            name = name.substring(0, proxySuffix);
+        }
+        if (name.startsWith("Admin")) {
+            name = name.substring("Admin".length());
+        }
+        if (name.endsWith("Controller")) {
+            name = name.substring(0, name.length() - "Controller".length());
+        }
+        return name;
+    }
+
+    private static String toUpperSnake(String camelCase) {
+        return camelCase.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private record AuditTarget(boolean audited, String action, String entity, int[] pathVariableIndexes) {
+        static final AuditTarget SKIP = new AuditTarget(false, null, null, new int[0]);
+    }
+}
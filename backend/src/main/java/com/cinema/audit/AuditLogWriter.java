@@ -0,0 +1,231 @@
+package com.cinema.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ghi audit log bất đồng bộ theo lô.
+ *
+ * <p>
+ * Request chỉ đưa {@link AuditEvent} vào {@link AuditRingBuffer} (không khóa,
+ * không I/O); một thread nền "audit-writer" gom tối đa {@code audit.batch-size}
+ * sự kiện rồi ghi bằng một JDBC batch insert. Khi hàng đợi đầy, hành vi theo
+ * {@code audit.overflow-policy}:
+ * </p>
+ * <ul>
+ * <li>{@code BLOCK}: chờ tối đa {@code audit.block-timeout-ms}, quá hạn thì bỏ sự kiện</li>
+ * <li>{@code DROP_NEWEST}: bỏ sự kiện mới</li>
+ * <li>{@code DROP_OLDEST}: bỏ sự kiện cũ nhất để nhường chỗ</li>
+ * <li>{@code CALLER_RUNS}: ghi đồng bộ ngay trên thread của request</li>
+ * </ul>
+ * <p>
+ * Khi ứng dụng tắt, writer dừng và ghi nốt mọi sự kiện còn trong hàng đợi.
+ * </p>
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    public enum OverflowPolicy {
+        BLOCK, DROP_NEWEST, DROP_OLDEST, CALLER_RUNS
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs "
+            + "(action, entity_name, entity_id, username, ip_address, details, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${audit.queue-capacity:8192}") int queueCapacity,
+            @Value("${audit.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${audit.batch-size:200}") int batchSize,
+            @Value("${audit.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${audit.block-timeout-ms:50}") long blockTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new AuditRingBuffer<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+
+        Gauge.builder("cinema.audit.queue.size", buffer, AuditRingBuffer::size)
+                .description("Số audit event đang chờ ghi")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("cinema.audit.dropped")
+                .description("Số audit event bị bỏ do hàng đợi đầy")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("cinema.audit.written")
+                .description("Số audit event đã ghi xuống DB")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runLoop, "audit-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        log.info("Audit writer started (capacity={}, batchSize={}, overflowPolicy={})",
+                buffer.capacity(), batchSize, overflowPolicy);
+    }
+
+    /**
+     * Đưa sự kiện vào hàng đợi (không chặn, trừ policy BLOCK khi hàng đợi đầy).
+     */
+    public void enqueue(AuditEvent event) {
+        if (!running) {
+            writeBatch(List.of(event));
+            return;
+        }
+
+        if (!buffer.offer(event) && !handleOverflow(event)) {
+            droppedCounter.increment();
+            log.debug("Audit queue full, dropped event {}", event.action());
+        }
+
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Ghi nốt những gì writer chưa kịp ghi (hoặc được enqueue trong lúc dừng)
+        int flushed = flush();
+        if (flushed > 0) {
+            log.info("Flushed {} pending audit events on shutdown", flushed);
+        }
+    }
+
+    /**
+     * @return true nếu sự kiện đã được xử lý (đưa vào hàng đợi hoặc ghi đồng bộ)
+     */
+    private boolean handleOverflow(AuditEvent event) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                LockSupport.unpark(writerThread);
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    if (buffer.offer(event)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            case DROP_OLDEST -> {
+                for (int attempt = 0; attempt < 3; attempt++) {
+                    if (buffer.poll() != null) {
+                        droppedCounter.increment();
+                    }
+                    if (buffer.offer(event)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            case CALLER_RUNS -> {
+                writeBatch(List.of(event));
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                if (flush() == 0) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+            } catch (Exception e) {
+                log.error("Audit writer error: {}", e.getMessage(), e);
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Ghi toàn bộ sự kiện đang có trong hàng đợi theo từng lô.
+     *
+     * @return Số sự kiện đã ghi
+     */
+    private int flush() {
+        int total = 0;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            total += batch.size();
+            batch.clear();
+        }
+        return total;
+    }
+
+    private void writeBatch(List<AuditEvent> events) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+                ps.setString(1, event.action());
+                ps.setString(2, event.entityName());
+                ps.setString(3, event.entityId());
+                ps.setString(4, event.username());
+                ps.setString(5, event.ipAddress());
+                ps.setString(6, event.details());
+                ps.setTimestamp(7, Timestamp.valueOf(event.timestamp()));
+            });
+            writtenCounter.increment(events.size());
+        } catch (Exception e) {
+            // Không ném lỗi ngược lại request / writer: audit không được làm hỏng nghiệp vụ
+            droppedCounter.increment(events.size());
+            log.error("Failed to write {} audit events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Một dòng audit log chờ ghi.
+     */
+    public record AuditEvent(String action, String entityName, String entityId, String username,
+            String ipAddress, String details, LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.cinema.audit;
+
+import java.lang.annotation.*;
+
+/**
+ * Ghi audit log cho các endpoint thay đổi dữ liệu (POST / PUT / PATCH / DELETE).
+ *
+ * <p>
+ * Đặt trên controller để audit mọi endpoint thay đổi dữ liệu của nó, hoặc trên
+ * từng method để ghi đè {@link #action()} / {@link #entity()} (endpoint GET chỉ
+ * được audit khi method được đánh dấu trực tiếp).
+ * </p>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Auditable {
+
+    /**
+     * Tên hành động, VD: "DELETE_SHOWTIME". Mặc định: tên method dạng UPPER_SNAKE.
+     */
+    String action() default "";
+
+    /**
+     * Tên entity, VD: "Showtime". Mặc định: tên controller bỏ tiền tố "Admin" và hậu tố "Controller".
+     */
+    String entity() default "";
+}
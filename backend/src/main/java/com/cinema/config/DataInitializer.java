@@ -1,7 +1,9 @@
 package com.cinema.config;
 
 import com.cinema.model.User;
+import com.cinema.repository.BookingSeatRepository;
 import com.cinema.repository.UserRepository;
+import com.cinema.service.RevenueRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -18,10 +20,42 @@ public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final BookingSeatRepository bookingSeatRepository;
+    private final RevenueRollupService revenueRollupService;
 
     @Override
     public void run(String... args) {
         createAdminIfNotExists();
+        backfillActiveSeatKeys();
+        initRevenueRollups();
+    }
+
+    /**
+     * Dựng revenue rollup lần đầu (hoặc sau khi reset dữ liệu mẫu).
+     * Chạy sau SampleDataInitializer (@Order(2)) nên đã có booking mẫu.
+     */
+    private void initRevenueRollups() {
+        try {
+            revenueRollupService.rebuildIfEmpty();
+        } catch (Exception e) {
+            log.warn("Could not build revenue rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gán active_showtime_id cho các ghế đã đặt từ trước khi có ràng buộc
+     * unique (active_showtime_id, seat_id).
+     */
+    private void backfillActiveSeatKeys() {
+        try {
+            int updated = bookingSeatRepository.backfillActiveShowtimeIds();
+            if (updated > 0) {
+                log.info("Backfilled active_showtime_id for {} booking seats", updated);
+            }
+        } catch (Exception e) {
+            // Dữ liệu cũ có ghế bị đặt trùng -> không chặn khởi động, chỉ cảnh báo
+            log.warn("Could not backfill active_showtime_id: {}", e.getMessage());
+        }
     }
 
     private void createAdminIfNotExists() {
@@ -0,0 +1,57 @@
+package com.cinema.config;
+
+import com.cinema.model.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Đưa giá trị của table generator ({@link IdGenerators}) vượt qua ID lớn nhất đang có.
+ *
+ * <p>
+ * Các bảng booking_seats / booking_foods trước đây dùng AUTO_INCREMENT; khi chuyển
+ * sang table generator, block ID đầu tiên phải nằm sau dữ liệu cũ. Chạy trong
+ * {@code @PostConstruct} (sau khi Hibernate cập nhật schema, trước khi web server
+ * nhận request) và chỉ tăng, không bao giờ giảm giá trị hiện tại.
+ * </p>
+ */
+@Component
+@DependsOn("entityManagerFactory") // schema (kể cả bảng id_generators) phải được tạo trước
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorInitializer {
+
+    private static final List<String> TABLES = List.of(IdGenerators.BOOKING_SEATS, IdGenerators.BOOKING_FOODS);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // Pooled optimizer có thể cấp ID từ (giá trị - ALLOCATION_SIZE + 1) -> cộng thêm một block
+            long floor = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+
+            int updated = jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN
+                    + " = ? WHERE " + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                    floor, table, floor);
+            if (updated == 0) {
+                Integer exists = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + IdGenerators.TABLE
+                        + " WHERE " + IdGenerators.NAME_COLUMN + " = ?", Integer.class, table);
+                if (exists == null || exists == 0) {
+                    jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+                            + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", table, floor);
+                    updated = 1;
+                }
+            }
+            if (updated > 0) {
+                log.info("Id generator '{}' moved to {} (max id {})", table, floor, maxId);
+            }
+        }
+    }
+}
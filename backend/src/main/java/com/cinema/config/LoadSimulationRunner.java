@@ -0,0 +1,412 @@
+package com.cinema.config;
+
+import com.cinema.dto.request.BookingRequest;
+import com.cinema.dto.request.LoginRequest;
+import com.cinema.dto.request.PaymentRequest;
+import com.cinema.dto.response.BookingResponse;
+import com.cinema.dto.response.PaymentResponse;
+import com.cinema.dto.response.QueueTicketResponse;
+import com.cinema.dto.response.SeatResponse;
+import com.cinema.exception.QueueTokenRequiredException;
+import com.cinema.exception.SeatAlreadyBookedException;
+import com.cinema.model.Payment;
+import com.cinema.model.Showtime;
+import com.cinema.repository.ShowtimeRepository;
+import com.cinema.service.AuthService;
+import com.cinema.service.BookingService;
+import com.cinema.service.PaymentService;
+import com.cinema.service.SeatService;
+import com.cinema.service.ShowtimeService;
+import com.cinema.service.WaitingRoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Mô phỏng tải mở bán vé trên chính ứng dụng đang chạy (bật bằng
+ * {@code app.load-sim.enabled=true}, xem profile {@code loadsim}).
+ *
+ * <p>
+ * Chạy sau {@link SampleDataInitializer} và dùng lại dữ liệu của nó: mỗi
+ * "khách hàng" ảo đi qua login → danh sách suất chiếu → sơ đồ ghế → (phòng chờ) →
+ * {@code createBooking} → {@code createPayment} → {@code processPayment} trên một
+ * trong số ít suất chiếu "hot". Khách hàng chạy trên virtual thread nếu JVM hỗ
+ * trợ (Java 21+), ngược lại trên thread pool thường.
+ * </p>
+ *
+ * <p>
+ * Cuối cùng in ra throughput, phân vị độ trễ của từng bước, tỉ lệ conflict
+ * ({@link SeatAlreadyBookedException}) và số lần deadlock / lock timeout của DB.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(3)
+@ConditionalOnProperty(name = "app.load-sim.enabled", havingValue = "true")
+public class LoadSimulationRunner implements CommandLineRunner {
+
+    private static final String[] STEPS = { "login", "showtimes", "seatMap", "queueWait", "createBooking",
+            "createPayment", "processPayment" };
+
+    private final AuthService authService;
+    private final ShowtimeService showtimeService;
+    private final SeatService seatService;
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+    private final WaitingRoomService waitingRoomService;
+    private final ShowtimeRepository showtimeRepository;
+    private final ApplicationContext applicationContext;
+    private final MeterRegistry meterRegistry;
+
+    /** Số khách hàng ảo chạy đồng thời */
+    @Value("${app.load-sim.customers:200}")
+    private int customers;
+
+    /** Số lần mua vé của mỗi khách hàng */
+    @Value("${app.load-sim.iterations:1}")
+    private int iterations;
+
+    /** Số suất chiếu "hot" mà mọi khách hàng cùng tranh nhau */
+    @Value("${app.load-sim.hot-showtimes:1}")
+    private int hotShowtimes;
+
+    @Value("${app.load-sim.seats-per-booking:2}")
+    private int seatsPerBooking;
+
+    /** Số lần chọn lại ghế khi bị conflict trước khi bỏ cuộc */
+    @Value("${app.load-sim.max-attempts:3}")
+    private int maxAttempts;
+
+    /** Tài khoản khách hàng mẫu hiện có (app.sample-data.customers) */
+    @Value("${app.sample-data.customers:0}")
+    private int sampleCustomers;
+
+    @Value("${app.sample-data.customer-password:Customer123!}")
+    private String customerPassword;
+
+    @Value("${app.load-sim.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private final Map<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final AtomicLong purchases = new AtomicLong();
+    private final AtomicLong bookingAttempts = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong deadlocks = new AtomicLong();
+    private final AtomicLong lockTimeouts = new AtomicLong();
+    private final AtomicLong soldOut = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (sampleCustomers <= 0) {
+            log.error("Load simulation needs sample customers: set app.sample-data.customers > 0");
+            return;
+        }
+
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        List<Showtime> showtimes = showtimeRepository.findByShowDateBetweenWithDetails(tomorrow, tomorrow.plusDays(30))
+                .stream()
+                .filter(s -> s.getStatus() == Showtime.ShowtimeStatus.AVAILABLE)
+                .limit(Math.max(1, hotShowtimes))
+                .toList();
+        if (showtimes.isEmpty()) {
+            log.error("Load simulation needs future showtimes: set app.sample-data.showtime-days >= 2");
+            return;
+        }
+        for (String step : STEPS) {
+            latencies.put(step, new LatencyRecorder());
+        }
+
+        log.info("Load simulation: {} customers x {} purchases on {} showtime(s), {} seats each",
+                customers, iterations, showtimes.size(), seatsPerBooking);
+
+        long start = System.nanoTime();
+        ExecutorService executor = newCustomerExecutor();
+        for (int i = 0; i < customers; i++) {
+            String email = SampleDataInitializer.sampleCustomerEmail(i % sampleCustomers + 1);
+            executor.execute(() -> runCustomer(email, showtimes));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+            log.warn("Load simulation did not finish within 1 hour, reporting partial results");
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        report(elapsedNanos);
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    // ==================== CUSTOMER FLOW ====================
+
+    private void runCustomer(String email, List<Showtime> showtimes) {
+        try {
+            timed("login", () -> authService.login(LoginRequest.builder()
+                    .email(email)
+                    .password(customerPassword)
+                    .build()));
+
+            for (int i = 0; i < iterations; i++) {
+                Showtime showtime = showtimes.get(ThreadLocalRandom.current().nextInt(showtimes.size()));
+                timed("showtimes", () -> showtimeService.getShowtimesByTheaterAndDate(
+                        showtime.getRoom().getTheater().getId(), showtime.getShowDate()));
+                if (!purchase(showtime)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            recordError(e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * @return false nếu suất chiếu đã hết ghế trống
+     */
+    private boolean purchase(Showtime showtime) {
+        // Queue token dùng lại giữa các lần chọn lại ghế, như người dùng thật trong phòng chờ
+        AtomicReference<String> queueToken = new AtomicReference<>();
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            List<SeatResponse> seatMap = timed("seatMap",
+                    () -> seatService.getSeatsByShowtime(showtime.getRoom().getId(), showtime.getId()));
+            List<Long> seatIds = pickSeats(seatMap);
+            if (seatIds.isEmpty()) {
+                soldOut.incrementAndGet();
+                return false;
+            }
+
+            bookingAttempts.incrementAndGet();
+            try {
+                BookingResponse booking = book(BookingRequest.builder()
+                        .showtimeId(showtime.getId())
+                        .seatIds(seatIds)
+                        .build(), queueToken);
+                PaymentResponse payment = timed("createPayment", () -> paymentService.createPayment(
+                        PaymentRequest.builder()
+                                .bookingId(booking.getId())
+                                .paymentMethod(Payment.PaymentMethod.MOMO)
+                                .build()));
+                timed("processPayment", () -> paymentService.processPayment(payment.getId()));
+                purchases.incrementAndGet();
+                return true;
+            } catch (SeatAlreadyBookedException e) {
+                conflicts.incrementAndGet();
+            } catch (RuntimeException e) {
+                // Deadlock / lock timeout / lỗi khác: ghi nhận rồi thử lại với sơ đồ ghế mới
+                recordError(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Đặt vé qua phòng chờ như {@code BookingController}: bị yêu cầu xếp hàng thì vào hàng,
+     * poll tới lượt rồi đặt lại với queue token.
+     */
+    private BookingResponse book(BookingRequest request, AtomicReference<String> queueToken) {
+        while (true) {
+            String token = queueToken.get();
+            try {
+                return timed("createBooking", () -> {
+                    try (WaitingRoomService.Admission admission = waitingRoomService.enter(request.getShowtimeId(),
+                            token)) {
+                        BookingResponse booking = bookingService.createBooking(request);
+                        admission.succeeded();
+                        return booking;
+                    }
+                });
+            } catch (QueueTokenRequiredException e) {
+                if (token != null) {
+                    queueToken.set(null); // Token hết hạn: lần sau vào hàng lại
+                    throw e;
+                }
+                queued.incrementAndGet();
+                queueToken.set(timed("queueWait", () -> waitForAdmission(request.getShowtimeId())));
+            }
+        }
+    }
+
+    private String waitForAdmission(Long showtimeId) {
+        QueueTicketResponse ticket = waitingRoomService.join(showtimeId);
+        while (WaitingRoomService.TicketStatus.WAITING.name().equals(ticket.getStatus())) {
+            try {
+                Thread.sleep(ticket.getPollAfterMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting in queue", e);
+            }
+            ticket = waitingRoomService.status(ticket.getToken());
+        }
+        if (!WaitingRoomService.TicketStatus.ADMITTED.name().equals(ticket.getStatus())) {
+            throw new IllegalStateException("Queue ticket expired before admission");
+        }
+        return ticket.getToken();
+    }
+
+    /**
+     * Chọn {@code seatsPerBooking} ghế trống liền nhau trong danh sách từ một vị trí ngẫu nhiên.
+     */
+    private List<Long> pickSeats(List<SeatResponse> seatMap) {
+        List<Long> free = new ArrayList<>();
+        for (SeatResponse seat : seatMap) {
+            if (!Boolean.TRUE.equals(seat.getIsBooked()) && Boolean.TRUE.equals(seat.getActive())) {
+                free.add(seat.getId());
+            }
+        }
+        if (free.size() < seatsPerBooking) {
+            return List.of();
+        }
+        int from = ThreadLocalRandom.current().nextInt(free.size() - seatsPerBooking + 1);
+        return List.copyOf(free.subList(from, from + seatsPerBooking));
+    }
+
+    private <T> T timed(String step, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            latencies.get(step).record(System.nanoTime() - start);
+        }
+    }
+
+    private void recordError(Exception e) {
+        switch (classifyLockFailure(e)) {
+            case 1 -> deadlocks.incrementAndGet();
+            case 2 -> lockTimeouts.incrementAndGet();
+            default -> {
+                errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+                log.debug("Load simulation customer failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return 1 = deadlock, 2 = lock timeout, 0 = lỗi khác
+     */
+    private static int classifyLockFailure(Throwable e) {
+        boolean lockFailure = false;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PessimisticLockingFailureException || t instanceof QueryTimeoutException) {
+                lockFailure = true;
+            }
+            if (t instanceof SQLException sql) {
+                // MySQL: 1213 deadlock, 1205 lock wait timeout; H2: 40001 deadlock, 50200 lock timeout
+                int code = sql.getErrorCode();
+                if (code == 1213 || code == 40001 || "40001".equals(sql.getSQLState())) {
+                    return 1;
+                }
+                if (code == 1205 || code == 50200) {
+                    return 2;
+                }
+            }
+        }
+        return lockFailure ? 2 : 0;
+    }
+
+    // ==================== REPORT ====================
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long attempts = bookingAttempts.get();
+
+        StringBuilder report = new StringBuilder("\n===== LOAD SIMULATION REPORT =====\n");
+        report.append(String.format("Duration: %.2f s | Customers: %d | Purchases: %d (%.1f/s)%n",
+                seconds, customers, purchases.get(), purchases.get() / seconds));
+        report.append(String.format("Booking attempts: %d | Conflicts: %d (%.2f%%) | Sold out: %d%n",
+                attempts, conflicts.get(), attempts > 0 ? 100.0 * conflicts.get() / attempts : 0.0, soldOut.get()));
+        report.append(String.format("Queued (waiting room): %d%n", queued.get()));
+        report.append(String.format("Deadlocks: %d | Lock timeouts: %d | Other errors: %s%n",
+                deadlocks.get(), lockTimeouts.get(), new TreeMap<>(errors)));
+        report.append(String.format("%-15s %8s %10s %9s %9s %9s %9s%n",
+                "step", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (String step : STEPS) {
+            long[] sorted = latencies.get(step).sorted();
+            report.append(String.format("%-15s %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    step, sorted.length, sorted.length / seconds,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.90), percentileMs(sorted, 0.99),
+                    percentileMs(sorted, 1.0)));
+        }
+        // Khoảng ghi booking + booking_seats/booking_foods: khóa unique của ghế bị giữ từ đây đến commit
+        Timer write = meterRegistry.find("cinema.booking.write").timer();
+        if (write != null) {
+            report.append(String.format("%-15s %8d %10s %9.2f %9s %9s %9.2f (mean / max)%n",
+                    "bookingWrite", write.count(), "", write.mean(TimeUnit.MILLISECONDS), "", "",
+                    write.max(TimeUnit.MILLISECONDS)));
+        }
+        log.info(report.toString());
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Virtual thread per task nếu chạy trên Java 21+, ngược lại thread pool cố định.
+     */
+    private ExecutorService newCustomerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads not available, using {} platform threads", customers);
+            return Executors.newFixedThreadPool(customers);
+        }
+    }
+
+    /**
+     * Ghi nhận độ trễ (nano giây) của một bước.
+     */
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
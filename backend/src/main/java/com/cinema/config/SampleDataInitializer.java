@@ -2,6 +2,7 @@ package com.cinema.config;
 
 import com.cinema.model.*;
 import com.cinema.repository.*;
+import com.cinema.service.CodeGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -47,11 +48,30 @@ public class SampleDataInitializer implements CommandLineRunner {
         private final PriceHeaderRepository priceHeaderRepository;
         private final PriceLineRepository priceLineRepository;
         private final SurchargeRepository surchargeRepository;
+        private final RevenueDailyRollupRepository revenueDailyRollupRepository;
+        private final RevenueMovieRollupRepository revenueMovieRollupRepository;
+        private final CodeGenerator codeGenerator;
         private final ObjectMapper objectMapper;
+        private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
 
         @org.springframework.beans.factory.annotation.Value("${app.db.reset-data:false}")
         private boolean resetData;
 
+        // Thu nhỏ dữ liệu mẫu (benchmark / load simulation trên H2)
+        @org.springframework.beans.factory.annotation.Value("${app.sample-data.showtime-days:14}")
+        private int showtimeDays;
+
+        /** Số phòng tối đa được xếp lịch chiếu (0 = tất cả) */
+        @org.springframework.beans.factory.annotation.Value("${app.sample-data.max-rooms:0}")
+        private int maxRooms;
+
+        /** Số tài khoản khách hàng mẫu customerN@cinema.local (mật khẩu chung) */
+        @org.springframework.beans.factory.annotation.Value("${app.sample-data.customers:0}")
+        private int sampleCustomers;
+
+        @org.springframework.beans.factory.annotation.Value("${app.sample-data.customer-password:Customer123!}")
+        private String sampleCustomerPassword;
+
         @Override
         public void run(String... args) {
                 if (resetData) {
@@ -64,6 +84,8 @@ public class SampleDataInitializer implements CommandLineRunner {
                         bookingSeatRepository.deleteAll();
                         bookingFoodRepository.deleteAll();
                         bookingRepository.deleteAll();
+                        revenueDailyRollupRepository.deleteAll();
+                        revenueMovieRollupRepository.deleteAll();
 
                         showtimeRepository.deleteAll();
                         seatRepository.deleteAll();
@@ -132,12 +154,44 @@ public class SampleDataInitializer implements CommandLineRunner {
                         initPromotions();
                 }
 
+                // Init sample customers
+                if (sampleCustomers > 0 && !userRepository.existsByEmail(sampleCustomerEmail(1))) {
+                        initSampleCustomers();
+                }
+
                 // Init sample bookings
                 if (bookingRepository.count() == 0) {
                         initSampleBookings();
                 }
         }
 
+        /**
+         * Email của khách hàng mẫu thứ {@code index} (bắt đầu từ 1).
+         */
+        public static String sampleCustomerEmail(int index) {
+                return "customer" + index + "@cinema.local";
+        }
+
+        private void initSampleCustomers() {
+                log.info("Initializing {} sample customers...", sampleCustomers);
+                // BCrypt chậm -> mã hóa một lần, dùng chung cho mọi tài khoản mẫu
+                String encodedPassword = passwordEncoder.encode(sampleCustomerPassword);
+
+                List<User> customers = new ArrayList<>();
+                for (int i = 1; i <= sampleCustomers; i++) {
+                        customers.add(User.builder()
+                                        .email(sampleCustomerEmail(i))
+                                        .password(encodedPassword)
+                                        .fullName("Khách hàng " + i)
+                                        .phone(String.format("09%08d", i))
+                                        .role(User.Role.USER)
+                                        .active(true)
+                                        .build());
+                }
+                userRepository.saveAll(customers);
+                log.info("Created {} sample customers", customers.size());
+        }
+
         private void initRoomsAndSeats() {
                 log.info("Initializing rooms and seats for existing theaters...");
                 List<Theater> theaters = theaterRepository.findAll();
@@ -1047,6 +1101,9 @@ public class SampleDataInitializer implements CommandLineRunner {
                 }
 
                 List<Room> rooms = roomRepository.findAll();
+                if (maxRooms > 0 && rooms.size() > maxRooms) {
+                        rooms = rooms.subList(0, maxRooms);
+                }
 
                 if (nowShowingMovies.isEmpty()) {
                         log.warn("No movies found, skipping showtime initialization");
@@ -1072,8 +1129,8 @@ public class SampleDataInitializer implements CommandLineRunner {
                 LocalTime dayStartTime = LocalTime.of(9, 0); // Giờ mở cửa đầu ngày
                 LocalTime lastShowCutoff = LocalTime.of(22, 30); // Không chiếu phim sau giờ này
 
-                // Tạo lịch chiếu cho 14 ngày
-                for (int day = 0; day < 14; day++) {
+                // Tạo lịch chiếu cho 14 ngày (app.sample-data.showtime-days)
+                for (int day = 0; day < showtimeDays; day++) {
                         LocalDate showDate = today.plusDays(day);
                         boolean isWeekend = showDate.getDayOfWeek().getValue() >= 5; // Fri(5), Sat(6), Sun(7)
 
@@ -1130,7 +1187,8 @@ public class SampleDataInitializer implements CommandLineRunner {
                 }
 
                 showtimeRepository.saveAll(showtimes);
-                log.info("Created {} showtimes for 14 days across {} rooms", showtimes.size(), rooms.size());
+                log.info("Created {} showtimes for {} days across {} rooms", showtimes.size(), showtimeDays,
+                                rooms.size());
         }
 
         private LocalTime roundToNext15Minutes(LocalTime time) {
@@ -2412,7 +2470,7 @@ public class SampleDataInitializer implements CommandLineRunner {
                         Booking booking = Booking.builder()
                                         .user(user)
                                         .showtime(showtime)
-                                        .bookingCode("BK" + System.currentTimeMillis() + i)
+                                        .bookingCode(codeGenerator.nextBookingCode())
                                         .numberOfSeats(seatsToBook)
                                         .seatAmount(new BigDecimal(totalAmount)) // Fix: convert double to BigDecimal
                                         .foodAmount(BigDecimal.ZERO)
@@ -2444,7 +2502,7 @@ public class SampleDataInitializer implements CommandLineRunner {
                                         .paymentMethod(Payment.PaymentMethod.values()[random
                                                         .nextInt(Payment.PaymentMethod.values().length)])
                                         .status(paymentStatus)
-                                        .transactionId("TXN" + System.currentTimeMillis() + i)
+                                        .transactionId(codeGenerator.nextTransactionId())
                                         .createdAt(booking.getCreatedAt())
                                         .build();
 
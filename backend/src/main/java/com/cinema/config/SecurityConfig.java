@@ -3,6 +3,7 @@ package com.cinema.config;
 import com.cinema.security.JwtAuthenticationEntryPoint;
 import com.cinema.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -16,6 +17,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -25,6 +28,10 @@ public class SecurityConfig {
     
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    /** Cổng riêng của actuator (-1 = dùng chung cổng ứng dụng) */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
     
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -47,8 +54,13 @@ public class SecurityConfig {
                 // Public endpoints
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/health").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                // Prometheus scrape không cần đăng nhập chỉ khi đi qua cổng management nội bộ
+                .requestMatchers(prometheusOnManagementPort()).permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/movies/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/suggest").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/theaters/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/cinemas/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/cities/**").permitAll()
@@ -72,4 +84,9 @@ public class SecurityConfig {
         
         return http.build();
     }
+
+    private RequestMatcher prometheusOnManagementPort() {
+        RequestMatcher path = new AntPathRequestMatcher("/actuator/prometheus");
+        return request -> managementPort > 0 && request.getLocalPort() == managementPort && path.matches(request);
+    }
 }
@@ -1,8 +1,10 @@
 package com.cinema.config;
 
+import com.cinema.service.TokenBucketRateLimiter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -17,9 +19,39 @@ public class TmdbConfig {
     @Value("${tmdb.api.image-base-url}")
     private String imageBaseUrl;
 
+    @Value("${tmdb.api.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${tmdb.api.read-timeout-ms:15000}")
+    private int readTimeoutMs;
+
+    /** Số request TMDB tối đa mỗi giây (TMDB giới hạn khoảng 50 req/s) */
+    @Value("${tmdb.api.rate-limit-per-second:40}")
+    private double rateLimitPerSecond;
+
+    /** Số request được phép dồn ngay lập tức khi bucket đầy */
+    @Value("${tmdb.api.rate-limit-burst:10}")
+    private int rateLimitBurst;
+
+    /** Số luồng gọi TMDB song song khi sync */
+    @Value("${tmdb.sync.concurrency:8}")
+    private int syncConcurrency;
+
+    /** Số phim ghi xuống DB mỗi transaction khi sync */
+    @Value("${tmdb.sync.batch-size:50}")
+    private int syncBatchSize;
+
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    public TokenBucketRateLimiter tmdbRateLimiter() {
+        return new TokenBucketRateLimiter(rateLimitPerSecond, rateLimitBurst);
     }
 
     public String getApiUrl() {
@@ -33,4 +65,12 @@ public class TmdbConfig {
     public String getImageBaseUrl() {
         return imageBaseUrl;
     }
+
+    public int getSyncConcurrency() {
+        return Math.max(1, syncConcurrency);
+    }
+
+    public int getSyncBatchSize() {
+        return Math.max(1, syncBatchSize);
+    }
 }
@@ -1,17 +1,22 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
+import com.cinema.dto.response.AdminBookingStatsResponse;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.BookingResponse;
+import com.cinema.dto.response.CursorPageResponse;
 import com.cinema.service.BookingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
+@Auditable(entity = "Booking")
 @RequestMapping("/api/admin/bookings")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
@@ -19,12 +24,40 @@ public class AdminBookingController {
 
     private final BookingService bookingService;
 
+    /**
+     * Danh sách booking phân trang theo keyset: truyền {@code nextCursor} của trang trước vào {@code cursor}.
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<BookingResponse>>> getBookings() {
-        List<BookingResponse> bookings = bookingService.getAllBookings();
+    public ResponseEntity<ApiResponse<CursorPageResponse<BookingResponse>>> getBookings(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long theaterId,
+            @RequestParam(required = false) Long movieId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        CursorPageResponse<BookingResponse> bookings = bookingService.getAdminBookings(
+                status, paymentStatus, from, to, theaterId, movieId, cursor, size);
         return ResponseEntity.ok(ApiResponse.success(bookings));
     }
 
+    /**
+     * Thống kê (tổng đơn, chờ xử lý, hoàn thành, doanh thu) theo cùng bộ lọc với danh sách.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<AdminBookingStatsResponse>> getBookingStats(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long theaterId,
+            @RequestParam(required = false) Long movieId) {
+        AdminBookingStatsResponse stats = bookingService.getAdminBookingStats(
+                status, paymentStatus, from, to, theaterId, movieId);
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<BookingResponse>> getBookingById(@PathVariable Long id) {
         BookingResponse booking = bookingService.getBookingById(id);
@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.request.FoodRequest;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.FoodResponse;
@@ -12,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@Auditable(entity = "Food")
 @RequestMapping("/api/admin/foods")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
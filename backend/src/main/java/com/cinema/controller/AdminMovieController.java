@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.MovieResponse;
 import com.cinema.dto.response.PageResponse;
@@ -14,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@Auditable(entity = "Movie")
 @RequestMapping("/api/admin/movies")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
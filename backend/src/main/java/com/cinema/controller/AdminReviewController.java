@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.ReviewResponse;
 import com.cinema.service.ReviewService;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@Auditable(entity = "Review")
 @RequestMapping("/api/admin/reviews")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
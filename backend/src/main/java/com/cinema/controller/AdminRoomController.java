@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.RoomDTO;
 import com.cinema.dto.request.RoomRequest;
 import com.cinema.dto.response.ApiResponse;
@@ -11,6 +12,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@Auditable(entity = "Room")
 @RequestMapping("/api/admin/rooms")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.PageResponse;
 import com.cinema.dto.response.ShowtimeResponse;
@@ -15,6 +16,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@Auditable(entity = "Showtime")
 @RequestMapping("/api/admin/showtimes")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.DashboardStatsResponse;
 import com.cinema.model.AuditLog;
@@ -8,6 +9,7 @@ import com.cinema.repository.BookingRepository;
 import com.cinema.repository.MovieRepository;
 import com.cinema.repository.TheaterRepository;
 import com.cinema.repository.UserRepository;
+import com.cinema.service.RevenueRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,11 +18,13 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 @RestController
+@Auditable(entity = "RevenueRollup")
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
@@ -31,6 +35,7 @@ public class AdminStatsController {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final AuditLogRepository auditLogRepository;
+    private final RevenueRollupService revenueRollupService;
 
     @GetMapping("/dashboard-stats")
     public ResponseEntity<ApiResponse<DashboardStatsResponse>> getDashboardStats() {
@@ -38,22 +43,20 @@ public class AdminStatsController {
         long totalTheaters = theaterRepository.count();
         long totalUsers = userRepository.count();
 
-        // Overall booking stats
-        Map<String, Object> overall = bookingRepository.getOverallStats();
+        // Overall booking stats (from daily revenue rollups)
+        Map<String, Object> overall = revenueRollupService.getOverallStats();
         long totalBookings = overall.get("totalBookings") != null ? ((Number) overall.get("totalBookings")).longValue()
                 : 0;
         BigDecimal totalRevenue = overall.get("totalRevenue") != null
-                ? (BigDecimal) overall.get("totalRevenue")
+                ? new BigDecimal(overall.get("totalRevenue").toString())
                 : BigDecimal.ZERO;
 
         // Today's stats
-        LocalDateTime todayStart = java.time.LocalDate.now().atStartOfDay();
+        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
         LocalDateTime todayEnd = todayStart.plusDays(1).minusNanos(1);
 
         long todayBookings = bookingRepository.countByCreatedAtBetween(todayStart, todayEnd);
-        BigDecimal todayRevenue = bookingRepository.sumRevenueBetween(todayStart, todayEnd);
-        if (todayRevenue == null)
-            todayRevenue = BigDecimal.ZERO;
+        BigDecimal todayRevenue = revenueRollupService.getRevenueOn(LocalDate.now());
 
         DashboardStatsResponse stats = DashboardStatsResponse.builder()
                 .totalMovies(totalMovies)
@@ -71,22 +74,37 @@ public class AdminStatsController {
     // =================== ANALYTICS ===================
     @GetMapping("/analytics/overall")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getOverallStats() {
-        return ResponseEntity.ok(ApiResponse.success(bookingRepository.getOverallStats()));
+        return ResponseEntity.ok(ApiResponse.success(revenueRollupService.getOverallStats()));
     }
 
     @GetMapping("/analytics/movies")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getRevenueByMovie(
             @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(ApiResponse.success(
-                bookingRepository.getRevenueByMovie(PageRequest.of(0, limit))));
+        return ResponseEntity.ok(ApiResponse.success(revenueRollupService.getRevenueByMovie(limit)));
     }
 
     @GetMapping("/analytics/revenue")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getRevenueByDate(
             @RequestParam(defaultValue = "30") int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        return ResponseEntity.ok(ApiResponse.success(
-                bookingRepository.getRevenueByDate(startDate)));
+        LocalDate startDate = LocalDate.now().minusDays(days);
+        return ResponseEntity.ok(ApiResponse.success(revenueRollupService.getRevenueByDate(startDate)));
+    }
+
+    /**
+     * Dựng lại revenue rollup từ bảng bookings (sau khi sửa dữ liệu trực tiếp trong DB)
+     */
+    @PostMapping("/analytics/rollups/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildRevenueRollups() {
+        int rows = revenueRollupService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Đã dựng lại revenue rollup", Map.of("rows", rows)));
+    }
+
+    /**
+     * Đối chiếu revenue rollup với tổng hợp trực tiếp từ bảng bookings
+     */
+    @GetMapping("/analytics/rollups/reconcile")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> reconcileRevenueRollups() {
+        return ResponseEntity.ok(ApiResponse.success(revenueRollupService.reconcile()));
     }
 
     // =================== AUDIT LOGS ===================
@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.TheaterResponse;
 import com.cinema.service.TheaterService;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@Auditable(entity = "Theater")
 @RequestMapping("/api/admin/theaters")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
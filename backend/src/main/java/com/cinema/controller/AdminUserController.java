@@ -1,10 +1,12 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.request.CreateUserRequest;
 import com.cinema.dto.request.UpdateUserRequest;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.UserResponse;
 import com.cinema.model.User;
+import com.cinema.security.UserPrincipalCache;
 import com.cinema.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,18 +19,25 @@ import java.util.List;
 import java.util.Map;
 
 @RestController
+@Auditable(entity = "User")
 @RequestMapping("/api/admin/users")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminUserController {
 
     private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<UserResponse>>> getUsers() {
         return ResponseEntity.ok(ApiResponse.success(userService.getAllUsers()));
     }
 
+    @GetMapping("/principal-cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPrincipalCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(userPrincipalCache.getStats()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<UserResponse>> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(userService.getUserById(id)));
@@ -1,9 +1,12 @@
 package com.cinema.controller;
 
+import com.cinema.dto.request.BestAvailableBookingRequest;
 import com.cinema.dto.request.BookingRequest;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.BookingResponse;
 import com.cinema.service.BookingService;
+import com.cinema.service.IdempotencyService;
+import com.cinema.service.WaitingRoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,12 +15,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * REST Controller xử lý các API liên quan đến đặt vé xem phim.
  * 
  * Các endpoint:
  * - POST /api/bookings: Tạo đặt vé mới
+ * - POST /api/bookings/best-available: Tạo đặt vé với ghế do hệ thống tự chọn
  * - GET /api/bookings/my-bookings: Lấy danh sách đặt vé của user
  * - GET /api/bookings/{id}: Lấy thông tin đặt vé theo ID
  * - GET /api/bookings/code/{code}: Lấy thông tin đặt vé theo mã
@@ -34,22 +39,85 @@ public class BookingController {
 
     private final BookingService bookingService;
     private final com.cinema.service.PricingService pricingService;
+    private final IdempotencyService idempotencyService;
+    private final WaitingRoomService waitingRoomService;
 
     /**
      * Tạo đặt vé mới.
      * 
-     * @param request Thông tin đặt vé (suất chiếu, ghế, đồ ăn...)
+     * <p>
+     * Client retry khi timeout nên gửi kèm header {@code Idempotency-Key}: request lặp
+     * lại nhận đúng booking đã tạo thay vì giữ ghế lần nữa.
+     * </p>
+     * 
+     * <p>
+     * Khi suất chiếu đang mở phòng chờ, request phải mang queue token đã được cho vào
+     * (header {@code X-Queue-Token}), nếu không sẽ nhận 429.
+     * </p>
+     * 
+     * @param request        Thông tin đặt vé (suất chiếu, ghế, đồ ăn...)
+     * @param idempotencyKey Khóa chống lặp (tùy chọn)
+     * @param queueToken     Queue token của phòng chờ (tùy chọn)
      * @return BookingResponse với thông tin đặt vé đã tạo
      */
     @PostMapping
     public ResponseEntity<ApiResponse<BookingResponse>> createBooking(
-            @Valid @RequestBody BookingRequest request) {
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String queueToken) {
         log.info("API: Tạo booking mới cho suất chiếu {}", request.getShowtimeId());
 
-        BookingResponse booking = bookingService.createBooking(request);
+        // Replay theo Idempotency-Key không cần qua phòng chờ
+        IdempotencyService.Result<BookingResponse> result = idempotencyKey == null
+                ? new IdempotencyService.Result<>(admitAndCreate(request, queueToken), false)
+                : idempotencyService.execute("booking.create", idempotencyKey, request, BookingResponse.class,
+                        () -> admitAndCreate(request, queueToken));
 
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Đặt vé thành công! Vui lòng thanh toán trong 15 phút.", booking));
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(ApiResponse.success("Đặt vé thành công! Vui lòng thanh toán trong 15 phút.", result.value()));
+    }
+
+    /**
+     * Tạo đặt vé với N ghế liền nhau tốt nhất (gần tâm phòng, không để lại ghế lẻ).
+     * Idempotency-Key và phòng chờ áp dụng giống {@link #createBooking}.
+     * 
+     * @param request        Suất chiếu, số ghế, loại ghế (tùy chọn), đồ ăn...
+     * @param idempotencyKey Khóa chống lặp (tùy chọn)
+     * @param queueToken     Queue token của phòng chờ (tùy chọn)
+     * @return BookingResponse với các ghế đã được chọn
+     */
+    @PostMapping("/best-available")
+    public ResponseEntity<ApiResponse<BookingResponse>> createBestAvailableBooking(
+            @Valid @RequestBody BestAvailableBookingRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String queueToken) {
+        log.info("API: Tạo booking {} ghế tự chọn cho suất chiếu {}", request.getQuantity(),
+                request.getShowtimeId());
+
+        Supplier<BookingResponse> action = () -> admitAndCreate(request.getShowtimeId(), queueToken,
+                () -> bookingService.createBestAvailableBooking(request));
+        IdempotencyService.Result<BookingResponse> result = idempotencyKey == null
+                ? new IdempotencyService.Result<>(action.get(), false)
+                : idempotencyService.execute("booking.best-available", idempotencyKey, request,
+                        BookingResponse.class, action);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(ApiResponse.success("Đặt vé thành công! Vui lòng thanh toán trong 15 phút.", result.value()));
+    }
+
+    private BookingResponse admitAndCreate(BookingRequest request, String queueToken) {
+        return admitAndCreate(request.getShowtimeId(), queueToken, () -> bookingService.createBooking(request));
+    }
+
+    private BookingResponse admitAndCreate(Long showtimeId, String queueToken, Supplier<BookingResponse> create) {
+        // Qua cổng trước khi vào transaction: request bị từ chối không giữ connection DB
+        try (WaitingRoomService.Admission admission = waitingRoomService.enter(showtimeId, queueToken)) {
+            BookingResponse booking = create.get();
+            admission.succeeded();
+            return booking;
+        }
     }
 
     /**
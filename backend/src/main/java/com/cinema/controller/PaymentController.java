@@ -3,6 +3,7 @@ package com.cinema.controller;
 import com.cinema.dto.request.PaymentRequest;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.PaymentResponse;
+import com.cinema.service.IdempotencyService;
 import com.cinema.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -16,12 +17,18 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
     
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
     
     @PostMapping
-    public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(@Valid @RequestBody PaymentRequest request) {
-        PaymentResponse payment = paymentService.createPayment(request);
+    public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(@Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        IdempotencyService.Result<PaymentResponse> result = idempotencyKey == null
+                ? new IdempotencyService.Result<>(paymentService.createPayment(request), false)
+                : idempotencyService.execute("payment.create", idempotencyKey, request, PaymentResponse.class,
+                        () -> paymentService.createPayment(request));
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Payment created successfully", payment));
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(ApiResponse.success("Payment created successfully", result.value()));
     }
     
     @PostMapping("/{id}/process")
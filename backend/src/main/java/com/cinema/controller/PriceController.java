@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.model.PriceHeader;
 import com.cinema.model.PriceLine;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@Auditable(entity = "Pricing")
 @RequestMapping("/api/admin/pricing")
 // /api/v1/admin
 @RequiredArgsConstructor
@@ -22,6 +24,8 @@ public class PriceController {
     private final PriceHeaderRepository priceHeaderRepository;
     private final PriceLineRepository priceLineRepository;
     private final SurchargeRepository surchargeRepository;
+    private final com.cinema.service.RateCardService rateCardService;
+    private final com.cinema.service.SeatLayoutCache seatLayoutCache;
 
     // ================== Price Headers (Rate Cards) ==================
     @GetMapping("/headers")
@@ -39,7 +43,9 @@ public class PriceController {
         header.setPriority(request.getPriority());
         header.setActive(request.getActive());
 
-        return ResponseEntity.ok(ApiResponse.success(priceHeaderRepository.save(header)));
+        PriceHeader saved = priceHeaderRepository.save(header);
+        rateCardService.refresh();
+        return ResponseEntity.ok(ApiResponse.success(saved));
     }
 
     @DeleteMapping("/headers/{id}")
@@ -48,6 +54,7 @@ public class PriceController {
             throw new com.cinema.exception.ResourceNotFoundException("PriceHeader", "id", id);
         }
         priceHeaderRepository.deleteById(id);
+        rateCardService.refresh();
         return ResponseEntity.ok(ApiResponse.success(null));
     }
 
@@ -84,7 +91,9 @@ public class PriceController {
         priceLine.setRoomType(request.getRoomType());
         priceLine.setPrice(request.getPrice());
 
-        return ResponseEntity.ok(ApiResponse.success(priceLineRepository.save(priceLine)));
+        PriceLine saved = priceLineRepository.save(priceLine);
+        rateCardService.refresh();
+        return ResponseEntity.ok(ApiResponse.success(saved));
     }
 
     @PostMapping("/headers/{headerId}/lines/batch")
@@ -116,12 +125,15 @@ public class PriceController {
             updatedLines.add(priceLine);
         }
 
-        return ResponseEntity.ok(ApiResponse.success(priceLineRepository.saveAll(updatedLines)));
+        List<PriceLine> saved = priceLineRepository.saveAll(updatedLines);
+        rateCardService.refresh();
+        return ResponseEntity.ok(ApiResponse.success(saved));
     }
 
     @DeleteMapping("/lines/{lineId}")
     public ResponseEntity<ApiResponse<Void>> deletePriceLine(@PathVariable Long lineId) {
         priceLineRepository.deleteById(lineId);
+        rateCardService.refresh();
         return ResponseEntity.ok(ApiResponse.success(null));
     }
 
@@ -144,7 +156,9 @@ public class PriceController {
         surcharge.setCode(request.getCode());
         surcharge.setActive(request.getActive());
 
-        return ResponseEntity.ok(ApiResponse.success(surchargeRepository.save(surcharge)));
+        Surcharge saved = surchargeRepository.save(surcharge);
+        rateCardService.refresh();
+        return ResponseEntity.ok(ApiResponse.success(saved));
     }
 
     @PutMapping("/seat-types/{id}")
@@ -167,7 +181,10 @@ public class PriceController {
         surcharge.setCode(request.getCode());
         surcharge.setActive(request.getActive());
 
-        return ResponseEntity.ok(ApiResponse.success(surchargeRepository.save(surcharge)));
+        Surcharge saved = surchargeRepository.save(surcharge);
+        rateCardService.refresh();
+        seatLayoutCache.invalidateAll();
+        return ResponseEntity.ok(ApiResponse.success(saved));
     }
 
     @DeleteMapping("/seat-types/{id}")
@@ -180,6 +197,8 @@ public class PriceController {
         }
 
         surchargeRepository.deleteById(id);
+        rateCardService.refresh();
+        seatLayoutCache.invalidateAll();
         return ResponseEntity.ok(ApiResponse.success(null));
     }
 }
@@ -1,7 +1,10 @@
 package com.cinema.controller;
 
-import com.cinema.repository.BookingRepository;
+import com.cinema.exception.BadRequestException;
+import com.cinema.service.ReportExportService;
+import com.cinema.service.ReportExportService.ReportType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -10,41 +13,78 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
 
+/**
+ * Xuất báo cáo CSV cho admin.
+ *
+ * <p>
+ * Khoảng ngày: truyền {@code from}/{@code to} (yyyy-MM-dd), hoặc {@code days}
+ * tính ngược từ hôm nay. {@code gzip=true} trả về file .csv.gz.
+ * </p>
+ */
 @RestController
 @RequestMapping("/api/admin/reports")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
 public class ReportController {
 
-    private final BookingRepository bookingRepository;
+    private final ReportExportService reportExportService;
 
     @GetMapping("/revenue")
-    public ResponseEntity<byte[]> exportRevenueReport(@RequestParam(defaultValue = "30") int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        List<Map<String, Object>> revenueData = bookingRepository.getRevenueByDate(startDate);
+    public ResponseEntity<StreamingResponseBody> exportRevenueReport(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export(ReportType.REVENUE, days, from, to, gzip);
+    }
+
+    @GetMapping("/booking-ledger")
+    public ResponseEntity<StreamingResponseBody> exportBookingLedger(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export(ReportType.BOOKING_LEDGER, days, from, to, gzip);
+    }
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("Date,Revenue\n");
+    @GetMapping("/theater-occupancy")
+    public ResponseEntity<StreamingResponseBody> exportTheaterOccupancy(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export(ReportType.THEATER_OCCUPANCY, days, from, to, gzip);
+    }
+
+    @GetMapping("/movie-revenue")
+    public ResponseEntity<StreamingResponseBody> exportMovieRevenue(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export(ReportType.MOVIE_REVENUE, days, from, to, gzip);
+    }
 
-        for (Map<String, Object> record : revenueData) {
-            String date = record.get("date") != null ? record.get("date").toString() : "";
-            String revenue = record.get("revenue") != null ? record.get("revenue").toString() : "0";
-            csv.append(date).append(",").append(revenue).append("\n");
+    private ResponseEntity<StreamingResponseBody> export(ReportType type, int days,
+            LocalDate from, LocalDate to, boolean gzip) {
+        LocalDate endDate = to != null ? to : LocalDate.now();
+        LocalDate startDate = from != null ? from : endDate.minusDays(days);
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("'from' must not be after 'to'");
         }
 
-        String filename = "revenue_report_" + LocalDate.now() + ".csv";
-        byte[] content = csv.toString().getBytes(StandardCharsets.UTF_8);
+        String filename = type.getFilePrefix() + "_" + startDate + "_" + endDate + (gzip ? ".csv.gz" : ".csv");
+        StreamingResponseBody body = out -> reportExportService.export(type, startDate, endDate, out, gzip);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(content);
+                .contentType(gzip
+                        ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
     }
 }
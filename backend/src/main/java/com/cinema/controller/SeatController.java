@@ -1,11 +1,21 @@
 package com.cinema.controller;
 
 import com.cinema.dto.response.ApiResponse;
+import com.cinema.dto.response.SeatMapPriceResponse;
+import com.cinema.dto.response.SeatMapResponse;
 import com.cinema.dto.response.SeatResponse;
+import com.cinema.exception.BadRequestException;
+import com.cinema.model.PriceLine;
+import com.cinema.security.CurrentUser;
+import com.cinema.security.UserPrincipal;
+import com.cinema.service.BestSeatSelector;
+import com.cinema.service.PricingService;
 import com.cinema.service.SeatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,6 +25,7 @@ import java.util.List;
 public class SeatController {
     
     private final SeatService seatService;
+    private final PricingService pricingService;
     
     @GetMapping("/room/{roomId}")
     public ResponseEntity<ApiResponse<List<SeatResponse>>> getSeatsByRoom(@PathVariable Long roomId) {
@@ -29,4 +40,51 @@ public class SeatController {
         List<SeatResponse> seats = seatService.getSeatsByShowtime(roomId, showtimeId);
         return ResponseEntity.ok(ApiResponse.success(seats));
     }
+
+    /**
+     * Sơ đồ ghế có version; gửi sinceVersion để chỉ nhận các ghế thay đổi
+     */
+    @GetMapping("/showtime/{showtimeId}/map")
+    public ResponseEntity<ApiResponse<SeatMapResponse>> getSeatMap(
+            @PathVariable Long showtimeId,
+            @RequestParam(required = false) Long sinceVersion) {
+        SeatMapResponse seatMap = seatService.getSeatMap(showtimeId, sinceVersion);
+        return ResponseEntity.ok(ApiResponse.success(seatMap));
+    }
+
+    /**
+     * Gợi ý N ghế liền nhau tốt nhất còn trống (không giữ chỗ)
+     */
+    @GetMapping("/showtime/{showtimeId}/best-available")
+    public ResponseEntity<ApiResponse<List<SeatResponse>>> getBestAvailableSeats(
+            @PathVariable Long showtimeId,
+            @RequestParam int quantity,
+            @RequestParam(required = false) String seatType) {
+        if (quantity < 1 || quantity > BestSeatSelector.MAX_QUANTITY) {
+            throw new BadRequestException("Số ghế phải từ 1 đến " + BestSeatSelector.MAX_QUANTITY);
+        }
+        List<SeatResponse> seats = seatService.suggestBestSeats(showtimeId, quantity, seatType);
+        return ResponseEntity.ok(ApiResponse.success(seats));
+    }
+
+    /**
+     * Kênh SSE: sự kiện "version" khi kết nối, sau đó "seats" (HELD / RELEASED / SOLD)
+     */
+    @GetMapping(value = "/showtime/{showtimeId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatEvents(@PathVariable Long showtimeId) {
+        return seatService.subscribeSeatEvents(showtimeId);
+    }
+
+    /**
+     * Báo giá toàn bộ sơ đồ ghế của suất chiếu, nhóm theo loại ghế
+     */
+    @GetMapping("/showtime/{showtimeId}/prices")
+    public ResponseEntity<ApiResponse<SeatMapPriceResponse>> getSeatMapPrices(
+            @PathVariable Long showtimeId,
+            @RequestParam(required = false) PriceLine.CustomerType customerType,
+            @CurrentUser UserPrincipal currentUser) {
+        SeatMapPriceResponse prices = pricingService.quoteSeatMap(showtimeId, customerType,
+                currentUser != null ? currentUser.getId() : null);
+        return ResponseEntity.ok(ApiResponse.success(prices));
+    }
 }
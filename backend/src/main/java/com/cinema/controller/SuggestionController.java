@@ -0,0 +1,29 @@
+package com.cinema.controller;
+
+import com.cinema.dto.response.ApiResponse;
+import com.cinema.dto.response.SuggestionResponse;
+import com.cinema.service.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/suggest")
+@RequiredArgsConstructor
+public class SuggestionController {
+
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Gợi ý phim / rạp / thành phố theo tiền tố khi người dùng đang gõ (không truy vấn DB).
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<SuggestionResponse>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(suggestionIndex.suggest(query, limit)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.tmdb.TmdbMovieDto;
 import com.cinema.dto.tmdb.TmdbMovieListResponse;
@@ -15,6 +16,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@Auditable(entity = "Movie")
 @RequestMapping("/api/admin/tmdb")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
@@ -117,6 +119,14 @@ public class TmdbController {
         return ResponseEntity.ok(ApiResponse.success("Đồng bộ phim từ TMDB hoàn tất", result));
     }
 
+    /**
+     * Tiến độ của lần sync gần nhất (dùng để poll khi sync nhiều trang)
+     */
+    @GetMapping("/sync/progress")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSyncProgress() {
+        return ResponseEntity.ok(ApiResponse.success(tmdbService.getSyncProgress()));
+    }
+
     /**
      * Sync nhiều loại phim cùng lúc (now_playing + upcoming)
      * Mặc định: 10 trang now_playing + 10 trang upcoming = ~400 phim
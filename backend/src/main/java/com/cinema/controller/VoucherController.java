@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.audit.Auditable;
 import com.cinema.dto.request.VoucherRequest;
 import com.cinema.dto.response.ApiResponse;
 import com.cinema.dto.response.PageResponse;
@@ -13,6 +14,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@Auditable(entity = "Voucher")
 @RequestMapping("/api/admin/vouchers")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
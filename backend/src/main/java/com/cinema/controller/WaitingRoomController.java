@@ -0,0 +1,33 @@
+package com.cinema.controller;
+
+import com.cinema.dto.response.ApiResponse;
+import com.cinema.dto.response.QueueTicketResponse;
+import com.cinema.service.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller cho phòng chờ mở bán vé.
+ * 
+ * Các endpoint:
+ * - POST /api/waiting-room/showtimes/{showtimeId}/join: Vào hàng chờ, nhận queue token
+ * - GET /api/waiting-room/tickets/{token}: Vị trí / trạng thái hiện tại (poll)
+ */
+@RestController
+@RequestMapping("/api/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    @PostMapping("/showtimes/{showtimeId}/join")
+    public ResponseEntity<ApiResponse<QueueTicketResponse>> join(@PathVariable Long showtimeId) {
+        return ResponseEntity.ok(ApiResponse.success(waitingRoomService.join(showtimeId)));
+    }
+
+    @GetMapping("/tickets/{token}")
+    public ResponseEntity<ApiResponse<QueueTicketResponse>> status(@PathVariable String token) {
+        return ResponseEntity.ok(ApiResponse.success(waitingRoomService.status(token)));
+    }
+}
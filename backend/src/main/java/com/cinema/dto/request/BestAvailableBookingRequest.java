@@ -0,0 +1,58 @@
+package com.cinema.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO cho việc đặt vé với ghế do hệ thống tự chọn.
+ * Thay vì danh sách ghế, client chỉ gửi số ghế và loại ghế mong muốn.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestAvailableBookingRequest {
+
+    /**
+     * ID của suất chiếu (bắt buộc)
+     */
+    @NotNull(message = "Vui lòng chọn suất chiếu")
+    private Long showtimeId;
+
+    /**
+     * Số ghế liền nhau cần đặt
+     */
+    @NotNull(message = "Vui lòng nhập số ghế")
+    @Min(value = 1, message = "Số ghế phải ít nhất là 1")
+    @Max(value = 10, message = "Chỉ được chọn tự động tối đa 10 ghế")
+    private Integer quantity;
+
+    /**
+     * Mã loại ghế (VD: "VIP", "COUPLE"); bỏ trống = loại nào cũng được
+     */
+    private String seatTypeCode;
+
+    /**
+     * Danh sách đồ ăn kèm theo (tùy chọn)
+     */
+    @Valid
+    private List<BookingRequest.FoodItem> foodItems;
+
+    /**
+     * Mã giảm giá (tùy chọn)
+     */
+    private String discountCode;
+
+    /**
+     * Ghi chú của khách hàng
+     */
+    private String notes;
+}
@@ -0,0 +1,22 @@
+package com.cinema.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Thống kê booking theo bộ lọc của trang quản trị đặt vé.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminBookingStatsResponse {
+    private long totalBookings;
+    private long pendingBookings;
+    private long completedBookings;
+    private BigDecimal paidRevenue;
+}
@@ -0,0 +1,22 @@
+package com.cinema.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang dữ liệu phân trang theo keyset: gửi lại {@code nextCursor} để lấy trang kế tiếp.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private Long nextCursor;
+    private boolean hasMore;
+}
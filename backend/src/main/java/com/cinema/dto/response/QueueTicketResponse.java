@@ -0,0 +1,30 @@
+package com.cinema.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trạng thái một vé xếp hàng trong phòng chờ của suất chiếu.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueTicketResponse {
+    // Gửi lại qua header X-Queue-Token khi đặt vé
+    private String token;
+    private Long showtimeId;
+    // WAITING / ADMITTED / EXPIRED
+    private String status;
+    // Số người đứng trước (0 khi đã được vào)
+    private long position;
+    private long estimatedWaitSeconds;
+    // Client nên hỏi lại sau khoảng này
+    private long pollAfterMs;
+    // Hạn dùng token sau khi được vào
+    private LocalDateTime admittedUntil;
+}
@@ -0,0 +1,45 @@
+package com.cinema.dto.response;
+
+import com.cinema.model.PriceLine;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO báo giá toàn bộ sơ đồ ghế của một suất chiếu, nhóm theo loại ghế
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMapPriceResponse {
+
+    private Long showtimeId;
+    private PriceLine.CustomerType customerType;
+    private PriceLine.DayType dayType;
+    private PriceLine.TimeSlot timeSlot;
+    private String roomType;
+    private BigDecimal basePrice;
+    private List<SeatTypePrice> seatTypes;
+
+    /**
+     * Giá của một loại ghế và danh sách ghế thuộc loại đó
+     */
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SeatTypePrice {
+        private String seatTypeCode;
+        private String seatTypeName;
+        private String seatColor;
+        private BigDecimal surcharge;
+        private BigDecimal price;
+        private List<Long> seatIds;
+        private List<String> seatLabels;
+    }
+}
@@ -0,0 +1,25 @@
+package com.cinema.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO sơ đồ ghế có version của một suất chiếu.
+ * full = false: seats chỉ gồm các ghế thay đổi kể từ sinceVersion client gửi.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMapResponse {
+
+    private Long showtimeId;
+    private Long roomId;
+    private Long version;
+    private Boolean full;
+    private List<SeatResponse> seats;
+}
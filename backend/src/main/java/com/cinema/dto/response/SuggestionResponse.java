@@ -0,0 +1,29 @@
+package com.cinema.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private List<Item> movies;
+    private List<Item> theaters;
+    private List<Item> cities;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private String label;
+        // Năm phát hành (phim) / thành phố (rạp)
+        private String subtitle;
+    }
+}
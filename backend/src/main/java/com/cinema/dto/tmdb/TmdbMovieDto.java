@@ -57,4 +57,9 @@ public class TmdbMovieDto {
     
     @JsonProperty("imdb_id")
     private String imdbId;
+    
+    // append_to_response=credits,videos
+    private TmdbCreditsResponse credits;
+    
+    private TmdbVideoResponse videos;
 }
@@ -2,6 +2,7 @@ package com.cinema.exception;
 
 import com.cinema.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -90,6 +91,29 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
     
+    /**
+     * Xử lý exception khi suất chiếu đang mở phòng chờ mà request không có queue token hợp lệ.
+     */
+    @ExceptionHandler(QueueTokenRequiredException.class)
+    public ResponseEntity<ApiResponse<Map<String, Object>>> handleQueueTokenRequiredException(
+            QueueTokenRequiredException ex) {
+        log.debug("Queue token required: {}", ex.getMessage());
+        
+        Map<String, Object> details = new HashMap<>();
+        details.put("showtimeId", ex.getShowtimeId());
+        details.put("joinUrl", "/api/waiting-room/showtimes/" + ex.getShowtimeId() + "/join");
+        
+        ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                .success(false)
+                .message(ex.getMessage())
+                .data(details)
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+    
     /**
      * Xử lý exception khi booking hết hạn giữ chỗ.
      */
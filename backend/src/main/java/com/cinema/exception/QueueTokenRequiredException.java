@@ -0,0 +1,22 @@
+package com.cinema.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception được throw khi suất chiếu đang mở phòng chờ và request đặt vé
+ * không có queue token đã được cho vào (hoặc token hết hạn / không hợp lệ).
+ * Client cần vào hàng đợi qua {@code POST /api/waiting-room/showtimes/{id}/join}.
+ */
+@Getter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class QueueTokenRequiredException extends RuntimeException {
+
+    private final Long showtimeId;
+
+    public QueueTokenRequiredException(Long showtimeId, String message) {
+        super(message);
+        this.showtimeId = showtimeId;
+    }
+}
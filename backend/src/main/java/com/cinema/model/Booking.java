@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_status_id", columnList = "status, id"),
+    @Index(name = "idx_bookings_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "booking_seats", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"booking_id", "seat_id"})
+    @UniqueConstraint(columnNames = {"booking_id", "seat_id"}),
+    // Chốt chặn cuối cùng chống double-booking: mỗi ghế chỉ có 1 bản ghi đang giữ chỗ cho 1 suất chiếu
+    @UniqueConstraint(name = "uk_booking_seats_active_showtime_seat", columnNames = {"active_showtime_id", "seat_id"})
 })
 @Getter
 @Setter
@@ -19,7 +21,10 @@ import java.time.LocalDateTime;
 public class BookingSeat {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_seat_id")
+    @TableGenerator(name = "booking_seat_id", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.BOOKING_SEATS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, precision = 10, scale = 2)
@@ -37,6 +42,13 @@ public class BookingSeat {
     @JoinColumn(name = "showtime_id", nullable = false)
     private Showtime showtime;
 
+    /**
+     * Bằng showtime_id khi booking còn giữ ghế (PENDING/CONFIRMED/COMPLETED),
+     * NULL khi booking đã CANCELLED/EXPIRED để ghế có thể được đặt lại.
+     */
+    @Column(name = "active_showtime_id")
+    private Long activeShowtimeId;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
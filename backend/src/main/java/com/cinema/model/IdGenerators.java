@@ -0,0 +1,25 @@
+package com.cinema.model;
+
+/**
+ * Cấu hình table generator cho các entity được ghi nhiều dòng trong một transaction
+ * (booking_seats, booking_foods).
+ *
+ * <p>
+ * Với {@code GenerationType.IDENTITY} Hibernate phải INSERT ngay từng dòng để lấy ID
+ * nên không batch được. Table generator cấp ID theo block {@link #ALLOCATION_SIZE}
+ * (pooled optimizer), các INSERT được dồn vào một JDBC batch khi flush.
+ * </p>
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String BOOKING_SEATS = "booking_seats";
+    public static final String BOOKING_FOODS = "booking_foods";
+
+    private IdGenerators() {
+    }
+}
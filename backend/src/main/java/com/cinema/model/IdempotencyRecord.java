@@ -0,0 +1,53 @@
+package com.cinema.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kết quả của một request có {@code Idempotency-Key}, dùng chung giữa các node.
+ * Được đọc/ghi bằng JDBC trong {@link com.cinema.service.IdempotencyService};
+ * entity chỉ để Hibernate tạo bảng.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    /** SHA-256 (hex) của scope + user + key */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false, length = 50)
+    private String scope;
+
+    /** SHA-256 (hex) của body request, để phát hiện key bị dùng lại cho request khác */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    /** Response (JSON) khi status = COMPLETED */
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
@@ -23,6 +23,10 @@ public class Movie {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** ID phim trên TMDB (null với phim nhập tay) - khóa để upsert khi sync */
+    @Column(name = "tmdb_id", unique = true)
+    private Long tmdbId;
+
     @Column(nullable = false, length = 255)
     private String title;
 
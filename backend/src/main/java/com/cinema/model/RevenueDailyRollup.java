@@ -0,0 +1,39 @@
+package com.cinema.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Doanh thu cộng dồn theo ngày tạo booking (chỉ booking CONFIRMED / COMPLETED).
+ * Được cập nhật tăng dần bởi RevenueRollupService khi booking đổi trạng thái.
+ */
+@Entity
+@Table(name = "revenue_daily_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueDailyRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate date;
+
+    @Column(name = "booking_count", nullable = false)
+    @Builder.Default
+    private Long bookingCount = 0L;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
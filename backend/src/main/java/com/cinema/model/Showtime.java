@@ -45,6 +45,14 @@ public class Showtime {
     @Builder.Default
     private ShowtimeStatus status = ShowtimeStatus.AVAILABLE;
 
+    /**
+     * true nếu SOLD_OUT do hệ thống tự đặt khi kín ghế (không phải admin); chỉ
+     * những suất chiếu này mới được tự mở bán lại khi có ghế trống.
+     */
+    @Column(name = "auto_sold_out", nullable = false)
+    @Builder.Default
+    private Boolean autoSoldOut = false;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "movie_id", nullable = false)
     private Movie movie;
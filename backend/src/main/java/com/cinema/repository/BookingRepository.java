@@ -1,14 +1,22 @@
 package com.cinema.repository;
 
 import com.cinema.model.Booking;
+import com.cinema.model.Payment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +25,130 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
        Optional<Booking> findByBookingCode(String bookingCode);
 
+       /**
+        * Khóa dòng booking (SELECT ... FOR UPDATE) trước khi xác nhận / thanh toán; cùng
+        * khóa với {@link #lockPendingBookingIdsToExpire} nên không đè trạng thái của nhau.
+        * Chỉ khóa dòng bookings, không join để không khóa suất chiếu / user.
+        */
+       @Lock(LockModeType.PESSIMISTIC_WRITE)
+       @Query("SELECT b FROM Booking b WHERE b.id = :id")
+       Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+       /**
+        * Danh sách booking cho admin theo keyset (ID giảm dần, {@code b.id < :beforeId}).
+        * Một query duy nhất, chỉ đọc các cột cần hiển thị; giới hạn số dòng qua {@link Pageable}.
+        */
+       @Query("SELECT b.id AS id, b.bookingCode AS bookingCode, b.seatAmount AS seatAmount, " +
+              "b.foodAmount AS foodAmount, b.totalAmount AS totalAmount, b.discountAmount AS discountAmount, " +
+              "b.finalAmount AS finalAmount, b.numberOfSeats AS numberOfSeats, b.status AS status, " +
+              "b.notes AS notes, b.createdAt AS createdAt, " +
+              "u.id AS userId, u.fullName AS userFullName, u.email AS userEmail, " +
+              "s.id AS showtimeId, s.showDate AS showDate, s.startTime AS startTime, " +
+              "m.id AS movieId, m.title AS movieTitle, m.posterUrl AS moviePosterUrl, " +
+              "t.name AS theaterName, r.name AS roomName, p.status AS paymentStatus " +
+              "FROM Booking b JOIN b.user u JOIN b.showtime s JOIN s.movie m JOIN s.room r JOIN r.theater t " +
+              "LEFT JOIN b.payment p " +
+              "WHERE b.id < :beforeId " +
+              "AND (:status IS NULL OR b.status = :status) " +
+              "AND (:fromTime IS NULL OR b.createdAt >= :fromTime) " +
+              "AND (:toTime IS NULL OR b.createdAt < :toTime) " +
+              "AND (:theaterId IS NULL OR t.id = :theaterId) " +
+              "AND (:movieId IS NULL OR m.id = :movieId) " +
+              "AND (:paymentStatus IS NULL OR p.status = :paymentStatus) " +
+              "ORDER BY b.id DESC")
+       List<BookingSummaryView> findAdminPage(@Param("beforeId") Long beforeId,
+                     @Param("status") Booking.BookingStatus status,
+                     @Param("paymentStatus") Payment.PaymentStatus paymentStatus,
+                     @Param("fromTime") LocalDateTime fromTime,
+                     @Param("toTime") LocalDateTime toTime,
+                     @Param("theaterId") Long theaterId,
+                     @Param("movieId") Long movieId,
+                     Pageable pageable);
+
+       /**
+        * Thống kê trên toàn bộ booking khớp bộ lọc của trang quản trị (cùng điều kiện
+        * với {@link #findAdminPage}, không phân trang). Doanh thu = tổng {@code finalAmount}
+        * của booking đã thanh toán thành công.
+        */
+       @Query("SELECT COUNT(b) AS total, " +
+              "COALESCE(SUM(CASE WHEN b.status = 'PENDING' THEN 1 ELSE 0 END), 0) AS pending, " +
+              "COALESCE(SUM(CASE WHEN b.status = 'COMPLETED' THEN 1 ELSE 0 END), 0) AS completed, " +
+              "COALESCE(SUM(CASE WHEN p.status = 'COMPLETED' THEN b.finalAmount ELSE 0 END), 0) AS paidRevenue " +
+              "FROM Booking b JOIN b.showtime s JOIN s.room r LEFT JOIN b.payment p " +
+              "WHERE (:status IS NULL OR b.status = :status) " +
+              "AND (:fromTime IS NULL OR b.createdAt >= :fromTime) " +
+              "AND (:toTime IS NULL OR b.createdAt < :toTime) " +
+              "AND (:theaterId IS NULL OR r.theater.id = :theaterId) " +
+              "AND (:movieId IS NULL OR s.movie.id = :movieId) " +
+              "AND (:paymentStatus IS NULL OR p.status = :paymentStatus)")
+       AdminBookingStatsView summarizeAdmin(@Param("status") Booking.BookingStatus status,
+                     @Param("paymentStatus") Payment.PaymentStatus paymentStatus,
+                     @Param("fromTime") LocalDateTime fromTime,
+                     @Param("toTime") LocalDateTime toTime,
+                     @Param("theaterId") Long theaterId,
+                     @Param("movieId") Long movieId);
+
+       interface AdminBookingStatsView {
+              Long getTotal();
+
+              Long getPending();
+
+              Long getCompleted();
+
+              BigDecimal getPaidRevenue();
+       }
+
+       /**
+        * Projection phẳng của booking cho trang quản trị (không load entity / quan hệ lazy).
+        */
+       interface BookingSummaryView {
+              Long getId();
+
+              String getBookingCode();
+
+              BigDecimal getSeatAmount();
+
+              BigDecimal getFoodAmount();
+
+              BigDecimal getTotalAmount();
+
+              BigDecimal getDiscountAmount();
+
+              BigDecimal getFinalAmount();
+
+              Integer getNumberOfSeats();
+
+              Booking.BookingStatus getStatus();
+
+              String getNotes();
+
+              LocalDateTime getCreatedAt();
+
+              Long getUserId();
+
+              String getUserFullName();
+
+              String getUserEmail();
+
+              Long getShowtimeId();
+
+              LocalDate getShowDate();
+
+              LocalTime getStartTime();
+
+              Long getMovieId();
+
+              String getMovieTitle();
+
+              String getMoviePosterUrl();
+
+              String getTheaterName();
+
+              String getRoomName();
+
+              Payment.PaymentStatus getPaymentStatus();
+       }
+
        Page<Booking> findByUserId(Long userId, Pageable pageable);
 
        List<Booking> findByUserIdOrderByCreatedAtDesc(Long userId);
@@ -27,12 +159,57 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
        List<Booking> findPendingBookingsToExpire(@Param("status") Booking.BookingStatus status,
                      @Param("expireTime") LocalDateTime expireTime);
 
+       @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.createdAt < :expireTime")
+       List<Long> findPendingBookingIdsToExpire(@Param("status") Booking.BookingStatus status,
+                     @Param("expireTime") LocalDateTime expireTime);
+
+       /**
+        * Hạn giữ chỗ của các booking PENDING: [id (Long), createdAt (LocalDateTime)].
+        * Dùng để nạp lại timer wheel khi khởi động.
+        */
+       @Query("SELECT b.id, b.createdAt FROM Booking b WHERE b.status = :status")
+       List<Object[]> findIdAndCreatedAtByStatus(@Param("status") Booking.BookingStatus status);
+
+       /**
+        * ID và thời điểm tạo của các booking trong danh sách còn ở trạng thái cho trước.
+        */
+       @Query("SELECT b.id, b.createdAt FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+       List<Object[]> findIdAndCreatedAtByIdsAndStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") Booking.BookingStatus status);
+
+       /**
+        * Khóa các booking vẫn còn PENDING và đã quá hạn trong danh sách, tránh
+        * đụng độ với thanh toán / hủy đang diễn ra cùng lúc.
+        */
+       @Lock(LockModeType.PESSIMISTIC_WRITE)
+       @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status AND b.createdAt < :expireTime")
+       List<Long> lockPendingBookingIdsToExpire(@Param("ids") Collection<Long> ids,
+                     @Param("status") Booking.BookingStatus status,
+                     @Param("expireTime") LocalDateTime expireTime);
+
+       @Modifying
+       @Query("UPDATE Booking b SET b.status = :newStatus, b.updatedAt = :now " +
+                     "WHERE b.id IN :ids AND b.status = :currentStatus")
+       int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                     @Param("currentStatus") Booking.BookingStatus currentStatus,
+                     @Param("newStatus") Booking.BookingStatus newStatus,
+                     @Param("now") LocalDateTime now);
+
        @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status = :status")
        List<Booking> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") Booking.BookingStatus status);
 
        @Query("SELECT COUNT(b) FROM Booking b WHERE b.showtime.id = :showtimeId AND b.status NOT IN ('CANCELLED', 'EXPIRED')")
        Long countActiveBookingsByShowtime(@Param("showtimeId") Long showtimeId);
 
+       /**
+        * Số booking theo (phim, rạp) tạo từ {@code since} (dùng làm độ phổ biến cho gợi ý tìm kiếm)
+        */
+       @Query("SELECT s.movie.id, s.room.theater.id, COUNT(b) FROM Booking b JOIN b.showtime s " +
+                     "WHERE b.createdAt >= :since AND b.status IN :statuses " +
+                     "GROUP BY s.movie.id, s.room.theater.id")
+       List<Object[]> countBookingsByMovieAndTheaterSince(@Param("since") LocalDateTime since,
+                     @Param("statuses") Collection<Booking.BookingStatus> statuses);
+
        /**
         * Đếm tổng số booking của user
         */
@@ -113,6 +290,24 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                      "ORDER BY date ASC")
        List<java.util.Map<String, Object>> getRevenueByDate(@Param("startDate") LocalDateTime startDate);
 
+       /**
+        * Tổng hợp trực tiếp từ bảng bookings theo ngày tạo: [date, count (Long), revenue (BigDecimal)].
+        * Chỉ dùng để dựng lại / đối chiếu revenue rollup, không dùng cho dashboard.
+        */
+       @Query("SELECT FUNCTION('DATE', b.createdAt), COUNT(b), COALESCE(SUM(b.finalAmount), 0) FROM Booking b " +
+                     "WHERE b.status IN ('CONFIRMED', 'COMPLETED') " +
+                     "GROUP BY FUNCTION('DATE', b.createdAt)")
+       List<Object[]> aggregateRevenueByDay();
+
+       /**
+        * Tổng hợp trực tiếp từ bảng bookings theo phim: [movieId, count (Long), revenue (BigDecimal)].
+        * Chỉ dùng để dựng lại / đối chiếu revenue rollup, không dùng cho dashboard.
+        */
+       @Query("SELECT s.movie.id, COUNT(b), COALESCE(SUM(b.finalAmount), 0) FROM Booking b JOIN b.showtime s " +
+                     "WHERE b.status IN ('CONFIRMED', 'COMPLETED') " +
+                     "GROUP BY s.movie.id")
+       List<Object[]> aggregateRevenueByMovie();
+
        // New efficient stats methods
        long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
@@ -1,13 +1,15 @@
 package com.cinema.repository;
 
 import com.cinema.model.BookingSeat;
-import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,8 +17,25 @@ public interface BookingSeatRepository extends JpaRepository<BookingSeat, Long>
     
     List<BookingSeat> findByBookingId(Long bookingId);
     
-    List<BookingSeat> findByShowtimeId(Long showtimeId);
+    /**
+     * Nhãn ghế (bookingId, rowName, seatNumber) của nhiều booking trong một query.
+     */
+    @Query("SELECT bs.booking.id, s.rowName, s.seatNumber FROM BookingSeat bs JOIN bs.seat s " +
+           "WHERE bs.booking.id IN :bookingIds ORDER BY s.rowName, s.seatNumber")
+    List<Object[]> findSeatLabelsByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
     
+    List<BookingSeat> findByShowtimeId(Long showtimeId);
+
+    /**
+     * Trong số các ghế cho trước, lấy ghế còn booking hiệu lực ở suất chiếu từ ngày {@code fromDate}
+     * (dùng để chặn việc xoá ghế khỏi layout phòng).
+     */
+    @Query("SELECT DISTINCT bs.seat.id FROM BookingSeat bs " +
+           "WHERE bs.seat.id IN :seatIds AND bs.showtime.showDate >= :fromDate " +
+           "AND bs.booking.status NOT IN ('CANCELLED', 'EXPIRED')")
+    List<Long> findSeatIdsBookedFrom(@Param("seatIds") Collection<Long> seatIds,
+                                     @Param("fromDate") LocalDate fromDate);
+
     /**
      * Lấy danh sách ID các ghế đã được đặt cho suất chiếu cụ thể.
      * Chỉ tính các booking có trạng thái PENDING, CONFIRMED hoặc COMPLETED.
@@ -45,23 +64,38 @@ public interface BookingSeatRepository extends JpaRepository<BookingSeat, Long>
                                          @Param("seatIds") List<Long> seatIds);
     
     /**
-     * Kiểm tra ghế với PESSIMISTIC_WRITE lock để tránh race condition.
-     * Sử dụng khi cần đảm bảo tính nhất quán trong môi trường concurrent.
-     * Lock sẽ block các transaction khác cho đến khi transaction hiện tại hoàn thành.
+     * Đếm số ghế đã được đặt cho nhiều suất chiếu trong 1 query (GROUP BY).
+     * Mỗi phần tử: [showtimeId (Long), bookedCount (Long)]. Suất chiếu chưa có
+     * ghế nào được đặt sẽ không xuất hiện trong kết quả.
      */
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT bs FROM BookingSeat bs " +
-           "WHERE bs.showtime.id = :showtimeId " +
-           "AND bs.seat.id IN :seatIds " +
-           "AND bs.booking.status NOT IN ('CANCELLED', 'EXPIRED')")
-    List<BookingSeat> findAndLockBookedSeats(@Param("showtimeId") Long showtimeId, 
-                                              @Param("seatIds") List<Long> seatIds);
+    @Query("SELECT bs.showtime.id, COUNT(bs) FROM BookingSeat bs " +
+           "WHERE bs.showtime.id IN :showtimeIds " +
+           "AND bs.booking.status NOT IN ('CANCELLED', 'EXPIRED') " +
+           "GROUP BY bs.showtime.id")
+    List<Object[]> countBookedSeatsByShowtimeIds(@Param("showtimeIds") Collection<Long> showtimeIds);
     
     /**
-     * Đếm số ghế đã được đặt cho suất chiếu.
+     * Ghế của nhiều booking: [showtimeId (Long), seatId (Long)].
      */
-    @Query("SELECT COUNT(bs) FROM BookingSeat bs " +
-           "WHERE bs.showtime.id = :showtimeId " +
+    @Query("SELECT bs.showtime.id, bs.seat.id FROM BookingSeat bs WHERE bs.booking.id IN :bookingIds")
+    List<Object[]> findShowtimeAndSeatIdsByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+    
+    /**
+     * Giải phóng khóa unique (active_showtime_id, seat_id) của các booking đã hủy/hết hạn
+     * để ghế có thể được đặt lại.
+     */
+    @Modifying
+    @Query("UPDATE BookingSeat bs SET bs.activeShowtimeId = NULL WHERE bs.booking.id IN :bookingIds")
+    int releaseSeatsOfBookings(@Param("bookingIds") Collection<Long> bookingIds);
+    
+    /**
+     * Gán lại active_showtime_id cho các bản ghi cũ (trước khi có cột này)
+     * thuộc booking còn hiệu lực.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BookingSeat bs SET bs.activeShowtimeId = bs.showtime.id " +
+           "WHERE bs.activeShowtimeId IS NULL " +
            "AND bs.booking.status NOT IN ('CANCELLED', 'EXPIRED')")
-    Long countBookedSeatsByShowtime(@Param("showtimeId") Long showtimeId);
+    int backfillActiveShowtimeIds();
 }
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -29,11 +30,15 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
                         @Param("status") Movie.MovieStatus status,
                         Pageable pageable);
 
-        @Query("SELECT m FROM Movie m WHERE m.title LIKE CONCAT('%', :keyword, '%') OR m.genre LIKE CONCAT('%', :keyword, '%')")
-        Page<Movie> searchMovies(@Param("keyword") String keyword, Pageable pageable);
-
         List<Movie> findByGenreContaining(String genre);
 
+        List<Movie> findByTmdbIdIn(Collection<Long> tmdbIds);
+
+        /**
+         * Phim nhập trước khi có cột tmdb_id, khớp theo tiêu đề (dùng khi sync TMDB).
+         */
+        List<Movie> findByTmdbIdIsNullAndTitleIn(Collection<String> titles);
+
         @Query("SELECT DISTINCT m.genre FROM Movie m WHERE m.genre IS NOT NULL")
         List<String> findAllGenres();
 }
@@ -15,4 +15,8 @@ public interface PriceHeaderRepository extends JpaRepository<PriceHeader, Long>
     // Find active headers valid for a given date, ordered by priority desc
     @Query("SELECT p FROM PriceHeader p WHERE p.active = true AND :date BETWEEN p.startDate AND p.endDate ORDER BY p.priority DESC")
     List<PriceHeader> findActiveHeadersForDate(LocalDate date);
+
+    // Load all active headers together with their lines (used to compile the rate card)
+    @Query("SELECT DISTINCT p FROM PriceHeader p LEFT JOIN FETCH p.priceLines WHERE p.active = true")
+    List<PriceHeader> findActiveWithLines();
 }
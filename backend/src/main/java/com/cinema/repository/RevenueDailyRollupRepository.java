@@ -0,0 +1,36 @@
+package com.cinema.repository;
+
+import com.cinema.model.RevenueDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface RevenueDailyRollupRepository extends JpaRepository<RevenueDailyRollup, LocalDate> {
+
+    /**
+     * Cộng dồn nguyên tử vào dòng của ngày, tạo dòng nếu chưa có (một câu upsert trong
+     * transaction hiện tại; H2 chạy ở MODE=MySQL cũng hỗ trợ cú pháp này).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily_rollups (rollup_date, booking_count, revenue, updated_at) " +
+            "VALUES (:date, :count, :amount, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE booking_count = booking_count + :count, revenue = revenue + :amount, " +
+            "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int upsert(@Param("date") LocalDate date, @Param("count") long count, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT new map(COALESCE(SUM(r.revenue), 0) as totalRevenue, COALESCE(SUM(r.bookingCount), 0) as totalBookings) " +
+            "FROM RevenueDailyRollup r")
+    Map<String, Object> getOverallStats();
+
+    @Query("SELECT new map(r.date as date, r.revenue as revenue) FROM RevenueDailyRollup r " +
+            "WHERE r.date >= :startDate AND r.bookingCount > 0 ORDER BY r.date ASC")
+    List<Map<String, Object>> getRevenueByDate(@Param("startDate") LocalDate startDate);
+}
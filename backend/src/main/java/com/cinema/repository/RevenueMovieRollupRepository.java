@@ -0,0 +1,34 @@
+package com.cinema.repository;
+
+import com.cinema.model.RevenueMovieRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface RevenueMovieRollupRepository extends JpaRepository<RevenueMovieRollup, Long> {
+
+    /**
+     * Cộng dồn nguyên tử vào dòng của phim, tạo dòng nếu chưa có (một câu upsert trong
+     * transaction hiện tại; H2 chạy ở MODE=MySQL cũng hỗ trợ cú pháp này).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_movie_rollups (movie_id, booking_count, revenue, updated_at) " +
+            "VALUES (:movieId, :count, :amount, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE booking_count = booking_count + :count, revenue = revenue + :amount, " +
+            "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int upsert(@Param("movieId") Long movieId, @Param("count") long count, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT new map(m.title as movieTitle, r.revenue as revenue, r.bookingCount as ticketCount) " +
+            "FROM RevenueMovieRollup r JOIN Movie m ON m.id = r.movieId " +
+            "WHERE r.bookingCount > 0 " +
+            "ORDER BY r.revenue DESC")
+    List<Map<String, Object>> getRevenueByMovie(Pageable pageable);
+}
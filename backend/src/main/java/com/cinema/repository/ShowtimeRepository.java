@@ -2,12 +2,15 @@ package com.cinema.repository;
 
 import com.cinema.model.Showtime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ShowtimeRepository extends JpaRepository<Showtime, Long> {
@@ -22,6 +25,19 @@ public interface ShowtimeRepository extends JpaRepository<Showtime, Long> {
 
        List<Showtime> findByMovieIdAndRoomTheaterIdOrderByShowDateAscStartTimeAsc(Long movieId, Long theaterId);
 
+       /**
+        * Suất chiếu kèm phòng (dùng khi nạp seat inventory ngoài transaction).
+        */
+       @Query("SELECT s FROM Showtime s JOIN FETCH s.room WHERE s.id = :id")
+       Optional<Showtime> findByIdWithRoom(@Param("id") Long id);
+
+       /**
+        * ID các suất chiếu chưa hủy của phòng từ ngày {@code fromDate} (dùng khi layout phòng thay đổi).
+        */
+       @Query("SELECT s.id FROM Showtime s WHERE s.room.id = :roomId AND s.showDate >= :fromDate " +
+                     "AND s.status <> 'CANCELLED'")
+       List<Long> findIdsByRoomIdFrom(@Param("roomId") Long roomId, @Param("fromDate") LocalDate fromDate);
+
        @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND s.showDate = :date AND s.status = 'AVAILABLE'")
        List<Showtime> findAvailableByMovieAndDate(@Param("movieId") Long movieId, @Param("date") LocalDate date);
 
@@ -62,7 +78,7 @@ public interface ShowtimeRepository extends JpaRepository<Showtime, Long> {
                      "JOIN FETCH s.room r " +
                      "WHERE r.theater.id = :theaterId " +
                      "AND s.showDate = :date " +
-                     "AND s.status = 'AVAILABLE' " +
+                     "AND s.status <> 'CANCELLED' " +
                      "ORDER BY m.title, r.roomType, s.startTime")
        List<Showtime> findByTheaterAndDateWithDetails(@Param("theaterId") Long theaterId,
                      @Param("date") LocalDate date);
@@ -100,4 +116,26 @@ public interface ShowtimeRepository extends JpaRepository<Showtime, Long> {
                      @Param("movieIds") List<Long> movieIds,
                      org.springframework.data.domain.Pageable pageable);
 
+       /**
+        * Tự đánh dấu SOLD_OUT khi kín ghế; chỉ áp dụng cho suất chiếu đang AVAILABLE.
+        *
+        * @return 1 nếu trạng thái thực sự thay đổi
+        */
+       @Modifying
+       @Transactional
+       @Query("UPDATE Showtime s SET s.status = 'SOLD_OUT', s.autoSoldOut = true " +
+                     "WHERE s.id = :id AND s.status = 'AVAILABLE'")
+       int markAutoSoldOut(@Param("id") Long id);
+
+       /**
+        * Mở bán lại suất chiếu có ghế trống; chỉ SOLD_OUT do hệ thống tự đặt, trạng thái
+        * admin đặt tay không bị đụng tới.
+        *
+        * @return 1 nếu trạng thái thực sự thay đổi
+        */
+       @Modifying
+       @Transactional
+       @Query("UPDATE Showtime s SET s.status = 'AVAILABLE', s.autoSoldOut = false " +
+                     "WHERE s.id = :id AND s.status = 'SOLD_OUT' AND s.autoSoldOut = true")
+       int reopenAutoSoldOut(@Param("id") Long id);
 }
@@ -40,4 +40,10 @@ public interface TheaterRepository extends JpaRepository<Theater, Long> {
      */
     @Query("SELECT t FROM Theater t WHERE t.city IS NULL")
     List<Theater> findTheatersWithoutCity();
+    
+    /**
+     * Tất cả theater kèm city (1 query, dùng để dựng chỉ mục gợi ý)
+     */
+    @Query("SELECT t FROM Theater t LEFT JOIN FETCH t.city")
+    List<Theater> findAllWithCity();
 }
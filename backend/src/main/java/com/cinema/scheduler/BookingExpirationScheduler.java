@@ -1,18 +1,29 @@
 package com.cinema.scheduler;
 
+import com.cinema.service.BookingHoldTimerWheel;
 import com.cinema.service.BookingService;
+import com.cinema.service.SeatInventoryService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Scheduler tự động xử lý các booking hết hạn giữ chỗ.
  * 
  * <p>Quy trình:</p>
  * <ul>
- *   <li>Chạy mỗi phút để kiểm tra booking PENDING</li>
- *   <li>Các booking PENDING quá 15 phút sẽ bị expire</li>
+ *   <li>Khi khởi động: nạp hạn giữ chỗ của mọi booking PENDING vào {@link BookingHoldTimerWheel}</li>
+ *   <li>Mỗi giây: quay timer wheel, expire các booking vừa tới hạn bằng 1 bulk UPDATE</li>
+ *   <li>Mỗi phút: quét DB làm lưới an toàn (booking tạo ở node khác, hẹn giờ bị bỏ lỡ)</li>
  *   <li>Ghế của booking expired sẽ được giải phóng cho người khác đặt</li>
  * </ul>
  */
@@ -21,10 +32,55 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class BookingExpirationScheduler {
     
+    /** Hẹn lại sau bao lâu khi expire một lượt booking tới hạn bị lỗi */
+    private static final long RETRY_DELAY_SECONDS = 5;
+    
     private final BookingService bookingService;
+    private final SeatInventoryService seatInventoryService;
+    private final BookingHoldTimerWheel bookingHoldTimerWheel;
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * Nạp lại hạn giữ chỗ từ DB khi ứng dụng khởi động xong.
+     * Booking đã quá hạn trong lúc server tắt sẽ được expire ở tick đầu tiên.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingHolds() {
+        Gauge.builder("cinema.booking.pending-holds", bookingHoldTimerWheel, BookingHoldTimerWheel::size)
+                .description("Số booking PENDING đang chờ hết hạn trong timer wheel")
+                .register(meterRegistry);
+        try {
+            Map<Long, LocalDateTime> deadlines = bookingService.getPendingHoldDeadlines();
+            deadlines.forEach(bookingHoldTimerWheel::schedule);
+            log.info("Đã nạp {} booking PENDING vào timer wheel giữ chỗ", deadlines.size());
+        } catch (Exception e) {
+            log.error("Lỗi khi nạp lại hạn giữ chỗ: {}", e.getMessage(), e);
+        }
+    }
     
     /**
-     * Chạy mỗi phút để expire các booking quá hạn giữ chỗ.
+     * Chạy mỗi giây: expire các booking vừa tới hạn giữ chỗ theo timer wheel.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void flushExpiredHolds() {
+        List<Long> dueBookingIds = bookingHoldTimerWheel.advance(System.currentTimeMillis());
+        if (dueBookingIds.isEmpty()) {
+            return;
+        }
+        
+        try {
+            bookingService.expireBookings(dueBookingIds);
+        } catch (Exception e) {
+            // Đưa lại vào wheel để thử lại; booking đã thanh toán / hủy trong lúc chờ sẽ bị bỏ qua khi expire
+            LocalDateTime retryAt = LocalDateTime.now().plusSeconds(RETRY_DELAY_SECONDS);
+            dueBookingIds.forEach(bookingId -> bookingHoldTimerWheel.schedule(bookingId, retryAt));
+            meterRegistry.counter("cinema.scheduler.failures", "job", "flush-expired-holds").increment();
+            log.error("Lỗi khi expire {} booking tới hạn: {}", dueBookingIds.size(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Chạy mỗi phút để quét các booking quá hạn giữ chỗ còn sót lại.
      * 
      * <p>Cron expression: "0 * * * * *" = chạy vào giây 0 của mỗi phút</p>
      */
@@ -39,7 +95,19 @@ public class BookingExpirationScheduler {
                 log.info("Đã expire {} booking hết hạn giữ chỗ", expiredCount);
             }
         } catch (Exception e) {
+            meterRegistry.counter("cinema.scheduler.failures", "job", "expire-old-bookings").increment();
             log.error("Lỗi khi expire booking: {}", e.getMessage(), e);
         }
     }
+    
+    /**
+     * Chạy mỗi 15 phút để bỏ seat inventory của các suất chiếu đã kết thúc khỏi bộ nhớ.
+     */
+    @Scheduled(cron = "0 */15 * * * *")
+    public void evictFinishedSeatInventories() {
+        int evicted = seatInventoryService.evictFinished();
+        if (evicted > 0) {
+            log.debug("Đã giải phóng seat inventory của {} suất chiếu đã kết thúc", evicted);
+        }
+    }
 }
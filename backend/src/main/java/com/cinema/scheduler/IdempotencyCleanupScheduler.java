@@ -0,0 +1,36 @@
+package com.cinema.scheduler;
+
+import com.cinema.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler dọn các Idempotency-Key đã hết hạn (bộ nhớ + bảng idempotency_keys).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyCleanupScheduler {
+
+    private final IdempotencyService idempotencyService;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Chạy mỗi 5 phút.
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void purgeExpiredKeys() {
+        try {
+            int purged = idempotencyService.purgeExpired();
+            if (purged > 0) {
+                log.debug("Đã xóa {} idempotency key hết hạn", purged);
+            }
+        } catch (Exception e) {
+            meterRegistry.counter("cinema.scheduler.failures", "job", "purge-idempotency-keys").increment();
+            log.error("Lỗi khi xóa idempotency key hết hạn: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.cinema.scheduler;
 import com.cinema.model.Movie;
 import com.cinema.model.Movie.MovieStatus;
 import com.cinema.repository.MovieRepository;
+import com.cinema.service.MovieSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -24,6 +25,7 @@ import java.util.List;
 public class MovieStatusScheduler {
 
     private final MovieRepository movieRepository;
+    private final MovieSearchIndex movieSearchIndex;
 
     /**
      * Chạy mỗi ngày lúc 00:05 để cập nhật trạng thái phim
@@ -45,6 +47,7 @@ public class MovieStatusScheduler {
                 MovieStatus oldStatus = movie.getStatus();
                 movie.setStatus(newStatus);
                 movieRepository.save(movie);
+                movieSearchIndex.indexAfterCommit(movie);
                 updated++;
                 log.debug("Updated movie '{}': {} -> {}", movie.getTitle(), oldStatus, newStatus);
             }
@@ -94,6 +97,7 @@ public class MovieStatusScheduler {
             movieRepository.save(movie);
             updated++;
         }
+        movieSearchIndex.indexAfterCommit(allMovies);
         
         log.info("Force update completed. Updated {} movies.", updated);
         return updated;
@@ -0,0 +1,24 @@
+package com.cinema.scheduler;
+
+import com.cinema.service.SeatEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler giữ kết nối SSE sơ đồ ghế.
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatEventHeartbeatScheduler {
+
+    private final SeatEventBroadcaster seatEventBroadcaster;
+
+    /**
+     * Chạy mỗi 20 giây: gửi heartbeat để proxy không đóng kết nối và dọn client đã ngắt.
+     */
+    @Scheduled(fixedRate = 20000)
+    public void sendHeartbeat() {
+        seatEventBroadcaster.heartbeat();
+    }
+}
@@ -0,0 +1,31 @@
+package com.cinema.scheduler;
+
+import com.cinema.service.SeatInventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ghi trạng thái SOLD_OUT / AVAILABLE của các suất chiếu vừa kín ghế hoặc vừa có
+ * ghế trống trở lại (theo bộ đếm của {@link SeatInventoryService}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SoldOutStatusScheduler {
+
+    private final SeatInventoryService seatInventoryService;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(fixedDelay = 500)
+    public void flush() {
+        try {
+            seatInventoryService.flushSoldOutStatus();
+        } catch (Exception e) {
+            meterRegistry.counter("cinema.scheduler.failures", "job", "sold-out-status").increment();
+            log.error("Lỗi khi cập nhật trạng thái hết vé: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.cinema.scheduler;
+
+import com.cinema.service.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler cập nhật độ phổ biến (số booking gần đây) cho gợi ý tìm kiếm.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionPopularityScheduler {
+
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Chạy mỗi 10 phút: 1 query GROUP BY trên bookings, trie được dựng lại ở lần gợi ý kế tiếp.
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void refreshPopularity() {
+        try {
+            suggestionIndex.refreshPopularity();
+        } catch (Exception e) {
+            log.error("Lỗi khi cập nhật độ phổ biến cho gợi ý: {}", e.getMessage(), e);
+        }
+    }
+}
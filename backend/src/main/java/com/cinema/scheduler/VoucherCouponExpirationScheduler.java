@@ -2,6 +2,7 @@ package com.cinema.scheduler;
 
 import com.cinema.service.CouponService;
 import com.cinema.service.VoucherService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -17,6 +18,7 @@ public class VoucherCouponExpirationScheduler {
 
     private final VoucherService voucherService;
     private final CouponService couponService;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Chạy mỗi ngày lúc 00:01 để cập nhật voucher hết hạn
@@ -28,6 +30,7 @@ public class VoucherCouponExpirationScheduler {
             voucherService.updateExpiredVouchers();
             log.info("Voucher expiration check completed.");
         } catch (Exception e) {
+            meterRegistry.counter("cinema.scheduler.failures", "job", "expire-vouchers").increment();
             log.error("Error updating expired vouchers: {}", e.getMessage(), e);
         }
     }
@@ -43,6 +46,7 @@ public class VoucherCouponExpirationScheduler {
             couponService.updateExpiredCoupons();
             log.info("Coupon expiration check completed.");
         } catch (Exception e) {
+            meterRegistry.counter("cinema.scheduler.failures", "job", "expire-coupons").increment();
             log.error("Error updating expired coupons: {}", e.getMessage(), e);
         }
     }
@@ -0,0 +1,27 @@
+package com.cinema.scheduler;
+
+import com.cinema.service.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nhịp của phòng chờ: mỗi giây cho thêm người vào theo throughput đặt vé đo được.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomScheduler {
+
+    private final WaitingRoomService waitingRoomService;
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        try {
+            waitingRoomService.tick();
+        } catch (Exception e) {
+            log.error("Lỗi khi cập nhật phòng chờ: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.cinema.security;
 
-import com.cinema.model.User;
-import com.cinema.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,7 +20,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -31,16 +29,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String email = jwtTokenProvider.getEmailFromToken(jwt);
+            if (StringUtils.hasText(jwt)) {
+                // Validate + read subject in a single parse
+                String email = jwtTokenProvider.validateAndGetEmail(jwt);
 
-                // Load User entity and create UserPrincipal
-                User user = userRepository.findByEmailAndActiveTrue(email).orElse(null);
-
-                if (user != null) {
-                    // Create UserPrincipal from User entity
-                    UserPrincipal userPrincipal = UserPrincipal.create(user);
+                // Cached principal (only hits the users table on miss / after TTL)
+                UserPrincipal userPrincipal = email != null ? userPrincipalCache.get(email) : null;
 
+                if (userPrincipal != null) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userPrincipal, // UserPrincipal as principal (implements UserDetails)
                             null,
@@ -20,6 +20,8 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
     
+    private volatile JwtParser jwtParser;
+    
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         return generateToken(userPrincipal.getUsername());
@@ -38,9 +40,7 @@ public class JwtTokenProvider {
     }
     
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        Claims claims = getParser()
                 .parseSignedClaims(token)
                 .getPayload();
         
@@ -48,12 +48,19 @@ public class JwtTokenProvider {
     }
     
     public boolean validateToken(String token) {
+        validateAndGetEmail(token);
+        return true;
+    }
+    
+    /**
+     * Validate token và lấy email (subject) trong một lần parse.
+     */
+    public String validateAndGetEmail(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return getParser()
+                    .parseSignedClaims(token)
+                    .getPayload()
+                    .getSubject();
         } catch (MalformedJwtException ex) {
             throw new JwtException("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
@@ -65,6 +72,18 @@ public class JwtTokenProvider {
         }
     }
     
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            // Parser (kèm signing key đã decode) là immutable và thread-safe -> dựng một lần
+            parser = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+    
     private SecretKey getSigningKey() {
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
         return Keys.hmacShaKeyFor(keyBytes);
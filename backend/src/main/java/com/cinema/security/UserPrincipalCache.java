@@ -0,0 +1,158 @@
+package com.cinema.security;
+
+import com.cinema.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache {@link UserPrincipal} theo subject (email) của JWT.
+ *
+ * <p>
+ * Tránh query bảng users ở mọi request đã xác thực. Mỗi entry sống tối đa
+ * {@code jwt.principal-cache.ttl-seconds}; số entry bị giới hạn bởi
+ * {@code jwt.principal-cache.max-size}. Khi thông tin user thay đổi (role,
+ * mật khẩu, trạng thái active, xóa) service tương ứng phải gọi
+ * {@link #invalidate(String)}.
+ * </p>
+ *
+ * <p>
+ * Hit/miss, eviction và kích thước được xuất qua Micrometer
+ * ({@code cinema.principal-cache.*}) để theo dõi trên Prometheus.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void registerMeters() {
+        FunctionCounter.builder("cinema.principal-cache.requests", hits, AtomicLong::get)
+                .description("Số lần tra principal cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cinema.principal-cache.requests", misses, AtomicLong::get)
+                .description("Số lần tra principal cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cinema.principal-cache.evictions", evictions, AtomicLong::get)
+                .description("Số principal bị loại khỏi cache")
+                .register(meterRegistry);
+        Gauge.builder("cinema.principal-cache.size", principals, Map::size)
+                .description("Số principal đang được cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lấy principal của user đang active theo email, nạp từ DB nếu chưa có / đã hết hạn.
+     *
+     * @return UserPrincipal, hoặc null nếu user không tồn tại hoặc đã bị khóa
+     */
+    public UserPrincipal get(String email) {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principals.get(email);
+        if (cached != null && cached.expiresAt() > now) {
+            hits.incrementAndGet();
+            return cached.principal();
+        }
+
+        misses.incrementAndGet();
+        UserPrincipal principal = userRepository.findByEmailAndActiveTrue(email)
+                .map(UserPrincipal::create)
+                .orElse(null);
+
+        if (principal == null) {
+            principals.remove(email);
+            return null;
+        }
+
+        if (principals.size() >= maxSize) {
+            evictExpired(now);
+            if (principals.size() >= maxSize) {
+                evictions.addAndGet(principals.size());
+                principals.clear();
+            }
+        }
+        principals.put(email, new CachedPrincipal(principal, now + ttlSeconds * 1000));
+        return principal;
+    }
+
+    /**
+     * Bỏ principal đã cache của user. Nếu đang trong transaction thì bỏ thêm một
+     * lần sau khi commit, tránh request song song nạp lại dữ liệu cũ.
+     */
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        principals.remove(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.remove(email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Thống kê hit/miss của cache.
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", principals.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private void evictExpired(long now) {
+        int before = principals.size();
+        principals.values().removeIf(cached -> cached.expiresAt() <= now);
+        int removed = before - principals.size();
+        if (removed > 0) {
+            evictions.addAndGet(removed);
+            log.debug("Evicted {} expired principals", removed);
+        }
+    }
+
+    private record CachedPrincipal(UserPrincipal principal, long expiresAt) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.cinema.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Chọn tự động N ghế liền nhau tốt nhất của một suất chiếu.
+ *
+ * <p>
+ * Lưới ghế ({@link SeatGrid}) được dựng một lần cho mỗi version layout phòng từ
+ * {@link SeatLayoutCache}: ghế nhóm theo hàng, sắp theo số ghế, mỗi ghế có sẵn
+ * điểm lệch tâm (càng nhỏ càng tốt) và prefix sum theo hàng. Mỗi lần chọn chỉ
+ * còn một lượt quét tuyến tính qua các ghế, đọc trạng thái trực tiếp từ
+ * {@link SeatInventoryService} — vài micro giây cho phòng 500 ghế, không chạm DB.
+ * </p>
+ *
+ * <p>
+ * Quy tắc chọn:
+ * </p>
+ * <ul>
+ * <li>Ghế liền nhau = cùng hàng, số ghế liên tiếp (khoảng trống số ghế là lối đi), cùng loại ghế</li>
+ * <li>Ưu tiên block không để lại đúng 1 ghế trống lẻ giữa block và ghế đã bán / lối đi /
+ * đầu hàng; chỉ khi không còn block nào như vậy mới chọn block tốt nhất để lại ghế lẻ</li>
+ * <li>Ghế đôi (COUPLE) chỉ được chọn theo cặp nguyên vẹn</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BestSeatSelector {
+
+    public static final String COUPLE = "COUPLE";
+
+    /** Số ghế tối đa mỗi lần chọn tự động (cùng giới hạn với {@code BestAvailableBookingRequest}) */
+    public static final int MAX_QUANTITY = 10;
+
+    /** Số lần chọn lại khi block vừa chọn bị người khác giữ mất trước khi kịp CAS */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final SeatLayoutCache seatLayoutCache;
+    private final SeatInventoryService seatInventoryService;
+
+    private final Map<Long, SeatGrid> grids = new ConcurrentHashMap<>();
+
+    /**
+     * Chọn block tốt nhất và giữ chỗ nguyên tử (FREE → HELD) trên seat inventory.
+     *
+     * @param seatTypeCode Mã loại ghế (Surcharge SEAT_TYPE); null = loại nào cũng được
+     * @return ID các ghế đã giữ, rỗng nếu không còn block phù hợp
+     */
+    public List<Long> holdBest(Long showtimeId, Long roomId, int quantity, String seatTypeCode) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            List<Long> seatIds = select(showtimeId, roomId, quantity, seatTypeCode);
+            if (seatIds.isEmpty() || seatInventoryService.hold(showtimeId, seatIds).isEmpty()) {
+                return seatIds;
+            }
+            log.debug("Best-available block {} for showtime {} was taken, retrying ({}/{})",
+                    seatIds, showtimeId, attempt, MAX_ATTEMPTS);
+        }
+        return List.of();
+    }
+
+    /**
+     * Chọn block tốt nhất theo trạng thái hiện tại, không giữ chỗ (dùng để gợi ý trên UI).
+     *
+     * @return ID các ghế theo thứ tự số ghế, rỗng nếu không còn block phù hợp
+     */
+    public List<Long> select(Long showtimeId, Long roomId, int quantity, String seatTypeCode) {
+        if (quantity <= 0 || seatInventoryService.isSoldOut(showtimeId)) {
+            return List.of();
+        }
+        return grid(roomId).best(quantity, seatTypeCode, seatInventoryService.freeSeats(showtimeId));
+    }
+
+    private SeatGrid grid(Long roomId) {
+        SeatLayoutCache.RoomLayout layout = seatLayoutCache.getLayout(roomId);
+        SeatGrid grid = grids.get(roomId);
+        if (grid == null || grid.version != layout.version()) {
+            grid = SeatGrid.of(layout);
+            grids.put(roomId, grid);
+        }
+        return grid;
+    }
+
+    /**
+     * Lưới ghế bất biến của một version layout phòng.
+     */
+    static final class SeatGrid {
+
+        /** Hàng lý tưởng nằm ở khoảng 2/3 phòng tính từ màn hình */
+        private static final double IDEAL_ROW = 2.0 / 3.0;
+
+        /** Lệch hàng (trước/sau) bị phạt nặng hơn lệch ngang */
+        private static final double ROW_WEIGHT = 1.5;
+
+        final long version;
+        private final Row[] rows;
+
+        private SeatGrid(long version, Row[] rows) {
+            this.version = version;
+            this.rows = rows;
+        }
+
+        static SeatGrid of(SeatLayoutCache.RoomLayout layout) {
+            // Layout đã sắp theo hàng, số ghế
+            Map<String, List<SeatLayoutCache.SeatEntry>> byRow = new LinkedHashMap<>();
+            int minNumber = Integer.MAX_VALUE;
+            int maxNumber = Integer.MIN_VALUE;
+            for (SeatLayoutCache.SeatEntry seat : layout.seats()) {
+                if (!Boolean.TRUE.equals(seat.active())) {
+                    continue;
+                }
+                byRow.computeIfAbsent(seat.rowName(), k -> new ArrayList<>()).add(seat);
+                minNumber = Math.min(minNumber, seat.seatNumber());
+                maxNumber = Math.max(maxNumber, seat.seatNumber());
+            }
+
+            // Tâm tính theo toàn phòng (tâm màn hình), không theo từng hàng
+            double centre = (minNumber + maxNumber) / 2.0;
+            double halfWidth = Math.max(1.0, (maxNumber - minNumber) / 2.0);
+            double idealRow = (byRow.size() - 1) * IDEAL_ROW;
+            double rowSpan = Math.max(1.0, byRow.size() - 1);
+
+            Row[] rows = new Row[byRow.size()];
+            int r = 0;
+            for (List<SeatLayoutCache.SeatEntry> seats : byRow.values()) {
+                double dy = (r - idealRow) / rowSpan;
+                rows[r++] = Row.of(seats, centre, halfWidth, ROW_WEIGHT * dy * dy);
+            }
+            return new SeatGrid(layout.version(), rows);
+        }
+
+        /**
+         * Block có tổng điểm nhỏ nhất trong các block không để lại ghế lẻ; nếu không có
+         * thì block tốt nhất để lại ghế lẻ; rỗng nếu không có block nào.
+         */
+        List<Long> best(int quantity, String seatTypeCode, LongPredicate free) {
+            Row bestRow = null;
+            int bestStart = -1;
+            double bestScore = Double.MAX_VALUE;
+            Row orphanRow = null;
+            int orphanStart = -1;
+            double orphanScore = Double.MAX_VALUE;
+
+            for (Row row : rows) {
+                if (row.ids.length < quantity) {
+                    continue;
+                }
+                int i = 0;
+                while (i < row.ids.length) {
+                    if (!free.test(row.ids[i])) {
+                        i++;
+                        continue;
+                    }
+                    // Đoạn trống tối đa [i, j]: liền số ghế, cùng loại, đều FREE
+                    int j = i;
+                    while (j + 1 < row.ids.length && row.adjacent(j) && free.test(row.ids[j + 1])) {
+                        j++;
+                    }
+
+                    String type = row.types[i];
+                    boolean couple = COUPLE.equals(type);
+                    if (j - i + 1 >= quantity
+                            && (seatTypeCode == null || seatTypeCode.equalsIgnoreCase(type))
+                            && (!couple || quantity % 2 == 0)) {
+                        for (int start = i; start + quantity - 1 <= j; start++) {
+                            int end = start + quantity - 1;
+                            if (couple && row.pairOffset[start] != 0) {
+                                continue; // cắt ngang một cặp ghế đôi
+                            }
+                            double score = row.prefix[end + 1] - row.prefix[start];
+                            if (start - i == 1 || j - end == 1) {
+                                // Để lại ghế lẻ: chỉ dùng khi không còn lựa chọn nào khác
+                                if (score < orphanScore) {
+                                    orphanScore = score;
+                                    orphanRow = row;
+                                    orphanStart = start;
+                                }
+                            } else if (score < bestScore) {
+                                bestScore = score;
+                                bestRow = row;
+                                bestStart = start;
+                            }
+                        }
+                    }
+                    i = j + 1;
+                }
+            }
+
+            if (bestRow == null) {
+                if (orphanRow == null) {
+                    return List.of();
+                }
+                bestRow = orphanRow;
+                bestStart = orphanStart;
+            }
+            List<Long> seatIds = new ArrayList<>(quantity);
+            for (int k = bestStart; k < bestStart + quantity; k++) {
+                seatIds.add(bestRow.ids[k]);
+            }
+            return seatIds;
+        }
+    }
+
+    /**
+     * Một hàng ghế active, sắp theo số ghế.
+     */
+    private static final class Row {
+
+        private final long[] ids;
+        private final int[] numbers;
+        private final String[] types;
+        /** Vị trí của ghế trong dãy ghế cùng loại liền nhau (0 / 1 cho ghế đôi) */
+        private final int[] pairOffset;
+        /** prefix[k] = tổng điểm của k ghế đầu hàng */
+        private final double[] prefix;
+
+        private Row(int size) {
+            this.ids = new long[size];
+            this.numbers = new int[size];
+            this.types = new String[size];
+            this.pairOffset = new int[size];
+            this.prefix = new double[size + 1];
+        }
+
+        static Row of(List<SeatLayoutCache.SeatEntry> seats, double centre, double halfWidth, double rowPenalty) {
+            Row row = new Row(seats.size());
+            int runStart = 0;
+            for (int k = 0; k < seats.size(); k++) {
+                SeatLayoutCache.SeatEntry seat = seats.get(k);
+                row.ids[k] = seat.id();
+                row.numbers[k] = seat.seatNumber();
+                row.types[k] = seat.seatTypeCode();
+                if (k > 0 && !row.adjacent(k - 1)) {
+                    runStart = k;
+                }
+                row.pairOffset[k] = (k - runStart) % 2;
+
+                double dx = (seat.seatNumber() - centre) / halfWidth;
+                row.prefix[k + 1] = row.prefix[k] + dx * dx + rowPenalty;
+            }
+            return row;
+        }
+
+        /**
+         * Ghế k và k + 1 ngồi liền nhau và cùng loại.
+         */
+        boolean adjacent(int k) {
+            return numbers[k + 1] == numbers[k] + 1 && types[k + 1].equals(types[k]);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.cinema.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timer wheel phân cấp theo hạn giữ chỗ của booking PENDING.
+ *
+ * <p>
+ * 3 tầng, mỗi tầng 64 ô: tầng 0 mỗi ô 1 giây (~1 phút), tầng 1 mỗi ô 64 giây
+ * (~68 phút), tầng 2 mỗi ô ~68 phút (~3 ngày). Khi kim tầng dưới quay hết một
+ * vòng, ô tương ứng của tầng trên được "đổ" xuống tầng dưới. Thêm / hủy / lấy
+ * booking đến hạn đều là O(1) cho mỗi booking, không cần quét DB.
+ * </p>
+ *
+ * <p>
+ * Wheel chỉ lưu ID booking và hạn giữ chỗ; việc đổi trạng thái do
+ * {@link BookingService#expireBookings} thực hiện. Trạng thái được nạp lại từ DB
+ * khi khởi động (xem {@code BookingExpirationScheduler}).
+ * </p>
+ */
+@Service
+public class BookingHoldTimerWheel {
+
+    private static final long TICK_MS = 1000L;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+
+    @SuppressWarnings("unchecked")
+    private final List<Entry>[][] wheels = new List[LEVELS][SLOTS];
+
+    /** bookingId -> tick hết hạn hiện hành (dùng để hủy / bỏ qua entry cũ) */
+    private final Map<Long, Long> deadlines = new HashMap<>();
+
+    /** Booking đã quá hạn ngay khi được thêm vào (VD: lúc nạp lại khi khởi động) */
+    private final List<Long> overdue = new ArrayList<>();
+
+    private long currentTick = System.currentTimeMillis() / TICK_MS;
+
+    /**
+     * Đăng ký (hoặc cập nhật) hạn giữ chỗ của booking.
+     */
+    public synchronized void schedule(Long bookingId, LocalDateTime deadline) {
+        long deadlineTick = ceilTick(deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        deadlines.put(bookingId, deadlineTick);
+        if (deadlineTick <= currentTick) {
+            overdue.add(bookingId);
+        } else {
+            place(new Entry(bookingId, deadlineTick));
+        }
+    }
+
+    /**
+     * Bỏ booking khỏi wheel (đã thanh toán / hủy). Entry cũ trong ô sẽ bị bỏ qua khi tới lượt.
+     */
+    public synchronized void cancel(Long bookingId) {
+        deadlines.remove(bookingId);
+    }
+
+    /**
+     * Quay kim tới thời điểm hiện tại.
+     *
+     * @return Danh sách ID booking đã tới hạn (đã bị gỡ khỏi wheel)
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        for (Long bookingId : overdue) {
+            if (deadlines.remove(bookingId) != null) {
+                due.add(bookingId);
+            }
+        }
+        overdue.clear();
+
+        long targetTick = nowMillis / TICK_MS;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            fire(due);
+        }
+        return due;
+    }
+
+    /**
+     * Số booking đang được theo dõi.
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    // ==================== INTERNALS ====================
+
+    private void cascade() {
+        // Tầng 1 đổ xuống khi tầng 0 quay hết vòng, tầng 2 khi tầng 1 quay hết vòng
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            int slot = (int) ((currentTick >>> shift) & SLOT_MASK);
+            List<Entry> entries = wheels[level][slot];
+            if (entries == null) {
+                continue;
+            }
+            wheels[level][slot] = null;
+            for (Entry entry : entries) {
+                if (isLive(entry)) {
+                    place(entry);
+                }
+            }
+        }
+    }
+
+    private void fire(List<Long> due) {
+        int slot = (int) (currentTick & SLOT_MASK);
+        List<Entry> entries = wheels[0][slot];
+        if (entries == null) {
+            return;
+        }
+        wheels[0][slot] = null;
+        for (Entry entry : entries) {
+            if (!isLive(entry)) {
+                continue;
+            }
+            if (entry.deadlineTick() <= currentTick) {
+                deadlines.remove(entry.bookingId());
+                due.add(entry.bookingId());
+            } else {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        // delta <= 0: entry đổ xuống đúng tick hiện tại -> vào ô đang chuẩn bị fire
+        long delta = Math.max(entry.deadlineTick() - currentTick, 0);
+        long tick = currentTick + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * SLOT_BITS))) {
+            level++;
+        }
+        int shift = level * SLOT_BITS;
+        if (delta >= (1L << ((level + 1) * SLOT_BITS))) {
+            // Quá xa so với tầng cao nhất: đỗ ở ô xa nhất, sẽ được đổ lại khi tới lượt
+            tick = currentTick + ((long) SLOT_MASK << shift);
+        }
+        int slot = (int) ((tick >>> shift) & SLOT_MASK);
+        List<Entry> entries = wheels[level][slot];
+        if (entries == null) {
+            entries = new ArrayList<>();
+            wheels[level][slot] = entries;
+        }
+        entries.add(entry);
+    }
+
+    private boolean isLive(Entry entry) {
+        Long deadlineTick = deadlines.get(entry.bookingId());
+        return deadlineTick != null && deadlineTick == entry.deadlineTick();
+    }
+
+    private static long ceilTick(long millis) {
+        return (millis + TICK_MS - 1) / TICK_MS;
+    }
+
+    private record Entry(long bookingId, long deadlineTick) {
+    }
+}
@@ -1,7 +1,10 @@
 package com.cinema.service;
 
+import com.cinema.dto.request.BestAvailableBookingRequest;
 import com.cinema.dto.request.BookingRequest;
+import com.cinema.dto.response.AdminBookingStatsResponse;
 import com.cinema.dto.response.BookingResponse;
+import com.cinema.dto.response.CursorPageResponse;
 import com.cinema.exception.BadRequestException;
 import com.cinema.exception.BookingExpiredException;
 import com.cinema.exception.ResourceNotFoundException;
@@ -9,20 +12,33 @@ import com.cinema.exception.SeatAlreadyBookedException;
 import com.cinema.exception.ShowtimeNotAvailableException;
 import com.cinema.model.*;
 import com.cinema.repository.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -48,6 +64,15 @@ public class BookingService {
     /** Thời gian giữ chỗ tối đa (phút) - sau thời gian này booking sẽ expired */
     private static final int HOLD_TIME_MINUTES = 5;
 
+    /** Số booking tối đa trong một mệnh đề IN khi expire hàng loạt */
+    private static final int EXPIRE_BATCH_SIZE = 500;
+
+    /** Số booking tối đa mỗi trang của danh sách admin */
+    private static final int ADMIN_PAGE_MAX_SIZE = 200;
+
+    /** Khoảng ngày tối đa của thống kê admin có bộ lọc */
+    private static final int ADMIN_STATS_MAX_RANGE_DAYS = 366;
+
     // ==================== DEPENDENCIES ====================
 
     private final BookingRepository bookingRepository;
@@ -59,6 +84,19 @@ public class BookingService {
     private final UserRepository userRepository;
     private final PricingService pricingService;
     private final CouponRepository couponRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final BestSeatSelector bestSeatSelector;
+    private final CodeGenerator codeGenerator;
+    private final BookingHoldTimerWheel bookingHoldTimerWheel;
+    private final RevenueRollupService revenueRollupService;
+    private final MeterRegistry meterRegistry;
+
+    /** Thời gian dùng lại thống kê toàn bộ booking (không lọc) */
+    @Value("${admin.booking-stats.cache-seconds:60}")
+    private long unfilteredStatsCacheSeconds;
+
+    private volatile CachedStats unfilteredStats;
+    private final Object unfilteredStatsLock = new Object();
 
     // ==================== MAIN BOOKING METHODS ====================
 
@@ -68,12 +106,14 @@ public class BookingService {
      * <p>
      * <b>QUAN TRỌNG - XỬ LÝ CONCURRENCY:</b>
      * </p>
-     * Sử dụng SERIALIZABLE isolation level + Pessimistic Locking để đảm bảo:
+     * Giữ chỗ qua {@link SeatInventoryService} (bitset + compare-and-set trong bộ
+     * nhớ) thay vì SERIALIZABLE + Pessimistic Locking:
      * <ul>
-     * <li>Khi một transaction đang kiểm tra/đặt ghế, các transaction khác phải
-     * đợi</li>
-     * <li>Tránh race condition khi 2 người đặt cùng 1 ghế cùng lúc</li>
-     * <li>Đảm bảo tính nhất quán dữ liệu cao nhất</li>
+     * <li>Hai người đặt cùng 1 ghế: chỉ một CAS thành công, người còn lại nhận
+     * conflict ngay mà không phải đợi lock DB</li>
+     * <li>Transaction rollback sẽ tự trả ghế về trạng thái trống</li>
+     * <li>Ràng buộc unique (active_showtime_id, seat_id) trên booking_seats là chốt
+     * chặn cuối cùng khi chạy nhiều node</li>
      * </ul>
      * 
      * <p>
@@ -82,7 +122,7 @@ public class BookingService {
      * <ol>
      * <li>Validate user và showtime</li>
      * <li>Validate thời gian (không quá gần giờ chiếu - 30 phút)</li>
-     * <li>Lock và kiểm tra ghế (Pessimistic Locking)</li>
+     * <li>Kiểm tra và giữ ghế (in-memory seat inventory)</li>
      * <li>Tính tổng tiền (vé + đồ ăn)</li>
      * <li>Tạo booking và các bản ghi liên quan</li>
      * </ol>
@@ -94,10 +134,75 @@ public class BookingService {
      * @throws SeatAlreadyBookedException    Khi ghế đã bị đặt bởi người khác
      * @throws BadRequestException           Khi dữ liệu đầu vào không hợp lệ
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Transactional
     public BookingResponse createBooking(BookingRequest request) {
+        return timedCreate(() -> doCreateBooking(request, showtime -> {
+            List<Seat> seats = validateSeats(request.getSeatIds(), showtime);
+            holdSeats(seats, showtime);
+            return seats;
+        }));
+    }
+
+    /**
+     * Tạo đặt vé với N ghế liền nhau do hệ thống tự chọn ({@link BestSeatSelector}).
+     * 
+     * <p>
+     * Các bước còn lại giống {@link #createBooking(BookingRequest)}; ghế được chọn và
+     * giữ nguyên tử trên seat inventory ở STEP 4.
+     * </p>
+     * 
+     * @param request Suất chiếu, số ghế, loại ghế (tùy chọn), đồ ăn...
+     * @return BookingResponse chứa thông tin booking đã tạo
+     * @throws SeatAlreadyBookedException Khi không còn block ghế phù hợp
+     */
+    @Transactional
+    public BookingResponse createBestAvailableBooking(BestAvailableBookingRequest request) {
+        BookingRequest booking = BookingRequest.builder()
+                .showtimeId(request.getShowtimeId())
+                .foodItems(request.getFoodItems())
+                .discountCode(request.getDiscountCode())
+                .notes(request.getNotes())
+                .build();
+        return timedCreate(() -> doCreateBooking(booking,
+                showtime -> holdBestSeats(showtime, request.getQuantity(), request.getSeatTypeCode())));
+    }
+
+    private BookingResponse timedCreate(Supplier<BookingResponse> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            BookingResponse response = action.get();
+            outcome = "success";
+            return response;
+        } catch (SeatAlreadyBookedException e) {
+            outcome = "conflict";
+            throw e;
+        } catch (ShowtimeNotAvailableException e) {
+            outcome = "unavailable";
+            throw e;
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("cinema.booking.create")
+                    .description("Thời gian tạo booking theo kết quả")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @param seatHolder Chọn / validate và giữ ghế trên seat inventory (STEP 4)
+     */
+    private BookingResponse doCreateBooking(BookingRequest request, Function<Showtime, List<Seat>> seatHolder) {
         log.info("=== BẮT ĐẦU TẠO BOOKING ===");
-        log.info("Showtime ID: {}, Số ghế: {}", request.getShowtimeId(), request.getSeatIds().size());
+        log.info("Showtime ID: {}", request.getShowtimeId());
+
+        // ===== STEP 0: Suất chiếu đã kín ghế -> từ chối trước mọi query / giữ chỗ =====
+        if (seatInventoryService.isSoldOut(request.getShowtimeId())) {
+            log.warn("Suất chiếu {} đã hết vé", request.getShowtimeId());
+            throw ShowtimeNotAvailableException.soldOut(request.getShowtimeId());
+        }
 
         // ===== STEP 1: Lấy thông tin user hiện tại =====
         User user = getCurrentUser();
@@ -110,9 +215,9 @@ public class BookingService {
         // ===== STEP 3: Validate thời gian đặt vé =====
         validateBookingTime(showtime);
 
-        // ===== STEP 4: Lock ghế và kiểm tra availability (CONCURRENCY HANDLING) =====
-        List<Seat> seats = lockAndValidateSeats(request.getSeatIds(), showtime);
-        log.info("Đã lock và validate {} ghế thành công", seats.size());
+        // ===== STEP 4: Giữ ghế và kiểm tra availability (CONCURRENCY HANDLING) =====
+        List<Seat> seats = seatHolder.apply(showtime);
+        log.info("Đã giữ và validate {} ghế thành công", seats.size());
 
         // ===== STEP 5: Tính tổng tiền ghế =====
         BigDecimal seatTotalAmount = calculateSeatTotal(seats, showtime, user);
@@ -155,9 +260,13 @@ public class BookingService {
                 .bookingFoods(new ArrayList<>())
                 .build();
 
+        long writeStartedAt = System.nanoTime();
         booking = bookingRepository.save(booking);
         log.info("Đã tạo booking ID: {}, Code: {}", booking.getId(), bookingCode);
 
+        // Hẹn giờ hết hạn giữ chỗ (nếu transaction rollback, lần expire sẽ không tìm thấy booking)
+        bookingHoldTimerWheel.schedule(booking.getId(), getHoldDeadline(booking));
+
         // ===== STEP 9: Tạo BookingSeat records =====
         createBookingSeats(booking, seats, showtime, user);
 
@@ -166,6 +275,13 @@ public class BookingService {
             createBookingFoods(booking, request.getFoodItems(), foodMap);
         }
 
+        // ===== STEP 11: Ghi booking_seats / booking_foods, mỗi bảng một batch =====
+        flushBookingRows(seats, showtime);
+        Timer.builder("cinema.booking.write")
+                .description("Thời gian ghi booking và các dòng ghế / đồ ăn xuống DB")
+                .register(meterRegistry)
+                .record(System.nanoTime() - writeStartedAt, TimeUnit.NANOSECONDS);
+
         log.info("=== HOÀN TẤT TẠO BOOKING {} ===", bookingCode);
 
         return mapToResponse(booking);
@@ -260,45 +376,25 @@ public class BookingService {
     }
 
     /**
-     * Lock các ghế và kiểm tra tính khả dụng.
-     * 
-     * <p>
-     * <b>QUAN TRỌNG - XỬ LÝ CONCURRENCY:</b>
-     * </p>
-     * Sử dụng Pessimistic Write Lock (SELECT ... FOR UPDATE) để:
-     * <ul>
-     * <li>Khi một transaction đang kiểm tra/đặt ghế, các transaction khác phải
-     * đợi</li>
-     * <li>Tránh race condition khi 2 người đặt cùng 1 ghế cùng lúc</li>
-     * </ul>
+     * Kiểm tra các ghế tồn tại, thuộc đúng phòng chiếu và đang active.
      * 
      * <p>
-     * <b>Cơ chế hoạt động:</b>
+     * Không dùng SELECT ... FOR UPDATE: trạng thái đặt chỗ được quyết định bởi
+     * {@link #holdSeats(List, Showtime)}.
      * </p>
-     * <ol>
-     * <li>Lock tất cả ghế được chọn (SELECT ... FOR UPDATE)</li>
-     * <li>Kiểm tra ghế đã được đặt chưa</li>
-     * <li>Nếu có ghế đã đặt → throw exception với danh sách ghế conflict</li>
-     * <li>Nếu OK → tiếp tục tạo booking (vẫn giữ lock)</li>
-     * <li>Sau khi commit → release lock cho transaction khác</li>
-     * </ol>
      * 
      * @param seatIds  Danh sách ID ghế cần đặt
      * @param showtime Suất chiếu
-     * @return Danh sách Seat entities đã được lock
-     * @throws ResourceNotFoundException  Khi ghế không tồn tại
-     * @throws BadRequestException        Khi ghế không thuộc phòng chiếu hoặc không
-     *                                    active
-     * @throws SeatAlreadyBookedException Khi ghế đã bị đặt bởi người khác
+     * @return Danh sách Seat entities
+     * @throws ResourceNotFoundException Khi ghế không tồn tại
+     * @throws BadRequestException       Khi ghế không thuộc phòng chiếu hoặc không
+     *                                   active
      */
-    private List<Seat> lockAndValidateSeats(List<Long> seatIds, Showtime showtime) {
-        log.debug("Bắt đầu lock và validate {} ghế cho suất chiếu {}",
+    private List<Seat> validateSeats(List<Long> seatIds, Showtime showtime) {
+        log.debug("Bắt đầu validate {} ghế cho suất chiếu {}",
                 seatIds.size(), showtime.getId());
 
-        // ===== Bước 1: Lấy ghế với Pessimistic Write Lock (FOR UPDATE) =====
-        // Query: SELECT * FROM seats WHERE id IN (...) FOR UPDATE
-        // Lock này sẽ block các transaction khác đọc/ghi các row này
-        List<Seat> seats = seatRepository.findByIdsWithLock(seatIds);
+        List<Seat> seats = seatRepository.findAllById(seatIds);
 
         // Kiểm tra tất cả ghế được yêu cầu có tồn tại không
         if (seats.size() != seatIds.size()) {
@@ -310,7 +406,6 @@ public class BookingService {
             throw new ResourceNotFoundException("Seat", "ids", notFoundIds.toString());
         }
 
-        // ===== Bước 2: Validate ghế thuộc đúng phòng chiếu =====
         Long roomId = showtime.getRoom().getId();
         for (Seat seat : seats) {
             // Kiểm tra ghế thuộc đúng room
@@ -330,29 +425,80 @@ public class BookingService {
             }
         }
 
-        // ===== Bước 3: Kiểm tra ghế đã được đặt chưa (với lock đang giữ) =====
-        // Query này cũng sử dụng lock để đảm bảo tính nhất quán
-        List<BookingSeat> existingBookings = bookingSeatRepository.findAndLockBookedSeats(
-                showtime.getId(), seatIds);
+        return seats;
+    }
 
-        if (!existingBookings.isEmpty()) {
-            // Có ghế đã bị đặt → throw exception với thông tin chi tiết
-            List<Long> bookedSeatIds = existingBookings.stream()
-                    .map(bs -> bs.getSeat().getId())
-                    .toList();
-            List<String> bookedSeatLabels = existingBookings.stream()
-                    .map(bs -> bs.getSeat().getSeatLabel())
+    /**
+     * Giữ chỗ các ghế trong seat inventory của suất chiếu.
+     * 
+     * <p>
+     * <b>Cơ chế hoạt động:</b>
+     * </p>
+     * <ol>
+     * <li>CAS từng ghế FREE → HELD; nếu có ghế conflict thì hoàn tác toàn bộ</li>
+     * <li>Nếu có conflict → throw exception với danh sách ghế conflict</li>
+     * <li>Nếu transaction rollback sau đó → ghế được trả về FREE</li>
+     * </ol>
+     * 
+     * @param seats    Danh sách ghế đã validate
+     * @param showtime Suất chiếu
+     * @throws SeatAlreadyBookedException Khi ghế đã bị đặt bởi người khác
+     */
+    private void holdSeats(List<Seat> seats, Showtime showtime) {
+        List<Long> seatIds = seats.stream().map(Seat::getId).toList();
+        long startedAt = System.nanoTime();
+        List<Long> conflictIds = seatInventoryService.hold(showtime.getId(), seatIds);
+        Timer.builder("cinema.booking.seat-hold")
+                .description("Thời gian chờ giữ ghế trên seat inventory")
+                .tag("outcome", conflictIds.isEmpty() ? "held" : "conflict")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        if (!conflictIds.isEmpty()) {
+            List<String> conflictLabels = seats.stream()
+                    .filter(seat -> conflictIds.contains(seat.getId()))
+                    .map(Seat::getSeatLabel)
                     .toList();
 
             log.warn("CONFLICT: Ghế {} đã bị đặt cho suất chiếu {}",
-                    bookedSeatLabels, showtime.getId());
+                    conflictLabels, showtime.getId());
 
             // Throw exception để client biết ghế nào bị conflict
-            throw new SeatAlreadyBookedException(bookedSeatIds, bookedSeatLabels);
+            throw new SeatAlreadyBookedException(conflictIds, conflictLabels);
         }
 
-        log.debug("Đã lock và validate thành công {} ghế", seats.size());
-        return seats;
+        seatInventoryService.releaseOnRollback(showtime.getId(), seatIds);
+    }
+
+    /**
+     * Chọn và giữ block ghế tốt nhất, sau đó nạp entity ghế để tính tiền.
+     * 
+     * <p>
+     * Ghế được trả về FREE nếu transaction rollback (kể cả khi validate thất bại).
+     * </p>
+     * 
+     * @throws SeatAlreadyBookedException Khi không còn block ghế phù hợp
+     */
+    private List<Seat> holdBestSeats(Showtime showtime, int quantity, String seatTypeCode) {
+        long startedAt = System.nanoTime();
+        List<Long> seatIds = bestSeatSelector.holdBest(showtime.getId(), showtime.getRoom().getId(),
+                quantity, seatTypeCode);
+        Timer.builder("cinema.booking.seat-hold")
+                .description("Thời gian chờ giữ ghế trên seat inventory")
+                .tag("outcome", seatIds.isEmpty() ? "unavailable" : "held")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        if (seatIds.isEmpty()) {
+            log.warn("Không còn {} ghế liền nhau (loại {}) cho suất chiếu {}",
+                    quantity, seatTypeCode, showtime.getId());
+            throw new SeatAlreadyBookedException(String.format(
+                    "Không còn %d ghế liền nhau%s phù hợp. Vui lòng chọn ghế trên sơ đồ.", quantity,
+                    seatTypeCode != null ? " loại " + seatTypeCode : ""));
+        }
+
+        seatInventoryService.releaseOnRollback(showtime.getId(), seatIds);
+        return validateSeats(seatIds, showtime);
     }
 
     /**
@@ -516,6 +662,11 @@ public class BookingService {
      * Tạo các bản ghi BookingSeat cho booking.
      * Mỗi ghế được đặt sẽ tạo một record trong bảng booking_seats.
      * 
+     * <p>
+     * ID lấy từ table generator theo block nên Hibernate chưa INSERT ở đây; các
+     * dòng được ghi cùng một JDBC batch trong {@link #flushBookingRows}.
+     * </p>
+     * 
      * @param booking  Booking entity đã được lưu
      * @param seats    Danh sách ghế đã đặt
      * @param showtime Suất chiếu
@@ -529,18 +680,19 @@ public class BookingService {
                     .booking(booking)
                     .seat(seat)
                     .showtime(showtime)
+                    .activeShowtimeId(showtime.getId())
                     .price(seatPrice)
                     .build();
 
-            bookingSeatRepository.save(bookingSeat);
             booking.getBookingSeats().add(bookingSeat);
         }
+        bookingSeatRepository.saveAll(booking.getBookingSeats());
 
         log.debug("Đã tạo {} bản ghi BookingSeat", seats.size());
     }
 
     /**
-     * Tạo các bản ghi BookingFood cho booking.
+     * Tạo các bản ghi BookingFood cho booking (ghi cùng batch với BookingSeat khi flush).
      * Mỗi món ăn được đặt sẽ tạo một record trong bảng booking_foods.
      * 
      * @param booking   Booking entity đã được lưu
@@ -549,6 +701,7 @@ public class BookingService {
      */
     private void createBookingFoods(Booking booking, List<BookingRequest.FoodItem> foodItems,
             Map<Long, Food> foodMap) {
+        List<BookingFood> bookingFoods = new ArrayList<>(foodItems.size());
         for (BookingRequest.FoodItem item : foodItems) {
             Food food = foodMap.get(item.getFoodId());
 
@@ -560,20 +713,76 @@ public class BookingService {
                     .totalPrice(food.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                     .build();
 
-            bookingFoodRepository.save(bookingFood);
+            bookingFoods.add(bookingFood);
         }
+        bookingFoodRepository.saveAll(bookingFoods);
 
         log.debug("Đã tạo {} bản ghi BookingFood", foodItems.size());
     }
 
     /**
-     * Generate mã booking duy nhất.
-     * Format: BK + 8 ký tự UUID viết hoa (VD: BK1A2B3C4D)
+     * Flush các dòng booking_seats / booking_foods đang chờ: mỗi bảng một JDBC batch.
+     * 
+     * <p>
+     * Ràng buộc unique (active_showtime_id, seat_id) là chốt chặn cuối khi inventory
+     * của node này đã cũ. Ghế gây lỗi được xác định từ update count của batch.
+     * </p>
+     * 
+     * @throws SeatAlreadyBookedException Khi node khác đã bán một trong các ghế
+     */
+    private void flushBookingRows(List<Seat> seats, Showtime showtime) {
+        try {
+            bookingSeatRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // Node khác đã bán ghế -> inventory của node này đã cũ, nạp lại lần sau
+            seatInventoryService.evict(showtime.getId());
+            List<Seat> conflicts = failedSeatsOf(e, seats);
+            log.warn("CONFLICT (DB): Ghế {} đã bị đặt cho suất chiếu {}",
+                    conflicts.stream().map(Seat::getSeatLabel).toList(), showtime.getId());
+            if (conflicts.isEmpty()) {
+                throw new SeatAlreadyBookedException("Một số ghế đã được đặt bởi người khác. Vui lòng chọn ghế khác.");
+            }
+            throw new SeatAlreadyBookedException(
+                    conflicts.stream().map(Seat::getId).toList(),
+                    conflicts.stream().map(Seat::getSeatLabel).toList());
+        }
+    }
+
+    /**
+     * Ghế tương ứng với các câu INSERT thất bại trong batch booking_seats.
+     * Driver dừng ở lỗi đầu tiên thì update count ngắn hơn batch; driver chạy tiếp thì
+     * đánh dấu {@link Statement#EXECUTE_FAILED}. Không xác định được thì trả về rỗng.
+     */
+    private static List<Seat> failedSeatsOf(Throwable e, List<Seat> seats) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchUpdateException batchException) {
+                int[] counts = batchException.getUpdateCounts();
+                if (counts == null || counts.length > seats.size()) {
+                    return List.of();
+                }
+                List<Seat> failed = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == Statement.EXECUTE_FAILED) {
+                        failed.add(seats.get(i));
+                    }
+                }
+                if (failed.isEmpty() && counts.length < seats.size()) {
+                    failed.add(seats.get(counts.length));
+                }
+                return failed;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Generate mã booking duy nhất, tăng dần theo thời gian.
+     * Format: BK + 14 ký tự Base32 (VD: BK0A894KR8R015P4), xem {@link CodeGenerator}
      * 
      * @return Mã booking unique
      */
     private String generateBookingCode() {
-        return "BK" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return codeGenerator.nextBookingCode();
     }
 
     // ==================== QUERY METHODS ====================
@@ -599,6 +808,11 @@ public class BookingService {
      * @throws ResourceNotFoundException Khi không tìm thấy booking
      */
     public BookingResponse getBookingByCode(String bookingCode) {
+        // Mã định dạng mới bị gõ sai (ký tự kiểm tra không khớp) -> không cần query DB;
+        // mã cũ cùng độ dài (toàn chữ số) vẫn được tra
+        if (CodeGenerator.isMistyped(bookingCode, CodeGenerator.BOOKING_PREFIX)) {
+            throw new ResourceNotFoundException("Booking", "code", bookingCode);
+        }
         Booking booking = bookingRepository.findByBookingCode(bookingCode)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "code", bookingCode));
         return mapToResponse(booking);
@@ -626,7 +840,7 @@ public class BookingService {
      * @return Danh sách ID các ghế đã đặt
      */
     public List<Long> getBookedSeatIds(Long showtimeId) {
-        return bookingSeatRepository.findBookedSeatIdsByShowtime(showtimeId);
+        return seatInventoryService.getTakenSeatIds(showtimeId);
     }
 
     // ==================== BOOKING MODIFICATION METHODS ====================
@@ -675,9 +889,14 @@ public class BookingService {
         }
 
         // Cập nhật trạng thái
+        Booking.BookingStatus previousStatus = booking.getStatus();
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         booking.setCancelledAt(LocalDateTime.now());
         booking = bookingRepository.save(booking);
+        releaseSeats(List.of(booking));
+        revenueRollupService.onStatusChange(booking, previousStatus, Booking.BookingStatus.CANCELLED);
+        bookingHoldTimerWheel.cancel(booking.getId());
+        countOutcome("cancel", previousStatus.name().toLowerCase()).increment();
 
         log.info("Booking {} đã được hủy bởi user {}", booking.getBookingCode(), user.getEmail());
 
@@ -696,28 +915,15 @@ public class BookingService {
      */
     @Transactional
     public BookingResponse confirmBooking(Long id) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", id));
-
-        // Chỉ confirm được booking PENDING
-        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
-            throw new BadRequestException("Chỉ có thể xác nhận đặt vé đang chờ thanh toán");
-        }
-
-        // Kiểm tra booking đã hết hạn giữ chỗ chưa (15 phút)
-        LocalDateTime expireTime = booking.getCreatedAt().plusMinutes(HOLD_TIME_MINUTES);
-        if (LocalDateTime.now().isAfter(expireTime)) {
-            // Đã hết hạn -> cập nhật status và throw exception
-            booking.setStatus(Booking.BookingStatus.EXPIRED);
-            bookingRepository.save(booking);
-
-            log.warn("Booking {} đã hết hạn giữ chỗ", booking.getBookingCode());
-            throw new BookingExpiredException(booking.getId(), booking.getBookingCode());
-        }
+        Booking booking = lockForConfirmation(id);
 
         // Xác nhận booking
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
         booking = bookingRepository.save(booking);
+        seatInventoryService.markSoldAfterCommit(booking.getShowtime().getId(), getSeatIds(booking));
+        bookingHoldTimerWheel.cancel(booking.getId());
+        revenueRollupService.onStatusChange(booking, Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+        countOutcome("confirm", "confirmed").increment();
 
         // Lưu ý: Logic tích điểm và cập nhật membership đã chuyển sang
         // PaymentService.processPayment()
@@ -727,6 +933,40 @@ public class BookingService {
         return mapToResponse(booking);
     }
 
+    /**
+     * Khóa booking để xác nhận / thanh toán (gọi trong transaction của thao tác đó).
+     *
+     * <p>
+     * Cùng khóa dòng với {@link #expireBookings}: booking vừa bị expire (ghế có thể đã
+     * được giữ / bán cho người khác) không thể bị ghi đè thành CONFIRMED, và ngược lại
+     * booking đang được thanh toán không bị expire giữa chừng.
+     * </p>
+     *
+     * @throws ResourceNotFoundException Khi không tìm thấy booking
+     * @throws BadRequestException       Khi booking không ở trạng thái PENDING
+     * @throws BookingExpiredException   Khi booking đã quá hạn giữ chỗ (được expire ngay ở tick kế tiếp)
+     */
+    public Booking lockForConfirmation(Long id) {
+        Booking booking = bookingRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", id));
+
+        // Chỉ confirm được booking PENDING
+        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+            throw new BadRequestException("Chỉ có thể xác nhận đặt vé đang chờ thanh toán");
+        }
+
+        LocalDateTime deadline = getHoldDeadline(booking);
+        if (LocalDateTime.now().isAfter(deadline)) {
+            // Transaction này sẽ rollback -> để timer wheel expire và trả ghế ở tick kế tiếp
+            bookingHoldTimerWheel.schedule(booking.getId(), deadline);
+            countOutcome("confirm", "expired").increment();
+
+            log.warn("Booking {} đã hết hạn giữ chỗ", booking.getBookingCode());
+            throw new BookingExpiredException(booking.getId(), booking.getBookingCode());
+        }
+        return booking;
+    }
+
     /**
      * Đánh dấu booking đã hoàn thành (sau khi khách xem phim xong).
      * Thường được gọi tự động sau giờ chiếu.
@@ -745,16 +985,153 @@ public class BookingService {
 
         booking.setStatus(Booking.BookingStatus.COMPLETED);
         booking = bookingRepository.save(booking);
+        revenueRollupService.onStatusChange(booking, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED);
 
         return mapToResponse(booking);
     }
 
     /**
-     * Lấy tất cả booking (dùng cho admin)
+     * Danh sách booking cho admin, phân trang theo keyset (ID giảm dần).
+     * 
+     * <p>
+     * Mỗi trang đúng 2 query: 1 query projection (booking + user + suất chiếu +
+     * phim + phòng + rạp + thanh toán) và 1 query lấy nhãn ghế của các booking
+     * trong trang. Chi phí không phụ thuộc vào độ sâu của trang.
+     * </p>
+     * 
+     * @param cursor ID booking cuối cùng của trang trước (null = trang đầu)
      */
-    public List<BookingResponse> getAllBookings() {
-        List<Booking> bookings = bookingRepository.findAll();
-        return bookings.stream().map(this::mapToResponse).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BookingResponse> getAdminBookings(String statusStr, String paymentStatusStr,
+            LocalDate from, LocalDate to, Long theaterId, Long movieId, Long cursor, int size) {
+        Booking.BookingStatus status = parseBookingStatus(statusStr);
+        Payment.PaymentStatus paymentStatus = parsePaymentStatus(paymentStatusStr);
+        validateRange(from, to);
+        int pageSize = Math.max(1, Math.min(size, ADMIN_PAGE_MAX_SIZE));
+
+        List<BookingRepository.BookingSummaryView> rows = bookingRepository.findAdminPage(
+                cursor != null ? cursor : Long.MAX_VALUE,
+                status,
+                paymentStatus,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                theaterId,
+                movieId,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        Map<Long, List<String>> seatLabels = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<Long> bookingIds = rows.stream().map(BookingRepository.BookingSummaryView::getId).toList();
+            for (Object[] row : bookingSeatRepository.findSeatLabelsByBookingIds(bookingIds)) {
+                seatLabels.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row[1] + String.valueOf(row[2]));
+            }
+        }
+
+        List<BookingResponse> content = rows.stream()
+                .map(row -> mapToResponse(row, seatLabels.getOrDefault(row.getId(), List.of())))
+                .toList();
+
+        return CursorPageResponse.<BookingResponse>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(hasMore ? content.get(content.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Thống kê booking khớp bộ lọc của trang quản trị, tính trên DB (không phụ thuộc
+     * vào số trang client đã tải).
+     *
+     * <p>
+     * Không lọc gì: trả về kết quả tổng hợp toàn bảng được giữ lại
+     * {@code admin.booking-stats.cache-seconds} giây, để mỗi lần mở trang không quét
+     * lại toàn bộ bookings. Có bộ lọc: bắt buộc có {@code from} và {@code to} (tối đa
+     * {@value #ADMIN_STATS_MAX_RANGE_DAYS} ngày) để truy vấn đi theo index created_at.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public AdminBookingStatsResponse getAdminBookingStats(String statusStr, String paymentStatusStr,
+            LocalDate from, LocalDate to, Long theaterId, Long movieId) {
+        Booking.BookingStatus status = parseBookingStatus(statusStr);
+        Payment.PaymentStatus paymentStatus = parsePaymentStatus(paymentStatusStr);
+        validateRange(from, to);
+
+        if (status == null && paymentStatus == null && from == null && to == null
+                && theaterId == null && movieId == null) {
+            return unfilteredAdminBookingStats();
+        }
+        if (from == null || to == null) {
+            throw new BadRequestException("'from' and 'to' are required when filtering booking stats");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= ADMIN_STATS_MAX_RANGE_DAYS) {
+            throw new BadRequestException("Booking stats range must not exceed " + ADMIN_STATS_MAX_RANGE_DAYS + " days");
+        }
+        return toStatsResponse(bookingRepository.summarizeAdmin(status, paymentStatus,
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay(), theaterId, movieId));
+    }
+
+    /**
+     * Thống kê toàn bộ booking; chỉ một request tính lại khi bản cũ hết hạn.
+     */
+    private AdminBookingStatsResponse unfilteredAdminBookingStats() {
+        CachedStats cached = unfilteredStats;
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.stats();
+        }
+        synchronized (unfilteredStatsLock) {
+            cached = unfilteredStats;
+            if (cached == null || cached.expiresAt() <= now) {
+                AdminBookingStatsResponse stats = toStatsResponse(
+                        bookingRepository.summarizeAdmin(null, null, null, null, null, null));
+                cached = new CachedStats(stats, System.currentTimeMillis() + unfilteredStatsCacheSeconds * 1000);
+                unfilteredStats = cached;
+            }
+            return cached.stats();
+        }
+    }
+
+    private static AdminBookingStatsResponse toStatsResponse(BookingRepository.AdminBookingStatsView stats) {
+        return AdminBookingStatsResponse.builder()
+                .totalBookings(stats.getTotal())
+                .pendingBookings(stats.getPending())
+                .completedBookings(stats.getCompleted())
+                .paidRevenue(stats.getPaidRevenue())
+                .build();
+    }
+
+    private Booking.BookingStatus parseBookingStatus(String statusStr) {
+        if (statusStr == null || statusStr.isBlank()) {
+            return null;
+        }
+        try {
+            return Booking.BookingStatus.valueOf(statusStr.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid booking status: " + statusStr);
+        }
+    }
+
+    private Payment.PaymentStatus parsePaymentStatus(String statusStr) {
+        if (statusStr == null || statusStr.isBlank()) {
+            return null;
+        }
+        try {
+            return Payment.PaymentStatus.valueOf(statusStr.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid payment status: " + statusStr);
+        }
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
     }
 
     /**
@@ -766,14 +1143,32 @@ public class BookingService {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", id));
 
+        Booking.BookingStatus status;
         try {
-            Booking.BookingStatus status = Booking.BookingStatus.valueOf(statusStr.toUpperCase());
-            booking.setStatus(status);
-            booking = bookingRepository.save(booking);
-            return mapToResponse(booking);
+            status = Booking.BookingStatus.valueOf(statusStr.toUpperCase());
         } catch (IllegalArgumentException ex) {
             throw new BadRequestException("Invalid booking status: " + statusStr);
         }
+
+        Booking.BookingStatus previousStatus = booking.getStatus();
+        boolean wasHolding = isHoldingSeats(previousStatus);
+        boolean willHold = isHoldingSeats(status);
+
+        if (!wasHolding && willHold) {
+            reclaimSeats(booking);
+        }
+
+        booking.setStatus(status);
+        booking = bookingRepository.save(booking);
+
+        if (wasHolding && !willHold) {
+            releaseSeats(List.of(booking));
+        }
+        if (status != Booking.BookingStatus.PENDING) {
+            bookingHoldTimerWheel.cancel(booking.getId());
+        }
+        revenueRollupService.onStatusChange(booking, previousStatus, status);
+        return mapToResponse(booking);
     }
 
     /**
@@ -783,19 +1178,25 @@ public class BookingService {
     public void deleteBooking(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", id));
+        if (isHoldingSeats(booking.getStatus())) {
+            seatInventoryService.releaseAfterCommit(booking.getShowtime().getId(), getSeatIds(booking));
+        }
+        revenueRollupService.onDelete(booking);
         bookingRepository.delete(booking);
+        bookingHoldTimerWheel.cancel(id);
     }
 
     /**
-     * Expire các booking PENDING quá thời gian giữ chỗ.
-     * Được gọi bởi Scheduler định kỳ (mỗi phút).
+     * Quét toàn bộ booking PENDING quá thời gian giữ chỗ.
+     * Chỉ là lưới an toàn (booking tạo ở node khác, hẹn giờ bị bỏ lỡ); đường chính
+     * là {@link BookingHoldTimerWheel} + {@link #expireBookings}.
      * 
      * <p>
      * Giải phóng ghế cho người khác đặt khi:
      * </p>
      * <ul>
      * <li>Booking có status PENDING</li>
-     * <li>Đã tạo quá 15 phút mà chưa thanh toán</li>
+     * <li>Đã tạo quá thời gian giữ chỗ mà chưa thanh toán</li>
      * </ul>
      * 
      * @return Số lượng booking đã expire
@@ -803,24 +1204,194 @@ public class BookingService {
     @Transactional
     public int expirePendingBookings() {
         LocalDateTime expireTime = LocalDateTime.now().minusMinutes(HOLD_TIME_MINUTES);
-        List<Booking> expiredBookings = bookingRepository.findPendingBookingsToExpire(
+        List<Long> bookingIds = bookingRepository.findPendingBookingIdsToExpire(
                 Booking.BookingStatus.PENDING, expireTime);
+        return expireBookings(bookingIds);
+    }
+
+    /**
+     * Expire các booking đã tới hạn giữ chỗ bằng bulk UPDATE.
+     * 
+     * <p>
+     * Booking đã được thanh toán / hủy / xóa trong lúc chờ sẽ tự bị bỏ qua
+     * (chỉ booking còn PENDING và đã quá hạn mới bị khóa và cập nhật). Booking còn
+     * PENDING nhưng chưa quá hạn theo DB (VD: {@code createdAt} bị làm tròn lên khi lưu)
+     * được hẹn lại vào {@link BookingHoldTimerWheel} theo hạn tính từ DB.
+     * </p>
+     * 
+     * @param bookingIds ID các booking tới hạn (VD: từ timer wheel)
+     * @return Số lượng booking đã expire
+     */
+    @Transactional
+    public int expireBookings(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        List<Long> ids = new ArrayList<>(bookingIds);
+        for (int from = 0; from < ids.size(); from += EXPIRE_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + EXPIRE_BATCH_SIZE, ids.size()));
+            List<Long> dueIds = bookingRepository.lockPendingBookingIdsToExpire(
+                    chunk, Booking.BookingStatus.PENDING, now.minusMinutes(HOLD_TIME_MINUTES));
+            if (dueIds.size() < chunk.size()) {
+                rescheduleNotYetDue(chunk, dueIds);
+            }
+            if (dueIds.isEmpty()) {
+                continue;
+            }
+
+            expired += bookingRepository.updateStatusByIds(
+                    dueIds, Booking.BookingStatus.PENDING, Booking.BookingStatus.EXPIRED, now);
+            releaseSeatsOfBookingIds(dueIds);
+        }
 
-        for (Booking booking : expiredBookings) {
-            booking.setStatus(Booking.BookingStatus.EXPIRED);
-            bookingRepository.save(booking);
-            log.info("Booking {} đã expired do hết thời gian giữ chỗ", booking.getBookingCode());
+        if (expired > 0) {
+            countOutcome("expire", "expired").increment(expired);
+            log.info("Đã expire {} booking hết hạn giữ chỗ", expired);
         }
+        return expired;
+    }
 
-        if (!expiredBookings.isEmpty()) {
-            log.info("Đã expire {} booking hết hạn giữ chỗ", expiredBookings.size());
+    /**
+     * Hẹn lại các booking trong {@code chunk} vẫn còn PENDING nhưng chưa bị khóa để expire.
+     */
+    private void rescheduleNotYetDue(List<Long> chunk, List<Long> dueIds) {
+        List<Long> skipped = new ArrayList<>(chunk);
+        skipped.removeAll(dueIds);
+        for (Object[] row : bookingRepository.findIdAndCreatedAtByIdsAndStatus(skipped, Booking.BookingStatus.PENDING)) {
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            bookingHoldTimerWheel.schedule((Long) row[0], createdAt.plusMinutes(HOLD_TIME_MINUTES));
         }
+    }
 
-        return expiredBookings.size();
+    /**
+     * Hạn giữ chỗ của tất cả booking PENDING (dùng để nạp lại timer wheel khi khởi động).
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, LocalDateTime> getPendingHoldDeadlines() {
+        Map<Long, LocalDateTime> deadlines = new HashMap<>();
+        for (Object[] row : bookingRepository.findIdAndCreatedAtByStatus(Booking.BookingStatus.PENDING)) {
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            deadlines.put((Long) row[0], createdAt.plusMinutes(HOLD_TIME_MINUTES));
+        }
+        return deadlines;
+    }
+
+    // ==================== SEAT RELEASE HELPERS ====================
+
+    /**
+     * Counter "cinema.booking.outcomes" theo thao tác (confirm / cancel / expire) và kết quả.
+     */
+    private Counter countOutcome(String operation, String outcome) {
+        return Counter.builder("cinema.booking.outcomes")
+                .description("Số booking theo thao tác và kết quả")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Booking ở trạng thái này vẫn chiếm ghế của suất chiếu.
+     */
+    private boolean isHoldingSeats(Booking.BookingStatus status) {
+        return status != Booking.BookingStatus.CANCELLED && status != Booking.BookingStatus.EXPIRED;
+    }
+
+    private LocalDateTime getHoldDeadline(Booking booking) {
+        LocalDateTime createdAt = booking.getCreatedAt() != null ? booking.getCreatedAt() : LocalDateTime.now();
+        return createdAt.plusMinutes(HOLD_TIME_MINUTES);
+    }
+
+    private List<Long> getSeatIds(Booking booking) {
+        return booking.getBookingSeats().stream()
+                .map(bs -> bs.getSeat().getId())
+                .toList();
+    }
+
+    /**
+     * Giải phóng ghế của các booking đã hủy/hết hạn: gỡ khóa unique trong DB ngay,
+     * trả ghế về FREE trong inventory sau khi commit.
+     */
+    private void releaseSeats(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+
+        bookingSeatRepository.releaseSeatsOfBookings(
+                bookings.stream().map(Booking::getId).toList());
+
+        for (Booking booking : bookings) {
+            seatInventoryService.releaseAfterCommit(booking.getShowtime().getId(), getSeatIds(booking));
+        }
+    }
+
+    /**
+     * Như {@link #releaseSeats(List)} nhưng chỉ dựa trên ID booking (sau bulk UPDATE,
+     * không cần nạp entity).
+     */
+    private void releaseSeatsOfBookingIds(List<Long> bookingIds) {
+        Map<Long, List<Long>> seatIdsByShowtime = new HashMap<>();
+        for (Object[] row : bookingSeatRepository.findShowtimeAndSeatIdsByBookingIds(bookingIds)) {
+            seatIdsByShowtime.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        bookingSeatRepository.releaseSeatsOfBookings(bookingIds);
+        seatIdsByShowtime.forEach(seatInventoryService::releaseAfterCommit);
+    }
+
+    /**
+     * Giữ lại ghế khi admin khôi phục booking đã hủy/hết hạn.
+     * 
+     * @throws SeatAlreadyBookedException Khi ghế đã được người khác đặt trong lúc đó
+     */
+    private void reclaimSeats(Booking booking) {
+        Showtime showtime = booking.getShowtime();
+        List<Seat> seats = booking.getBookingSeats().stream()
+                .map(BookingSeat::getSeat)
+                .toList();
+
+        holdSeats(seats, showtime);
+        for (BookingSeat bookingSeat : booking.getBookingSeats()) {
+            bookingSeat.setActiveShowtimeId(showtime.getId());
+        }
     }
 
     // ==================== MAPPING METHODS ====================
 
+    /**
+     * Map projection của trang quản trị sang BookingResponse DTO.
+     */
+    private BookingResponse mapToResponse(BookingRepository.BookingSummaryView row, List<String> seatLabels) {
+        return BookingResponse.builder()
+                .id(row.getId())
+                .bookingCode(row.getBookingCode())
+                .seatAmount(row.getSeatAmount())
+                .foodAmount(row.getFoodAmount())
+                .totalAmount(row.getTotalAmount())
+                .discountAmount(row.getDiscountAmount())
+                .finalAmount(row.getFinalAmount())
+                .numberOfSeats(row.getNumberOfSeats())
+                .status(row.getStatus())
+                .notes(row.getNotes())
+                .createdAt(row.getCreatedAt())
+                .userId(row.getUserId())
+                .userFullName(row.getUserFullName())
+                .userEmail(row.getUserEmail())
+                .showtimeId(row.getShowtimeId())
+                .showDate(row.getShowDate())
+                .startTime(row.getStartTime())
+                .movieId(row.getMovieId())
+                .movieTitle(row.getMovieTitle())
+                .moviePosterUrl(row.getMoviePosterUrl())
+                .theaterName(row.getTheaterName())
+                .roomName(row.getRoomName())
+                .seatLabels(seatLabels)
+                .paymentStatus(row.getPaymentStatus() != null ? row.getPaymentStatus().name() : "NOT_PAID")
+                .build();
+    }
+
     /**
      * Map Booking entity sang BookingResponse DTO.
      * 
@@ -867,4 +1438,7 @@ public class BookingService {
                 .paymentStatus(paymentStatus)
                 .build();
     }
+
+    private record CachedStats(AdminBookingStatsResponse stats, long expiresAt) {
+    }
 }
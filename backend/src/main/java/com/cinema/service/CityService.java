@@ -28,6 +28,7 @@ public class CityService {
     private final CityRepository cityRepository;
     private final RegionRepository regionRepository;
     private final TheaterRepository theaterRepository;
+    private final SuggestionIndex suggestionIndex;
 
     /**
      * Lấy tất cả thành phố đang hoạt động
@@ -107,6 +108,7 @@ public class CityService {
                 .build();
 
         City savedCity = cityRepository.save(city);
+        suggestionIndex.indexCityAfterCommit(savedCity);
         log.info("Created new city: {} with code: {} in region: {}", name, code, region.getName());
 
         return mapToResponse(savedCity);
@@ -153,6 +155,7 @@ public class CityService {
         for (Theater theater : theatersWithoutCity) {
             theater.setCity(defaultCity);
             theaterRepository.save(theater);
+            suggestionIndex.indexTheaterAfterCommit(theater);
             log.info("Migrated theater '{}' to city '{}'", theater.getName(), defaultCity.getName());
             migratedCount++;
         }
@@ -183,6 +186,7 @@ public class CityService {
                         .build();
 
                 cityRepository.save(city);
+                suggestionIndex.indexCityAfterCommit(city);
                 log.info("Created default city '{}' for region '{}'", defaultCityName, region.getName());
             }
         }
@@ -0,0 +1,183 @@
+package com.cinema.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sinh mã nghiệp vụ (mã booking, mã giao dịch thanh toán) tăng dần theo thời gian,
+ * duy nhất giữa các node mà không cần phối hợp.
+ *
+ * <p>
+ * Mỗi mã là một ID 64 bit kiểu Snowflake: 41 bit mili giây kể từ {@link #EPOCH}
+ * (~69 năm), 10 bit node ID, 12 bit sequence (4096 mã / ms / node). ID được mã hóa
+ * Crockford Base32 cố định 13 ký tự (không có I, L, O, U) cộng 1 ký tự kiểm tra
+ * (Luhn mod 32), nên thứ tự chuỗi trùng thứ tự thời gian: mã mới luôn được chèn
+ * vào cuối B-tree của unique index thay vì rải ngẫu nhiên như UUID.
+ * </p>
+ *
+ * <p>
+ * Trạng thái (timestamp, sequence) nằm trong một {@link AtomicLong} và được tăng
+ * bằng CAS: hết sequence trong 1 ms hoặc đồng hồ bị lùi thì mượn mili giây kế
+ * tiếp thay vì chờ, nên mã trên một node luôn tăng ngặt. Tính duy nhất giữa các
+ * node dựa vào {@code code-generator.node-id} khác nhau trên mỗi node, nên thuộc tính
+ * này là bắt buộc: thiếu thì ứng dụng không khởi động, trừ khi khai báo rõ
+ * {@code code-generator.single-node=true} (khi đó dùng node 0).
+ * </p>
+ */
+@Service
+@Slf4j
+public class CodeGenerator {
+
+    public static final String BOOKING_PREFIX = "BK";
+    public static final String TRANSACTION_PREFIX = "TXN";
+
+    /** 2024-01-01T00:00:00Z */
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    /** Số ký tự Base32 của một ID 64 bit */
+    static final int ID_LENGTH = 13;
+
+    /** Độ dài phần sau prefix: ID + ký tự kiểm tra */
+    public static final int CODE_LENGTH = ID_LENGTH + 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    /** Giá trị của từng ký tự trong {@link #ALPHABET}, -1 nếu không hợp lệ */
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    @Value("${code-generator.node-id:-1}")
+    private long configuredNodeId;
+
+    @Value("${code-generator.single-node:false}")
+    private boolean singleNode;
+
+    private long nodeId;
+
+    /** (mili giây kể từ EPOCH << SEQUENCE_BITS) | sequence của mã cấp gần nhất */
+    private final AtomicLong last = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > MAX_NODE_ID) {
+                throw new IllegalStateException("code-generator.node-id must be between 0 and " + MAX_NODE_ID);
+            }
+            nodeId = configuredNodeId;
+        } else if (singleNode) {
+            nodeId = 0;
+        } else {
+            // Suy ra từ host name có thể trùng giữa hai node -> mã trùng nhau, nên không đoán
+            throw new IllegalStateException("code-generator.node-id is not set: give every node a distinct "
+                    + "value between 0 and " + MAX_NODE_ID + ", or set code-generator.single-node=true "
+                    + "when only one instance runs");
+        }
+        log.info("Code generator node id: {}", nodeId);
+    }
+
+    /**
+     * Mã booking, VD: BK0A894KR8R015P4 (16 ký tự).
+     */
+    public String nextBookingCode() {
+        return BOOKING_PREFIX + encode(nextId());
+    }
+
+    /**
+     * Mã giao dịch thanh toán, VD: TXN0A894KRER0000J (17 ký tự).
+     */
+    public String nextTransactionId() {
+        return TRANSACTION_PREFIX + encode(nextId());
+    }
+
+    /**
+     * ID 64 bit tiếp theo, tăng ngặt trên node hiện tại.
+     */
+    long nextId() {
+        while (true) {
+            long previous = last.get();
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            // previous + 1 tràn sequence sẽ tự nhớ sang mili giây kế tiếp
+            long next = Math.max(now, previous + 1);
+            if (last.compareAndSet(previous, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * Kiểm tra ký tự kiểm tra của mã theo định dạng mới (prefix + 13 ký tự + 1 ký tự kiểm tra).
+     * Mã theo định dạng cũ (UUID) trả về false.
+     */
+    public static boolean hasValidCheckDigit(String code, String prefix) {
+        if (code == null || !code.startsWith(prefix) || code.length() != prefix.length() + CODE_LENGTH) {
+            return false;
+        }
+        String body = code.substring(prefix.length(), code.length() - 1);
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c >= 128 || VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return checkChar(body) == code.charAt(code.length() - 1);
+    }
+
+    /**
+     * Mã chắc chắn là mã định dạng mới bị gõ sai: đúng độ dài, sai ký tự kiểm tra, và không
+     * thể là mã cũ trùng độ dài (dữ liệu mẫu dùng prefix + {@code currentTimeMillis} + số thứ
+     * tự, toàn chữ số). Mã cũ / không chắc chắn trả về false để vẫn được tra trong DB.
+     */
+    public static boolean isMistyped(String code, String prefix) {
+        if (code == null || !code.startsWith(prefix) || code.length() != prefix.length() + CODE_LENGTH) {
+            return false;
+        }
+        boolean numeric = code.chars().skip(prefix.length()).allMatch(Character::isDigit);
+        return !numeric && !hasValidCheckDigit(code, prefix);
+    }
+
+    /**
+     * Base32 cố định {@link #ID_LENGTH} ký tự (có số 0 đứng đầu) + ký tự kiểm tra.
+     */
+    static String encode(long id) {
+        char[] chars = new char[CODE_LENGTH];
+        long value = id;
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        chars[ID_LENGTH] = checkChar(new String(chars, 0, ID_LENGTH));
+        return new String(chars);
+    }
+
+    /**
+     * Luhn mod 32: phát hiện mọi lỗi sai 1 ký tự và phần lớn lỗi đảo 2 ký tự liền nhau.
+     */
+    private static char checkChar(String body) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = body.length() - 1; i >= 0; i--) {
+            int addend = factor * VALUES[body.charAt(i)];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / 32 + addend % 32;
+        }
+        return ALPHABET[(32 - sum % 32) % 32];
+    }
+}
@@ -0,0 +1,331 @@
+package com.cinema.service;
+
+import com.cinema.exception.BadRequestException;
+import com.cinema.exception.DuplicateResourceException;
+import com.cinema.model.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Chống thực thi lặp cho các POST có header {@code Idempotency-Key} (client retry khi timeout).
+ *
+ * <p>
+ * Hai tầng:
+ * </p>
+ * <ul>
+ * <li>Bộ nhớ: map key → future của lần thực thi đầu tiên. Request trùng trên cùng node
+ * chờ future đó (coalesce) thay vì chạy lại; request lặp lại sau khi xong được trả
+ * ngay response đã lưu, không chạm tới seat inventory hay DB lock.</li>
+ * <li>DB ({@code idempotency_keys}): node đầu tiên INSERT dòng IN_PROGRESS để chiếm key,
+ * ghi response khi xong. Node khác gặp key đang chạy thì poll tới khi có kết quả.</li>
+ * </ul>
+ *
+ * <p>
+ * Key được băm theo scope + user nên hai user không thể đọc response của nhau.
+ * Lần thực thi lỗi không được lưu: key được giải phóng để client thử lại.
+ * </p>
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    /** Header trả về "true" khi response được lấy lại từ lần thực thi trước */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO idempotency_keys "
+            + "(id, scope, request_hash, status, response, created_at, expires_at) VALUES (?, ?, ?, ?, NULL, ?, ?)";
+    private static final String SELECT_SQL = "SELECT request_hash, status, response, expires_at "
+            + "FROM idempotency_keys WHERE id = ?";
+    private static final String COMPLETE_SQL = "UPDATE idempotency_keys SET status = ?, response = ?, expires_at = ? "
+            + "WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM idempotency_keys WHERE id = ?";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM idempotency_keys WHERE id = ? AND expires_at < ?";
+    private static final String PURGE_SQL = "DELETE FROM idempotency_keys WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration memoryTtl;
+    private final Duration waitTimeout;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.memory-ttl-minutes:10}") long memoryTtlMinutes,
+            @Value("${idempotency.wait-timeout-ms:15000}") long waitTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.memoryTtl = Duration.ofMinutes(memoryTtlMinutes);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+    }
+
+    /**
+     * Kết quả của {@link #execute}.
+     *
+     * @param value    Response
+     * @param replayed true nếu lấy lại từ lần thực thi trước (hoặc lần đang chạy song song)
+     */
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * Chạy {@code action} tối đa một lần cho mỗi (scope, user, key).
+     *
+     * @param scope        Tên thao tác, VD "booking.create"
+     * @param key          Giá trị header Idempotency-Key
+     * @param request      Body request, dùng để phát hiện key bị dùng lại cho request khác
+     * @param responseType Kiểu response để đọc lại từ JSON
+     * @param action       Thao tác thật
+     * @throws BadRequestException        Key không hợp lệ hoặc đã dùng cho request khác
+     * @throws DuplicateResourceException Request cùng key trên node khác chưa xong sau thời gian chờ
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Class<T> responseType,
+            Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " phải có từ 1 đến " + MAX_KEY_LENGTH + " ký tự");
+        }
+        String id = sha256(scope + '\n' + currentUsername() + '\n' + key);
+        String requestHash = sha256(toJson(request));
+
+        Entry mine = new Entry(requestHash);
+        while (true) {
+            Entry existing = entries.putIfAbsent(id, mine);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(id, existing);
+                continue;
+            }
+            checkSameRequest(existing.requestHash, requestHash);
+            count(scope, existing.response.isDone() ? "replayed" : "coalesced");
+            return new Result<>(fromJson(await(existing), responseType), true);
+        }
+
+        boolean claimed = false;
+        try {
+            String stored = claimOrAwait(id, scope, requestHash);
+            if (stored != null) {
+                mine.complete(stored, memoryTtl);
+                count(scope, "replayed");
+                return new Result<>(fromJson(stored, responseType), true);
+            }
+            claimed = true;
+
+            T value = action.get();
+            String json = toJson(value);
+            store(id, json);
+            mine.complete(json, memoryTtl);
+            count(scope, "executed");
+            return new Result<>(value, false);
+        } catch (RuntimeException e) {
+            entries.remove(id, mine);
+            if (claimed) {
+                release(id);
+            }
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Xóa key đã hết hạn trong bộ nhớ và DB.
+     *
+     * @return Số dòng đã xóa trong DB
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // ==================== DB ====================
+
+    /**
+     * Chiếm key ở DB.
+     *
+     * @return null nếu node này được thực thi; ngược lại response JSON đã lưu
+     */
+    private String claimOrAwait(String id, String scope, String requestHash) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                // Dòng IN_PROGRESS chỉ sống gấp đôi thời gian chờ: node chết giữa chừng không khóa key tới hết TTL
+                jdbcTemplate.update(INSERT_SQL, id, scope, requestHash, IdempotencyRecord.Status.IN_PROGRESS.name(),
+                        Timestamp.valueOf(now), Timestamp.valueOf(now.plus(waitTimeout.multipliedBy(2))));
+                return null;
+            } catch (DuplicateKeyException e) {
+                List<StoredKey> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredKey(
+                        rs.getString("request_hash"),
+                        IdempotencyRecord.Status.valueOf(rs.getString("status")),
+                        rs.getString("response"),
+                        rs.getTimestamp("expires_at").toLocalDateTime()), id);
+                if (rows.isEmpty()) {
+                    continue; // Vừa bị xóa -> thử chiếm lại
+                }
+                StoredKey row = rows.get(0);
+                if (row.expiresAt().isBefore(now)) {
+                    jdbcTemplate.update(DELETE_EXPIRED_SQL, id, Timestamp.valueOf(now));
+                    continue;
+                }
+                checkSameRequest(row.requestHash(), requestHash);
+                if (row.status() == IdempotencyRecord.Status.COMPLETED) {
+                    return row.response();
+                }
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw new DuplicateResourceException(
+                        "Yêu cầu với " + HEADER + " này đang được xử lý, vui lòng thử lại sau");
+            }
+            sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    private void store(String id, String json) {
+        try {
+            jdbcTemplate.update(COMPLETE_SQL, IdempotencyRecord.Status.COMPLETED.name(), json,
+                    Timestamp.valueOf(LocalDateTime.now().plus(ttl)), id);
+        } catch (DataAccessException e) {
+            // Thao tác đã thành công; chỉ mất khả năng replay trên node khác
+            log.warn("Không lưu được response idempotency {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void release(String id) {
+        try {
+            jdbcTemplate.update(DELETE_SQL, id);
+        } catch (DataAccessException e) {
+            log.warn("Không giải phóng được idempotency key {}: {}", id, e.getMessage());
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private String await(Entry entry) {
+        try {
+            return entry.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Lần thực thi đầu tiên lỗi -> request trùng nhận cùng lỗi
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException(
+                    "Yêu cầu với " + HEADER + " này đang được xử lý, vui lòng thử lại sau");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new BadRequestException(HEADER + " đã được dùng cho một yêu cầu khác");
+        }
+    }
+
+    private void count(String scope, String outcome) {
+        meterRegistry.counter("cinema.idempotency.requests", "scope", scope, "outcome", outcome).increment();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent payload", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize stored idempotent response", e);
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private record StoredKey(String requestHash, IdempotencyRecord.Status status, String response,
+            LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Lần thực thi (đang chạy hoặc đã xong) của một key trên node này.
+     */
+    private static final class Entry {
+        final String requestHash;
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        void complete(String json, Duration ttl) {
+            expiresAtMillis = System.currentTimeMillis() + ttl.toMillis();
+            response.complete(json);
+        }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis > expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Chỉ mục tìm kiếm phim in-memory (inverted index) trên tiêu đề, thể loại, đạo diễn và diễn viên.
+ *
+ * <p>
+ * Văn bản được chuẩn hóa bỏ dấu tiếng Việt ("Mắt Biếc" ~ "mat biec"). Mỗi từ
+ * trong truy vấn được khớp chính xác, theo tiền tố (từ cuối cùng, khi đang gõ)
+ * hoặc sai 1 ký tự (từ ≥ 4 ký tự, tra qua bảng "xóa 1 ký tự" kiểu SymSpell nên
+ * không phải quét từ điển). Điểm = tổng IDF × trọng số trường, ưu tiên tiêu đề.
+ * </p>
+ *
+ * <p>
+ * Snapshot chỉ mục là immutable; thay đổi phim (MovieService, đồng bộ TMDB,
+ * scheduler trạng thái) được áp dụng sau khi transaction commit và snapshot
+ * được dựng lại lười ở lần tìm kiếm kế tiếp.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovieSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final float TITLE_WEIGHT = 5f;
+    private static final float DIRECTOR_WEIGHT = 2f;
+    private static final float ACTOR_WEIGHT = 1.5f;
+    private static final float GENRE_WEIGHT = 1.5f;
+
+    private static final float PREFIX_FACTOR = 0.8f;
+    private static final float FUZZY_FACTOR = 0.5f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final MovieRepository movieRepository;
+
+    private final Map<Long, MovieDocument> documents = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+    private volatile boolean dirty = true;
+    private volatile boolean loaded;
+
+    /**
+     * Nạp toàn bộ phim từ DB (khi khởi động, sau dữ liệu mẫu).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        documents.clear();
+        for (Movie movie : movieRepository.findAll()) {
+            documents.put(movie.getId(), MovieDocument.of(movie));
+        }
+        loaded = true;
+        dirty = true;
+        log.info("Movie search index loaded: {} movies", documents.size());
+    }
+
+    /**
+     * Cập nhật phim vào chỉ mục sau khi transaction hiện tại commit.
+     */
+    public void indexAfterCommit(Movie movie) {
+        indexAfterCommit(List.of(movie));
+    }
+
+    public void indexAfterCommit(Collection<Movie> movies) {
+        // Chụp dữ liệu ngay (entity có thể bị detach / lazy sau commit)
+        List<MovieDocument> docs = movies.stream().map(MovieDocument::of).toList();
+        runAfterCommit(() -> {
+            docs.forEach(doc -> documents.put(doc.id(), doc));
+            dirty = true;
+        });
+    }
+
+    public void removeAfterCommit(Long movieId) {
+        runAfterCommit(() -> {
+            documents.remove(movieId);
+            dirty = true;
+        });
+    }
+
+    /**
+     * Tìm phim theo độ liên quan.
+     *
+     * @param status Lọc theo trạng thái (null = tất cả)
+     * @return ID phim sắp theo điểm giảm dần (hòa điểm: rating cao hơn trước)
+     */
+    public List<Long> search(String query, Movie.MovieStatus status) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        Snapshot index = snapshot();
+
+        float[] scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            float[] tokenScores = index.scoreToken(tokens.get(i), i == tokens.size() - 1);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // AND: phim phải khớp mọi từ trong truy vấn
+                for (int doc = 0; doc < scores.length; doc++) {
+                    scores[doc] = tokenScores[doc] > 0 && scores[doc] > 0 ? scores[doc] + tokenScores[doc] : 0;
+                }
+            }
+        }
+
+        String phrase = String.join(" ", tokens);
+        List<Integer> hits = new ArrayList<>();
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (scores[doc] <= 0 || (status != null && index.docs[doc].status() != status)) {
+                continue;
+            }
+            String title = index.docs[doc].normalizedTitle();
+            if (title.equals(phrase)) {
+                scores[doc] *= 2f;
+            } else if (title.startsWith(phrase)) {
+                scores[doc] *= 1.5f;
+            }
+            hits.add(doc);
+        }
+
+        final float[] finalScores = scores;
+        hits.sort(Comparator.<Integer>comparingDouble(doc -> -finalScores[doc])
+                .thenComparingDouble(doc -> -index.docs[doc].rating())
+                .thenComparingLong(doc -> -index.docs[doc].id()));
+        return hits.stream().map(doc -> index.docs[doc].id()).toList();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !dirty) {
+            return current;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                rebuild();
+            }
+            if (snapshot == null || dirty) {
+                dirty = false;
+                snapshot = Snapshot.build(documents.values());
+            }
+            return snapshot;
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Chuẩn hóa: bỏ dấu, đ -> d, chữ thường.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return folded.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        String normalized = normalize(text).trim();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Khoảng cách Damerau-Levenshtein (optimal string alignment) có giới hạn; trả về max + 1 nếu vượt.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    /**
+     * Dữ liệu một phim trong chỉ mục.
+     */
+    record MovieDocument(Long id, String normalizedTitle, Movie.MovieStatus status, double rating,
+            Map<String, Float> termWeights) {
+
+        static MovieDocument of(Movie movie) {
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, movie.getTitle(), TITLE_WEIGHT);
+            addField(weights, movie.getDirector(), DIRECTOR_WEIGHT);
+            addField(weights, movie.getActors(), ACTOR_WEIGHT);
+            addField(weights, movie.getGenre(), GENRE_WEIGHT);
+            return new MovieDocument(
+                    movie.getId(),
+                    String.join(" ", tokenize(movie.getTitle())),
+                    movie.getStatus(),
+                    movie.getRating() != null ? movie.getRating() : 0,
+                    Map.copyOf(weights));
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float weight) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, weight, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Chỉ mục immutable dựng từ tập document hiện tại.
+     */
+    private static final class Snapshot {
+
+        private final MovieDocument[] docs;
+        /** term -> (doc index, trọng số) */
+        private final Map<String, int[]> postingDocs;
+        private final Map<String, float[]> postingWeights;
+        /** Các term đã sắp xếp (tra tiền tố bằng binary search) */
+        private final String[] sortedTerms;
+        /** Biến thể "xóa 1 ký tự" -> các term gốc (tra từ sai chính tả) */
+        private final Map<String, List<String>> deletes;
+
+        private Snapshot(MovieDocument[] docs, Map<String, int[]> postingDocs, Map<String, float[]> postingWeights,
+                Map<String, List<String>> deletes) {
+            this.docs = docs;
+            this.postingDocs = postingDocs;
+            this.postingWeights = postingWeights;
+            this.sortedTerms = postingDocs.keySet().toArray(String[]::new);
+            Arrays.sort(sortedTerms);
+            this.deletes = deletes;
+        }
+
+        static Snapshot build(Collection<MovieDocument> documents) {
+            MovieDocument[] docs = documents.toArray(MovieDocument[]::new);
+
+            Map<String, List<Integer>> docLists = new HashMap<>();
+            for (int doc = 0; doc < docs.length; doc++) {
+                for (String term : docs[doc].termWeights().keySet()) {
+                    docLists.computeIfAbsent(term, t -> new ArrayList<>()).add(doc);
+                }
+            }
+
+            Map<String, int[]> postingDocs = new HashMap<>(docLists.size() * 2);
+            Map<String, float[]> postingWeights = new HashMap<>(docLists.size() * 2);
+            Map<String, List<String>> deletes = new HashMap<>();
+            docLists.forEach((term, list) -> {
+                int[] ids = new int[list.size()];
+                float[] weights = new float[list.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = list.get(i);
+                    weights[i] = docs[ids[i]].termWeights().get(term);
+                }
+                postingDocs.put(term, ids);
+                postingWeights.put(term, weights);
+
+                if (term.length() >= MIN_FUZZY_LENGTH) {
+                    for (String variant : deleteVariants(term)) {
+                        deletes.computeIfAbsent(variant, v -> new ArrayList<>(2)).add(term);
+                    }
+                }
+            });
+            return new Snapshot(docs, postingDocs, postingWeights, deletes);
+        }
+
+        /**
+         * Điểm của từng document cho một từ trong truy vấn (0 = không khớp).
+         */
+        float[] scoreToken(String token, boolean allowPrefix) {
+            Map<String, Float> expansions = new LinkedHashMap<>();
+            if (postingDocs.containsKey(token)) {
+                expansions.put(token, 1f);
+            }
+            if (allowPrefix) {
+                int from = Arrays.binarySearch(sortedTerms, token);
+                from = from >= 0 ? from + 1 : -from - 1;
+                for (int i = from; i < sortedTerms.length && i - from < MAX_PREFIX_EXPANSIONS
+                        && sortedTerms[i].startsWith(token); i++) {
+                    expansions.putIfAbsent(sortedTerms[i], PREFIX_FACTOR);
+                }
+            }
+            if (token.length() >= MIN_FUZZY_LENGTH) {
+                for (String candidate : fuzzyCandidates(token)) {
+                    expansions.putIfAbsent(candidate, FUZZY_FACTOR);
+                }
+            }
+
+            float[] scores = new float[docs.length];
+            expansions.forEach((term, factor) -> {
+                int[] ids = postingDocs.get(term);
+                float[] weights = postingWeights.get(term);
+                float idf = (float) Math.log(1 + (double) docs.length / ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    scores[ids[i]] = Math.max(scores[ids[i]], weights[i] * factor * idf);
+                }
+            });
+            return scores;
+        }
+
+        private Set<String> fuzzyCandidates(String token) {
+            Set<String> candidates = new HashSet<>();
+            Set<String> probes = deleteVariants(token);
+            probes.add(token);
+            for (String probe : probes) {
+                // Term bị xóa 1 ký tự trùng token (thiếu ký tự) hoặc cùng bị xóa 1 ký tự (sai / đảo ký tự)
+                if (postingDocs.containsKey(probe)) {
+                    candidates.add(probe);
+                }
+                List<String> terms = deletes.get(probe);
+                if (terms != null) {
+                    candidates.addAll(terms);
+                }
+            }
+            candidates.remove(token);
+            candidates.removeIf(term -> editDistance(token, term, 1) > 1);
+            return candidates;
+        }
+
+        private static Set<String> deleteVariants(String term) {
+            Set<String> variants = new HashSet<>();
+            for (int i = 0; i < term.length(); i++) {
+                variants.add(term.substring(0, i) + term.substring(i + 1));
+            }
+            return variants;
+        }
+    }
+}
@@ -9,12 +9,16 @@ import com.cinema.repository.MovieRepository;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,9 +27,14 @@ public class MovieService {
 
     private final MovieRepository movieRepository;
     private final ModelMapper modelMapper;
+    private final MovieSearchIndex movieSearchIndex;
+    private final SuggestionIndex suggestionIndex;
 
     public PageResponse<MovieResponse> getAllMovies(String keyword, Movie.MovieStatus status, Pageable pageable) {
-        Page<Movie> movies = movieRepository.searchAndFilterMovies(keyword, status, pageable);
+        if (keyword != null && !keyword.isBlank()) {
+            return createPageResponse(searchIndex(keyword, status, pageable));
+        }
+        Page<Movie> movies = movieRepository.searchAndFilterMovies(null, status, pageable);
         return createPageResponse(movies);
     }
 
@@ -81,9 +90,29 @@ public class MovieService {
         return modelMapper.map(movie, MovieResponse.class);
     }
 
+    /**
+     * Tìm phim theo độ liên quan qua {@link MovieSearchIndex} (không dấu, chịu lỗi gõ 1 ký tự).
+     */
     public PageResponse<MovieResponse> searchMovies(String keyword, Pageable pageable) {
-        Page<Movie> movies = movieRepository.searchMovies(keyword, pageable);
-        return createPageResponse(movies);
+        return createPageResponse(searchIndex(keyword, null, pageable));
+    }
+
+    /**
+     * Lấy trang kết quả từ chỉ mục rồi nạp đúng các phim của trang đó (1 query theo ID).
+     */
+    private Page<Movie> searchIndex(String keyword, Movie.MovieStatus status, Pageable pageable) {
+        List<Long> ids = movieSearchIndex.search(keyword, status);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+
+        Map<Long, Movie> byId = movieRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        List<Movie> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.size());
     }
 
     @Transactional
@@ -106,6 +135,8 @@ public class MovieService {
                 .build();
 
         movie = movieRepository.save(movie);
+        movieSearchIndex.indexAfterCommit(movie);
+        suggestionIndex.indexMovieAfterCommit(movie);
         return modelMapper.map(movie, MovieResponse.class);
     }
 
@@ -132,6 +163,8 @@ public class MovieService {
         }
 
         movie = movieRepository.save(movie);
+        movieSearchIndex.indexAfterCommit(movie);
+        suggestionIndex.indexMovieAfterCommit(movie);
         return modelMapper.map(movie, MovieResponse.class);
     }
 
@@ -140,6 +173,8 @@ public class MovieService {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie", "id", id));
         movieRepository.delete(movie);
+        movieSearchIndex.removeAfterCommit(id);
+        suggestionIndex.removeAfterCommit(SuggestionIndex.Type.MOVIE, id);
     }
 
     public List<String> getAllGenres() {
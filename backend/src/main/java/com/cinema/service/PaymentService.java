@@ -12,13 +12,14 @@ import com.cinema.model.User;
 import com.cinema.repository.BookingRepository;
 import com.cinema.repository.PaymentRepository;
 import com.cinema.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -27,8 +28,13 @@ public class PaymentService {
     
     private final PaymentRepository paymentRepository;
     private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
     private final UserRepository userRepository;
     private final RewardPointService rewardPointService;
+    private final SeatInventoryService seatInventoryService;
+    private final RevenueRollupService revenueRollupService;
+    private final CodeGenerator codeGenerator;
+    private final MeterRegistry meterRegistry;
     
     // 1 điểm = 1.000đ
     private static final BigDecimal POINT_TO_VND = new BigDecimal("1000");
@@ -104,11 +110,14 @@ public class PaymentService {
             throw new BadRequestException("Payment is not in pending status");
         }
         
+        // Khóa booking trước: booking đã EXPIRED / quá hạn giữ chỗ không được thanh toán
+        bookingService.lockForConfirmation(payment.getBooking().getId());
         // Load booking with showtime and movie to avoid LazyInitializationException
         Booking booking = bookingRepository.findByIdWithShowtimeAndMovie(payment.getBooking().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", payment.getBooking().getId()));
         User user = booking.getUser();
         
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             // Trừ điểm thưởng nếu có sử dụng
             if (booking.getPointsUsed() != null && booking.getPointsUsed() > 0) {
@@ -126,13 +135,17 @@ public class PaymentService {
             }
             
             // Simulate payment processing
-            String transactionId = "TXN" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
+            String transactionId = codeGenerator.nextTransactionId();
 
             payment.markAsCompleted(transactionId);
             
             // Update booking status
+            Booking.BookingStatus previousStatus = booking.getStatus();
             booking.setStatus(Booking.BookingStatus.CONFIRMED);
             bookingRepository.save(booking);
+            revenueRollupService.onStatusChange(booking, previousStatus, Booking.BookingStatus.CONFIRMED);
+            seatInventoryService.markSoldAfterCommit(booking.getShowtime().getId(),
+                    booking.getBookingSeats().stream().map(bs -> bs.getSeat().getId()).toList());
             
             paymentRepository.save(payment);
             
@@ -155,13 +168,25 @@ public class PaymentService {
                     user.getEmail(), pointsToEarn, booking.getBookingCode());
             }
             
+            sample.stop(processTimer("success"));
             return mapToResponse(payment);
         } catch (Exception e) {
+            sample.stop(processTimer("error"));
             log.error("Error processing payment {}: {}", paymentId, e.getMessage(), e);
             throw e;
         }
     }
     
+    /**
+     * Timer "cinema.payment.process" theo kết quả xử lý thanh toán.
+     */
+    private Timer processTimer(String outcome) {
+        return Timer.builder("cinema.payment.process")
+                .description("Thời gian xử lý thanh toán")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
     /**
      * Tính điểm tích lũy dựa trên số tiền thanh toán.
      * Công thức: 10.000đ = 1 điểm (làm tròn xuống)
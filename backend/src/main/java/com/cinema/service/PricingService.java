@@ -1,9 +1,8 @@
 package com.cinema.service;
 
 import com.cinema.model.*;
-import com.cinema.repository.PriceHeaderRepository;
-import com.cinema.repository.PriceLineRepository;
-import com.cinema.repository.SurchargeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,19 +17,36 @@ import java.util.List;
 @Slf4j
 public class PricingService {
 
-    private final PriceHeaderRepository priceHeaderRepository;
-    private final PriceLineRepository priceLineRepository;
-    private final SurchargeRepository surchargeRepository;
+    private final RateCardService rateCardService;
     private final com.cinema.repository.ShowtimeRepository showtimeRepository;
     private final com.cinema.repository.SeatRepository seatRepository;
     private final com.cinema.repository.UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    private static final long SEAT_MAP_QUOTE_TTL_MS = 5 * 60 * 1000L;
+    private static final int SEAT_MAP_QUOTE_MAX_ENTRIES = 2048;
+
+    // Cache báo giá sơ đồ ghế theo (showtimeId, customerType); chỉ hợp lệ với đúng snapshot rate card đã dùng
+    private final java.util.Map<SeatMapQuoteKey, CachedSeatMapQuote> seatMapQuotes = new java.util.concurrent.ConcurrentHashMap<>();
 
     /**
      * Calculate final ticket price based on Showtime, Seat, and User profile.
      */
     public BigDecimal calculateTicketPrice(Showtime showtime, Seat seat, User user) {
+        RateCardService.RateCard rateCard = rateCardService.getRateCard();
+        PriceFactors factors = resolveFactors(rateCard, showtime, deriveCustomerType(user));
+        return factors.basePrice().add(rateCard.seatSurcharge(seat));
+    }
+
+    /**
+     * Resolve the per-showtime pricing factors and base price once.
+     * Everything except the seat surcharge is identical for every seat of a showtime.
+     */
+    private PriceFactors resolveFactors(RateCardService.RateCard rateCard, Showtime showtime,
+            PriceLine.CustomerType customerType) {
+        meterRegistry.counter("cinema.pricing.calculations").increment();
+
         // 1. Determine Factors
-        PriceLine.CustomerType customerType = deriveCustomerType(user);
         PriceLine.DayType dayType = determineDayType(showtime.getShowDate());
         PriceLine.TimeSlot timeSlot = determineTimeSlot(showtime.getStartTime());
         Room.RoomType roomType = showtime.getRoom().getRoomType();
@@ -41,78 +57,42 @@ public class PricingService {
         log.debug("Calculating price for: Customer={}, Day={}, Time={}, Room={}",
                 customerType, dayType, timeSlot, roomType);
 
-        // 2. Find Base Price from Rate Card
-        BigDecimal basePrice = findBasePrice(showtime.getShowDate(), customerType, dayType, timeSlot, roomType);
+        // 2. Find Base Price from Rate Card (compiled snapshot, no DB access)
+        BigDecimal basePrice = findBasePrice(rateCard, showtime.getShowDate(), customerType, dayType, timeSlot,
+                roomType);
 
-        // 3. Apply Surcharges
-        BigDecimal surcharges = calculateSurcharges(seat, showtime);
+        return new PriceFactors(customerType, dayType, timeSlot, roomType, basePrice);
+    }
 
-        // 4. Final Total
-        return basePrice.add(surcharges);
+    /**
+     * Số lần phải dùng giá mặc định 50.000đ vì rate card không có header / line phù hợp.
+     */
+    private Counter fallbackCounter(String reason) {
+        return Counter.builder("cinema.pricing.fallback")
+                .description("Số lần tính giá phải dùng giá mặc định")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
 
-    private BigDecimal findBasePrice(LocalDate date, PriceLine.CustomerType customerType,
-            PriceLine.DayType dayType, PriceLine.TimeSlot timeSlot,
+    private BigDecimal findBasePrice(RateCardService.RateCard rateCard, LocalDate date,
+            PriceLine.CustomerType customerType, PriceLine.DayType dayType, PriceLine.TimeSlot timeSlot,
             Room.RoomType roomType) {
-        // Find active header
-        List<PriceHeader> headers = priceHeaderRepository.findActiveHeadersForDate(date);
-        if (headers.isEmpty()) {
+        // Find active header (highest priority) and matching line in O(1)
+        if (!rateCard.hasHeaderFor(date)) {
             log.warn("No active Price Header found for date {}. Using fallback price.", date);
+            fallbackCounter("no_header").increment();
             return new BigDecimal("50000"); // FALLBACK to avoid crash, but should calculate
         }
 
-        PriceHeader header = headers.get(0); // Highest priority
-
-        // Find matching line
-        // Optimization: In real app, cache this or use a specific DB query
-        return header.getPriceLines().stream()
-                .filter(line -> line.getCustomerType() == customerType &&
-                        line.getDayType() == dayType &&
-                        line.getTimeSlot() == timeSlot &&
-                        line.getRoomType() == roomType)
-                .map(PriceLine::getPrice)
-                .findFirst()
-                .orElseGet(() -> {
-                    log.warn("No Price Line found for criteria. Factors: {}/{}./{}/{}. Using fallback.",
-                            customerType, dayType, timeSlot, roomType);
-                    // Try to find a "Standard" fallback in the same header?
-                    // For now, return a safe default
-                    return new BigDecimal("50000");
-                });
-    }
-
-    private BigDecimal calculateSurcharges(Seat seat, Showtime showtime) {
-        BigDecimal totalSurcharge = BigDecimal.ZERO;
-        List<Surcharge> surcharges = surchargeRepository.findByActiveTrue();
-
-        for (Surcharge s : surcharges) {
-            switch (s.getType()) {
-                case SEAT_TYPE:
-                    // Logic change: Seat has a direct link to a Surcharge (which is its type)
-                    // We just need to check if the seat's assigned surcharge ID matches this
-                    // surcharge ID
-                    if (seat.getSeatType() != null && seat.getSeatType().getId().equals(s.getId())) {
-                        // The seat IS this surcharge type, so add the amount
-                        // Note: Surcharge logic usually iterates all active surcharges.
-                        // Only add if it matches.
-                        totalSurcharge = totalSurcharge.add(s.getAmount());
-                    }
-                    break;
-                case FORMAT_3D:
-                default:
-                    // Other types not implemented or handled elsewhere (e.g. at Ticket level)
-                    break;
-                case MOVIE_TYPE:
-                    // Check if movie is blockbuster? (Need field in Movie)
-                    // if (showtime.getMovie().isBlockbuster() &&
-                    // "BLOCKBUSTER".equals(s.getTargetId())) ...
-                    break;
-                case DATE_TYPE:
-                    // Holiday surcharge?
-                    break;
-            }
+        BigDecimal price = rateCard.findBasePrice(date, customerType, dayType, timeSlot, roomType);
+        if (price == null) {
+            log.warn("No Price Line found for criteria. Factors: {}/{}./{}/{}. Using fallback.",
+                    customerType, dayType, timeSlot, roomType);
+            fallbackCounter("no_line").increment();
+            // For now, return a safe default
+            return new BigDecimal("50000");
         }
-        return totalSurcharge;
+        return price;
     }
 
     public PriceLine.CustomerType deriveCustomerType(User user) {
@@ -169,26 +149,25 @@ public class PricingService {
             user = userRepository.findById(userId).orElse(null);
         }
 
+        // Factors are the same for every seat of the showtime -> resolve once
+        RateCardService.RateCard rateCard = rateCardService.getRateCard();
+        PriceFactors factors = resolveFactors(rateCard, showtime, deriveCustomerType(user));
+        String descPrefix = factors.customerType() + " | " + factors.dayType() + " | " + factors.timeSlot() + " | "
+                + factors.roomType();
+
         List<Seat> seats = seatRepository.findAllById(seatIds);
         BigDecimal totalPrice = BigDecimal.ZERO;
-        List<com.cinema.dto.response.CalculatedPriceResponse.PriceDetail> details = new java.util.ArrayList<>();
+        List<com.cinema.dto.response.CalculatedPriceResponse.PriceDetail> details = new java.util.ArrayList<>(
+                seats.size());
 
         for (Seat seat : seats) {
-            BigDecimal price = calculateTicketPrice(showtime, seat, user);
+            BigDecimal price = factors.basePrice().add(rateCard.seatSurcharge(seat));
             totalPrice = totalPrice.add(price);
 
-            PriceLine.CustomerType cType = deriveCustomerType(user);
-            PriceLine.DayType dType = determineDayType(showtime.getShowDate());
-            PriceLine.TimeSlot tSlot = determineTimeSlot(showtime.getStartTime());
-            com.cinema.model.Room.RoomType roomType = showtime.getRoom().getRoomType();
-
-            String desc = cType + " | " + dType + " | " + tSlot + " | " + roomType;
+            String desc = descPrefix;
             if (seat.getSeatType() != null) {
+                // Seat type surcharge is already included via the rate card
                 desc += " | " + seat.getSeatType().getName();
-
-                // Add seat type surcharge directly here if strict calculation needed,
-                // but calculateTicketPrice already includes it via calculateSurcharges.
-                // However, logic in calculateSurcharges needs update.
             }
 
             details.add(com.cinema.dto.response.CalculatedPriceResponse.PriceDetail.builder()
@@ -204,4 +183,114 @@ public class PricingService {
                 .details(details)
                 .build();
     }
+
+    /**
+     * Báo giá toàn bộ sơ đồ ghế của một suất chiếu trong một lượt.
+     *
+     * <p>
+     * Giá cơ bản chỉ được tính một lần, sau đó cộng phụ thu theo loại ghế; kết
+     * quả nhóm theo loại ghế. Báo giá được cache theo (showtimeId, customerType),
+     * tự mất hiệu lực khi rate card được biên dịch lại và bị bỏ khi suất chiếu hoặc
+     * phòng thay đổi. Mỗi lần gọi nhận một bản sao riêng với danh sách bất biến.
+     * </p>
+     *
+     * @param customerType Loại khách hàng; null thì suy ra từ user (khách vãng lai = ADULT)
+     */
+    public com.cinema.dto.response.SeatMapPriceResponse quoteSeatMap(Long showtimeId,
+            PriceLine.CustomerType customerType, Long userId) {
+        if (customerType == null) {
+            User user = userId != null ? userRepository.findById(userId).orElse(null) : null;
+            customerType = deriveCustomerType(user);
+        }
+
+        RateCardService.RateCard rateCard = rateCardService.getRateCard();
+        SeatMapQuoteKey key = new SeatMapQuoteKey(showtimeId, customerType);
+        long now = System.currentTimeMillis();
+
+        CachedSeatMapQuote cached = seatMapQuotes.get(key);
+        if (cached != null && cached.rateCard() == rateCard && cached.expiresAt() > now) {
+            meterRegistry.counter("cinema.pricing.seat-map-quotes", "result", "hit").increment();
+            return copyOf(cached.response());
+        }
+        meterRegistry.counter("cinema.pricing.seat-map-quotes", "result", "miss").increment();
+
+        Showtime showtime = showtimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new com.cinema.exception.ResourceNotFoundException("Showtime", "id", showtimeId));
+        PriceFactors factors = resolveFactors(rateCard, showtime, customerType);
+
+        java.util.Map<Long, com.cinema.dto.response.SeatMapPriceResponse.SeatTypePrice> byType = new java.util.LinkedHashMap<>();
+        for (Seat seat : seatRepository.findByRoomIdOrderByRowAndNumber(showtime.getRoom().getId())) {
+            if (!Boolean.TRUE.equals(seat.getActive())) {
+                continue;
+            }
+            Surcharge type = seat.getSeatType();
+            com.cinema.dto.response.SeatMapPriceResponse.SeatTypePrice group = byType.computeIfAbsent(
+                    type != null ? type.getId() : null, id -> {
+                        BigDecimal surcharge = rateCard.seatSurcharge(seat);
+                        return com.cinema.dto.response.SeatMapPriceResponse.SeatTypePrice.builder()
+                                .seatTypeCode(type != null ? type.getCode() : "STANDARD")
+                                .seatTypeName(type != null ? type.getName() : "Ghế Thường")
+                                .seatColor(type != null ? type.getColor() : null)
+                                .surcharge(surcharge)
+                                .price(factors.basePrice().add(surcharge))
+                                .seatIds(new java.util.ArrayList<>())
+                                .seatLabels(new java.util.ArrayList<>())
+                                .build();
+                    });
+            group.getSeatIds().add(seat.getId());
+            group.getSeatLabels().add(seat.getRowName() + seat.getSeatNumber());
+        }
+
+        com.cinema.dto.response.SeatMapPriceResponse response = com.cinema.dto.response.SeatMapPriceResponse.builder()
+                .showtimeId(showtimeId)
+                .customerType(customerType)
+                .dayType(factors.dayType())
+                .timeSlot(factors.timeSlot())
+                .roomType(factors.roomType() != null ? factors.roomType().name() : null)
+                .basePrice(factors.basePrice())
+                .seatTypes(byType.values().stream().map(PricingService::copyOf).toList())
+                .build();
+
+        if (seatMapQuotes.size() >= SEAT_MAP_QUOTE_MAX_ENTRIES) {
+            seatMapQuotes.clear();
+        }
+        seatMapQuotes.put(key, new CachedSeatMapQuote(rateCard, now + SEAT_MAP_QUOTE_TTL_MS, response));
+        return copyOf(response);
+    }
+
+    /**
+     * Bản sao báo giá cho từng caller, để không ai sửa được bản đang nằm trong cache.
+     */
+    private static com.cinema.dto.response.SeatMapPriceResponse copyOf(
+            com.cinema.dto.response.SeatMapPriceResponse response) {
+        return response.toBuilder()
+                .seatTypes(response.getSeatTypes().stream().map(PricingService::copyOf).toList())
+                .build();
+    }
+
+    private static com.cinema.dto.response.SeatMapPriceResponse.SeatTypePrice copyOf(
+            com.cinema.dto.response.SeatMapPriceResponse.SeatTypePrice group) {
+        return group.toBuilder()
+                .seatIds(List.copyOf(group.getSeatIds()))
+                .seatLabels(List.copyOf(group.getSeatLabels()))
+                .build();
+    }
+
+    /**
+     * Bỏ báo giá đã cache của suất chiếu (khi suất chiếu hoặc phòng thay đổi).
+     */
+    public void evictSeatMapQuotes(Long showtimeId) {
+        seatMapQuotes.keySet().removeIf(key -> key.showtimeId().equals(showtimeId));
+    }
+
+    private record PriceFactors(PriceLine.CustomerType customerType, PriceLine.DayType dayType,
+            PriceLine.TimeSlot timeSlot, Room.RoomType roomType, BigDecimal basePrice) {
+    }
+
+    private record SeatMapQuoteKey(Long showtimeId, PriceLine.CustomerType customerType) {
+    }
+
+    private record CachedSeatMapQuote(RateCardService.RateCard rateCard, long expiresAt,
+            com.cinema.dto.response.SeatMapPriceResponse response) {
+    }
 }
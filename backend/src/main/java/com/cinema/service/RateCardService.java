@@ -0,0 +1,178 @@
+package com.cinema.service;
+
+import com.cinema.model.PriceHeader;
+import com.cinema.model.PriceLine;
+import com.cinema.model.Room;
+import com.cinema.model.Seat;
+import com.cinema.model.Surcharge;
+import com.cinema.repository.PriceHeaderRepository;
+import com.cinema.repository.SurchargeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng giá đã biên dịch (rate card) dùng cho {@link PricingService}.
+ *
+ * <p>
+ * Toàn bộ PriceHeader đang active được nạp một lần và biên dịch thành mảng giá
+ * dày đặc, đánh chỉ số theo (CustomerType, DayType, TimeSlot, RoomType), kèm map
+ * phụ thu theo loại ghế. Tra giá là O(1) và không chạm DB.
+ * </p>
+ *
+ * <p>
+ * Snapshot là immutable; mọi thay đổi qua {@code PriceController} gọi
+ * {@link #refresh()} để dựng snapshot mới và thay thế nguyên tử.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RateCardService {
+
+    private static final int CUSTOMER_TYPES = PriceLine.CustomerType.values().length;
+    private static final int DAY_TYPES = PriceLine.DayType.values().length;
+    private static final int TIME_SLOTS = PriceLine.TimeSlot.values().length;
+    private static final int ROOM_TYPES = Room.RoomType.values().length;
+
+    private final PriceHeaderRepository priceHeaderRepository;
+    private final SurchargeRepository surchargeRepository;
+
+    private volatile RateCard current;
+
+    /**
+     * Snapshot bảng giá hiện tại (nạp lazy ở lần gọi đầu tiên).
+     */
+    public RateCard getRateCard() {
+        RateCard rateCard = current;
+        if (rateCard == null) {
+            synchronized (this) {
+                rateCard = current;
+                if (rateCard == null) {
+                    rateCard = compile();
+                    current = rateCard;
+                }
+            }
+        }
+        return rateCard;
+    }
+
+    /**
+     * Biên dịch lại bảng giá từ DB và thay thế snapshot hiện tại.
+     */
+    public synchronized void refresh() {
+        current = compile();
+    }
+
+    private RateCard compile() {
+        List<CompiledHeader> headers = priceHeaderRepository.findActiveWithLines().stream()
+                .filter(h -> h.getStartDate() != null && h.getEndDate() != null)
+                .sorted(Comparator
+                        .comparing((PriceHeader h) -> h.getPriority() != null ? h.getPriority() : Integer.MIN_VALUE)
+                        .reversed()
+                        .thenComparing(PriceHeader::getId))
+                .map(RateCardService::compileHeader)
+                .toList();
+
+        Map<Long, BigDecimal> seatSurcharges = new HashMap<>();
+        for (Surcharge surcharge : surchargeRepository.findByActiveTrue()) {
+            if (surcharge.getType() == Surcharge.SurchargeType.SEAT_TYPE) {
+                seatSurcharges.put(surcharge.getId(), surcharge.getAmount());
+            }
+        }
+
+        log.info("Compiled rate card: {} active price headers, {} seat surcharges",
+                headers.size(), seatSurcharges.size());
+        return new RateCard(headers, Map.copyOf(seatSurcharges));
+    }
+
+    private static CompiledHeader compileHeader(PriceHeader header) {
+        BigDecimal[] prices = new BigDecimal[CUSTOMER_TYPES * DAY_TYPES * TIME_SLOTS * ROOM_TYPES];
+        for (PriceLine line : header.getPriceLines()) {
+            if (line.getCustomerType() == null || line.getDayType() == null
+                    || line.getTimeSlot() == null || line.getRoomType() == null) {
+                continue;
+            }
+            prices[index(line.getCustomerType(), line.getDayType(), line.getTimeSlot(), line.getRoomType())] = line
+                    .getPrice();
+        }
+        return new CompiledHeader(header.getId(), header.getStartDate(), header.getEndDate(), prices);
+    }
+
+    private static int index(PriceLine.CustomerType customerType, PriceLine.DayType dayType,
+            PriceLine.TimeSlot timeSlot, Room.RoomType roomType) {
+        return ((customerType.ordinal() * DAY_TYPES + dayType.ordinal()) * TIME_SLOTS + timeSlot.ordinal())
+                * ROOM_TYPES + roomType.ordinal();
+    }
+
+    /**
+     * Một PriceHeader đã biên dịch: khoảng ngày hiệu lực + mảng giá.
+     */
+    record CompiledHeader(Long id, LocalDate startDate, LocalDate endDate, BigDecimal[] prices) {
+
+        boolean covers(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+    }
+
+    /**
+     * Snapshot bảng giá immutable.
+     */
+    public static final class RateCard {
+
+        private final List<CompiledHeader> headers; // đã sắp xếp theo priority giảm dần
+        private final Map<Long, BigDecimal> seatSurcharges;
+
+        RateCard(List<CompiledHeader> headers, Map<Long, BigDecimal> seatSurcharges) {
+            this.headers = headers;
+            this.seatSurcharges = seatSurcharges;
+        }
+
+        /**
+         * Có PriceHeader nào hiệu lực cho ngày này không.
+         */
+        public boolean hasHeaderFor(LocalDate date) {
+            return findHeader(date) != null;
+        }
+
+        /**
+         * Giá cơ bản từ header có priority cao nhất hiệu lực cho ngày này.
+         *
+         * @return Giá, hoặc null nếu không có header / không có dòng giá phù hợp
+         */
+        public BigDecimal findBasePrice(LocalDate date, PriceLine.CustomerType customerType,
+                PriceLine.DayType dayType, PriceLine.TimeSlot timeSlot, Room.RoomType roomType) {
+            CompiledHeader header = findHeader(date);
+            if (header == null) {
+                return null;
+            }
+            return header.prices()[index(customerType, dayType, timeSlot, roomType)];
+        }
+
+        /**
+         * Phụ thu theo loại ghế (Surcharge SEAT_TYPE đang active).
+         */
+        public BigDecimal seatSurcharge(Seat seat) {
+            if (seat.getSeatType() == null) {
+                return BigDecimal.ZERO;
+            }
+            return seatSurcharges.getOrDefault(seat.getSeatType().getId(), BigDecimal.ZERO);
+        }
+
+        private CompiledHeader findHeader(LocalDate date) {
+            for (CompiledHeader header : headers) {
+                if (header.covers(date)) {
+                    return header;
+                }
+            }
+            return null;
+        }
+    }
+}
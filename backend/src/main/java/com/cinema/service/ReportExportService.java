@@ -0,0 +1,236 @@
+package com.cinema.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Xuất báo cáo CSV dạng stream.
+ *
+ * <p>
+ * Mỗi báo cáo là một câu SQL đọc bằng ResultSet forward-only; từng dòng được
+ * ghi thẳng ra OutputStream của response (tùy chọn nén gzip), nên bộ nhớ không
+ * tăng theo số dòng. Với MySQL, fetch size {@link Integer#MIN_VALUE} bật chế độ
+ * streaming của Connector/J; các DB khác dùng {@code report.export.fetch-size}.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportExportService {
+
+    private static final String REVENUE_STATUSES = "('CONFIRMED', 'COMPLETED')";
+
+    /** Số dòng ghi giữa hai lần flush, để client nhận dữ liệu đều đặn */
+    private static final int FLUSH_EVERY_ROWS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${report.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Loại báo cáo: tên file, dòng header và câu SQL (tham số: từ ngày, đến ngày).
+     */
+    public enum ReportType {
+        REVENUE("revenue_report",
+                new String[] { "Date", "Bookings", "Revenue" },
+                "SELECT r.rollup_date, r.booking_count, r.revenue FROM revenue_daily_rollups r " +
+                        "WHERE r.rollup_date >= ? AND r.rollup_date <= ? AND r.booking_count > 0 " +
+                        "ORDER BY r.rollup_date",
+                false),
+
+        BOOKING_LEDGER("booking_ledger",
+                new String[] { "Booking ID", "Booking Code", "Created At", "Status", "Customer Email",
+                        "Movie", "Theater", "Room", "Show Date", "Start Time", "Seats",
+                        "Seat Amount", "Food Amount", "Discount", "Points Discount", "Final Amount",
+                        "Payment Method", "Payment Status", "Paid At" },
+                "SELECT b.id, b.booking_code, b.created_at, b.status, u.email, " +
+                        "m.title, t.name, r.name, s.show_date, s.start_time, b.number_of_seats, " +
+                        "b.seat_amount, b.food_amount, b.discount_amount, b.points_discount, b.final_amount, " +
+                        "p.payment_method, p.status, p.paid_at " +
+                        "FROM bookings b " +
+                        "JOIN users u ON u.id = b.user_id " +
+                        "JOIN showtimes s ON s.id = b.showtime_id " +
+                        "JOIN movies m ON m.id = s.movie_id " +
+                        "JOIN rooms r ON r.id = s.room_id " +
+                        "JOIN theaters t ON t.id = r.theater_id " +
+                        "LEFT JOIN payments p ON p.booking_id = b.id " +
+                        "WHERE b.created_at >= ? AND b.created_at < ? " +
+                        "ORDER BY b.id",
+                true),
+
+        THEATER_OCCUPANCY("theater_occupancy",
+                new String[] { "Show Date", "Theater ID", "Theater", "Showtimes", "Capacity", "Sold Seats",
+                        "Occupancy %" },
+                "SELECT s.show_date, t.id, t.name, COUNT(s.id), SUM(r.total_seats), " +
+                        "SUM(COALESCE(sold.seats, 0)), " +
+                        "ROUND(100.0 * SUM(COALESCE(sold.seats, 0)) / NULLIF(SUM(r.total_seats), 0), 2) " +
+                        "FROM showtimes s " +
+                        "JOIN rooms r ON r.id = s.room_id " +
+                        "JOIN theaters t ON t.id = r.theater_id " +
+                        "LEFT JOIN (SELECT bs.showtime_id, COUNT(*) AS seats FROM booking_seats bs " +
+                        "JOIN bookings b ON b.id = bs.booking_id " +
+                        "WHERE b.status IN " + REVENUE_STATUSES + " GROUP BY bs.showtime_id) sold " +
+                        "ON sold.showtime_id = s.id " +
+                        "WHERE s.show_date >= ? AND s.show_date <= ? " +
+                        "GROUP BY s.show_date, t.id, t.name " +
+                        "ORDER BY s.show_date, t.id",
+                false),
+
+        MOVIE_REVENUE("movie_revenue",
+                new String[] { "Movie ID", "Movie", "Bookings", "Tickets", "Revenue" },
+                "SELECT m.id, m.title, COUNT(b.id), SUM(b.number_of_seats), SUM(b.final_amount) " +
+                        "FROM bookings b " +
+                        "JOIN showtimes s ON s.id = b.showtime_id " +
+                        "JOIN movies m ON m.id = s.movie_id " +
+                        "WHERE b.status IN " + REVENUE_STATUSES + " " +
+                        "AND b.created_at >= ? AND b.created_at < ? " +
+                        "GROUP BY m.id, m.title " +
+                        "ORDER BY SUM(b.final_amount) DESC",
+                true);
+
+        private final String filePrefix;
+        private final String[] headers;
+        private final String sql;
+        /** true: tham số là timestamp [from 00:00, to + 1 ngày); false: tham số là ngày [from, to] */
+        private final boolean timestampRange;
+
+        ReportType(String filePrefix, String[] headers, String sql, boolean timestampRange) {
+            this.filePrefix = filePrefix;
+            this.headers = headers;
+            this.sql = sql;
+            this.timestampRange = timestampRange;
+        }
+
+        public String getFilePrefix() {
+            return filePrefix;
+        }
+    }
+
+    /**
+     * Ghi báo cáo ra output stream (không đóng stream của response).
+     *
+     * @param from Ngày bắt đầu (bao gồm)
+     * @param to   Ngày kết thúc (bao gồm)
+     * @param gzip true để nén gzip
+     * @return Số dòng dữ liệu đã ghi
+     */
+    public long export(ReportType type, LocalDate from, LocalDate to, OutputStream out, boolean gzip)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), 64 * 1024);
+
+        writeRow(writer, type.headers);
+
+        long[] rows = { 0 };
+        try {
+            jdbcTemplate.query(connection -> prepare(connection, type, from, to), rs -> {
+                try {
+                    writeRow(writer, rs);
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    // Client ngắt kết nối -> dừng đọc ResultSet
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+
+        log.info("Exported {} report {} - {}: {} rows in {} ms",
+                type, from, to, rows[0], System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private PreparedStatement prepare(Connection connection, ReportType type, LocalDate from, LocalDate to)
+            throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(type.sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : Math.max(1, fetchSize));
+        if (type.timestampRange) {
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        } else {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+        }
+        return ps;
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+    // ==================== CSV ====================
+
+    private static void writeRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(writer, values[i]);
+        }
+        writer.write('\n');
+    }
+
+    private static void writeRow(Writer writer, ResultSet rs) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            Object value = rs.getObject(i);
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            }
+            writeField(writer, value != null ? value.toString() : "");
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Ghi một ô CSV theo RFC 4180 (bọc ngoặc kép nếu chứa dấu phẩy, ngoặc kép, xuống dòng).
+     */
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,227 @@
+package com.cinema.service;
+
+import com.cinema.model.Booking;
+import com.cinema.model.RevenueDailyRollup;
+import com.cinema.model.RevenueMovieRollup;
+import com.cinema.repository.BookingRepository;
+import com.cinema.repository.RevenueDailyRollupRepository;
+import com.cinema.repository.RevenueMovieRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng doanh thu cộng dồn (rollup) theo ngày và theo phim.
+ *
+ * <p>
+ * Booking được tính doanh thu khi ở trạng thái CONFIRMED hoặc COMPLETED. Mỗi
+ * lần booking đi vào / ra khỏi nhóm này, service cộng / trừ số booking và
+ * finalAmount vào dòng của ngày tạo booking và dòng của phim, trong cùng
+ * transaction với thay đổi trạng thái. Dashboard chỉ đọc O(số ngày) /
+ * O(số phim) dòng thay vì quét toàn bộ bảng bookings.
+ * </p>
+ *
+ * <p>
+ * {@link #rebuild()} dựng lại toàn bộ rollup từ bảng bookings;
+ * {@link #reconcile()} so sánh rollup với tổng hợp trực tiếp.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupService {
+
+    private final BookingRepository bookingRepository;
+    private final RevenueDailyRollupRepository dailyRollupRepository;
+    private final RevenueMovieRollupRepository movieRollupRepository;
+
+    /**
+     * Booking ở trạng thái này được tính vào doanh thu.
+     */
+    public static boolean isRevenueStatus(Booking.BookingStatus status) {
+        return status == Booking.BookingStatus.CONFIRMED || status == Booking.BookingStatus.COMPLETED;
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    /**
+     * Cập nhật rollup sau khi booking đổi trạng thái (gọi trong transaction của thay đổi đó).
+     */
+    public void onStatusChange(Booking booking, Booking.BookingStatus oldStatus, Booking.BookingStatus newStatus) {
+        boolean wasCounted = isRevenueStatus(oldStatus);
+        boolean isCounted = isRevenueStatus(newStatus);
+        if (wasCounted != isCounted) {
+            apply(booking, isCounted ? 1 : -1);
+        }
+    }
+
+    /**
+     * Cập nhật rollup trước khi booking bị xóa.
+     */
+    public void onDelete(Booking booking) {
+        if (isRevenueStatus(booking.getStatus())) {
+            apply(booking, -1);
+        }
+    }
+
+    private void apply(Booking booking, int sign) {
+        LocalDate date = booking.getCreatedAt().toLocalDate();
+        Long movieId = booking.getShowtime().getMovie().getId();
+        BigDecimal amount = booking.getFinalAmount() != null ? booking.getFinalAmount() : BigDecimal.ZERO;
+        if (sign < 0) {
+            amount = amount.negate();
+        }
+
+        // Upsert thay vì UPDATE rồi tạo dòng trong transaction riêng: trên InnoDB (REPEATABLE READ)
+        // UPDATE không khớp dòng nào giữ gap lock, và INSERT từ transaction khác của chính thread
+        // này sẽ chờ gap lock đó tới hết innodb_lock_wait_timeout
+        dailyRollupRepository.upsert(date, sign, amount);
+        movieRollupRepository.upsert(movieId, sign, amount);
+    }
+
+    // ==================== READ ====================
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOverallStats() {
+        return dailyRollupRepository.getOverallStats();
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getRevenueOn(LocalDate date) {
+        return dailyRollupRepository.findById(date)
+                .map(RevenueDailyRollup::getRevenue)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRevenueByDate(LocalDate startDate) {
+        return dailyRollupRepository.getRevenueByDate(startDate);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRevenueByMovie(int limit) {
+        return movieRollupRepository.getRevenueByMovie(PageRequest.of(0, limit));
+    }
+
+    // ==================== REBUILD / RECONCILE ====================
+
+    /**
+     * Xóa và dựng lại toàn bộ rollup từ bảng bookings.
+     *
+     * @return Số dòng rollup (ngày + phim) đã dựng
+     */
+    @Transactional
+    public int rebuild() {
+        dailyRollupRepository.deleteAllInBatch();
+        movieRollupRepository.deleteAllInBatch();
+
+        List<RevenueDailyRollup> daily = new ArrayList<>();
+        for (Object[] row : bookingRepository.aggregateRevenueByDay()) {
+            daily.add(RevenueDailyRollup.builder()
+                    .date(toLocalDate(row[0]))
+                    .bookingCount(((Number) row[1]).longValue())
+                    .revenue(toBigDecimal(row[2]))
+                    .build());
+        }
+
+        List<RevenueMovieRollup> movies = new ArrayList<>();
+        for (Object[] row : bookingRepository.aggregateRevenueByMovie()) {
+            movies.add(RevenueMovieRollup.builder()
+                    .movieId((Long) row[0])
+                    .bookingCount(((Number) row[1]).longValue())
+                    .revenue(toBigDecimal(row[2]))
+                    .build());
+        }
+
+        dailyRollupRepository.saveAll(daily);
+        movieRollupRepository.saveAll(movies);
+
+        log.info("Rebuilt revenue rollups: {} days, {} movies", daily.size(), movies.size());
+        return daily.size() + movies.size();
+    }
+
+    /**
+     * Dựng rollup nếu bảng đang rỗng (lần đầu triển khai / sau khi reset dữ liệu).
+     */
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (dailyRollupRepository.count() == 0 && movieRollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * So sánh rollup với tổng hợp trực tiếp từ bảng bookings.
+     *
+     * @return consistent = true nếu khớp hoàn toàn, kèm danh sách dòng lệch
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> reconcile() {
+        List<String> mismatches = new ArrayList<>();
+
+        Map<LocalDate, Totals> rawDaily = new HashMap<>();
+        for (Object[] row : bookingRepository.aggregateRevenueByDay()) {
+            rawDaily.put(toLocalDate(row[0]), new Totals(((Number) row[1]).longValue(), toBigDecimal(row[2])));
+        }
+        for (RevenueDailyRollup rollup : dailyRollupRepository.findAll()) {
+            compare("date " + rollup.getDate(), rawDaily.remove(rollup.getDate()),
+                    new Totals(rollup.getBookingCount(), rollup.getRevenue()), mismatches);
+        }
+        rawDaily.keySet().forEach(date -> mismatches.add("date " + date + ": missing rollup row"));
+
+        Map<Long, Totals> rawMovie = new HashMap<>();
+        for (Object[] row : bookingRepository.aggregateRevenueByMovie()) {
+            rawMovie.put((Long) row[0], new Totals(((Number) row[1]).longValue(), toBigDecimal(row[2])));
+        }
+        for (RevenueMovieRollup rollup : movieRollupRepository.findAll()) {
+            compare("movie " + rollup.getMovieId(), rawMovie.remove(rollup.getMovieId()),
+                    new Totals(rollup.getBookingCount(), rollup.getRevenue()), mismatches);
+        }
+        rawMovie.keySet().forEach(movieId -> mismatches.add("movie " + movieId + ": missing rollup row"));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("consistent", mismatches.isEmpty());
+        result.put("mismatches", mismatches);
+        return result;
+    }
+
+    private static void compare(String key, Totals raw, Totals rollup, List<String> mismatches) {
+        // Dòng rollup đã về 0 (booking bị hủy hết) tương đương với không có trong tổng hợp trực tiếp
+        Totals expected = raw != null ? raw : new Totals(0, BigDecimal.ZERO);
+        if (expected.count() != rollup.count() || expected.revenue().compareTo(rollup.revenue()) != 0) {
+            mismatches.add(String.format("%s: raw=%d/%s rollup=%d/%s",
+                    key, expected.count(), expected.revenue(), rollup.count(), rollup.revenue()));
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value != null ? new BigDecimal(value.toString()) : BigDecimal.ZERO;
+    }
+
+    private record Totals(long count, BigDecimal revenue) {
+    }
+}
@@ -5,21 +5,48 @@ import com.cinema.dto.response.RoomResponse;
 import com.cinema.exception.ResourceNotFoundException;
 import com.cinema.model.Room;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @org.springframework.transaction.annotation.Transactional
 public class RoomService {
 
+    private static final int SEAT_BATCH_SIZE = 200;
+    private static final String SELECT_SEATS_SQL =
+            "SELECT id, row_name, seat_number, surcharge_id, active FROM seats WHERE room_id = ?";
+    private static final String INSERT_SEAT_SQL = "INSERT INTO seats "
+            + "(room_id, row_name, seat_number, surcharge_id, active, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, true, ?, ?)";
+    private static final String UPDATE_SEAT_SQL =
+            "UPDATE seats SET surcharge_id = ?, active = true, updated_at = ? WHERE id = ?";
+    private static final String DEACTIVATE_SEAT_SQL =
+            "UPDATE seats SET active = false, updated_at = ? WHERE id = ?";
+
     private final com.cinema.repository.RoomRepository roomRepository;
     private final com.cinema.repository.TheaterRepository theaterRepository;
     private final com.cinema.repository.SurchargeRepository surchargeRepository;
     private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final SeatLayoutCache seatLayoutCache;
+    private final com.cinema.repository.BookingSeatRepository bookingSeatRepository;
+    private final com.cinema.repository.ShowtimeRepository showtimeRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final PricingService pricingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
 
     public RoomDTO createRoom(com.cinema.dto.request.RoomRequest request) {
         com.cinema.model.Theater theater = theaterRepository.findById(request.getTheaterId())
@@ -67,6 +94,9 @@ public class RoomService {
         }
 
         roomRepository.save(room);
+        // Loại phòng và sơ đồ ghế đều vào báo giá sơ đồ ghế -> bỏ báo giá của các suất chiếu sắp tới
+        List<Long> showtimeIds = showtimeRepository.findIdsByRoomIdFrom(id, LocalDate.now());
+        runAfterCommit(() -> showtimeIds.forEach(pricingService::evictSeatMapQuotes));
         return getRoomLayout(room.getId());
     }
 
@@ -75,84 +105,184 @@ public class RoomService {
             throw new ResourceNotFoundException("Room", "id", id);
         }
         roomRepository.deleteById(id);
+        seatLayoutCache.invalidateAfterCommit(id);
     }
 
+    /**
+     * Đồng bộ ghế của phòng theo layout mới bằng cách áp chênh lệch thay vì xoá hết rồi tạo lại:
+     * ghế giữ nguyên vị trí giữ nguyên ID, ô mới được insert, ô đổi loại được update,
+     * ô bị bỏ khỏi lưới chỉ bị vô hiệu hoá. Tất cả ghi bằng JDBC batch.
+     */
     private void syncSeatsFromLayout(Room room, String layoutJson) {
+        List<SeatLayoutDiff.Cell> cells;
         try {
-            com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(layoutJson);
-            com.fasterxml.jackson.databind.JsonNode gridNode = root.get("grid");
+            cells = parseLayoutCells(layoutJson);
+        } catch (Exception e) {
+            throw new com.cinema.exception.BadRequestException("Invalid seat layout JSON: " + e.getMessage());
+        }
+        if (cells == null) {
+            return;
+        }
 
-            if (gridNode == null || !gridNode.isArray()) {
-                return;
+        // Ghi các thay đổi của room (và room mới) xuống DB trước khi batch JDBC tham chiếu tới
+        roomRepository.saveAndFlush(room);
+
+        SeatLayoutDiff diff = SeatLayoutDiff.compute(loadStoredSeats(room.getId()), cells);
+        List<Long> showtimeIds = diff.isEmpty()
+                ? List.of()
+                : showtimeRepository.findIdsByRoomIdFrom(room.getId(), LocalDate.now());
+        if (!diff.removed().isEmpty()) {
+            rejectRemovingBookedSeats(diff.removed(), showtimeIds);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!diff.added().isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SEAT_SQL, diff.added(), SEAT_BATCH_SIZE, (ps, cell) -> {
+                ps.setLong(1, room.getId());
+                ps.setString(2, cell.rowName());
+                ps.setInt(3, cell.seatNumber());
+                ps.setLong(4, cell.surchargeId());
+                ps.setTimestamp(5, Timestamp.valueOf(now));
+                ps.setTimestamp(6, Timestamp.valueOf(now));
+            });
+        }
+        if (!diff.changed().isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SEAT_SQL, diff.changed(), SEAT_BATCH_SIZE, (ps, change) -> {
+                ps.setLong(1, change.surchargeId());
+                ps.setTimestamp(2, Timestamp.valueOf(now));
+                ps.setLong(3, change.seatId());
+            });
+        }
+        if (!diff.removed().isEmpty()) {
+            jdbcTemplate.batchUpdate(DEACTIVATE_SEAT_SQL, diff.removed(), SEAT_BATCH_SIZE, (ps, seat) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(now));
+                ps.setLong(2, seat.id());
+            });
+        }
+
+        room.setTotalSeats(diff.activeCount());
+        roomRepository.saveAndFlush(room);
+        // Danh sách seats trong persistence context không thấy các thay đổi JDBC -> nạp lại
+        entityManager.refresh(room);
+
+        if (!diff.isEmpty()) {
+            log.info("Room {} layout synced: {} added, {} changed, {} deactivated",
+                    room.getId(), diff.added().size(), diff.changed().size(), diff.removed().size());
+            seatLayoutCache.invalidateAfterCommit(room.getId());
+            // Bitset ghế và sức chứa của các suất chiếu đều theo layout cũ
+            for (Long showtimeId : showtimeIds) {
+                seatInventoryService.evict(showtimeId);
             }
+        }
+    }
+
+    /**
+     * Đọc các ô ghế từ JSON layout ({@code grid[][]} với type/row/col). Trả về null nếu không có lưới.
+     */
+    private List<SeatLayoutDiff.Cell> parseLayoutCells(String layoutJson) throws Exception {
+        com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(layoutJson);
+        com.fasterxml.jackson.databind.JsonNode gridNode = root.get("grid");
 
-            // Remove old seats (or we could try to diff, but simple replacement is safer
-            // for now)
-            // seatRepository.deleteByRoomId(room.getId()); // Need to impl this or use
-            // deleteInBatch
-            // Since we have CascadeType.ALL and orphanRemoval might not be set, we manually
-            // clear or use batch delete
-            // For now, let's clear the list if we rely on Cascade, or use repository delete
-
-            // To properly update, we should fetch existing seats, map them, and
-            // update/create/delete
-            // But strict replacement:
-            room.getSeats().clear();
-            roomRepository.saveAndFlush(room); // Flush delete to avoid unique constraint violation
-
-            List<com.cinema.model.Seat> newSeats = new java.util.ArrayList<>();
-
-            // Fetch all available Surcharges of type SEAT_TYPE to minimize DB calls
-            java.util.Map<String, com.cinema.model.Surcharge> seatTypeMap = surchargeRepository
-                    .findByType(com.cinema.model.Surcharge.SurchargeType.SEAT_TYPE).stream()
-                    .collect(java.util.stream.Collectors.toMap(s -> s.getCode() != null ? s.getCode() : s.getName(),
-                            s -> s));
-
-            for (com.fasterxml.jackson.databind.JsonNode rowNode : gridNode) {
-                for (com.fasterxml.jackson.databind.JsonNode cellNode : rowNode) {
-                    String typeCode = cellNode.get("type").asText();
-                    if ("NONE".equals(typeCode))
-                        continue;
-
-                    int rowIdx = cellNode.get("row").asInt();
-                    int colIdx = cellNode.get("col").asInt();
-
-                    String rowName = String.valueOf((char) ('A' + rowIdx));
-                    int seatNumber = colIdx + 1;
-
-                    // Find or create Surcharge (as SeatType)
-                    com.cinema.model.Surcharge surchargeObj = seatTypeMap.computeIfAbsent(typeCode, k -> {
-                        // Create default if not exists (fallback)
-                        com.cinema.model.Surcharge newType = com.cinema.model.Surcharge.builder()
-                                .name(k) // Default name = code
-                                .code(k)
-                                .type(com.cinema.model.Surcharge.SurchargeType.SEAT_TYPE)
-                                .targetId(k) // Redundant but consistent
-                                .amount(java.math.BigDecimal.ZERO)
-                                .active(true)
-                                .build();
-                        return surchargeRepository.save(newType);
-                    });
-
-                    com.cinema.model.Seat seat = com.cinema.model.Seat.builder()
-                            .room(room)
-                            .rowName(rowName)
-                            .seatNumber(seatNumber)
-                            .seatType(surchargeObj)
+        if (gridNode == null || !gridNode.isArray()) {
+            return null;
+        }
+
+        // Fetch all available Surcharges of type SEAT_TYPE to minimize DB calls
+        java.util.Map<String, com.cinema.model.Surcharge> seatTypeMap = surchargeRepository
+                .findByType(com.cinema.model.Surcharge.SurchargeType.SEAT_TYPE).stream()
+                .collect(java.util.stream.Collectors.toMap(s -> s.getCode() != null ? s.getCode() : s.getName(),
+                        s -> s, (first, second) -> first));
+
+        List<SeatLayoutDiff.Cell> cells = new java.util.ArrayList<>();
+        for (com.fasterxml.jackson.databind.JsonNode rowNode : gridNode) {
+            for (com.fasterxml.jackson.databind.JsonNode cellNode : rowNode) {
+                String typeCode = cellNode.get("type").asText();
+                if ("NONE".equals(typeCode))
+                    continue;
+
+                int rowIdx = cellNode.get("row").asInt();
+                int colIdx = cellNode.get("col").asInt();
+
+                String rowName = String.valueOf((char) ('A' + rowIdx));
+                int seatNumber = colIdx + 1;
+
+                // Find or create Surcharge (as SeatType)
+                com.cinema.model.Surcharge surchargeObj = seatTypeMap.computeIfAbsent(typeCode, k -> {
+                    // Create default if not exists (fallback)
+                    com.cinema.model.Surcharge newType = com.cinema.model.Surcharge.builder()
+                            .name(k) // Default name = code
+                            .code(k)
+                            .type(com.cinema.model.Surcharge.SurchargeType.SEAT_TYPE)
+                            .targetId(k) // Redundant but consistent
+                            .amount(java.math.BigDecimal.ZERO)
                             .active(true)
                             .build();
+                    return surchargeRepository.save(newType);
+                });
 
-                    newSeats.add(seat);
-                }
+                cells.add(new SeatLayoutDiff.Cell(rowName, seatNumber, surchargeObj.getId()));
             }
+        }
+        return cells;
+    }
 
-            room.getSeats().addAll(newSeats);
-            room.setTotalSeats(newSeats.size()); // Update total seats count
-            roomRepository.save(room);
+    private List<SeatLayoutDiff.StoredSeat> loadStoredSeats(Long roomId) {
+        return jdbcTemplate.query(SELECT_SEATS_SQL, (rs, rowNum) -> new SeatLayoutDiff.StoredSeat(
+                rs.getLong("id"),
+                rs.getString("row_name"),
+                rs.getInt("seat_number"),
+                rs.getObject("surcharge_id") != null ? rs.getLong("surcharge_id") : null,
+                rs.getBoolean("active")), roomId);
+    }
 
-        } catch (Exception e) {
-            throw new com.cinema.exception.BadRequestException("Invalid seat layout JSON: " + e.getMessage());
+    /**
+     * Không cho bỏ ghế khỏi layout khi ghế còn vé hiệu lực ở suất chiếu từ hôm nay trở đi.
+     *
+     * <p>
+     * Ghế sắp bỏ được giữ trên seat inventory của các suất chiếu đó trước khi kiểm tra DB,
+     * nên không booking nào chen vào được giữa lần kiểm tra và lúc ghế bị vô hiệu hoá;
+     * booking đang giữ một trong các ghế làm việc giữ chỗ thất bại. Chỗ giữ được trả
+     * lại khi transaction kết thúc (commit: ghế đã inactive nên không đặt được nữa).
+     * </p>
+     */
+    private void rejectRemovingBookedSeats(List<SeatLayoutDiff.StoredSeat> removed, List<Long> showtimeIds) {
+        java.util.Map<Long, String> labels = new java.util.HashMap<>();
+        for (SeatLayoutDiff.StoredSeat seat : removed) {
+            labels.put(seat.id(), seat.rowName() + seat.seatNumber());
+        }
+        List<Long> seatIds = List.copyOf(labels.keySet());
+        for (Long showtimeId : showtimeIds) {
+            List<Long> conflicts = seatInventoryService.hold(showtimeId, seatIds);
+            if (!conflicts.isEmpty()) {
+                rejectBookedSeats(conflicts, labels);
+            }
+            seatInventoryService.releaseOnRollback(showtimeId, seatIds);
+            seatInventoryService.releaseAfterCommit(showtimeId, seatIds);
         }
+
+        List<Long> booked = bookingSeatRepository.findSeatIdsBookedFrom(seatIds, LocalDate.now());
+        if (!booked.isEmpty()) {
+            rejectBookedSeats(booked, labels);
+        }
+    }
+
+    private void rejectBookedSeats(List<Long> seatIds, java.util.Map<Long, String> labels) {
+        String seatLabels = seatIds.stream().map(labels::get).sorted().collect(Collectors.joining(", "));
+        throw new com.cinema.exception.BadRequestException(
+                "Không thể bỏ các ghế đang có vé ở suất chiếu sắp tới: " + seatLabels);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private String convertLayoutToString(com.fasterxml.jackson.databind.JsonNode jsonNode) {
@@ -0,0 +1,307 @@
+package com.cinema.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phát sự kiện thay đổi trạng thái ghế (Server-Sent Events) theo suất chiếu.
+ *
+ * <p>
+ * {@link SeatInventoryService} gọi {@link #publish} mỗi khi ghế được giữ, trả
+ * lại hoặc bán. Sự kiện được serialize đúng một lần rồi đưa vào hàng đợi có giới
+ * hạn của từng client; một pool thread nhỏ gửi lần lượt từng hàng đợi, nên luồng
+ * đặt vé không bị chặn bởi I/O mạng và số người xem không làm phát sinh thêm query nào.
+ * </p>
+ *
+ * <p>
+ * Client không theo kịp (hàng đợi đầy), gửi lỗi hoặc một lần gửi kéo dài quá
+ * {@code seat.events.send-timeout-ms} bị ngắt kết nối; client kết nối lại và lấy
+ * delta theo version như khi mất mạng.
+ * </p>
+ *
+ * <p>
+ * {@code emitter.complete()} không gỡ được một lần {@code send} đang chặn trong servlet
+ * container, nên thread gửi đó bị bỏ lại và pool được cấp thêm một thread thay thế
+ * cho tới khi lần gửi trả về (muộn nhất là write timeout của container). Số thread
+ * thay thế bị chặn bởi {@code seat.events.max-spare-senders}: quá số đó các client
+ * chậm lại chiếm thread của pool như trước cho tới write timeout.
+ * </p>
+ */
+@Service
+@Slf4j
+public class SeatEventBroadcaster {
+
+    public enum EventType {
+        HELD, RELEASED, SOLD
+    }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long emitterTimeoutMs;
+    private final int queueCapacity;
+    private final long sendTimeoutMs;
+    private final int senderThreads;
+    private final int maxSpareSenders;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /** Mỗi client có nhiều nhất một tác vụ gửi trong pool, nên hàng đợi của pool bị chặn bởi số client */
+    private final ThreadPoolExecutor senders;
+
+    /** Số lần gửi bị bỏ lại (thread vẫn đang chặn) và đã được cấp thread thay thế */
+    private int spareSenders;
+
+    public SeatEventBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${seat.events.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${seat.events.queue-capacity:256}") int queueCapacity,
+            @Value("${seat.events.send-timeout-ms:10000}") long sendTimeoutMs,
+            @Value("${seat.events.sender-threads:4}") int senderThreads,
+            @Value("${seat.events.max-spare-senders:16}") int maxSpareSenders) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.senderThreads = Math.max(1, senderThreads);
+        this.maxSpareSenders = Math.max(0, maxSpareSenders);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(this.senderThreads, this.senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-events-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Đăng ký theo dõi suất chiếu. Sự kiện đầu tiên ("version") cho biết version
+     * hiện tại để client lấy sơ đồ ghế đầy đủ nếu cần.
+     */
+    public SseEmitter subscribe(Long showtimeId, long version) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(showtimeId, emitter);
+        subscribers.compute(showtimeId, (id, set) -> {
+            Set<Subscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+
+        Runnable remove = () -> subscriber.close(null);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        subscriber.enqueue(SseEmitter.event().name("version").data(version).build());
+        return emitter;
+    }
+
+    /**
+     * Phát sự kiện thay đổi ghế cho mọi client đang theo dõi suất chiếu.
+     */
+    public void publish(Long showtimeId, EventType type, Collection<Long> seatIds, long version) {
+        Set<Subscriber> targets = subscribers.get(showtimeId);
+        if (seatIds.isEmpty() || targets == null || targets.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new SeatEvent(showtimeId, type, List.copyOf(seatIds), version));
+        } catch (JsonProcessingException e) {
+            log.error("Không serialize được seat event của suất chiếu {}: {}", showtimeId, e.getMessage());
+            return;
+        }
+
+        Set<DataWithMediaType> event = SseEmitter.event()
+                .id(String.valueOf(version))
+                .name("seats")
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+        for (Subscriber subscriber : targets) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    /**
+     * Gửi comment "ping" để phát hiện kết nối đã chết (proxy / client đóng tab) và
+     * ngắt các client có lần gửi hiện tại kéo dài quá {@code send-timeout-ms} (thread
+     * đang chặn của client đó được thay bằng thread mới).
+     */
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        Set<DataWithMediaType> comment = SseEmitter.event().comment("ping").build();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                if (subscriber.abandonIfStalled(now)) {
+                    adjustSpareSenders(1);
+                    subscriber.close("timeout");
+                } else {
+                    subscriber.enqueue(comment);
+                }
+            }
+        }
+    }
+
+    public int getSubscriberCount(Long showtimeId) {
+        Set<Subscriber> set = subscribers.get(showtimeId);
+        return set != null ? set.size() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    /**
+     * Nới / thu pool theo số thread đang chặn trong một lần gửi đã bị bỏ lại.
+     */
+    private synchronized void adjustSpareSenders(int delta) {
+        spareSenders += delta;
+        int size = senderThreads + Math.min(Math.max(spareSenders, 0), maxSpareSenders);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else if (size < senders.getCorePoolSize()) {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.showtimeId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void countDropped(String reason) {
+        meterRegistry.counter("cinema.seat-events.dropped", "reason", reason).increment();
+    }
+
+    /**
+     * Một kết nối SSE: hàng đợi sự kiện có giới hạn, gửi tuần tự bởi tối đa một thread.
+     */
+    private final class Subscriber {
+        final Long showtimeId;
+        final SseEmitter emitter;
+        final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        /** Thời điểm bắt đầu lần gửi đang chạy, 0 khi không gửi, -1 khi lần gửi đã bị bỏ lại */
+        final AtomicLong sendStartedAt = new AtomicLong();
+
+        Subscriber(Long showtimeId, SseEmitter emitter) {
+            this.showtimeId = showtimeId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                close("slow");
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * Đánh dấu lần gửi đang chạy là bị bỏ lại nếu đã quá {@code send-timeout-ms};
+         * chỉ trả về true một lần cho mỗi lần gửi.
+         */
+        boolean abandonIfStalled(long now) {
+            long startedAt = sendStartedAt.get();
+            return startedAt > 0 && now - startedAt > sendTimeoutMs
+                    && sendStartedAt.compareAndSet(startedAt, -1);
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false); // đang shutdown
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    long startedAt = System.currentTimeMillis();
+                    sendStartedAt.set(startedAt);
+                    try {
+                        emitter.send(event);
+                    } finally {
+                        if (!sendStartedAt.compareAndSet(startedAt, 0)) {
+                            // heartbeat đã bỏ lần gửi này và cấp thread thay thế -> trả lại
+                            adjustSpareSenders(-1);
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close("error");
+            } finally {
+                draining.set(false);
+            }
+            // Sự kiện vào hàng sau lần poll cuối nhưng trước khi bỏ cờ draining
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Bỏ client khỏi danh sách theo dõi; {@code reason} khác null khi server chủ động ngắt.
+         */
+        void close(String reason) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            unsubscribe(this);
+            queue.clear();
+            if (reason != null) {
+                countDropped(reason);
+                log.debug("Dropped seat event subscriber of showtime {}: {}", showtimeId, reason);
+                try {
+                    emitter.complete();
+                } catch (RuntimeException ignored) {
+                    // Kết nối đã hỏng
+                }
+            }
+        }
+    }
+
+    /**
+     * Payload của sự kiện "seats".
+     */
+    public record SeatEvent(Long showtimeId, EventType type, List<Long> seatIds, long version) {
+    }
+}
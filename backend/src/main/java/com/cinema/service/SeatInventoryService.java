@@ -0,0 +1,823 @@
+package com.cinema.service;
+
+import com.cinema.exception.ResourceNotFoundException;
+import com.cinema.model.Showtime;
+import com.cinema.repository.BookingSeatRepository;
+import com.cinema.repository.SeatRepository;
+import com.cinema.repository.ShowtimeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Kho trạng thái ghế trong bộ nhớ cho từng suất chiếu đang mở bán.
+ *
+ * <p>
+ * Mỗi suất chiếu giữ một bitset nén (2 bit / ghế: FREE / HELD / SOLD) và giữ
+ * chỗ bằng compare-and-set không khóa. Database chỉ lưu kết quả; ràng buộc
+ * unique (active_showtime_id, seat_id) trên booking_seats là chốt chặn cuối
+ * cùng khi có nhiều node cùng bán.
+ * </p>
+ *
+ * <p>
+ * Dữ liệu được nạp lazy từ {@link BookingSeatRepository#findBookedSeatIdsByShowtime}
+ * ở lần truy cập đầu tiên, sau đó mọi thao tác kiểm tra sơ đồ ghế / giữ chỗ
+ * không cần chạm tới lock manager của DB.
+ * </p>
+ *
+ * <p>
+ * Mỗi thay đổi trạng thái được gắn một version (lấy từ bộ đếm toàn cục, tăng
+ * đơn điệu) và ghi vào change log vòng, để client có thể lấy phần chênh lệch
+ * của sơ đồ ghế qua {@link #getOccupancy(Long, Long)}. Các thay đổi cũng được
+ * đẩy tới client đang theo dõi qua {@link SeatEventBroadcaster}.
+ * </p>
+ *
+ * <p>
+ * Khi cần nạp lại (layout phòng đổi, node khác đã bán ghế...), {@link #evict}
+ * chỉ đánh dấu inventory cũ; lần truy cập sau dựng inventory mới từ DB rồi chuyển
+ * các ghế HELD của transaction đang chạy sang, nên ghế đang giữ không bị giữ lần
+ * hai. Mọi thao tác ghi trên một inventory đi qua read lock của nó; việc chuyển
+ * giao giữ write lock trong chốc lát để inventory cũ "đóng băng".
+ * </p>
+ *
+ * <p>
+ * Mỗi inventory đếm số ghế đang HELD/SOLD; khi bộ đếm chạm sức chứa của phòng
+ * (hoặc rời khỏi đó) suất chiếu được đánh dấu để {@link #flushSoldOutStatus()}
+ * ghi trạng thái SOLD_OUT / AVAILABLE xuống DB. Chỉ SOLD_OUT do chính hệ thống đặt
+ * ({@code autoSoldOut}) mới được tự mở lại; trạng thái admin đặt tay được giữ nguyên.
+ * Việc ghi nằm ngoài transaction đặt vé nên không có dòng showtimes nào bị khóa
+ * trên đường đặt vé.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryService {
+
+    public static final int FREE = 0;
+    public static final int HELD = 1;
+    public static final int SOLD = 2;
+
+    /** Số thay đổi gần nhất được giữ lại cho mỗi suất chiếu để trả delta */
+    private static final int CHANGE_LOG_SIZE = 1024;
+
+    /**
+     * Bộ đếm version dùng chung cho inventory và snapshot layout phòng. Bắt đầu từ
+     * giây khởi động dịch trái 20 bit, nên version sau khi khởi động lại luôn lớn hơn
+     * mọi version của lần chạy trước (trừ khi lần trước cấp hơn ~1 triệu version mỗi
+     * giây): {@code sinceVersion} cũ của client rơi dưới {@code baseVersion} và nhận
+     * sơ đồ đầy đủ. Giá trị vẫn nằm trong 2^53 để JavaScript đọc chính xác.
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong((System.currentTimeMillis() / 1000) << 20);
+
+    private final ShowtimeRepository showtimeRepository;
+    private final SeatRepository seatRepository;
+    private final BookingSeatRepository bookingSeatRepository;
+    private final SeatEventBroadcaster seatEventBroadcaster;
+
+    private final Map<Long, ShowtimeInventory> inventories = new ConcurrentHashMap<>();
+
+    /** Suất chiếu cần đồng bộ lại trạng thái SOLD_OUT / AVAILABLE xuống DB */
+    private final Set<Long> soldOutChanges = ConcurrentHashMap.newKeySet();
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Giữ chỗ nguyên tử cho danh sách ghế (all-or-nothing).
+     *
+     * @return Danh sách ID ghế bị conflict (rỗng nếu giữ chỗ thành công)
+     */
+    public List<Long> hold(Long showtimeId, Collection<Long> seatIds) {
+        ShowtimeInventory inventory = getOrLoad(showtimeId);
+        if (!inventory.indexesAll(seatIds)) {
+            // Layout phòng đã thay đổi sau khi nạp -> nạp lại một lần
+            inventory.stale = true;
+            inventory = getOrLoad(showtimeId);
+        }
+        List<Long> conflicts;
+        while ((conflicts = inventory.tryHold(seatIds)) == null) {
+            inventory = getOrLoad(showtimeId); // vừa được thay bằng inventory mới
+        }
+        if (conflicts.isEmpty()) {
+            seatEventBroadcaster.publish(showtimeId, SeatEventBroadcaster.EventType.HELD, seatIds,
+                    inventory.version);
+            trackSoldOut(showtimeId, inventory);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Chuyển ghế từ HELD sang SOLD (sau khi thanh toán / xác nhận).
+     */
+    public void markSold(Long showtimeId, Collection<Long> seatIds) {
+        ShowtimeInventory inventory;
+        List<Long> changed = null;
+        while ((inventory = inventories.get(showtimeId)) != null
+                && (changed = inventory.markSold(seatIds)) == null) {
+            // Inventory vừa bị thay: ghi vào inventory mới
+        }
+        if (inventory != null) {
+            seatEventBroadcaster.publish(showtimeId, SeatEventBroadcaster.EventType.SOLD, changed,
+                    inventory.version);
+            trackSoldOut(showtimeId, inventory);
+        }
+    }
+
+    /**
+     * Trả ghế về FREE (hủy / hết hạn giữ chỗ / rollback).
+     */
+    public void release(Long showtimeId, Collection<Long> seatIds) {
+        release(showtimeId, seatIds, false);
+    }
+
+    /**
+     * @param heldOnly true: chỉ HELD -> FREE (trả lại chỗ giữ của transaction chưa commit,
+     *                 không đụng tới ghế đã được ghi nhận là bán theo DB)
+     */
+    private void release(Long showtimeId, Collection<Long> seatIds, boolean heldOnly) {
+        ShowtimeInventory inventory;
+        List<Long> changed = null;
+        while ((inventory = inventories.get(showtimeId)) != null
+                && (changed = heldOnly ? inventory.releaseHeld(seatIds) : inventory.release(seatIds)) == null) {
+            // Inventory vừa bị thay: ghi vào inventory mới
+        }
+        if (inventory != null) {
+            seatEventBroadcaster.publish(showtimeId, SeatEventBroadcaster.EventType.RELEASED, changed,
+                    inventory.version);
+            trackSoldOut(showtimeId, inventory);
+        } else {
+            // Chưa nạp: suất chiếu có thể đang SOLD_OUT trong DB -> kiểm tra lại khi đồng bộ
+            soldOutChanges.add(showtimeId);
+        }
+    }
+
+    /**
+     * Danh sách ID ghế đang bị giữ hoặc đã bán của suất chiếu.
+     */
+    public List<Long> getTakenSeatIds(Long showtimeId) {
+        return getOrLoad(showtimeId).takenSeatIds();
+    }
+
+    /**
+     * Suất chiếu đã kín ghế (HELD + SOLD = sức chứa) theo bộ đếm trong bộ nhớ.
+     * Không nạp inventory: suất chiếu chưa nạp trả về false (DB status quyết định).
+     * Inventory đã stale (layout / sức chứa phòng vừa đổi) được nạp lại trước khi trả lời.
+     */
+    public boolean isSoldOut(Long showtimeId) {
+        ShowtimeInventory inventory = inventories.get(showtimeId);
+        if (inventory == null) {
+            return false;
+        }
+        return (inventory.stale ? getOrLoad(showtimeId) : inventory).soldOut;
+    }
+
+    /**
+     * Ghi trạng thái SOLD_OUT / AVAILABLE xuống DB cho các suất chiếu vừa đổi
+     * trạng thái kín ghế. Chỉ một thread (scheduler) gọi, nên các lần ghi của
+     * cùng một suất chiếu không bị đảo thứ tự. Chỉ AVAILABLE -> SOLD_OUT và SOLD_OUT do
+     * hệ thống đặt -> AVAILABLE; trạng thái admin đặt tay và suất chiếu đã hủy giữ nguyên.
+     *
+     * @return Số suất chiếu đã đổi trạng thái trong DB
+     */
+    public int flushSoldOutStatus() {
+        int updated = 0;
+        for (Long showtimeId : List.copyOf(soldOutChanges)) {
+            // Bỏ khỏi tập trước khi đọc cờ: thay đổi xảy ra sau đó sẽ thêm lại
+            soldOutChanges.remove(showtimeId);
+            ShowtimeInventory inventory;
+            try {
+                inventory = getOrLoad(showtimeId);
+            } catch (ResourceNotFoundException e) {
+                continue; // Suất chiếu đã bị xóa
+            }
+            Showtime.ShowtimeStatus status = inventory.soldOut
+                    ? Showtime.ShowtimeStatus.SOLD_OUT
+                    : Showtime.ShowtimeStatus.AVAILABLE;
+            int changed;
+            try {
+                changed = status == Showtime.ShowtimeStatus.SOLD_OUT
+                        ? showtimeRepository.markAutoSoldOut(showtimeId)
+                        : showtimeRepository.reopenAutoSoldOut(showtimeId);
+            } catch (RuntimeException e) {
+                soldOutChanges.add(showtimeId); // thử lại ở lần sau
+                throw e;
+            }
+            if (changed > 0) {
+                log.info("Showtime {} is now {} ({} / {} seats taken)", showtimeId, status,
+                        inventory.takenCount(), inventory.capacity);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Phòng chiếu của suất chiếu (nạp inventory nếu chưa có).
+     */
+    public Long getRoomId(Long showtimeId) {
+        return getOrLoad(showtimeId).roomId;
+    }
+
+    /**
+     * Kiểm tra ghế còn FREE, đọc trực tiếp bitset (không copy). Ghế không có trong
+     * inventory được coi là không trống.
+     */
+    public LongPredicate freeSeats(Long showtimeId) {
+        ShowtimeInventory inventory = getOrLoad(showtimeId);
+        return seatId -> {
+            Integer index = inventory.indexBySeatId.get(seatId);
+            return index != null && inventory.state(index) == FREE;
+        };
+    }
+
+    /**
+     * Trạng thái ghế của suất chiếu kèm version hiện tại.
+     *
+     * <p>
+     * Nếu {@code sinceVersion} còn nằm trong change log thì chỉ trả về các ghế
+     * thay đổi sau version đó; ngược lại (null, quá cũ, thuộc lần nạp trước) trả
+     * về toàn bộ ghế đang bị giữ/bán.
+     * </p>
+     */
+    public Occupancy getOccupancy(Long showtimeId, Long sinceVersion) {
+        return getOrLoad(showtimeId).occupancy(sinceVersion);
+    }
+
+    /**
+     * Số ghế đã bị giữ/bán cho nhiều suất chiếu cùng lúc.
+     *
+     * <p>
+     * Suất chiếu đã có inventory trong bộ nhớ được trả lời trực tiếp; các suất
+     * còn lại được đếm bằng đúng 1 query GROUP BY, không phụ thuộc số lượng.
+     * </p>
+     *
+     * @return Map showtimeId -> số ghế đã đặt (có đủ key cho mọi showtimeId truyền vào)
+     */
+    public Map<Long, Integer> getTakenSeatCounts(Collection<Long> showtimeIds) {
+        Map<Long, Integer> counts = new HashMap<>(showtimeIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+
+        for (Long showtimeId : showtimeIds) {
+            ShowtimeInventory inventory = inventories.get(showtimeId);
+            if (inventory != null) {
+                counts.put(showtimeId, inventory.takenCount());
+            } else {
+                counts.put(showtimeId, 0);
+                missing.add(showtimeId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Object[] row : bookingSeatRepository.countBookedSeatsByShowtimeIds(missing)) {
+                counts.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Đánh dấu trạng thái đã nạp của suất chiếu là cũ: lần truy cập sau nạp lại từ DB
+     * và giữ nguyên các ghế HELD của transaction đang chạy. Đánh dấu ngay và thêm
+     * một lần sau khi transaction hiện tại commit (lần nạp lại chen vào trước commit
+     * sẽ chưa thấy thay đổi).
+     */
+    public void evict(Long showtimeId) {
+        markStale(showtimeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            runAfterCommit(() -> markStale(showtimeId));
+        }
+    }
+
+    private void markStale(Long showtimeId) {
+        ShowtimeInventory inventory = inventories.get(showtimeId);
+        if (inventory != null) {
+            inventory.stale = true;
+        }
+    }
+
+    /**
+     * Bỏ trạng thái của các suất chiếu đã kết thúc để giải phóng bộ nhớ.
+     *
+     * @return Số suất chiếu đã bị loại khỏi bộ nhớ
+     */
+    public int evictFinished() {
+        LocalDateTime now = LocalDateTime.now();
+        int before = inventories.size();
+        inventories.values().removeIf(inventory -> inventory.endsAt.isBefore(now));
+        return before - inventories.size();
+    }
+
+    /**
+     * Version mới từ bộ đếm toàn cục.
+     */
+    static long nextVersion() {
+        return VERSIONS.incrementAndGet();
+    }
+
+    static long currentVersion() {
+        return VERSIONS.get();
+    }
+
+    private void trackSoldOut(Long showtimeId, ShowtimeInventory inventory) {
+        if (inventory.refreshSoldOut()) {
+            soldOutChanges.add(showtimeId);
+        }
+    }
+
+    // ==================== TRANSACTION HOOKS ====================
+
+    /**
+     * Trả lại ghế đã giữ nếu transaction hiện tại bị rollback. Chỉ ghế còn HELD được
+     * trả: nếu inventory đã được nạp lại và DB ghi nhận ghế đã bán cho booking khác,
+     * ghế đó giữ nguyên.
+     */
+    public void releaseOnRollback(Long showtimeId, Collection<Long> seatIds) {
+        List<Long> ids = List.copyOf(seatIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(showtimeId, ids, true);
+                }
+            }
+        });
+    }
+
+    /**
+     * Trả ghế về FREE sau khi transaction commit (DB đã giải phóng khóa unique).
+     */
+    public void releaseAfterCommit(Long showtimeId, Collection<Long> seatIds) {
+        List<Long> ids = List.copyOf(seatIds);
+        runAfterCommit(() -> release(showtimeId, ids));
+    }
+
+    /**
+     * Đánh dấu SOLD sau khi transaction commit.
+     */
+    public void markSoldAfterCommit(Long showtimeId, Collection<Long> seatIds) {
+        List<Long> ids = List.copyOf(seatIds);
+        runAfterCommit(() -> markSold(showtimeId, ids));
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ==================== LOADING ====================
+
+    private ShowtimeInventory getOrLoad(Long showtimeId) {
+        ShowtimeInventory inventory = inventories.get(showtimeId);
+        if (inventory != null) {
+            return inventory.stale ? reload(showtimeId, inventory) : inventory;
+        }
+        // Nạp ngoài computeIfAbsent để không giữ lock của map trong lúc query DB
+        ShowtimeInventory loaded = load(showtimeId);
+        ShowtimeInventory existing = inventories.putIfAbsent(showtimeId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Thay inventory cũ bằng bản nạp mới từ DB, chuyển sang các ghế HELD chưa commit
+     * và các thay đổi trong bộ nhớ xảy ra trong lúc đọc DB.
+     */
+    private ShowtimeInventory reload(Long showtimeId, ShowtimeInventory old) {
+        long readFrom = old.version;
+        ShowtimeInventory fresh;
+        try {
+            fresh = load(showtimeId);
+        } catch (ResourceNotFoundException e) {
+            inventories.remove(showtimeId, old); // Suất chiếu đã bị xóa
+            throw e;
+        }
+        if (!old.retire(fresh, readFrom)) {
+            // Thread khác đã nạp lại trước
+            ShowtimeInventory current = inventories.get(showtimeId);
+            return current != null ? current : getOrLoad(showtimeId);
+        }
+        inventories.replace(showtimeId, old, fresh);
+        trackSoldOut(showtimeId, fresh);
+        log.debug("Reloaded seat inventory for showtime {}: {} seats, {} taken",
+                showtimeId, fresh.seatIds.length, fresh.takenCount());
+        return fresh;
+    }
+
+    private ShowtimeInventory load(Long showtimeId) {
+        Showtime showtime = showtimeRepository.findByIdWithRoom(showtimeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime", "id", showtimeId));
+
+        List<Long> seatIds = seatRepository.findIdsByRoomId(showtime.getRoom().getId());
+        List<Long> bookedSeatIds = bookingSeatRepository.findBookedSeatIdsByShowtime(showtimeId);
+
+        LocalDateTime endsAt = LocalDateTime.of(showtime.getShowDate(), showtime.getEndTime());
+        if (showtime.getEndTime().isBefore(showtime.getStartTime())) {
+            endsAt = endsAt.plusDays(1); // Suất chiếu qua nửa đêm
+        }
+
+        ShowtimeInventory inventory = new ShowtimeInventory(showtime.getRoom().getId(), seatIds,
+                bookedSeatIds, endsAt, showtime.getRoom().getTotalSeats());
+        boolean autoSoldOut = showtime.getStatus() == Showtime.ShowtimeStatus.SOLD_OUT
+                && Boolean.TRUE.equals(showtime.getAutoSoldOut());
+        if ((showtime.getStatus() == Showtime.ShowtimeStatus.AVAILABLE && inventory.soldOut)
+                || (autoSoldOut && !inventory.soldOut)) {
+            // DB lệch với số ghế thực tế (thay đổi khi suất chiếu chưa được nạp, node khác,
+            // phòng đổi sức chứa...)
+            soldOutChanges.add(showtimeId);
+        }
+
+        log.debug("Loaded seat inventory for showtime {}: {} seats, {} taken",
+                showtimeId, seatIds.size(), bookedSeatIds.size());
+        return inventory;
+    }
+
+    /**
+     * Kết quả đọc trạng thái ghế.
+     *
+     * @param roomId         Phòng chiếu của suất chiếu
+     * @param version        Version hiện tại, client gửi lại ở lần hỏi tiếp theo
+     * @param full           true nếu {@code changedSeatIds} là null và {@code takenSeatIds} là toàn bộ
+     * @param changedSeatIds Ghế thay đổi kể từ version client gửi (null nếu full)
+     * @param takenSeatIds   Ghế đang bị giữ/bán (chỉ trong phạm vi changedSeatIds nếu không full)
+     */
+    public record Occupancy(Long roomId, long version, boolean full, Set<Long> changedSeatIds,
+            Set<Long> takenSeatIds) {
+    }
+
+    // ==================== BITSET ====================
+
+    /**
+     * Bitset trạng thái ghế của một suất chiếu: 32 ghế / long, 2 bit / ghế.
+     * Chỉ số ghế cố định theo thứ tự ID khi nạp, nên có thể đọc/ghi không khóa.
+     */
+    static final class ShowtimeInventory {
+
+        private final Long roomId;
+        private final long[] seatIds;
+        private final Map<Long, Integer> indexBySeatId;
+        private final AtomicLongArray states;
+        private final LocalDateTime endsAt;
+
+        /** Sức chứa của phòng (số ghế active) */
+        private final int capacity;
+        /** Số ghế khác FREE, cập nhật cùng lúc với bitset */
+        private final AtomicInteger taken = new AtomicInteger();
+        /** Trạng thái kín ghế đã báo ra ngoài, chỉ đổi qua {@link #refreshSoldOut()} */
+        private volatile boolean soldOut;
+
+        /** Version lúc nạp; delta chỉ hợp lệ từ version này trở đi */
+        private final long baseVersion;
+        private volatile long version;
+
+        /** Read lock cho mọi thao tác ghi trạng thái, write lock khi chuyển giao sang inventory mới */
+        private final StampedLock lock = new StampedLock();
+        /** Đã được thay bằng inventory mới: thao tác ghi trả về null để gọi lại trên bản mới */
+        private volatile boolean retired;
+        /** Cần nạp lại ở lần truy cập sau */
+        volatile boolean stale;
+
+        // Change log vòng, được bảo vệ bởi monitor của inventory
+        private final long[] changeVersions = new long[CHANGE_LOG_SIZE];
+        private final int[] changeIndexes = new int[CHANGE_LOG_SIZE];
+        private long changeCount;
+        /** Version của entry mới nhất đã bị ghi đè khỏi change log */
+        private long droppedVersion;
+
+        ShowtimeInventory(Long roomId, List<Long> seatIds, Collection<Long> soldSeatIds, LocalDateTime endsAt,
+                int capacity) {
+            this.roomId = roomId;
+            this.seatIds = new long[seatIds.size()];
+            this.indexBySeatId = new HashMap<>(seatIds.size() * 2);
+            for (int i = 0; i < seatIds.size(); i++) {
+                this.seatIds[i] = seatIds.get(i);
+                this.indexBySeatId.put(seatIds.get(i), i);
+            }
+            this.states = new AtomicLongArray((seatIds.size() + 31) >>> 5);
+            this.endsAt = endsAt;
+            this.capacity = capacity;
+            for (Long seatId : soldSeatIds) {
+                Integer index = indexBySeatId.get(seatId);
+                if (index != null && set(index, SOLD) == FREE) {
+                    taken.incrementAndGet();
+                }
+            }
+            this.soldOut = isFull();
+            this.baseVersion = nextVersion();
+            this.version = baseVersion;
+        }
+
+        /**
+         * Đóng băng inventory này và chuyển trạng thái trong bộ nhớ sang {@code fresh}
+         * (vừa nạp từ DB, chưa công bố):
+         * <ul>
+         * <li>Ghế đổi trạng thái sau {@code readFrom} (trong lúc đọc DB): lấy trạng thái trong bộ nhớ</li>
+         * <li>Ghế còn lại: lấy theo DB, cộng thêm ghế HELD chưa commit</li>
+         * </ul>
+         *
+         * @return false nếu inventory đã được chuyển giao trước đó
+         */
+        boolean retire(ShowtimeInventory fresh, long readFrom) {
+            long stamp = lock.writeLock();
+            try {
+                if (retired) {
+                    return false;
+                }
+                retired = true;
+                Set<Integer> changed = changesSince(readFrom);
+                for (int i = 0; i < seatIds.length; i++) {
+                    Integer target = fresh.indexBySeatId.get(seatIds[i]);
+                    if (target == null) {
+                        continue; // Ghế không còn trong layout
+                    }
+                    int state = state(i);
+                    if (changed == null || changed.contains(i)) {
+                        fresh.adopt(target, state);
+                    } else if (state == HELD && fresh.state(target) == FREE) {
+                        fresh.adopt(target, HELD);
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Index các ghế đổi trạng thái sau {@code sinceVersion}, hoặc null nếu change log
+         * không còn đủ (khi đó coi như mọi ghế đều vừa đổi).
+         */
+        private synchronized Set<Integer> changesSince(long sinceVersion) {
+            if (sinceVersion < droppedVersion) {
+                return null;
+            }
+            Set<Integer> changed = new HashSet<>();
+            long retained = Math.min(changeCount, CHANGE_LOG_SIZE);
+            for (long i = changeCount - retained; i < changeCount; i++) {
+                int slot = (int) (i % CHANGE_LOG_SIZE);
+                if (changeVersions[slot] > sinceVersion) {
+                    changed.add(changeIndexes[slot]);
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Đặt trạng thái khi chuyển giao (inventory chưa được công bố).
+         */
+        private void adopt(int index, int update) {
+            int previous = set(index, update);
+            if (previous == FREE && update != FREE) {
+                taken.incrementAndGet();
+            } else if (previous != FREE && update == FREE) {
+                taken.decrementAndGet();
+            }
+        }
+
+        boolean indexesAll(Collection<Long> ids) {
+            return indexBySeatId.keySet().containsAll(ids);
+        }
+
+        int state(int index) {
+            int shift = (index & 31) << 1;
+            return (int) ((states.get(index >>> 5) >>> shift) & 3L);
+        }
+
+        boolean compareAndSet(int index, int expect, int update) {
+            int word = index >>> 5;
+            int shift = (index & 31) << 1;
+            long mask = 3L << shift;
+            while (true) {
+                long current = states.get(word);
+                if (((current & mask) >>> shift) != expect) {
+                    return false;
+                }
+                long next = (current & ~mask) | ((long) update << shift);
+                if (states.compareAndSet(word, current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return Trạng thái trước đó (bằng {@code update} nếu không có gì thay đổi)
+         */
+        int set(int index, int update) {
+            int word = index >>> 5;
+            int shift = (index & 31) << 1;
+            long mask = 3L << shift;
+            while (true) {
+                long current = states.get(word);
+                long next = (current & ~mask) | ((long) update << shift);
+                if (current == next) {
+                    return update;
+                }
+                if (states.compareAndSet(word, current, next)) {
+                    return (int) ((current & mask) >>> shift);
+                }
+            }
+        }
+
+        boolean isFull() {
+            return capacity > 0 && taken.get() >= capacity;
+        }
+
+        /**
+         * Cập nhật cờ kín ghế theo bộ đếm.
+         *
+         * @return true nếu cờ vừa đổi (chỉ một thread nhận true cho mỗi lần đổi)
+         */
+        synchronized boolean refreshSoldOut() {
+            boolean full = isFull();
+            if (full == soldOut) {
+                return false;
+            }
+            soldOut = full;
+            return true;
+        }
+
+        /**
+         * Ghi các ghế vừa đổi trạng thái vào change log với một version mới.
+         * Gọi SAU khi bitset đã đổi, nên reader đọc version trước rồi đọc bitset
+         * không bao giờ bỏ sót thay đổi.
+         */
+        synchronized void recordChanges(List<Integer> indexes) {
+            if (indexes.isEmpty()) {
+                return;
+            }
+            long next = nextVersion();
+            for (Integer index : indexes) {
+                int slot = (int) (changeCount++ % CHANGE_LOG_SIZE);
+                if (changeCount > CHANGE_LOG_SIZE) {
+                    droppedVersion = changeVersions[slot];
+                }
+                changeVersions[slot] = next;
+                changeIndexes[slot] = index;
+            }
+            version = next;
+        }
+
+        Occupancy occupancy(Long sinceVersion) {
+            Set<Integer> changed = null;
+            long current;
+            synchronized (this) {
+                current = version;
+                if (sinceVersion != null && sinceVersion >= baseVersion && sinceVersion <= currentVersion()) {
+                    changed = changesSince(sinceVersion);
+                }
+            }
+
+            // Trạng thái đọc sau version nên luôn mới hơn hoặc bằng version trả về
+            if (changed == null) {
+                Set<Long> taken = new HashSet<>(takenSeatIds());
+                return new Occupancy(roomId, current, true, null, taken);
+            }
+            Set<Long> changedSeatIds = new HashSet<>(changed.size() * 2);
+            Set<Long> taken = new HashSet<>();
+            for (Integer index : changed) {
+                changedSeatIds.add(seatIds[index]);
+                if (state(index) != FREE) {
+                    taken.add(seatIds[index]);
+                }
+            }
+            return new Occupancy(roomId, current, false, changedSeatIds, taken);
+        }
+
+        /**
+         * FREE -> HELD cho toàn bộ ghế; nếu có ghế conflict thì hoàn tác các ghế đã giữ.
+         *
+         * @return Ghế conflict, hoặc null nếu inventory đã được thay
+         */
+        List<Long> tryHold(Collection<Long> ids) {
+            long stamp = lock.readLock();
+            try {
+                return retired ? null : doTryHold(ids);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private List<Long> doTryHold(Collection<Long> ids) {
+            List<Integer> claimed = new ArrayList<>(ids.size());
+            List<Long> conflicts = new ArrayList<>();
+
+            for (Long seatId : ids) {
+                Integer index = indexBySeatId.get(seatId);
+                if (index == null || !compareAndSet(index, FREE, HELD)) {
+                    conflicts.add(seatId);
+                } else {
+                    claimed.add(index);
+                }
+            }
+
+            if (!conflicts.isEmpty()) {
+                for (Integer index : claimed) {
+                    compareAndSet(index, HELD, FREE);
+                }
+            } else {
+                taken.addAndGet(claimed.size());
+            }
+            // Ghi cả khi hoàn tác: reader có thể đã thấy trạng thái HELD tạm thời
+            recordChanges(claimed);
+            return conflicts;
+        }
+
+        List<Long> markSold(Collection<Long> ids) {
+            return setAll(ids, SOLD, false);
+        }
+
+        List<Long> release(Collection<Long> ids) {
+            return setAll(ids, FREE, false);
+        }
+
+        /**
+         * Chỉ trả các ghế đang HELD về FREE.
+         */
+        List<Long> releaseHeld(Collection<Long> ids) {
+            return setAll(ids, FREE, true);
+        }
+
+        /**
+         * @return ID các ghế thực sự đổi trạng thái, hoặc null nếu inventory đã được thay
+         */
+        private List<Long> setAll(Collection<Long> ids, int update, boolean heldOnly) {
+            long stamp = lock.readLock();
+            try {
+                if (retired) {
+                    return null;
+                }
+                List<Integer> changed = new ArrayList<>(ids.size());
+                List<Long> changedSeatIds = new ArrayList<>(ids.size());
+                for (Long seatId : ids) {
+                    Integer index = indexBySeatId.get(seatId);
+                    if (index == null) {
+                        continue;
+                    }
+                    int previous;
+                    if (heldOnly) {
+                        previous = compareAndSet(index, HELD, update) ? HELD : update;
+                    } else {
+                        previous = set(index, update);
+                    }
+                    if (previous != update) {
+                        changed.add(index);
+                        changedSeatIds.add(seatId);
+                        if (previous == FREE) {
+                            taken.incrementAndGet();
+                        } else if (update == FREE) {
+                            taken.decrementAndGet();
+                        }
+                    }
+                }
+                recordChanges(changed);
+                return changedSeatIds;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int takenCount() {
+            return taken.get();
+        }
+
+        long version() {
+            return version;
+        }
+
+        List<Long> takenSeatIds() {
+            List<Long> taken = new ArrayList<>();
+            for (int i = 0; i < seatIds.length; i++) {
+                if (state(i) != FREE) {
+                    taken.add(seatIds[i]);
+                }
+            }
+            return taken;
+        }
+    }
+}
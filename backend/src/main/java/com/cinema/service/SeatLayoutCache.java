@@ -0,0 +1,151 @@
+package com.cinema.service;
+
+import com.cinema.dto.response.SeatResponse;
+import com.cinema.model.Seat;
+import com.cinema.model.Surcharge;
+import com.cinema.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot layout ghế (immutable) theo phòng chiếu.
+ *
+ * <p>
+ * Layout phòng gần như không đổi nên được nạp một lần (kèm loại ghế) và dùng
+ * chung cho mọi suất chiếu của phòng; {@link SeatService} chỉ cần phủ trạng
+ * thái ghế từ {@link SeatInventoryService} lên trên.
+ * </p>
+ *
+ * <p>
+ * Bị vô hiệu khi {@code RoomService} đồng bộ lại ghế từ layout, hoặc khi loại
+ * ghế (Surcharge SEAT_TYPE) thay đổi.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatLayoutCache {
+
+    private final SeatRepository seatRepository;
+
+    private final Map<Long, RoomLayout> layouts = new ConcurrentHashMap<>();
+
+    /** Version tại lần vô hiệu gần nhất của từng phòng / của toàn bộ cache */
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private volatile long allInvalidatedAt;
+
+    /**
+     * Layout ghế của phòng, sắp theo hàng và số ghế (nạp lazy).
+     */
+    public RoomLayout getLayout(Long roomId) {
+        RoomLayout layout = layouts.get(roomId);
+        if (layout != null) {
+            return layout;
+        }
+        // Nạp ngoài computeIfAbsent để không giữ lock của map trong lúc query DB.
+        // Bị vô hiệu sau khi bắt đầu đọc thì bản vừa nạp có thể đã cũ: dùng cho lần gọi này, không cache.
+        long readFrom = SeatInventoryService.nextVersion();
+        RoomLayout loaded = load(roomId);
+        RoomLayout cached = layouts.compute(roomId, (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            boolean stale = readFrom < allInvalidatedAt || readFrom < invalidatedAt.getOrDefault(id, 0L);
+            return stale ? null : loaded;
+        });
+        return cached != null ? cached : loaded;
+    }
+
+    /**
+     * Bỏ snapshot của phòng sau khi transaction hiện tại commit.
+     */
+    public void invalidateAfterCommit(Long roomId) {
+        runAfterCommit(() -> layouts.compute(roomId, (id, existing) -> {
+            invalidatedAt.put(id, SeatInventoryService.nextVersion());
+            return null;
+        }));
+    }
+
+    /**
+     * Bỏ toàn bộ snapshot (loại ghế thay đổi ảnh hưởng mọi phòng).
+     */
+    public void invalidateAll() {
+        runAfterCommit(() -> {
+            allInvalidatedAt = SeatInventoryService.nextVersion();
+            layouts.clear();
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private RoomLayout load(Long roomId) {
+        List<SeatEntry> seats = seatRepository.findByRoomIdOrderByRowAndNumber(roomId).stream()
+                .map(SeatLayoutCache::toEntry)
+                .toList();
+        log.debug("Loaded seat layout for room {}: {} seats", roomId, seats.size());
+        // Version lấy sau khi đọc DB: delta cũ hơn layout này đều không hợp lệ
+        return new RoomLayout(roomId, SeatInventoryService.nextVersion(), seats);
+    }
+
+    private static SeatEntry toEntry(Seat seat) {
+        Surcharge type = seat.getSeatType();
+        return new SeatEntry(
+                seat.getId(),
+                seat.getRowName(),
+                seat.getSeatNumber(),
+                seat.getSeatLabel(),
+                type != null ? type.getCode() : "STANDARD",
+                type != null ? type.getName() : "Ghế Thường",
+                type != null ? type.getAmount() : BigDecimal.ZERO,
+                type != null ? type.getColor() : null,
+                seat.getActive());
+    }
+
+    /**
+     * Layout ghế của một phòng tại một version.
+     */
+    public record RoomLayout(Long roomId, long version, List<SeatEntry> seats) {
+    }
+
+    /**
+     * Thông tin tĩnh của một ghế.
+     */
+    public record SeatEntry(Long id, String rowName, Integer seatNumber, String seatLabel,
+            String seatTypeCode, String seatTypeName, BigDecimal extraFee, String seatColor, Boolean active) {
+
+        public SeatResponse toResponse(boolean booked) {
+            return SeatResponse.builder()
+                    .id(id)
+                    .rowName(rowName)
+                    .seatNumber(seatNumber)
+                    .seatLabel(seatLabel)
+                    .seatTypeCode(seatTypeCode)
+                    .seatTypeName(seatTypeName)
+                    .priceMultiplier(BigDecimal.ONE)
+                    .extraFee(extraFee)
+                    .seatColor(seatColor)
+                    .active(active)
+                    .isBooked(booked)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.cinema.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Chênh lệch giữa ghế đang lưu của một phòng và lưới layout admin vừa gửi.
+ *
+ * <p>
+ * Ghế được so khớp theo vị trí (row_name, seat_number) nên ID của các ô giữ
+ * nguyên vị trí không đổi. Ô bị xoá khỏi lưới chỉ bị vô hiệu hoá (active = false)
+ * để lịch sử {@code booking_seats} vẫn trỏ được về ghế cũ.
+ * </p>
+ */
+final class SeatLayoutDiff {
+
+    /** Ghế đang lưu trong DB */
+    record StoredSeat(Long id, String rowName, int seatNumber, Long surchargeId, boolean active) {
+    }
+
+    /** Ô ghế trong layout mới */
+    record Cell(String rowName, int seatNumber, Long surchargeId) {
+    }
+
+    /** Ghế cần cập nhật loại ghế và/hoặc bật lại */
+    record Change(Long seatId, Long surchargeId) {
+    }
+
+    private final List<Cell> added = new ArrayList<>();
+    private final List<Change> changed = new ArrayList<>();
+    private final List<StoredSeat> removed = new ArrayList<>();
+    private final int activeCount;
+
+    private SeatLayoutDiff(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    /**
+     * So sánh ghế đang lưu với lưới mới. Ô trùng vị trí trong lưới mới thì ô sau thắng.
+     */
+    static SeatLayoutDiff compute(Collection<StoredSeat> stored, Collection<Cell> submitted) {
+        Map<String, Cell> cells = new LinkedHashMap<>();
+        for (Cell cell : submitted) {
+            cells.put(key(cell.rowName(), cell.seatNumber()), cell);
+        }
+
+        SeatLayoutDiff diff = new SeatLayoutDiff(cells.size());
+        Map<String, StoredSeat> byPosition = new HashMap<>(stored.size() * 2);
+        for (StoredSeat seat : stored) {
+            byPosition.put(key(seat.rowName(), seat.seatNumber()), seat);
+        }
+
+        for (Map.Entry<String, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            StoredSeat seat = byPosition.remove(entry.getKey());
+            if (seat == null) {
+                diff.added.add(cell);
+            } else if (!seat.active() || !Objects.equals(seat.surchargeId(), cell.surchargeId())) {
+                diff.changed.add(new Change(seat.id(), cell.surchargeId()));
+            }
+        }
+        // Còn lại trong map: có trong DB nhưng không còn trên lưới
+        for (StoredSeat seat : byPosition.values()) {
+            if (seat.active()) {
+                diff.removed.add(seat);
+            }
+        }
+        return diff;
+    }
+
+    private static String key(String rowName, int seatNumber) {
+        return rowName + '#' + seatNumber;
+    }
+
+    List<Cell> added() {
+        return added;
+    }
+
+    List<Change> changed() {
+        return changed;
+    }
+
+    List<StoredSeat> removed() {
+        return removed;
+    }
+
+    /** Số ghế active của phòng sau khi áp diff */
+    int activeCount() {
+        return activeCount;
+    }
+
+    boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -1,54 +1,96 @@
 package com.cinema.service;
 
+import com.cinema.dto.response.SeatMapResponse;
 import com.cinema.dto.response.SeatResponse;
-import com.cinema.model.Seat;
-import com.cinema.repository.BookingSeatRepository;
-import com.cinema.repository.SeatRepository;
+import com.cinema.service.SeatInventoryService.Occupancy;
+import com.cinema.service.SeatLayoutCache.RoomLayout;
+import com.cinema.service.SeatLayoutCache.SeatEntry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SeatService {
 
-    private final SeatRepository seatRepository;
-    private final BookingSeatRepository bookingSeatRepository;
+    private final SeatLayoutCache seatLayoutCache;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatEventBroadcaster seatEventBroadcaster;
+    private final BestSeatSelector bestSeatSelector;
 
     public List<SeatResponse> getSeatsByRoom(Long roomId) {
-        return seatRepository.findByRoomIdOrderByRowAndNumber(roomId).stream()
-                .map(seat -> mapToResponse(seat, null))
+        return seatLayoutCache.getLayout(roomId).seats().stream()
+                .map(seat -> seat.toResponse(false))
                 .collect(Collectors.toList());
     }
 
     public List<SeatResponse> getSeatsByShowtime(Long roomId, Long showtimeId) {
-        List<Long> bookedSeatIds = bookingSeatRepository.findBookedSeatIdsByShowtime(showtimeId);
-
-        return seatRepository.findByRoomIdOrderByRowAndNumber(roomId).stream()
-                .map(seat -> {
-                    SeatResponse response = mapToResponse(seat, showtimeId);
-                    response.setIsBooked(bookedSeatIds.contains(seat.getId()));
-                    return response;
-                })
+        Occupancy occupancy = seatInventoryService.getOccupancy(showtimeId, null);
+
+        return seatLayoutCache.getLayout(roomId).seats().stream()
+                .map(seat -> seat.toResponse(occupancy.takenSeatIds().contains(seat.id())))
                 .collect(Collectors.toList());
     }
 
-    private SeatResponse mapToResponse(Seat seat, Long showtimeId) {
-        com.cinema.model.Surcharge type = seat.getSeatType();
-        return SeatResponse.builder()
-                .id(seat.getId())
-                .rowName(seat.getRowName())
-                .seatNumber(seat.getSeatNumber())
-                .seatLabel(seat.getSeatLabel())
-                .seatTypeCode(type != null ? type.getCode() : "STANDARD")
-                .seatTypeName(type != null ? type.getName() : "Ghế Thường")
-                .priceMultiplier(java.math.BigDecimal.ONE)
-                .extraFee(type != null ? type.getAmount() : java.math.BigDecimal.ZERO)
-                .seatColor(type != null ? type.getColor() : null)
-                .active(seat.getActive())
-                .isBooked(false)
+    /**
+     * Sơ đồ ghế có version của suất chiếu.
+     *
+     * <p>
+     * Nếu {@code sinceVersion} vẫn còn hợp lệ (cùng layout phòng, còn trong
+     * change log) thì chỉ trả về các ghế thay đổi; ngược lại trả toàn bộ sơ đồ.
+     * </p>
+     */
+    public SeatMapResponse getSeatMap(Long showtimeId, Long sinceVersion) {
+        Occupancy occupancy = seatInventoryService.getOccupancy(showtimeId, sinceVersion);
+        RoomLayout layout = seatLayoutCache.getLayout(occupancy.roomId());
+
+        boolean full = occupancy.full() || sinceVersion < layout.version();
+        if (full && !occupancy.full()) {
+            // Layout mới hơn version của client -> cần trạng thái của mọi ghế
+            occupancy = seatInventoryService.getOccupancy(showtimeId, null);
+        }
+
+        List<SeatResponse> seats = new ArrayList<>();
+        for (SeatEntry seat : layout.seats()) {
+            if (full || occupancy.changedSeatIds().contains(seat.id())) {
+                seats.add(seat.toResponse(occupancy.takenSeatIds().contains(seat.id())));
+            }
+        }
+
+        return SeatMapResponse.builder()
+                .showtimeId(showtimeId)
+                .roomId(layout.roomId())
+                .version(Math.max(occupancy.version(), layout.version()))
+                .full(full)
+                .seats(seats)
                 .build();
     }
+
+    /**
+     * Gợi ý N ghế liền nhau tốt nhất theo trạng thái hiện tại, không giữ chỗ.
+     * Ghế chỉ thực sự được giữ khi đặt vé qua {@code POST /api/bookings/best-available}.
+     */
+    public List<SeatResponse> suggestBestSeats(Long showtimeId, int quantity, String seatTypeCode) {
+        Long roomId = seatInventoryService.getRoomId(showtimeId);
+        Set<Long> chosen = new HashSet<>(bestSeatSelector.select(showtimeId, roomId, quantity, seatTypeCode));
+
+        return seatLayoutCache.getLayout(roomId).seats().stream()
+                .filter(seat -> chosen.contains(seat.id()))
+                .map(seat -> seat.toResponse(false))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Mở kênh SSE nhận sự kiện giữ / trả / bán ghế của suất chiếu.
+     */
+    public SseEmitter subscribeSeatEvents(Long showtimeId) {
+        Occupancy occupancy = seatInventoryService.getOccupancy(showtimeId, null);
+        return seatEventBroadcaster.subscribe(showtimeId, occupancy.version());
+    }
 }
@@ -7,7 +7,6 @@ import com.cinema.exception.ResourceNotFoundException;
 import com.cinema.model.Movie;
 import com.cinema.model.Room;
 import com.cinema.model.Showtime;
-import com.cinema.repository.BookingSeatRepository;
 import com.cinema.repository.MovieRepository;
 import com.cinema.repository.RoomRepository;
 import com.cinema.repository.ShowtimeRepository;
@@ -26,38 +25,28 @@ public class ShowtimeService {
         private final ShowtimeRepository showtimeRepository;
         private final MovieRepository movieRepository;
         private final RoomRepository roomRepository;
-        private final BookingSeatRepository bookingSeatRepository;
+        private final SeatInventoryService seatInventoryService;
+        private final PricingService pricingService;
 
         public List<ShowtimeResponse> getShowtimesByMovie(Long movieId) {
-                return showtimeRepository.findByMovieId(movieId).stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+                return mapToResponses(showtimeRepository.findByMovieId(movieId));
         }
 
         public List<ShowtimeResponse> getShowtimesByMovieAndTheater(Long movieId, Long theaterId) {
-                return showtimeRepository
-                                .findByMovieIdAndRoomTheaterIdOrderByShowDateAscStartTimeAsc(movieId, theaterId)
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+                return mapToResponses(showtimeRepository
+                                .findByMovieIdAndRoomTheaterIdOrderByShowDateAscStartTimeAsc(movieId, theaterId));
         }
 
         public List<ShowtimeResponse> getShowtimesByMovieAndDate(Long movieId, LocalDate date) {
-                return showtimeRepository.findAvailableByMovieAndDate(movieId, date).stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+                return mapToResponses(showtimeRepository.findAvailableByMovieAndDate(movieId, date));
         }
 
         public List<ShowtimeResponse> getShowtimesByMovieTheaterAndDate(Long movieId, Long theaterId, LocalDate date) {
-                return showtimeRepository.findByMovieTheaterAndDate(movieId, theaterId, date).stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+                return mapToResponses(showtimeRepository.findByMovieTheaterAndDate(movieId, theaterId, date));
         }
 
         public List<ShowtimeResponse> getShowtimesByTheaterAndDate(Long theaterId, LocalDate date) {
-                return showtimeRepository.findByTheaterAndDate(theaterId, date).stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+                return mapToResponses(showtimeRepository.findByTheaterAndDate(theaterId, date));
         }
 
         public com.cinema.dto.response.PageResponse<ShowtimeResponse> searchShowtimes(
@@ -155,16 +144,21 @@ public class ShowtimeService {
                 showtime.setFormat(request.getFormat());
                 showtime.setMovie(movie);
                 showtime.setRoom(room);
-                showtime.setStatus(request.getStatus() != null ? request.getStatus() : showtime.getStatus()); // Update
-                                                                                                              // status
-                                                                                                              // if
-                                                                                                              // provided
+                if (request.getStatus() != null && request.getStatus() != showtime.getStatus()) {
+                        // Admin đổi trạng thái -> hệ thống không tự mở / đóng bán lại nữa
+                        showtime.setStatus(request.getStatus());
+                        showtime.setAutoSoldOut(false);
+                }
 
                 showtime = showtimeRepository.save(showtime);
+                // Phòng chiếu có thể đã đổi -> bitset ghế cũ không còn đúng
+                seatInventoryService.evict(showtime.getId());
+                pricingService.evictSeatMapQuotes(showtime.getId());
                 return mapToResponse(showtime);
         }
 
-        private void validateOverlap(Long roomId, Long excludedId, LocalDate date, java.time.LocalTime start,
+        // package-private: được đo trực tiếp trong benchmark (src/jmh/java)
+        void validateOverlap(Long roomId, Long excludedId, LocalDate date, java.time.LocalTime start,
                         java.time.LocalTime end) {
                 // Enforce 3-Phase Logic:
                 // Input 'start' is Ticket Time (T).
@@ -265,15 +259,46 @@ public class ShowtimeService {
                 Showtime showtime = showtimeRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundException("Showtime", "id", id));
                 showtimeRepository.delete(showtime);
+                seatInventoryService.evict(id);
+                pricingService.evictSeatMapQuotes(id);
+        }
+
+        /**
+         * Map a listing of showtimes, fetching booked-seat counts for all of them in a
+         * single batch instead of one query per row. SOLD_OUT showtimes are not counted.
+         */
+        private List<ShowtimeResponse> mapToResponses(List<Showtime> showtimes) {
+                if (showtimes.isEmpty()) {
+                        return List.of();
+                }
+
+                java.util.Map<Long, Integer> bookedCounts = seatInventoryService.getTakenSeatCounts(
+                                showtimes.stream()
+                                                .filter(s -> s.getStatus() != Showtime.ShowtimeStatus.SOLD_OUT)
+                                                .map(Showtime::getId)
+                                                .collect(Collectors.toList()));
+
+                return showtimes.stream()
+                                .map(s -> mapToResponse(s, bookedCounts.getOrDefault(s.getId(), 0)))
+                                .collect(Collectors.toList());
         }
 
         private ShowtimeResponse mapToResponse(Showtime showtime) {
+                if (showtime.getStatus() == Showtime.ShowtimeStatus.SOLD_OUT) {
+                        return mapToResponse(showtime, 0);
+                }
+                int bookedCount = seatInventoryService.getTakenSeatCounts(List.of(showtime.getId()))
+                                .getOrDefault(showtime.getId(), 0);
+                return mapToResponse(showtime, bookedCount);
+        }
+
+        private ShowtimeResponse mapToResponse(Showtime showtime, int bookedCount) {
                 Room room = showtime.getRoom();
                 Movie movie = showtime.getMovie();
 
-                // Calculate available seats
-                List<Long> bookedSeats = bookingSeatRepository.findBookedSeatIdsByShowtime(showtime.getId());
-                int availableSeats = room.getTotalSeats() - bookedSeats.size();
+                int availableSeats = showtime.getStatus() == Showtime.ShowtimeStatus.SOLD_OUT
+                                ? 0
+                                : room.getTotalSeats() - bookedCount;
 
                 return ShowtimeResponse.builder()
                                 .id(showtime.getId())
@@ -302,7 +327,9 @@ public class ShowtimeService {
 
                 // Skip expensive booked seats query for list views
                 // Just return total seats or estimate
-                int availableSeats = room.getTotalSeats();
+                int availableSeats = showtime.getStatus() == Showtime.ShowtimeStatus.SOLD_OUT
+                                ? 0
+                                : room.getTotalSeats();
 
                 return ShowtimeResponse.builder()
                                 .id(showtime.getId())
@@ -0,0 +1,361 @@
+package com.cinema.service;
+
+import com.cinema.dto.response.SuggestionResponse;
+import com.cinema.model.Booking;
+import com.cinema.model.City;
+import com.cinema.model.Movie;
+import com.cinema.model.Theater;
+import com.cinema.repository.BookingRepository;
+import com.cinema.repository.CityRepository;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.TheaterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gợi ý khi gõ (typeahead) cho phim, rạp và thành phố.
+ *
+ * <p>
+ * Mỗi loại có một trie trên tên đã bỏ dấu ({@link MovieSearchIndex#normalize}),
+ * khóa gồm cả tên đầy đủ lẫn phần tên bắt đầu từ mỗi từ ("mat biec", "biec").
+ * Mỗi nút giữ sẵn top {@value #MAX_LIMIT} mục theo độ phổ biến (số booking trong
+ * {@code suggest.popularity-days} ngày gần nhất), nên một lần gợi ý chỉ là đi
+ * theo tiền tố rồi đọc danh sách có sẵn, không chạm DB.
+ * </p>
+ *
+ * <p>
+ * Thay đổi phim / rạp / thành phố được áp dụng sau commit; chỉ trie của loại bị
+ * thay đổi được dựng lại (lười, ở lần gợi ý kế tiếp). Độ phổ biến được tính lại
+ * định kỳ bởi {@code SuggestionPopularityScheduler}.
+ * </p>
+ */
+@Service
+@Slf4j
+public class SuggestionIndex {
+
+    public static final int MAX_LIMIT = 10;
+
+    public enum Type {
+        MOVIE, THEATER, CITY
+    }
+
+    private final MovieRepository movieRepository;
+    private final TheaterRepository theaterRepository;
+    private final CityRepository cityRepository;
+    private final BookingRepository bookingRepository;
+    private final int popularityDays;
+
+    private final Map<Type, Section> sections = new HashMap<>();
+    private volatile boolean loaded;
+
+    public SuggestionIndex(MovieRepository movieRepository, TheaterRepository theaterRepository,
+            CityRepository cityRepository, BookingRepository bookingRepository,
+            @Value("${suggest.popularity-days:30}") int popularityDays) {
+        this.movieRepository = movieRepository;
+        this.theaterRepository = theaterRepository;
+        this.cityRepository = cityRepository;
+        this.bookingRepository = bookingRepository;
+        this.popularityDays = popularityDays;
+        for (Type type : Type.values()) {
+            sections.put(type, new Section());
+        }
+    }
+
+    /**
+     * Nạp toàn bộ phim, rạp, thành phố và độ phổ biến từ DB.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Section movies = sections.get(Type.MOVIE);
+        movies.entries.clear();
+        movieRepository.findAll().forEach(movie -> movies.entries.put(movie.getId(), toEntry(movie)));
+
+        Section theaters = sections.get(Type.THEATER);
+        theaters.entries.clear();
+        theaterRepository.findAllWithCity().forEach(theater -> theaters.entries.put(theater.getId(), toEntry(theater)));
+
+        Section cities = sections.get(Type.CITY);
+        cities.entries.clear();
+        cityRepository.findAll().forEach(city -> cities.entries.put(city.getId(), toEntry(city)));
+
+        loaded = true;
+        refreshPopularity();
+        log.info("Suggestion index loaded: {} movies, {} theaters, {} cities",
+                movies.entries.size(), theaters.entries.size(), cities.entries.size());
+    }
+
+    /**
+     * Tính lại độ phổ biến: số booking đã thanh toán trong N ngày gần nhất theo phim / rạp / thành phố.
+     */
+    public void refreshPopularity() {
+        Map<Long, Long> byMovie = new HashMap<>();
+        Map<Long, Long> byTheater = new HashMap<>();
+        List<Object[]> rows = bookingRepository.countBookingsByMovieAndTheaterSince(
+                LocalDateTime.now().minusDays(popularityDays),
+                List.of(Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED));
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            byMovie.merge((Long) row[0], count, Long::sum);
+            byTheater.merge((Long) row[1], count, Long::sum);
+        }
+
+        Map<Long, Long> byCity = new HashMap<>();
+        sections.get(Type.THEATER).entries.values().forEach(theater -> {
+            Long count = byTheater.get(theater.id());
+            if (count != null && theater.parentId() != null) {
+                byCity.merge(theater.parentId(), count, Long::sum);
+            }
+        });
+
+        sections.get(Type.MOVIE).setPopularity(byMovie);
+        sections.get(Type.THEATER).setPopularity(byTheater);
+        sections.get(Type.CITY).setPopularity(byCity);
+    }
+
+    /**
+     * Gợi ý theo tiền tố (không dấu, không phân biệt hoa thường).
+     */
+    public SuggestionResponse suggest(String query, int limit) {
+        String prefix = String.join(" ", MovieSearchIndex.tokenize(query));
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (prefix.isEmpty()) {
+            return SuggestionResponse.builder().movies(List.of()).theaters(List.of()).cities(List.of()).build();
+        }
+        ensureLoaded();
+        return SuggestionResponse.builder()
+                .movies(sections.get(Type.MOVIE).suggest(prefix, size))
+                .theaters(sections.get(Type.THEATER).suggest(prefix, size))
+                .cities(sections.get(Type.CITY).suggest(prefix, size))
+                .build();
+    }
+
+    public void indexMoviesAfterCommit(Collection<Movie> movies) {
+        List<Entry> entries = movies.stream().map(SuggestionIndex::toEntry).toList();
+        runAfterCommit(() -> sections.get(Type.MOVIE).putAll(entries));
+    }
+
+    public void indexMovieAfterCommit(Movie movie) {
+        indexMoviesAfterCommit(List.of(movie));
+    }
+
+    public void indexTheaterAfterCommit(Theater theater) {
+        Entry entry = toEntry(theater);
+        runAfterCommit(() -> sections.get(Type.THEATER).putAll(List.of(entry)));
+    }
+
+    public void indexCityAfterCommit(City city) {
+        Entry entry = toEntry(city);
+        runAfterCommit(() -> sections.get(Type.CITY).putAll(List.of(entry)));
+    }
+
+    public void removeAfterCommit(Type type, Long id) {
+        runAfterCommit(() -> sections.get(type).remove(id));
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Entry toEntry(Movie movie) {
+        String subtitle = movie.getReleaseDate() != null ? String.valueOf(movie.getReleaseDate().getYear()) : null;
+        return new Entry(movie.getId(), movie.getTitle(), subtitle, null, movie.getStatus() != Movie.MovieStatus.ENDED);
+    }
+
+    private static Entry toEntry(Theater theater) {
+        City city = theater.getCity();
+        return new Entry(theater.getId(), theater.getName(), city != null ? city.getName() : theater.getAddress(),
+                city != null ? city.getId() : null, !Boolean.FALSE.equals(theater.getActive()));
+    }
+
+    private static Entry toEntry(City city) {
+        return new Entry(city.getId(), city.getName(), null, null, !Boolean.FALSE.equals(city.getActive()));
+    }
+
+    /**
+     * Một mục có thể gợi ý. {@code parentId}: thành phố của rạp.
+     */
+    private record Entry(Long id, String label, String subtitle, Long parentId, boolean active) {
+    }
+
+    /**
+     * Dữ liệu + trie của một loại (phim / rạp / thành phố).
+     */
+    private static final class Section {
+
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private volatile Map<Long, Long> popularity = Map.of();
+        private volatile Trie trie;
+        private volatile boolean dirty = true;
+
+        void putAll(Collection<Entry> changed) {
+            changed.forEach(entry -> entries.put(entry.id(), entry));
+            dirty = true;
+        }
+
+        void remove(Long id) {
+            entries.remove(id);
+            dirty = true;
+        }
+
+        void setPopularity(Map<Long, Long> counts) {
+            popularity = Map.copyOf(counts);
+            dirty = true;
+        }
+
+        List<SuggestionResponse.Item> suggest(String prefix, int limit) {
+            Trie current = trie();
+            int[] top = current.top(prefix);
+            List<SuggestionResponse.Item> items = new ArrayList<>(Math.min(limit, top.length));
+            for (int i = 0; i < top.length && items.size() < limit; i++) {
+                Entry entry = current.entries[top[i]];
+                items.add(SuggestionResponse.Item.builder()
+                        .id(entry.id())
+                        .label(entry.label())
+                        .subtitle(entry.subtitle())
+                        .build());
+            }
+            return items;
+        }
+
+        private Trie trie() {
+            Trie current = trie;
+            if (current != null && !dirty) {
+                return current;
+            }
+            synchronized (this) {
+                if (trie == null || dirty) {
+                    dirty = false;
+                    trie = Trie.build(entries.values(), popularity);
+                }
+                return trie;
+            }
+        }
+    }
+
+    /**
+     * Trie (immutable sau khi dựng) với top-K mục theo hạng ở mỗi nút.
+     */
+    private static final class Trie {
+
+        private final Entry[] entries;
+        private final Node root = new Node();
+
+        private Trie(Entry[] entries) {
+            this.entries = entries;
+        }
+
+        static Trie build(Collection<Entry> source, Map<Long, Long> popularity) {
+            Entry[] entries = source.stream().filter(Entry::active).toArray(Entry[]::new);
+            Trie trie = new Trie(entries);
+            for (int i = 0; i < entries.length; i++) {
+                List<String> words = MovieSearchIndex.tokenize(entries[i].label());
+                if (words.isEmpty()) {
+                    continue;
+                }
+                double rank = popularity.getOrDefault(entries[i].id(), 0L);
+                for (int w = 0; w < words.size(); w++) {
+                    String key = String.join(" ", words.subList(w, words.size()));
+                    // Khớp từ đầu tên được ưu tiên hơn khớp giữa tên khi cùng độ phổ biến
+                    trie.insert(key, i, w == 0 ? rank + 0.5 : rank);
+                }
+            }
+            return trie;
+        }
+
+        private void insert(String key, int entry, double rank) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                node.offer(entry, rank, entries);
+            }
+        }
+
+        int[] top(String prefix) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node != null ? Arrays.copyOf(node.top, node.size) : new int[0];
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final int[] top = new int[MAX_LIMIT];
+        private final double[] ranks = new double[MAX_LIMIT];
+        private int size;
+
+        /**
+         * Giữ top-K mục theo hạng giảm dần (hòa hạng: tên ngắn hơn trước).
+         */
+        void offer(int entry, double rank, Entry[] entries) {
+            for (int i = 0; i < size; i++) {
+                if (top[i] == entry) {
+                    if (rank <= ranks[i]) {
+                        return;
+                    }
+                    // Cùng mục, hạng cao hơn: gỡ ra rồi chèn lại
+                    System.arraycopy(top, i + 1, top, i, size - i - 1);
+                    System.arraycopy(ranks, i + 1, ranks, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+
+            int pos = size;
+            while (pos > 0 && isBefore(entry, rank, top[pos - 1], ranks[pos - 1], entries)) {
+                pos--;
+            }
+            if (pos >= MAX_LIMIT) {
+                return;
+            }
+            int moved = Math.min(size, MAX_LIMIT - 1) - pos;
+            System.arraycopy(top, pos, top, pos + 1, moved);
+            System.arraycopy(ranks, pos, ranks, pos + 1, moved);
+            top[pos] = entry;
+            ranks[pos] = rank;
+            size = Math.min(size + 1, MAX_LIMIT);
+        }
+
+        private static boolean isBefore(int a, double rankA, int b, double rankB, Entry[] entries) {
+            if (rankA != rankB) {
+                return rankA > rankB;
+            }
+            return entries[a].label().length() < entries[b].label().length();
+        }
+    }
+}
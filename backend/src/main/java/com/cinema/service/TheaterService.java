@@ -27,6 +27,8 @@ public class TheaterService {
         private final TheaterRepository theaterRepository;
         private final ShowtimeRepository showtimeRepository;
         private final CityRepository cityRepository;
+        private final SeatInventoryService seatInventoryService;
+        private final SuggestionIndex suggestionIndex;
 
         // Existing theater APIs
         public List<TheaterResponse> getAllTheaters() {
@@ -136,6 +138,12 @@ public class TheaterService {
                                 .orElseThrow(() -> new ResourceNotFoundException("Theater", "id", theaterId));
 
                 List<Showtime> showtimes = showtimeRepository.findByTheaterAndDateWithDetails(theaterId, date);
+                // Suất chiếu đã SOLD_OUT không cần đếm ghế
+                Map<Long, Integer> bookedCounts = seatInventoryService.getTakenSeatCounts(
+                                showtimes.stream()
+                                                .filter(s -> s.getStatus() != Showtime.ShowtimeStatus.SOLD_OUT)
+                                                .map(Showtime::getId)
+                                                .collect(Collectors.toList()));
 
                 Map<Long, List<Showtime>> showtimesByMovie = showtimes.stream()
                                 .collect(Collectors.groupingBy(
@@ -144,7 +152,7 @@ public class TheaterService {
                                                 Collectors.toList()));
 
                 List<TheaterScheduleResponse.MovieSchedule> movieSchedules = showtimesByMovie.entrySet().stream()
-                                .map(entry -> buildMovieSchedule(entry.getValue()))
+                                .map(entry -> buildMovieSchedule(entry.getValue(), bookedCounts))
                                 .collect(Collectors.toList());
 
                 return TheaterScheduleResponse.builder()
@@ -158,7 +166,8 @@ public class TheaterService {
                                 .build();
         }
 
-        private TheaterScheduleResponse.MovieSchedule buildMovieSchedule(List<Showtime> showtimes) {
+        private TheaterScheduleResponse.MovieSchedule buildMovieSchedule(List<Showtime> showtimes,
+                        Map<Long, Integer> bookedCounts) {
                 if (showtimes.isEmpty())
                         return null;
 
@@ -172,7 +181,7 @@ public class TheaterService {
                                                 Collectors.toList()));
 
                 List<TheaterScheduleResponse.FormatSchedule> formats = showtimesByFormat.entrySet().stream()
-                                .map(entry -> buildFormatSchedule(entry.getKey(), entry.getValue()))
+                                .map(entry -> buildFormatSchedule(entry.getKey(), entry.getValue(), bookedCounts))
                                 .collect(Collectors.toList());
 
                 return TheaterScheduleResponse.MovieSchedule.builder()
@@ -188,9 +197,9 @@ public class TheaterService {
         }
 
         private TheaterScheduleResponse.FormatSchedule buildFormatSchedule(Room.RoomType roomType,
-                        List<Showtime> showtimes) {
+                        List<Showtime> showtimes, Map<Long, Integer> bookedCounts) {
                 List<TheaterScheduleResponse.ShowtimeSlot> slots = showtimes.stream()
-                                .map(this::mapToShowtimeSlot)
+                                .map(s -> mapToShowtimeSlot(s, bookedCounts.getOrDefault(s.getId(), 0)))
                                 .sorted(Comparator.comparing(TheaterScheduleResponse.ShowtimeSlot::getStartTime))
                                 .collect(Collectors.toList());
 
@@ -201,7 +210,7 @@ public class TheaterService {
                                 .build();
         }
 
-        private TheaterScheduleResponse.ShowtimeSlot mapToShowtimeSlot(Showtime showtime) {
+        private TheaterScheduleResponse.ShowtimeSlot mapToShowtimeSlot(Showtime showtime, int bookedCount) {
                 return TheaterScheduleResponse.ShowtimeSlot.builder()
                                 .showtimeId(showtime.getId())
                                 .startTime(showtime.getStartTime())
@@ -209,7 +218,9 @@ public class TheaterService {
                                 .basePrice(showtime.getBasePrice())
                                 .status(showtime.getStatus().name())
                                 .roomName(showtime.getRoom().getName())
-                                .availableSeats(null)
+                                .availableSeats(showtime.getStatus() == Showtime.ShowtimeStatus.SOLD_OUT
+                                                ? 0
+                                                : showtime.getRoom().getTotalSeats() - bookedCount)
                                 .build();
         }
 
@@ -255,6 +266,7 @@ public class TheaterService {
                 }
 
                 Theater saved = theaterRepository.save(theater);
+                suggestionIndex.indexTheaterAfterCommit(saved);
                 return mapToResponse(saved);
         }
 
@@ -295,6 +307,7 @@ public class TheaterService {
                 }
 
                 Theater saved = theaterRepository.save(theater);
+                suggestionIndex.indexTheaterAfterCommit(saved);
                 return mapToResponse(saved);
         }
 
@@ -304,6 +317,7 @@ public class TheaterService {
                         throw new ResourceNotFoundException("Theater", "id", id);
                 }
                 theaterRepository.deleteById(id);
+                suggestionIndex.removeAfterCommit(SuggestionIndex.Type.THEATER, id);
         }
 
         private void mapRequestToTheater(com.cinema.dto.request.TheaterRequest request, Theater theater) {
@@ -5,16 +5,26 @@ import com.cinema.dto.tmdb.*;
 import com.cinema.model.Movie;
 import com.cinema.model.Movie.MovieStatus;
 import com.cinema.repository.MovieRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,9 +35,17 @@ public class TmdbService {
     private final RestTemplate restTemplate;
     private final TmdbConfig tmdbConfig;
     private final MovieRepository movieRepository;
+    private final TokenBucketRateLimiter tmdbRateLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MovieSearchIndex movieSearchIndex;
+    private final SuggestionIndex suggestionIndex;
 
-    // Cache genres
-    private Map<Integer, String> genreMap = new HashMap<>();
+    // Cache genres (chỉ đọc sau khi nạp, được thay nguyên map)
+    private volatile Map<Integer, String> genreMap = new HashMap<>();
+
+    // Tiến độ lần sync gần nhất
+    private volatile SyncProgress lastSync;
 
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
@@ -42,14 +60,10 @@ public class TmdbService {
     public void loadGenres() {
         try {
             String url = tmdbConfig.getApiUrl() + "/genre/movie/list?language=vi-VN";
-            HttpEntity<String> entity = new HttpEntity<>(createHeaders());
-            
-            ResponseEntity<TmdbGenreListResponse> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, TmdbGenreListResponse.class
-            );
+            TmdbGenreListResponse response = exchange(url, TmdbGenreListResponse.class);
 
-            if (response.getBody() != null && response.getBody().getGenres() != null) {
-                genreMap = response.getBody().getGenres().stream()
+            if (response != null && response.getGenres() != null) {
+                genreMap = response.getGenres().stream()
                     .collect(Collectors.toMap(TmdbGenreDto::getId, TmdbGenreDto::getName));
                 log.info("Loaded {} genres from TMDB", genreMap.size());
             }
@@ -134,12 +148,23 @@ public class TmdbService {
         try {
             String url = String.format("%s/movie/%d?language=vi-VN",
                 tmdbConfig.getApiUrl(), tmdbId);
-            HttpEntity<String> entity = new HttpEntity<>(createHeaders());
-            
-            ResponseEntity<TmdbMovieDto> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, TmdbMovieDto.class
-            );
-            return response.getBody();
+            return exchange(url, TmdbMovieDto.class);
+        } catch (Exception e) {
+            log.error("Error fetching movie details for ID {}: {}", tmdbId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Chi tiết phim kèm credits và videos (vi + en) trong 1 request,
+     * thay cho 3-4 request riêng lẻ khi sync.
+     */
+    private TmdbMovieDto getMovieDetailsForSync(Long tmdbId) {
+        try {
+            String url = String.format(
+                "%s/movie/%d?language=vi-VN&append_to_response=credits,videos&include_video_language=vi,en",
+                tmdbConfig.getApiUrl(), tmdbId);
+            return exchange(url, TmdbMovieDto.class);
         } catch (Exception e) {
             log.error("Error fetching movie details for ID {}: {}", tmdbId, e.getMessage());
             return null;
@@ -153,20 +178,16 @@ public class TmdbService {
         try {
             String url = String.format("%s/movie/%d/videos?language=vi-VN",
                 tmdbConfig.getApiUrl(), tmdbId);
-            HttpEntity<String> entity = new HttpEntity<>(createHeaders());
-            
-            ResponseEntity<TmdbVideoResponse> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, TmdbVideoResponse.class
-            );
+            TmdbVideoResponse response = exchange(url, TmdbVideoResponse.class);
             
             // If no Vietnamese videos, try English
-            if (response.getBody() == null || response.getBody().getResults() == null 
-                || response.getBody().getResults().isEmpty()) {
+            if (response == null || response.getResults() == null 
+                || response.getResults().isEmpty()) {
                 url = String.format("%s/movie/%d/videos?language=en-US", tmdbConfig.getApiUrl(), tmdbId);
-                response = restTemplate.exchange(url, HttpMethod.GET, entity, TmdbVideoResponse.class);
+                response = exchange(url, TmdbVideoResponse.class);
             }
             
-            return response.getBody();
+            return response;
         } catch (Exception e) {
             log.error("Error fetching videos for movie ID {}: {}", tmdbId, e.getMessage());
             return null;
@@ -180,12 +201,7 @@ public class TmdbService {
         try {
             String url = String.format("%s/movie/%d/credits?language=vi-VN",
                 tmdbConfig.getApiUrl(), tmdbId);
-            HttpEntity<String> entity = new HttpEntity<>(createHeaders());
-            
-            ResponseEntity<TmdbCreditsResponse> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, TmdbCreditsResponse.class
-            );
-            return response.getBody();
+            return exchange(url, TmdbCreditsResponse.class);
         } catch (Exception e) {
             log.error("Error fetching credits for movie ID {}: {}", tmdbId, e.getMessage());
             return null;
@@ -195,171 +211,215 @@ public class TmdbService {
     /**
      * Sync movies from TMDB to local database
      */
-    @Transactional
     public Map<String, Object> syncMovies(String type, int pages) {
-        if (genreMap.isEmpty()) {
-            loadGenres();
-        }
-
-        int imported = 0;
-        int updated = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (int page = 1; page <= pages; page++) {
-            TmdbMovieListResponse movieList;
-            
-            switch (type.toLowerCase()) {
-                case "now_playing":
-                    movieList = getNowPlayingMovies(page);
-                    break;
-                case "upcoming":
-                    movieList = getUpcomingMovies(page);
-                    break;
-                case "popular":
-                    movieList = getPopularMovies(page);
-                    break;
-                case "top_rated":
-                    movieList = getTopRatedMovies(page);
-                    break;
-                case "ended":
-                    movieList = getEndedMovies(page);
-                    break;
-                default:
-                    movieList = getNowPlayingMovies(page);
-            }
-
-            if (movieList == null || movieList.getResults() == null) {
-                errors.add("Failed to fetch page " + page);
-                continue;
-            }
-
-            for (TmdbMovieDto tmdbMovie : movieList.getResults()) {
-                try {
-                    Movie movie = convertAndSaveMovie(tmdbMovie, type);
-                    if (movie != null) {
-                        if (movie.getId() == null) {
-                            imported++;
-                        } else {
-                            updated++;
-                        }
-                    }
-                } catch (Exception e) {
-                    failed++;
-                    errors.add("Failed to import movie: " + tmdbMovie.getTitle() + " - " + e.getMessage());
-                    log.error("Error importing movie {}: {}", tmdbMovie.getTitle(), e.getMessage());
-                }
-            }
-
-            // Rate limiting - sleep between pages
-            try {
-                Thread.sleep(250);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("imported", imported);
-        result.put("updated", updated);
-        result.put("failed", failed);
-        result.put("errors", errors);
-        return result;
+        return runSync(type, pages, page -> fetchListPage(type, page));
     }
 
     /**
      * Sync a single movie by TMDB ID
      */
-    @Transactional
     public Movie syncMovieById(Long tmdbId) {
         if (genreMap.isEmpty()) {
             loadGenres();
         }
 
-        TmdbMovieDto tmdbMovie = getMovieDetails(tmdbId);
+        TmdbMovieDto tmdbMovie = getMovieDetailsForSync(tmdbId);
         if (tmdbMovie == null) {
             throw new RuntimeException("Movie not found on TMDB with ID: " + tmdbId);
         }
 
-        return convertAndSaveMovie(tmdbMovie, "manual");
+        return persistBatch(List.of(tmdbMovie), new SyncProgress("manual", 0)).get(0);
     }
 
     /**
      * Sync movies by year from TMDB
      */
-    @Transactional
     public Map<String, Object> syncMoviesByYear(int year, int pages) {
+        Map<String, Object> result = runSync("year_" + year, pages, page -> discoverMoviesByYear(year, page));
+        result.put("year", year);
+        return result;
+    }
+
+    /**
+     * Tiến độ của lần sync gần nhất (đang chạy hoặc đã xong).
+     */
+    public Map<String, Object> getSyncProgress() {
+        SyncProgress progress = lastSync;
+        return progress != null ? progress.toMap() : Map.of("running", false);
+    }
+
+    private TmdbMovieListResponse fetchListPage(String type, int page) {
+        switch (type.toLowerCase()) {
+            case "upcoming":
+                return getUpcomingMovies(page);
+            case "popular":
+                return getPopularMovies(page);
+            case "top_rated":
+                return getTopRatedMovies(page);
+            case "ended":
+                return getEndedMovies(page);
+            case "now_playing":
+            default:
+                return getNowPlayingMovies(page);
+        }
+    }
+
+    /**
+     * Pipeline sync:
+     * <ol>
+     * <li>Tải song song các trang danh sách (giới hạn bởi tmdb.sync.concurrency và token bucket)</li>
+     * <li>Tải song song chi tiết từng phim (details + credits + videos trong 1 request)</li>
+     * <li>Ghi xuống DB theo lô tmdb.sync.batch-size phim / transaction, upsert theo tmdb_id</li>
+     * </ol>
+     * Bước 3 chạy trên luồng gọi, chồng lấp với các request chi tiết còn đang chạy.
+     */
+    private Map<String, Object> runSync(String label, int pages, IntFunction<TmdbMovieListResponse> pageFetcher) {
         if (genreMap.isEmpty()) {
             loadGenres();
         }
 
-        int imported = 0;
-        int updated = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (int page = 1; page <= pages; page++) {
-            TmdbMovieListResponse movieList = discoverMoviesByYear(year, page);
+        SyncProgress progress = new SyncProgress(label, pages);
+        lastSync = progress;
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
 
-            if (movieList == null || movieList.getResults() == null) {
-                errors.add("Failed to fetch page " + page);
-                continue;
+        ExecutorService executor = Executors.newFixedThreadPool(tmdbConfig.getSyncConcurrency());
+        try {
+            // 1. Pages
+            List<CompletableFuture<TmdbMovieListResponse>> pageFutures = new ArrayList<>(pages);
+            for (int page = 1; page <= pages; page++) {
+                int p = page;
+                pageFutures.add(CompletableFuture.supplyAsync(() -> pageFetcher.apply(p), executor));
             }
 
-            for (TmdbMovieDto tmdbMovie : movieList.getResults()) {
-                try {
-                    Movie movie = convertAndSaveMovie(tmdbMovie, "year_" + year);
-                    if (movie != null) {
-                        if (movie.getId() == null) {
-                            imported++;
-                        } else {
-                            updated++;
-                        }
+            Map<Long, TmdbMovieDto> summaries = new LinkedHashMap<>();
+            for (int i = 0; i < pageFutures.size(); i++) {
+                TmdbMovieListResponse movieList = pageFutures.get(i).join();
+                progress.pagesFetched.incrementAndGet();
+                if (movieList == null || movieList.getResults() == null) {
+                    errors.add("Failed to fetch page " + (i + 1));
+                    continue;
+                }
+                // Cùng 1 phim có thể xuất hiện ở 2 trang khi bảng xếp hạng thay đổi trong lúc tải
+                for (TmdbMovieDto summary : movieList.getResults()) {
+                    if (summary.getId() != null) {
+                        summaries.putIfAbsent(summary.getId(), summary);
                     }
-                } catch (Exception e) {
-                    failed++;
-                    errors.add("Failed to import movie: " + tmdbMovie.getTitle() + " - " + e.getMessage());
-                    log.error("Error importing movie {}: {}", tmdbMovie.getTitle(), e.getMessage());
                 }
             }
+            progress.moviesTotal.set(summaries.size());
+
+            // 2. Details
+            List<CompletableFuture<TmdbMovieDto>> detailFutures = new ArrayList<>(summaries.size());
+            for (TmdbMovieDto summary : summaries.values()) {
+                detailFutures.add(CompletableFuture.supplyAsync(() -> {
+                    TmdbMovieDto details = getMovieDetailsForSync(summary.getId());
+                    progress.moviesFetched.incrementAndGet();
+                    return details != null ? details : summary;
+                }, executor));
+            }
 
-            // Rate limiting
-            try {
-                Thread.sleep(250);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            // 3. Persist in batches while remaining details are still downloading
+            List<TmdbMovieDto> batch = new ArrayList<>(tmdbConfig.getSyncBatchSize());
+            for (CompletableFuture<TmdbMovieDto> future : detailFutures) {
+                batch.add(future.join());
+                if (batch.size() >= tmdbConfig.getSyncBatchSize()) {
+                    persistBatchSafely(batch, progress, errors);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                persistBatchSafely(batch, progress, errors);
             }
+        } finally {
+            executor.shutdownNow();
+            progress.finish();
         }
 
+        log.info("TMDB sync '{}' done: {} imported, {} updated, {} failed",
+                label, progress.imported.get(), progress.updated.get(), progress.failed.get());
+
         Map<String, Object> result = new HashMap<>();
-        result.put("year", year);
-        result.put("imported", imported);
-        result.put("updated", updated);
-        result.put("failed", failed);
-        result.put("errors", errors);
+        result.put("imported", progress.imported.get());
+        result.put("updated", progress.updated.get());
+        result.put("failed", progress.failed.get());
+        result.put("errors", new ArrayList<>(errors));
         return result;
     }
 
     /**
-     * Convert TMDB movie to local Movie entity and save
+     * Ghi một lô; nếu cả lô lỗi thì ghi lại từng phim để cô lập phim gây lỗi.
      */
-    private Movie convertAndSaveMovie(TmdbMovieDto tmdbMovie, String importType) {
-        // Get detailed movie info
-        TmdbMovieDto details = getMovieDetails(tmdbMovie.getId());
-        if (details == null) {
-            details = tmdbMovie;
+    private void persistBatchSafely(List<TmdbMovieDto> batch, SyncProgress progress, List<String> errors) {
+        try {
+            persistBatch(batch, progress);
+        } catch (Exception batchError) {
+            log.warn("Batch of {} movies failed ({}), retrying one by one", batch.size(), batchError.getMessage());
+            for (TmdbMovieDto tmdbMovie : batch) {
+                try {
+                    persistBatch(List.of(tmdbMovie), progress);
+                } catch (Exception e) {
+                    progress.failed.incrementAndGet();
+                    errors.add("Failed to import movie: " + tmdbMovie.getTitle() + " - " + e.getMessage());
+                    log.error("Error importing movie {}: {}", tmdbMovie.getTitle(), e.getMessage());
+                }
+            }
         }
-        
-        // Create final reference for lambda
-        final TmdbMovieDto movieDetails = details;
+    }
 
-        // Check if movie already exists (by title and release date)
-        Optional<Movie> existingMovie = movieRepository.findAll().stream()
-            .filter(m -> m.getTitle().equalsIgnoreCase(movieDetails.getTitle()))
-            .findFirst();
+    /**
+     * Upsert một lô phim trong 1 transaction: 1 query tìm theo tmdb_id (+ 1 query
+     * theo tiêu đề cho phim cũ chưa có tmdb_id), sau đó saveAll.
+     * Tiến độ chỉ được cộng sau khi commit thành công, để lô lỗi lúc commit rồi ghi
+     * lại từng phim không bị đếm hai lần.
+     */
+    private List<Movie> persistBatch(List<TmdbMovieDto> batch, SyncProgress progress) {
+        PersistedBatch persisted = transactionTemplate.execute(status -> {
+            List<Long> tmdbIds = batch.stream().map(TmdbMovieDto::getId).toList();
+            Map<Long, Movie> byTmdbId = movieRepository.findByTmdbIdIn(tmdbIds).stream()
+                .collect(Collectors.toMap(Movie::getTmdbId, m -> m, (a, b) -> a));
+
+            List<String> unmatchedTitles = batch.stream()
+                .filter(dto -> !byTmdbId.containsKey(dto.getId()) && dto.getTitle() != null)
+                .map(TmdbMovieDto::getTitle)
+                .toList();
+            Map<String, Movie> legacyByTitle = unmatchedTitles.isEmpty()
+                ? Map.of()
+                : movieRepository.findByTmdbIdIsNullAndTitleIn(unmatchedTitles).stream()
+                    .collect(Collectors.toMap(m -> m.getTitle().toLowerCase(), m -> m, (a, b) -> a));
+
+            List<Movie> movies = new ArrayList<>(batch.size());
+            int imported = 0;
+            for (TmdbMovieDto dto : batch) {
+                Movie movie = byTmdbId.get(dto.getId());
+                if (movie == null && dto.getTitle() != null) {
+                    movie = legacyByTitle.remove(dto.getTitle().toLowerCase());
+                }
+                if (movie == null) {
+                    movie = new Movie();
+                    imported++;
+                }
+                movie.setTmdbId(dto.getId());
+                applyTmdbData(movie, dto);
+                movies.add(movie);
+            }
 
-        Movie movie = existingMovie.orElse(new Movie());
+            List<Movie> saved = movieRepository.saveAll(movies);
+            movieSearchIndex.indexAfterCommit(saved);
+            suggestionIndex.indexMoviesAfterCommit(saved);
+            return new PersistedBatch(saved, imported);
+        });
+        progress.imported.addAndGet(persisted.imported());
+        progress.updated.addAndGet(persisted.movies().size() - persisted.imported());
+        return persisted.movies();
+    }
 
+    private record PersistedBatch(List<Movie> movies, int imported) {
+    }
+
+    /**
+     * Copy TMDB data (details + appended credits/videos) onto the Movie entity
+     */
+    private void applyTmdbData(Movie movie, TmdbMovieDto movieDetails) {
         // Basic info
         movie.setTitle(movieDetails.getTitle());
         movie.setDescription(movieDetails.getOverview());
@@ -417,8 +477,8 @@ public class TmdbService {
             movie.setLanguage(movieDetails.getOriginalLanguage());
         }
 
-        // Get credits for director and actors
-        TmdbCreditsResponse credits = getMovieCredits(tmdbMovie.getId());
+        // Credits for director and actors (appended to the details response)
+        TmdbCreditsResponse credits = movieDetails.getCredits();
         if (credits != null) {
             // Director
             if (credits.getCrew() != null) {
@@ -441,45 +501,83 @@ public class TmdbService {
             }
         }
 
-        // Get trailer
-        TmdbVideoResponse videos = getMovieVideos(tmdbMovie.getId());
+        // Trailer (videos appended in vi + en; Vietnamese preferred)
+        TmdbVideoResponse videos = movieDetails.getVideos();
         if (videos != null && videos.getResults() != null && !videos.getResults().isEmpty()) {
-            // Find official trailer on YouTube
-            Optional<TmdbVideoDto> trailer = videos.getResults().stream()
+            List<TmdbVideoDto> candidates = videos.getResults().stream()
                 .filter(v -> "YouTube".equals(v.getSite()))
                 .filter(v -> "Trailer".equals(v.getType()) || "Teaser".equals(v.getType()))
+                .sorted(Comparator.comparing((TmdbVideoDto v) -> "vi".equals(v.getIso639()) ? 0 : 1))
+                .toList();
+
+            // Find official trailer first, otherwise any YouTube trailer
+            Optional<TmdbVideoDto> trailer = candidates.stream()
                 .filter(v -> Boolean.TRUE.equals(v.getOfficial()))
                 .findFirst();
-            
-            // If no official trailer, get any YouTube trailer
             if (trailer.isEmpty()) {
-                trailer = videos.getResults().stream()
-                    .filter(v -> "YouTube".equals(v.getSite()))
-                    .filter(v -> "Trailer".equals(v.getType()) || "Teaser".equals(v.getType()))
-                    .findFirst();
+                trailer = candidates.stream().findFirst();
             }
 
             trailer.ifPresent(t -> movie.setTrailerUrl("https://www.youtube.com/watch?v=" + t.getKey()));
         }
 
         // Age rating (TMDB doesn't provide this directly, set default)
-        if (Boolean.TRUE.equals(details.getAdult())) {
+        if (Boolean.TRUE.equals(movieDetails.getAdult())) {
             movie.setAgeRating("18+");
         } else {
             movie.setAgeRating("P");
         }
-
-        // Save movie
-        return movieRepository.save(movie);
     }
 
-    private TmdbMovieListResponse fetchMovieList(String url) {
+    /**
+     * GET tới TMDB qua token bucket (mọi request TMDB đều đi qua đây).
+     */
+    private <T> T exchange(String url, Class<T> responseType) {
+        String endpoint = endpointOf(url);
+        long waitStartedAt = System.nanoTime();
+        try {
+            tmdbRateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for TMDB rate limit", e);
+        }
+        meterRegistry.timer("cinema.tmdb.rate-limit.wait")
+                .record(System.nanoTime() - waitStartedAt, TimeUnit.NANOSECONDS);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             HttpEntity<String> entity = new HttpEntity<>(createHeaders());
-            ResponseEntity<TmdbMovieListResponse> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, TmdbMovieListResponse.class
-            );
+            ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.GET, entity, responseType);
+            outcome = String.valueOf(response.getStatusCode().value());
             return response.getBody();
+        } catch (HttpStatusCodeException e) {
+            outcome = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("cinema.tmdb.requests")
+                    .description("Thời gian gọi TMDB API")
+                    .tag("endpoint", endpoint)
+                    .tag("status", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Đường dẫn TMDB dùng làm tag (bỏ base URL, query string; ID số -> {id}) để giới hạn số time series.
+     */
+    private String endpointOf(String url) {
+        String path = url.startsWith(tmdbConfig.getApiUrl()) ? url.substring(tmdbConfig.getApiUrl().length()) : url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        return path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    private TmdbMovieListResponse fetchMovieList(String url) {
+        try {
+            return exchange(url, TmdbMovieListResponse.class);
         } catch (Exception e) {
             log.error("Error fetching movie list from TMDB: {}", e.getMessage());
             return null;
@@ -499,4 +597,45 @@ public class TmdbService {
             return null;
         }
     }
+
+    /**
+     * Bộ đếm tiến độ của một lần sync (cập nhật từ nhiều luồng).
+     */
+    private static final class SyncProgress {
+        private final String label;
+        private final int pagesTotal;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private final AtomicInteger pagesFetched = new AtomicInteger();
+        private final AtomicInteger moviesTotal = new AtomicInteger();
+        private final AtomicInteger moviesFetched = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        SyncProgress(String label, int pagesTotal) {
+            this.label = label;
+            this.pagesTotal = pagesTotal;
+        }
+
+        void finish() {
+            finishedAt = LocalDateTime.now();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("type", label);
+            map.put("running", finishedAt == null);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("pagesTotal", pagesTotal);
+            map.put("pagesFetched", pagesFetched.get());
+            map.put("moviesTotal", moviesTotal.get());
+            map.put("moviesFetched", moviesFetched.get());
+            map.put("imported", imported.get());
+            map.put("updated", updated.get());
+            map.put("failed", failed.get());
+            return map;
+        }
+    }
 }
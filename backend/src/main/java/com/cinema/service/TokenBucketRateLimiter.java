@@ -0,0 +1,50 @@
+package com.cinema.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket đơn giản, an toàn đa luồng.
+ *
+ * <p>
+ * Bucket được nạp {@code permitsPerSecond} token mỗi giây, tối đa {@code burst}
+ * token. Khi hết token, {@link #acquire()} đặt trước token tiếp theo rồi ngủ
+ * ngoài lock, nên các luồng chờ được phục vụ theo thứ tự đến.
+ * </p>
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double nanosPerToken;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.capacity = Math.max(1, burst);
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Lấy 1 token, chờ nếu bucket đang rỗng.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+            lastRefillNanos = now;
+
+            // Cho phép âm: token âm là phần đã được đặt trước bởi các luồng đang chờ
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
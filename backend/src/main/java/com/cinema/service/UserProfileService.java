@@ -13,6 +13,7 @@ import com.cinema.repository.PointHistoryRepository;
 import com.cinema.repository.UserCouponRepository;
 import com.cinema.repository.UserRepository;
 import com.cinema.repository.UserVoucherRepository;
+import com.cinema.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -37,6 +38,7 @@ public class UserProfileService {
     private final UserCouponRepository userCouponRepository;
     private final PointHistoryRepository pointHistoryRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
 
     // Ngưỡng chi tiêu để lên hạng
     private static final BigDecimal VIP_THRESHOLD = new BigDecimal("5000000"); // 5 triệu
@@ -147,6 +149,7 @@ public class UserProfileService {
 
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getEmail()); // fullName nằm trong principal
 
         log.info("Updated profile for user: {}", userId);
         return getUserProfile(userId);
@@ -178,6 +181,7 @@ public class UserProfileService {
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getEmail());
 
         log.info("Password changed for user: {}", userId);
     }
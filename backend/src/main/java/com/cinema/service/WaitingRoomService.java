@@ -0,0 +1,500 @@
+package com.cinema.service;
+
+import com.cinema.dto.response.QueueTicketResponse;
+import com.cinema.exception.QueueTokenRequiredException;
+import com.cinema.exception.ResourceNotFoundException;
+import com.cinema.repository.ShowtimeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phòng chờ (admission control) cho đặt vé theo từng suất chiếu.
+ *
+ * <p>
+ * Bình thường cổng mở: request đặt vé đi thẳng vào, chỉ đếm số request đang chạy.
+ * Khi số request đồng thời của một suất chiếu vượt {@code waiting-room.engage-in-flight}
+ * (VD lúc mở bán phim bom tấn), cổng chuyển sang chế độ xếp hàng: chỉ request mang
+ * queue token đã được cho vào mới tới được bước giữ ghế, còn lại nhận 429 và phải vào
+ * hàng qua {@link #join}.
+ * </p>
+ *
+ * <p>
+ * Hàng đợi là một dãy số thứ tự tăng dần: vị trí = số thứ tự − mốc đã cho vào, đọc O(1).
+ * Mỗi giây {@link #tick} đẩy mốc lên theo tốc độ bằng throughput đặt vé đo được (EWMA số
+ * request đã xử lý xong) nhân hệ số dư {@code headroom}, kẹp trong [min-rate, max-rate].
+ * Cổng đóng lại khi hàng đã hết và suất chiếu rảnh {@code idle-seconds}.
+ * </p>
+ *
+ * <p>
+ * Mỗi user giữ nhiều nhất một vé còn sống cho mỗi suất chiếu: gọi {@link #join} lại trả
+ * về vé cũ thay vì lấy thêm số thứ tự. Số thứ tự của vé bỏ hàng (không poll nữa) được
+ * bỏ qua khi đẩy mốc, nên không chiếm suất cho vào của người đang chờ thật.
+ * </p>
+ *
+ * <p>
+ * Trạng thái nằm trong bộ nhớ từng node (giống seat inventory); chạy nhiều node thì
+ * load balancer nên định tuyến theo suất chiếu.
+ * </p>
+ */
+@Service
+@Slf4j
+public class WaitingRoomService {
+
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+
+    private static final int TOKEN_BYTES = 18;
+    private static final double EWMA_ALPHA = 0.3;
+    private static final long MIN_POLL_MS = 1000;
+    private static final long MAX_POLL_MS = 5000;
+
+    private final boolean enabled;
+    private final int engageInFlight;
+    private final int minRate;
+    private final int maxRate;
+    private final double headroom;
+    private final long admissionWindowMillis;
+    private final long abandonMillis;
+    private final long idleMillis;
+
+    private final Counter admittedCounter;
+    private final Counter rejectedCounter;
+
+    private final Map<Long, Gate> gates = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    /** Vé còn sống của từng (user, suất chiếu) */
+    private final Map<TicketKey, Ticket> liveTickets = new ConcurrentHashMap<>();
+    private final ShowtimeRepository showtimeRepository;
+    private final SecureRandom random = new SecureRandom();
+
+    public WaitingRoomService(MeterRegistry meterRegistry, ShowtimeRepository showtimeRepository,
+            @Value("${waiting-room.enabled:true}") boolean enabled,
+            @Value("${waiting-room.engage-in-flight:32}") int engageInFlight,
+            @Value("${waiting-room.min-rate:5}") int minRate,
+            @Value("${waiting-room.max-rate:200}") int maxRate,
+            @Value("${waiting-room.headroom:1.25}") double headroom,
+            @Value("${waiting-room.admission-window-seconds:300}") long admissionWindowSeconds,
+            @Value("${waiting-room.abandon-seconds:30}") long abandonSeconds,
+            @Value("${waiting-room.idle-seconds:60}") long idleSeconds) {
+        this.showtimeRepository = showtimeRepository;
+        this.enabled = enabled;
+        this.engageInFlight = Math.max(1, engageInFlight);
+        this.minRate = Math.max(1, minRate);
+        this.maxRate = Math.max(this.minRate, maxRate);
+        this.headroom = Math.max(1.0, headroom);
+        this.admissionWindowMillis = admissionWindowSeconds * 1000;
+        this.abandonMillis = abandonSeconds * 1000;
+        this.idleMillis = idleSeconds * 1000;
+
+        this.admittedCounter = Counter.builder("cinema.waiting-room.admitted")
+                .description("Số request đặt vé được cho qua cổng")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("cinema.waiting-room.rejected")
+                .description("Số request đặt vé bị yêu cầu vào hàng chờ")
+                .register(meterRegistry);
+        Gauge.builder("cinema.waiting-room.waiting", gates, WaitingRoomService::totalWaiting)
+                .description("Số vé xếp hàng chưa được cho vào")
+                .register(meterRegistry);
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Vào hàng chờ của suất chiếu. Cổng đang mở thì được cho vào ngay. User đã có vé
+     * còn hiệu lực cho suất chiếu này nhận lại đúng vé đó (giữ nguyên vị trí).
+     *
+     * @throws ResourceNotFoundException Khi suất chiếu không tồn tại
+     */
+    public QueueTicketResponse join(Long showtimeId) {
+        long now = System.currentTimeMillis();
+        if (!enabled) {
+            return QueueTicketResponse.builder()
+                    .showtimeId(showtimeId)
+                    .status(TicketStatus.ADMITTED.name())
+                    .build();
+        }
+
+        TicketKey key = new TicketKey(currentUsername(), showtimeId);
+        Ticket existing = liveTickets.get(key);
+        if (existing == null || !isLive(existing, now)) {
+            // Chỉ kiểm tra DB khi phát vé mới, không phải mỗi lần join lại
+            if (!showtimeRepository.existsById(showtimeId)) {
+                throw new ResourceNotFoundException("Showtime", "id", showtimeId);
+            }
+        }
+
+        Ticket ticket = liveTickets.compute(key, (k, current) -> {
+            if (current != null && isLive(current, now)) {
+                return current;
+            }
+            if (current != null && tickets.remove(current.token, current)) {
+                releaseSeq(current);
+            }
+            Ticket issued = issue(k, now);
+            tickets.put(issued.token, issued);
+            return issued;
+        });
+        ticket.lastSeen = now;
+        return view(ticket, now);
+    }
+
+    /**
+     * Trạng thái / vị trí hiện tại của vé xếp hàng (client poll theo {@code pollAfterMs}).
+     */
+    public QueueTicketResponse status(String token) {
+        long now = System.currentTimeMillis();
+        Ticket ticket = tickets.get(token);
+        if (ticket == null || !ticket.username.equals(currentUsername())) {
+            return QueueTicketResponse.builder()
+                    .token(token)
+                    .status(TicketStatus.EXPIRED.name())
+                    .build();
+        }
+        ticket.lastSeen = now;
+        return view(ticket, now);
+    }
+
+    /**
+     * Cho một request đặt vé đi qua cổng của suất chiếu.
+     * Kết quả phải được đóng (try-with-resources) khi request xử lý xong.
+     *
+     * @param token Queue token (header {@value #TOKEN_HEADER}), có thể null khi cổng đang mở
+     * @throws QueueTokenRequiredException Khi cổng đang xếp hàng mà token không hợp lệ / chưa tới lượt
+     */
+    public Admission enter(Long showtimeId, String token) {
+        if (!enabled) {
+            return Admission.NONE;
+        }
+        long now = System.currentTimeMillis();
+        Gate gate = touch(showtimeId, now);
+
+        Ticket ticket = token != null ? tickets.get(token) : null;
+        if (ticket != null && (!ticket.gate.showtimeId.equals(showtimeId)
+                || !ticket.username.equals(currentUsername())
+                || !ticket.isAdmitted(now, admissionWindowMillis))) {
+            ticket = null;
+        }
+
+        if (ticket == null) {
+            if (gate.engaged) {
+                rejectedCounter.increment();
+                throw new QueueTokenRequiredException(showtimeId,
+                        "Suất chiếu đang có nhiều người đặt vé, vui lòng vào hàng chờ");
+            }
+            if (gate.inFlight.incrementAndGet() > engageInFlight) {
+                gate.inFlight.decrementAndGet();
+                gate.engaged = true;
+                log.info("Waiting room engaged for showtime {}: more than {} bookings in flight",
+                        showtimeId, engageInFlight);
+                rejectedCounter.increment();
+                throw new QueueTokenRequiredException(showtimeId,
+                        "Suất chiếu đang có nhiều người đặt vé, vui lòng vào hàng chờ");
+            }
+        } else {
+            gate.inFlight.incrementAndGet();
+        }
+        admittedCounter.increment();
+        return new Admission(this, gate, ticket);
+    }
+
+    /**
+     * Chạy mỗi giây: đo throughput, cho thêm người vào, đóng cổng rảnh, dọn vé hết hạn.
+     */
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (Gate gate : gates.values()) {
+            long completed = gate.completed.getAndSet(0);
+            gate.throughput = EWMA_ALPHA * completed + (1 - EWMA_ALPHA) * gate.throughput;
+            // Chỉ tăng tốc khi DB còn dư sức (số request đang chạy dưới ngưỡng)
+            double target = gate.throughput * (gate.inFlight.get() < engageInFlight ? headroom : 1.0);
+            gate.rate = (int) Math.min(maxRate, Math.max(minRate, Math.ceil(target)));
+            gate.fastAdmitted.set(0);
+
+            long waiting = gate.nextSeq.get() - gate.admittedSeq;
+            if (waiting > 0) {
+                gate.admit(gate.rate);
+            } else if (gate.engaged && isIdle(gate, now)) {
+                gate.engaged = false;
+                log.info("Waiting room released for showtime {}", gate.showtimeId);
+            } else if (!gate.engaged && isIdle(gate, now)) {
+                retire(gate, now);
+            }
+        }
+        for (Ticket ticket : tickets.values()) {
+            if (ticket.isDead(now, admissionWindowMillis, abandonMillis) && tickets.remove(ticket.token, ticket)) {
+                forget(ticket);
+                releaseSeq(ticket);
+            }
+        }
+    }
+
+    // ==================== INTERNAL ====================
+
+    private Ticket issue(TicketKey key, long now) {
+        Gate gate = touch(key.showtimeId(), now);
+        if (!gate.engaged && gate.tryFastAdmit(engageInFlight, maxRate)) {
+            Ticket ticket = new Ticket(newToken(), gate, key.username(), 0, now);
+            ticket.admit(now + admissionWindowMillis);
+            return ticket;
+        }
+        if (!gate.engaged) {
+            gate.engaged = true;
+            log.info("Waiting room engaged for showtime {}", key.showtimeId());
+        }
+        return new Ticket(newToken(), gate, key.username(), gate.nextSeq.incrementAndGet(), now);
+    }
+
+    /**
+     * Vé vẫn dùng được: còn trong danh sách, cổng chưa bị gỡ, chưa hết hạn / bỏ hàng.
+     */
+    private boolean isLive(Ticket ticket, long now) {
+        return tickets.get(ticket.token) == ticket && !ticket.gate.retired
+                && !ticket.isDead(now, admissionWindowMillis, abandonMillis);
+    }
+
+    private void forget(Ticket ticket) {
+        liveTickets.remove(new TicketKey(ticket.username, ticket.gate.showtimeId), ticket);
+    }
+
+    /**
+     * Vé bị bỏ khi còn đứng chờ: đánh dấu số thứ tự để lần đẩy mốc sau bỏ qua.
+     */
+    private static void releaseSeq(Ticket ticket) {
+        if (ticket.admittedUntil == 0 && ticket.seq > ticket.gate.admittedSeq) {
+            ticket.gate.abandon(ticket.seq);
+        }
+    }
+
+    /**
+     * Lấy (hoặc tạo) cổng và ghi nhận hoạt động trong cùng một thao tác trên map,
+     * nên không xen được vào giữa lần kiểm tra rảnh của {@link #retire}.
+     */
+    private Gate touch(Long showtimeId, long now) {
+        return gates.compute(showtimeId, (id, gate) -> {
+            Gate current = gate != null ? gate : new Gate(id);
+            current.lastActivity = now;
+            return current;
+        });
+    }
+
+    /**
+     * Gỡ cổng rảnh khỏi map. Kiểm tra lại điều kiện rảnh bên trong
+     * {@code computeIfPresent}: request vừa lấy cổng qua {@link #touch} đã cập nhật
+     * {@code lastActivity} nên cổng sẽ được giữ lại.
+     */
+    private void retire(Gate gate, long now) {
+        gates.computeIfPresent(gate.showtimeId, (id, current) -> {
+            if (current != gate || current.engaged || !isIdle(current, now)) {
+                return current;
+            }
+            current.retired = true;
+            return null;
+        });
+    }
+
+    private boolean isIdle(Gate gate, long now) {
+        return gate.inFlight.get() == 0 && now - gate.lastActivity > idleMillis;
+    }
+
+    private QueueTicketResponse view(Ticket ticket, long now) {
+        Gate gate = ticket.gate;
+        QueueTicketResponse.QueueTicketResponseBuilder response = QueueTicketResponse.builder()
+                .token(ticket.token)
+                .showtimeId(gate.showtimeId);
+
+        if (ticket.isAdmitted(now, admissionWindowMillis)) {
+            return response.status(TicketStatus.ADMITTED.name())
+                    .admittedUntil(LocalDateTime.ofInstant(Instant.ofEpochMilli(ticket.admittedUntil),
+                            ZoneId.systemDefault()))
+                    .build();
+        }
+        if (ticket.admittedUntil != 0) {
+            return response.status(TicketStatus.EXPIRED.name()).build();
+        }
+
+        long position = Math.max(0, ticket.seq - gate.admittedSeq);
+        long waitSeconds = (position + gate.rate - 1) / gate.rate;
+        return response.status(TicketStatus.WAITING.name())
+                .position(position)
+                .estimatedWaitSeconds(waitSeconds)
+                .pollAfterMs(Math.min(MAX_POLL_MS, Math.max(MIN_POLL_MS, waitSeconds * 500)))
+                .build();
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static double totalWaiting(Map<Long, Gate> gates) {
+        long waiting = 0;
+        for (Gate gate : gates.values()) {
+            waiting += Math.max(0, gate.nextSeq.get() - gate.admittedSeq - gate.abandonedCount.get());
+        }
+        return waiting;
+    }
+
+    public enum TicketStatus {
+        WAITING, ADMITTED, EXPIRED
+    }
+
+    /**
+     * Cổng của một suất chiếu.
+     */
+    private static final class Gate {
+        final Long showtimeId;
+        /** Số thứ tự đã phát cho vé xếp hàng */
+        final AtomicLong nextSeq = new AtomicLong();
+        /** Vé có số thứ tự <= mốc này đã được cho vào */
+        volatile long admittedSeq;
+        /** Số thứ tự (> admittedSeq) của vé đã bỏ hàng, được bỏ qua khi đẩy mốc */
+        final Set<Long> abandonedSeqs = ConcurrentHashMap.newKeySet();
+        final AtomicInteger abandonedCount = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong completed = new AtomicLong();
+        /** Số vé cho vào thẳng (cổng mở) trong giây hiện tại */
+        final AtomicInteger fastAdmitted = new AtomicInteger();
+        volatile double throughput;
+        volatile int rate;
+        volatile boolean engaged;
+        volatile boolean retired;
+        volatile long lastActivity;
+
+        Gate(Long showtimeId) {
+            this.showtimeId = showtimeId;
+            this.rate = 1;
+        }
+
+        void abandon(long seq) {
+            if (abandonedSeqs.add(seq)) {
+                abandonedCount.incrementAndGet();
+            }
+        }
+
+        /**
+         * Đẩy mốc qua {@code count} vé còn chờ, bỏ qua số thứ tự của vé đã bỏ hàng.
+         * Chỉ scheduler gọi.
+         */
+        void admit(int count) {
+            long seq = admittedSeq;
+            long last = nextSeq.get();
+            while (count > 0 && seq < last) {
+                seq++;
+                if (abandonedSeqs.remove(seq)) {
+                    abandonedCount.decrementAndGet();
+                } else {
+                    count--;
+                }
+            }
+            admittedSeq = seq;
+        }
+
+        boolean tryFastAdmit(int engageInFlight, int maxRate) {
+            return inFlight.get() < engageInFlight && fastAdmitted.incrementAndGet() <= maxRate;
+        }
+    }
+
+    /**
+     * Vé xếp hàng; {@code seq = 0} nghĩa là được cho vào ngay khi phát.
+     */
+    private static final class Ticket {
+        final String token;
+        final Gate gate;
+        final String username;
+        final long seq;
+        volatile long lastSeen;
+        /** 0 khi chưa được cho vào */
+        volatile long admittedUntil;
+
+        Ticket(String token, Gate gate, String username, long seq, long now) {
+            this.token = token;
+            this.gate = gate;
+            this.username = username;
+            this.seq = seq;
+            this.lastSeen = now;
+        }
+
+        void admit(long until) {
+            admittedUntil = until;
+        }
+
+        /**
+         * Được cho vào khi mốc của cổng vượt qua số thứ tự (hoặc cổng đã giải tán vì rảnh).
+         * Hạn dùng tính từ lần đầu phát hiện được vào.
+         */
+        boolean isAdmitted(long now, long admissionWindowMillis) {
+            if (admittedUntil == 0 && (seq <= gate.admittedSeq || gate.retired)) {
+                admittedUntil = now + admissionWindowMillis;
+            }
+            return admittedUntil != 0 && now <= admittedUntil;
+        }
+
+        boolean isDead(long now, long admissionWindowMillis, long abandonMillis) {
+            if (admittedUntil != 0) {
+                return now > admittedUntil;
+            }
+            // Không poll nữa -> bỏ hàng. Đã tới lượt nhưng chưa poll thì vẫn giữ đủ một cửa sổ.
+            return now - lastSeen > (seq <= gate.admittedSeq ? admissionWindowMillis : abandonMillis);
+        }
+    }
+
+    private record TicketKey(String username, Long showtimeId) {
+    }
+
+    /**
+     * Một request đã qua cổng. Đóng khi xong để cập nhật số request đang chạy và throughput.
+     */
+    public static final class Admission implements AutoCloseable {
+        static final Admission NONE = new Admission(null, null, null);
+
+        private final WaitingRoomService owner;
+        private final Gate gate;
+        private final Ticket ticket;
+        private boolean succeeded;
+
+        private Admission(WaitingRoomService owner, Gate gate, Ticket ticket) {
+            this.owner = owner;
+            this.gate = gate;
+            this.ticket = ticket;
+        }
+
+        /** Đặt vé thành công: vé xếp hàng được dùng xong, không đặt lại được */
+        public void succeeded() {
+            succeeded = true;
+        }
+
+        @Override
+        public void close() {
+            if (gate == null) {
+                return;
+            }
+            gate.inFlight.decrementAndGet();
+            gate.completed.incrementAndGet();
+            if (succeeded && ticket != null && owner.tickets.remove(ticket.token, ticket)) {
+                owner.forget(ticket);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.cinema.dto.response.UserResponse;
 import com.cinema.exception.ResourceNotFoundException;
 import com.cinema.model.User;
 import com.cinema.repository.UserRepository;
+import com.cinema.security.UserPrincipalCache;
 import com.cinema.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
@@ -24,6 +25,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     public List<UserResponse> getAllUsers() {
@@ -88,16 +90,17 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        userPrincipalCache.invalidate(updatedUser.getEmail());
         return modelMapper.map(updatedUser, UserResponse.class);
     }
 
     @Override
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User", "id", id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        userRepository.delete(user);
+        userPrincipalCache.invalidate(user.getEmail());
     }
 
     @Override
@@ -107,6 +110,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
         user.setRole(role);
         User updatedUser = userRepository.save(user);
+        userPrincipalCache.invalidate(updatedUser.getEmail());
         return modelMapper.map(updatedUser, UserResponse.class);
     }
 }
@@ -0,0 +1,43 @@
+package com.cinema.security;
+
+import com.cinema.model.User;
+import com.cinema.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserPrincipalCacheTest {
+
+    @Test
+    void hitsAndMissesAreExportedAsMeters() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmailAndActiveTrue(anyString())).thenAnswer(invocation -> Optional.of(
+                User.builder().id(1L).email(invocation.getArgument(0)).password("x").fullName("Test").build()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserPrincipalCache cache = new UserPrincipalCache(userRepository, meterRegistry);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        cache.registerMeters();
+
+        cache.get("a@test.local");
+        cache.get("a@test.local");
+        cache.get("a@test.local");
+        cache.get("b@test.local");
+
+        assertThat(requests(meterRegistry, "hit")).isEqualTo(2);
+        assertThat(requests(meterRegistry, "miss")).isEqualTo(2);
+        assertThat(meterRegistry.get("cinema.principal-cache.size").gauge().value()).isEqualTo(2);
+        assertThat(cache.getStats()).containsEntry("hits", 2L).containsEntry("misses", 2L);
+    }
+
+    private static double requests(SimpleMeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("cinema.principal-cache.requests").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,82 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BestSeatSelectorTest {
+
+    @Test
+    void prefersCentreOfIdealRow() {
+        BestSeatSelector.SeatGrid grid = grid(row("A", 10, "STANDARD"), row("B", 10, "STANDARD"),
+                row("C", 10, "STANDARD"));
+
+        assertThat(grid.best(2, null, id -> true)).containsExactly(205L, 206L);
+    }
+
+    @Test
+    void avoidsLeavingSingleSeatWhenPossible() {
+        BestSeatSelector.SeatGrid grid = grid(row("A", 6, "STANDARD"));
+        Set<Long> sold = Set.of(101L);
+
+        // 103-104 gần tâm hơn nhưng để lại ghế 102 lẻ
+        assertThat(grid.best(2, null, id -> !sold.contains(id))).containsExactly(102L, 103L);
+    }
+
+    @Test
+    void fallsBackToBlockLeavingSingleSeat() {
+        BestSeatSelector.SeatGrid grid = grid(row("A", 3, "STANDARD"));
+
+        assertThat(grid.best(2, null, id -> true)).hasSize(2);
+    }
+
+    @Test
+    void coupleSeatsAreTakenAsWholePairs() {
+        BestSeatSelector.SeatGrid grid = grid(row("A", 4, BestSeatSelector.COUPLE));
+
+        assertThat(grid.best(2, null, id -> true)).containsExactly(101L, 102L);
+        assertThat(grid.best(1, null, id -> true)).isEmpty();
+    }
+
+    @Test
+    void filtersBySeatType() {
+        List<SeatLayoutCache.SeatEntry> seats = new ArrayList<>(row("A", 4, "STANDARD"));
+        seats.addAll(row("B", 4, "VIP"));
+        BestSeatSelector.SeatGrid grid = BestSeatSelector.SeatGrid.of(new SeatLayoutCache.RoomLayout(1L, 1L, seats));
+
+        assertThat(grid.best(2, "vip", id -> true)).allMatch(id -> id > 200);
+    }
+
+    @Test
+    void returnsEmptyWhenNoRunIsLongEnough() {
+        BestSeatSelector.SeatGrid grid = grid(row("A", 5, "STANDARD"));
+        Set<Long> sold = Set.of(102L, 104L);
+
+        assertThat(grid.best(2, null, id -> !sold.contains(id))).isEmpty();
+    }
+
+    @SafeVarargs
+    private static BestSeatSelector.SeatGrid grid(List<SeatLayoutCache.SeatEntry>... rows) {
+        List<SeatLayoutCache.SeatEntry> seats = new ArrayList<>();
+        for (List<SeatLayoutCache.SeatEntry> row : rows) {
+            seats.addAll(row);
+        }
+        return BestSeatSelector.SeatGrid.of(new SeatLayoutCache.RoomLayout(1L, 1L, seats));
+    }
+
+    /** Ghế của hàng thứ r (A = 1) có ID r * 100 + số ghế */
+    private static List<SeatLayoutCache.SeatEntry> row(String rowName, int size, String type) {
+        long base = (rowName.charAt(0) - 'A' + 1) * 100L;
+        List<SeatLayoutCache.SeatEntry> seats = new ArrayList<>();
+        for (int number = 1; number <= size; number++) {
+            seats.add(new SeatLayoutCache.SeatEntry(base + number, rowName, number, rowName + number, type, type,
+                    BigDecimal.ZERO, null, true));
+        }
+        return seats;
+    }
+}
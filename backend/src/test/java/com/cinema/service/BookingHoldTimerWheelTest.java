@@ -0,0 +1,88 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingHoldTimerWheelTest {
+
+    private final BookingHoldTimerWheel wheel = new BookingHoldTimerWheel();
+
+    /** Mốc thời gian đã căn theo giây, sau tick hiện tại của wheel */
+    private final long start = (System.currentTimeMillis() / 1000 + 1) * 1000;
+
+    @Test
+    void firesBookingOnItsDeadlineSecond() {
+        wheel.schedule(1L, at(start + 10_000));
+
+        assertThat(wheel.advance(start + 9_000)).isEmpty();
+        assertThat(wheel.advance(start + 10_000)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void overdueBookingIsReturnedOnNextAdvance() {
+        wheel.schedule(1L, at(start - 60_000));
+
+        assertThat(wheel.advance(start - 1_000)).containsExactly(1L);
+        assertThat(wheel.advance(start)).isEmpty();
+    }
+
+    @Test
+    void cancelledBookingNeverFires() {
+        wheel.schedule(1L, at(start + 5_000));
+        wheel.cancel(1L);
+
+        assertThat(wheel.advance(start + 10_000)).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rescheduleReplacesPreviousDeadline() {
+        wheel.schedule(1L, at(start + 5_000));
+        wheel.schedule(1L, at(start + 20_000));
+
+        assertThat(wheel.advance(start + 10_000)).isEmpty();
+        assertThat(wheel.advance(start + 20_000)).containsExactly(1L);
+    }
+
+    @Test
+    void deadlinesOnUpperLevelsCascadeDownAndFireOnTime() {
+        long[] offsetsSeconds = { 63, 64, 65, 900, 4095, 4096, 4100, 86_400 };
+        for (int i = 0; i < offsetsSeconds.length; i++) {
+            wheel.schedule((long) i, at(start + offsetsSeconds[i] * 1000));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (int i = 0; i < offsetsSeconds.length; i++) {
+            long deadline = start + offsetsSeconds[i] * 1000;
+            fired.addAll(wheel.advance(deadline - 1_000));
+            assertThat(fired).doesNotContain((long) i);
+            fired.addAll(wheel.advance(deadline));
+            assertThat(fired).contains((long) i);
+        }
+        assertThat(fired).hasSize(offsetsSeconds.length);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rescheduledAfterFiringIsReturnedAgain() {
+        wheel.schedule(1L, at(start + 1_000));
+        assertThat(wheel.advance(start + 1_000)).containsExactly(1L);
+
+        // Expire thất bại: scheduler đưa booking lại vào wheel
+        wheel.schedule(1L, at(start + 6_000));
+        assertThat(wheel.advance(start + 5_000)).isEmpty();
+        assertThat(wheel.advance(start + 6_000)).containsExactly(1L);
+    }
+
+    private static LocalDateTime at(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
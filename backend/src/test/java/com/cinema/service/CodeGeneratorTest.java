@@ -0,0 +1,109 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodeGeneratorTest {
+
+    @Test
+    void codesAreFixedLengthAndSortInGenerationOrder() {
+        CodeGenerator generator = generator(5);
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            codes.add(generator.nextBookingCode());
+        }
+
+        assertThat(codes).allMatch(code -> code.length() == 2 + CodeGenerator.CODE_LENGTH);
+        assertThat(codes).isSorted().doesNotHaveDuplicates();
+        assertThat(generator.nextTransactionId()).startsWith(CodeGenerator.TRANSACTION_PREFIX)
+                .hasSize(3 + CodeGenerator.CODE_LENGTH);
+    }
+
+    @Test
+    void idCarriesNodeId() {
+        long id = generator(5).nextId();
+
+        assertThat((id >>> CodeGenerator.SEQUENCE_BITS) & CodeGenerator.MAX_NODE_ID).isEqualTo(5);
+    }
+
+    @Test
+    void checkCharacterCatchesSingleCharacterTypos() {
+        String code = generator(1).nextBookingCode();
+        assertThat(CodeGenerator.hasValidCheckDigit(code, CodeGenerator.BOOKING_PREFIX)).isTrue();
+
+        for (int i = 2; i < code.length(); i++) {
+            char replacement = code.charAt(i) == 'X' ? 'Y' : 'X';
+            String typo = code.substring(0, i) + replacement + code.substring(i + 1);
+            assertThat(CodeGenerator.isMistyped(typo, CodeGenerator.BOOKING_PREFIX)).as(typo).isTrue();
+        }
+    }
+
+    @Test
+    void legacyCodesAreNotTreatedAsMistyped() {
+        // Dữ liệu mẫu: "BK" + currentTimeMillis + số thứ tự, cùng độ dài với mã mới
+        assertThat(CodeGenerator.isMistyped("BK17040672000001", CodeGenerator.BOOKING_PREFIX)).isFalse();
+        // Mã UUID 8 ký tự cũ
+        assertThat(CodeGenerator.isMistyped("BK1A2B3C4D", CodeGenerator.BOOKING_PREFIX)).isFalse();
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameCode() throws Exception {
+        CodeGenerator generator = generator(3);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    codes.add(generator.nextBookingCode());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(codes).hasSize(8 * 20_000);
+    }
+
+    @Test
+    void rejectsOutOfRangeNodeId() {
+        assertThatThrownBy(() -> generator(CodeGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void requiresNodeIdUnlessSingleNode() {
+        assertThatThrownBy(() -> generator(-1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("code-generator.node-id");
+
+        CodeGenerator generator = new CodeGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", -1L);
+        ReflectionTestUtils.setField(generator, "singleNode", true);
+        generator.init();
+        assertThat((generator.nextId() >>> CodeGenerator.SEQUENCE_BITS) & CodeGenerator.MAX_NODE_ID).isZero();
+    }
+
+    private static CodeGenerator generator(long nodeId) {
+        CodeGenerator generator = new CodeGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", nodeId);
+        generator.init();
+        return generator;
+    }
+}
@@ -0,0 +1,215 @@
+package com.cinema.service;
+
+import com.cinema.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Chạy trên H2 in-memory thật; hai instance dùng chung DB đóng vai hai node.
+ */
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "booking.create";
+    private static final Map<String, Object> REQUEST = Map.of("showtimeId", 1, "seatIds", List.of(10, 11));
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService service;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:idempotency_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE idempotency_keys (id VARCHAR(64) PRIMARY KEY, scope VARCHAR(50) NOT NULL, "
+                + "request_hash VARCHAR(64) NOT NULL, status VARCHAR(20) NOT NULL, response TEXT, "
+                + "created_at TIMESTAMP NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        meterRegistry = new SimpleMeterRegistry();
+        service = newNode();
+        executor = Executors.newFixedThreadPool(8);
+        login("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void concurrentRequestsWithSameKeyExecuteOnce() throws Exception {
+        IdempotencyService otherNode = newNode();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<IdempotencyService.Result<Receipt>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            IdempotencyService node = t % 2 == 0 ? service : otherNode;
+            futures.add(executor.submit(() -> {
+                login("alice");
+                start.await();
+                return node.execute(SCOPE, "key-1", REQUEST, Receipt.class, () -> slowAction(200));
+            }));
+        }
+        start.countDown();
+
+        List<IdempotencyService.Result<Receipt>> results = new ArrayList<>();
+        for (Future<IdempotencyService.Result<Receipt>> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(results).extracting(IdempotencyService.Result::value).containsOnly(new Receipt("BK1", 1));
+        assertThat(results).filteredOn(result -> !result.replayed()).hasSize(1);
+    }
+
+    @Test
+    void replaysStoredResponseAfterCompletion() {
+        IdempotencyService.Result<Receipt> first = service.execute(SCOPE, "key-1", REQUEST, Receipt.class,
+                () -> slowAction(0));
+        IdempotencyService.Result<Receipt> again = service.execute(SCOPE, "key-1", REQUEST, Receipt.class,
+                () -> slowAction(0));
+        // Node khác chỉ thấy bản lưu trong DB
+        IdempotencyService.Result<Receipt> otherNode = newNode().execute(SCOPE, "key-1", REQUEST, Receipt.class,
+                () -> slowAction(0));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(again.replayed()).isTrue();
+        assertThat(otherNode.replayed()).isTrue();
+        assertThat(List.of(again.value(), otherNode.value())).containsOnly(first.value());
+        assertThat(executions).hasValue(1);
+        assertThat(outcome("replayed")).isEqualTo(2);
+    }
+
+    @Test
+    void coalescesRequestWhileFirstIsRunning() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<IdempotencyService.Result<Receipt>> first = executor.submit(() -> {
+            login("alice");
+            return service.execute(SCOPE, "key-1", REQUEST, Receipt.class, () -> {
+                started.countDown();
+                await(release);
+                return slowAction(0);
+            });
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<IdempotencyService.Result<Receipt>> duplicate = executor.submit(() -> {
+            login("alice");
+            return service.execute(SCOPE, "key-1", REQUEST, Receipt.class, () -> slowAction(0));
+        });
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyService.Result<>(
+                new Receipt("BK1", 1), true));
+        assertThat(executions).hasValue(1);
+        assertThat(outcome("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentRequest() {
+        service.execute(SCOPE, "key-1", REQUEST, Receipt.class, () -> slowAction(0));
+        Map<String, Object> otherRequest = Map.of("showtimeId", 2, "seatIds", List.of(10, 11));
+
+        assertThatThrownBy(() -> service.execute(SCOPE, "key-1", otherRequest, Receipt.class, () -> slowAction(0)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> newNode().execute(SCOPE, "key-1", otherRequest, Receipt.class,
+                () -> slowAction(0)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void releasesKeyWhenActionFails() {
+        assertThatThrownBy(() -> service.execute(SCOPE, "key-1", REQUEST, Receipt.class, () -> {
+            throw new IllegalStateException("seat taken");
+        })).hasMessage("seat taken");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class)).isZero();
+
+        IdempotencyService.Result<Receipt> retry = service.execute(SCOPE, "key-1", REQUEST, Receipt.class,
+                () -> slowAction(0));
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        service.execute(SCOPE, "key-1", REQUEST, Receipt.class, () -> slowAction(0));
+        login("bob");
+        IdempotencyService.Result<Receipt> bob = service.execute(SCOPE, "key-1", REQUEST, Receipt.class,
+                () -> slowAction(0));
+
+        assertThat(bob.replayed()).isFalse();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void rejectsBlankOrOversizedKey() {
+        assertThatThrownBy(() -> service.execute(SCOPE, " ", REQUEST, Receipt.class, () -> slowAction(0)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.execute(SCOPE, "k".repeat(129), REQUEST, Receipt.class,
+                () -> slowAction(0)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private IdempotencyService newNode() {
+        return new IdempotencyService(jdbcTemplate, new ObjectMapper(), meterRegistry, 24, 10, 5_000);
+    }
+
+    private Receipt slowAction(long millis) {
+        int n = executions.incrementAndGet();
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return new Receipt("BK" + n, n);
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("cinema.idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void login(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null));
+    }
+
+    record Receipt(String code, int amount) {
+    }
+}
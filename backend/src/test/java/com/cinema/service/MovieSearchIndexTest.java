@@ -0,0 +1,86 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovieSearchIndexTest {
+
+    private MovieSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        when(movieRepository.findAll()).thenReturn(List.of(
+                movie(1L, "Mắt Biếc", "Victor Vũ", "Trần Nghĩa", "Tình cảm", Movie.MovieStatus.ENDED),
+                movie(2L, "Bố Già", "Trấn Thành", "Tuấn Trần", "Gia đình", Movie.MovieStatus.NOW_SHOWING),
+                movie(3L, "Hai Phượng", "Lê Văn Kiệt", "Ngô Thanh Vân", "Hành động", Movie.MovieStatus.ENDED),
+                movie(4L, "Thanh Sói", "Ngô Thanh Vân", "Đồng Ánh Quỳnh", "Hành động", Movie.MovieStatus.ENDED),
+                movie(5L, "Tiệc Trăng Máu", "Nguyễn Quang Dũng", "Thái Hòa", "Hài", Movie.MovieStatus.NOW_SHOWING)));
+        index = new MovieSearchIndex(movieRepository);
+    }
+
+    @Test
+    void matchesWithoutDiacritics() {
+        assertThat(index.search("mat biec", null)).containsExactly(1L);
+        assertThat(index.search("MẮT BIẾC", null)).containsExactly(1L);
+        assertThat(index.search("tiec trang mau", null)).containsExactly(5L);
+    }
+
+    @Test
+    void toleratesOneTypo() {
+        // Đảo 2 ký tự
+        assertThat(index.search("mat beic", null)).containsExactly(1L);
+        // Thiếu 1 ký tự
+        assertThat(index.search("hai phung", null)).containsExactly(3L);
+        // Thừa 1 ký tự
+        assertThat(index.search("hai phuongg", null)).containsExactly(3L);
+    }
+
+    @Test
+    void shortWordsMustMatchExactlyOrAsPrefix() {
+        assertThat(index.search("bo gia", null)).containsExactly(2L);
+        assertThat(index.search("bo gi", null)).containsExactly(2L);
+        assertThat(index.search("bo gua", null)).isEmpty();
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertThat(index.search("mat vu", null)).containsExactly(1L);
+        assertThat(index.search("mat thanh", null)).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankAboveOtherFields() {
+        // Tiêu đề (4) > đạo diễn (2) > diễn viên (3)
+        assertThat(index.search("thanh", null)).containsExactly(4L, 2L, 3L);
+    }
+
+    @Test
+    void filtersByStatus() {
+        assertThat(index.search("thanh", Movie.MovieStatus.NOW_SHOWING)).containsExactly(2L);
+    }
+
+    @Test
+    void picksUpMoviesIndexedOutsideTransaction() {
+        assertThat(index.search("lat mat", null)).isEmpty();
+
+        index.indexAfterCommit(movie(6L, "Lật Mặt", "Lý Hải", "Lý Hải", "Hành động", Movie.MovieStatus.NOW_SHOWING));
+
+        assertThat(index.search("lat mat", null)).containsExactly(6L);
+        assertThat(index.search("mat", null)).containsExactly(1L, 6L);
+    }
+
+    private static Movie movie(Long id, String title, String director, String actors, String genre,
+            Movie.MovieStatus status) {
+        return Movie.builder().id(id).title(title).director(director).actors(actors).genre(genre)
+                .status(status).rating(7.0).build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.cinema.service;
+
+import com.cinema.model.Booking;
+import com.cinema.model.Movie;
+import com.cinema.model.RevenueDailyRollup;
+import com.cinema.model.RevenueMovieRollup;
+import com.cinema.model.Room;
+import com.cinema.model.Showtime;
+import com.cinema.model.Theater;
+import com.cinema.model.User;
+import com.cinema.repository.RevenueDailyRollupRepository;
+import com.cinema.repository.RevenueMovieRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollup cộng dồn qua một chuỗi đổi trạng thái / xóa booking ngẫu nhiên phải khớp
+ * với tổng hợp trực tiếp từ bảng bookings.
+ */
+@DataJpaTest(properties = {
+        // Cùng chế độ với profile loadsim: truy vấn đối chiếu dùng hàm DATE() của MySQL
+        "spring.datasource.url=jdbc:h2:mem:cinema_rollup;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RevenueRollupService.class)
+class RevenueRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private RevenueRollupService rollupService;
+
+    @Autowired
+    private RevenueDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private RevenueMovieRollupRepository movieRollupRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private List<Showtime> showtimes;
+
+    @BeforeEach
+    void setUp() {
+        Theater theater = entityManager.persist(Theater.builder().name("Rạp test").address("1 Test").build());
+        Room room = entityManager.persist(Room.builder().name("P1").totalSeats(100).theater(theater).build());
+        user = entityManager.persist(User.builder().email("rollup@test.local").password("x").fullName("Rollup")
+                .build());
+        showtimes = new ArrayList<>();
+        for (int m = 1; m <= 3; m++) {
+            Movie movie = entityManager.persist(Movie.builder().title("Phim " + m).duration(120).build());
+            showtimes.add(entityManager.persist(Showtime.builder().movie(movie).room(room).showDate(DAY)
+                    .startTime(LocalTime.of(10 + m * 2, 0)).endTime(LocalTime.of(12 + m * 2, 0))
+                    .basePrice(BigDecimal.valueOf(75_000)).build()));
+        }
+    }
+
+    @Test
+    void incrementalRollupsMatchFullRecompute() {
+        Random random = new Random(42);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            bookings.add(createBooking(i, random));
+        }
+
+        Booking.BookingStatus[] statuses = Booking.BookingStatus.values();
+        for (int step = 0; step < 300; step++) {
+            if (bookings.isEmpty()) {
+                break;
+            }
+            Booking booking = bookings.get(random.nextInt(bookings.size()));
+            if (random.nextInt(20) == 0) {
+                rollupService.onDelete(booking);
+                entityManager.remove(booking);
+                bookings.remove(booking);
+                continue;
+            }
+            Booking.BookingStatus oldStatus = booking.getStatus();
+            Booking.BookingStatus newStatus = statuses[random.nextInt(statuses.length)];
+            booking.setStatus(newStatus);
+            rollupService.onStatusChange(booking, oldStatus, newStatus);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(rollupService.reconcile()).containsEntry("consistent", true);
+
+        Map<LocalDate, BigDecimal> expectedByDay = new TreeMap<>();
+        for (Booking booking : bookings) {
+            if (RevenueRollupService.isRevenueStatus(booking.getStatus())) {
+                expectedByDay.merge(booking.getCreatedAt().toLocalDate(), booking.getFinalAmount(), BigDecimal::add);
+            }
+        }
+        assertThat(nonZeroDays()).isEqualTo(expectedByDay);
+
+        // Dựng lại từ đầu cho cùng kết quả
+        Map<LocalDate, BigDecimal> incrementalByDay = nonZeroDays();
+        Map<Long, BigDecimal> incrementalByMovie = nonZeroMovies();
+        entityManager.clear();
+        rollupService.rebuild();
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(nonZeroDays()).isEqualTo(incrementalByDay);
+        assertThat(nonZeroMovies()).isEqualTo(incrementalByMovie);
+    }
+
+    @Test
+    void reconcileReportsDrift() {
+        Booking booking = createBooking(0, new Random(7));
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        rollupService.onStatusChange(booking, Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+        entityManager.flush();
+        assertThat(rollupService.reconcile()).containsEntry("consistent", true);
+
+        // Đổi trạng thái mà không đi qua rollup
+        booking.setStatus(Booking.BookingStatus.CANCELLED);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(rollupService.reconcile()).containsEntry("consistent", false);
+    }
+
+    private Booking createBooking(int i, Random random) {
+        BigDecimal amount = BigDecimal.valueOf(50_000 + random.nextInt(200) * 1_000L, 0).setScale(2);
+        Booking booking = entityManager.persist(Booking.builder()
+                .bookingCode("BKROLLUP" + i)
+                .totalAmount(amount)
+                .finalAmount(amount)
+                .numberOfSeats(1 + random.nextInt(4))
+                .user(user)
+                .showtime(showtimes.get(random.nextInt(showtimes.size())))
+                .build());
+        // createdAt là @CreationTimestamp -> rải booking ra nhiều ngày bằng UPDATE trực tiếp
+        LocalDateTime createdAt = DAY.minusDays(random.nextInt(5)).atTime(random.nextInt(24), 30);
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Booking b SET b.createdAt = :createdAt WHERE b.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", booking.getId())
+                .executeUpdate();
+        entityManager.refresh(booking);
+        return booking;
+    }
+
+    private Map<LocalDate, BigDecimal> nonZeroDays() {
+        return dailyRollupRepository.findAll().stream()
+                .filter(r -> r.getBookingCount() > 0)
+                .collect(Collectors.toMap(RevenueDailyRollup::getDate, r -> r.getRevenue().setScale(2),
+                        (a, b) -> a, TreeMap::new));
+    }
+
+    private Map<Long, BigDecimal> nonZeroMovies() {
+        return movieRollupRepository.findAll().stream()
+                .filter(r -> r.getBookingCount() > 0)
+                .collect(Collectors.toMap(RevenueMovieRollup::getMovieId, r -> r.getRevenue().setScale(2),
+                        (a, b) -> a, TreeMap::new));
+    }
+}
@@ -0,0 +1,239 @@
+package com.cinema.service;
+
+import com.cinema.model.Room;
+import com.cinema.model.Showtime;
+import com.cinema.repository.BookingSeatRepository;
+import com.cinema.repository.SeatRepository;
+import com.cinema.repository.ShowtimeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatInventoryServiceTest {
+
+    private static final LocalDateTime ENDS_AT = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void holdIsAllOrNothing() {
+        SeatInventoryService.ShowtimeInventory inventory = inventory(100, List.of(5L));
+
+        assertThat(inventory.tryHold(List.of(1L, 2L, 5L))).containsExactly(5L);
+        assertThat(inventory.takenSeatIds()).containsExactly(5L);
+        assertThat(inventory.takenCount()).isEqualTo(1);
+
+        assertThat(inventory.tryHold(List.of(1L, 2L))).isEmpty();
+        assertThat(inventory.takenSeatIds()).containsExactlyInAnyOrder(1L, 2L, 5L);
+        assertThat(inventory.takenCount()).isEqualTo(3);
+    }
+
+    @Test
+    void statesOfNeighbouringSeatsInOneWordAreIndependent() {
+        SeatInventoryService.ShowtimeInventory inventory = inventory(64, List.of());
+
+        for (int i = 0; i < 64; i++) {
+            inventory.set(i, i % 3);
+        }
+        for (int i = 0; i < 64; i++) {
+            assertThat(inventory.state(i)).isEqualTo(i % 3);
+        }
+        assertThat(inventory.compareAndSet(1, SeatInventoryService.FREE, SeatInventoryService.SOLD)).isFalse();
+        assertThat(inventory.compareAndSet(1, SeatInventoryService.HELD, SeatInventoryService.SOLD)).isTrue();
+        assertThat(inventory.state(0)).isEqualTo(SeatInventoryService.FREE);
+        assertThat(inventory.state(2)).isEqualTo(SeatInventoryService.SOLD);
+    }
+
+    @Test
+    void concurrentHoldsNeverShareASeat() throws Exception {
+        int seats = 200;
+        SeatInventoryService.ShowtimeInventory inventory = inventory(seats, List.of());
+        Set<Long> won = ConcurrentHashMap.newKeySet();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    long first = random.nextLong(1, seats);
+                    List<Long> pair = List.of(first, first + 1);
+                    if (inventory.tryHold(pair).isEmpty()) {
+                        for (Long seatId : pair) {
+                            if (!won.add(seatId)) {
+                                overlaps.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(overlaps.get()).isZero();
+        assertThat(inventory.takenCount()).isEqualTo(won.size());
+        assertThat(inventory.takenSeatIds()).containsExactlyInAnyOrderElementsOf(won);
+    }
+
+    @Test
+    void releaseHeldLeavesSoldSeats() {
+        SeatInventoryService.ShowtimeInventory inventory = inventory(10, List.of(3L));
+        inventory.tryHold(List.of(1L, 2L));
+
+        assertThat(inventory.releaseHeld(List.of(1L, 3L))).containsExactly(1L);
+        assertThat(inventory.takenSeatIds()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(inventory.takenCount()).isEqualTo(2);
+    }
+
+    @Test
+    void soldOutFlagFollowsCounter() {
+        SeatInventoryService.ShowtimeInventory inventory = inventory(3, List.of(1L));
+
+        inventory.tryHold(List.of(2L, 3L));
+        assertThat(inventory.refreshSoldOut()).isTrue();
+        assertThat(inventory.refreshSoldOut()).isFalse();
+
+        inventory.release(List.of(2L));
+        assertThat(inventory.refreshSoldOut()).isTrue();
+    }
+
+    @Test
+    void retireCarriesLiveHoldsIntoFreshInventory() {
+        SeatInventoryService.ShowtimeInventory old = inventory(10, List.of());
+        old.tryHold(List.of(1L, 2L));
+        long readFrom = old.version();
+
+        // DB: ghế 4 đã được node khác bán
+        SeatInventoryService.ShowtimeInventory fresh = inventory(10, List.of(4L));
+        assertThat(old.retire(fresh, readFrom)).isTrue();
+
+        assertThat(fresh.takenSeatIds()).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(fresh.takenCount()).isEqualTo(3);
+        assertThat(old.tryHold(List.of(5L))).isNull();
+        assertThat(old.release(List.of(1L))).isNull();
+        assertThat(old.retire(fresh, readFrom)).isFalse();
+    }
+
+    @Test
+    void retireKeepsChangesMadeWhileReading() {
+        SeatInventoryService.ShowtimeInventory old = inventory(10, List.of(7L));
+        long readFrom = old.version();
+        // Booking của ghế 7 bị hủy sau khi DB đã được đọc
+        old.release(List.of(7L));
+
+        SeatInventoryService.ShowtimeInventory fresh = inventory(10, List.of(7L));
+        old.retire(fresh, readFrom);
+
+        assertThat(fresh.takenSeatIds()).isEmpty();
+        assertThat(fresh.takenCount()).isZero();
+    }
+
+    @Test
+    void evictReloadsWithoutLosingHolds() {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        SeatRepository seatRepository = mock(SeatRepository.class);
+        BookingSeatRepository bookingSeatRepository = mock(BookingSeatRepository.class);
+        Room room = Room.builder().id(1L).totalSeats(10).build();
+        Showtime showtime = Showtime.builder().id(7L).room(room).showDate(LocalDate.now().plusDays(1))
+                .startTime(LocalTime.of(18, 0)).endTime(LocalTime.of(20, 0)).build();
+        when(showtimeRepository.findByIdWithRoom(anyLong())).thenReturn(Optional.of(showtime));
+        when(seatRepository.findIdsByRoomId(1L)).thenReturn(LongStream.rangeClosed(1, 10).boxed().toList());
+        when(bookingSeatRepository.findBookedSeatIdsByShowtime(7L)).thenReturn(List.of());
+
+        SeatInventoryService service = new SeatInventoryService(showtimeRepository, seatRepository,
+                bookingSeatRepository, mock(SeatEventBroadcaster.class));
+
+        assertThat(service.hold(7L, List.of(1L, 2L))).isEmpty();
+        when(bookingSeatRepository.findBookedSeatIdsByShowtime(7L)).thenReturn(List.of(9L));
+        service.evict(7L);
+
+        assertThat(service.hold(7L, List.of(2L, 3L))).containsExactly(2L);
+        assertThat(service.getTakenSeatIds(7L)).containsExactlyInAnyOrder(1L, 2L, 9L);
+
+        service.release(7L, List.of(1L));
+        assertThat(service.getTakenSeatIds(7L)).containsExactlyInAnyOrder(2L, 9L);
+    }
+
+    @Test
+    void flushLeavesAdminSoldOutAlone() {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        SeatInventoryService service = service(showtimeRepository, 10, List.of(),
+                Showtime.ShowtimeStatus.SOLD_OUT, false);
+
+        assertThat(service.isSoldOut(7L)).isFalse();
+        service.getTakenSeatIds(7L);
+        service.flushSoldOutStatus();
+
+        verify(showtimeRepository, never()).reopenAutoSoldOut(anyLong());
+    }
+
+    @Test
+    void flushReopensAutoSoldOutWhenRoomGrows() {
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        SeatInventoryService service = service(showtimeRepository, 2, List.of(1L, 2L),
+                Showtime.ShowtimeStatus.SOLD_OUT, true);
+        service.getTakenSeatIds(7L);
+        assertThat(service.isSoldOut(7L)).isTrue();
+        service.flushSoldOutStatus();
+        verify(showtimeRepository, never()).reopenAutoSoldOut(anyLong());
+
+        // Phòng được thêm ghế -> sức chứa nạp lại từ DB
+        stubShowtime(showtimeRepository, 4, Showtime.ShowtimeStatus.SOLD_OUT, true);
+        service.evict(7L);
+
+        assertThat(service.isSoldOut(7L)).isFalse();
+        service.flushSoldOutStatus();
+        verify(showtimeRepository).reopenAutoSoldOut(7L);
+    }
+
+    private SeatInventoryService service(ShowtimeRepository showtimeRepository, int seats, List<Long> sold,
+            Showtime.ShowtimeStatus status, boolean autoSoldOut) {
+        SeatRepository seatRepository = mock(SeatRepository.class);
+        BookingSeatRepository bookingSeatRepository = mock(BookingSeatRepository.class);
+        stubShowtime(showtimeRepository, seats, status, autoSoldOut);
+        when(seatRepository.findIdsByRoomId(1L)).thenAnswer(invocation -> LongStream
+                .rangeClosed(1, showtimeRepository.findByIdWithRoom(7L).orElseThrow().getRoom().getTotalSeats())
+                .boxed().toList());
+        when(bookingSeatRepository.findBookedSeatIdsByShowtime(7L)).thenReturn(sold);
+        return new SeatInventoryService(showtimeRepository, seatRepository, bookingSeatRepository,
+                mock(SeatEventBroadcaster.class));
+    }
+
+    private static void stubShowtime(ShowtimeRepository showtimeRepository, int seats,
+            Showtime.ShowtimeStatus status, boolean autoSoldOut) {
+        Room room = Room.builder().id(1L).totalSeats(seats).build();
+        Showtime showtime = Showtime.builder().id(7L).room(room).showDate(LocalDate.now().plusDays(1))
+                .startTime(LocalTime.of(18, 0)).endTime(LocalTime.of(20, 0))
+                .status(status).autoSoldOut(autoSoldOut).build();
+        when(showtimeRepository.findByIdWithRoom(anyLong())).thenReturn(Optional.of(showtime));
+    }
+
+    private static SeatInventoryService.ShowtimeInventory inventory(int seats, List<Long> sold) {
+        List<Long> seatIds = new ArrayList<>(LongStream.rangeClosed(1, seats).boxed().toList());
+        return new SeatInventoryService.ShowtimeInventory(1L, seatIds, sold, ENDS_AT, seats);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatLayoutDiffTest {
+
+    private static final Long STANDARD = 1L;
+    private static final Long VIP = 2L;
+
+    @Test
+    void unchangedLayoutProducesEmptyDiff() {
+        SeatLayoutDiff diff = SeatLayoutDiff.compute(
+                List.of(stored(10L, "A", 1, STANDARD, true), stored(11L, "A", 2, STANDARD, true)),
+                List.of(cell("A", 1, STANDARD), cell("A", 2, STANDARD)));
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.activeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void matchesSeatsByPositionAndKeepsTheirIds() {
+        SeatLayoutDiff diff = SeatLayoutDiff.compute(
+                List.of(stored(10L, "A", 1, STANDARD, true),
+                        stored(11L, "A", 2, STANDARD, true),
+                        stored(12L, "A", 3, STANDARD, true)),
+                List.of(cell("A", 1, STANDARD), cell("A", 2, VIP), cell("B", 1, STANDARD)));
+
+        assertThat(diff.added()).containsExactly(cell("B", 1, STANDARD));
+        assertThat(diff.changed()).containsExactly(new SeatLayoutDiff.Change(11L, VIP));
+        assertThat(diff.removed()).extracting(SeatLayoutDiff.StoredSeat::id).containsExactly(12L);
+        assertThat(diff.activeCount()).isEqualTo(3);
+    }
+
+    @Test
+    void reactivatesInactiveSeatAtSamePosition() {
+        SeatLayoutDiff diff = SeatLayoutDiff.compute(
+                List.of(stored(10L, "A", 1, STANDARD, false)),
+                List.of(cell("A", 1, STANDARD)));
+
+        assertThat(diff.added()).isEmpty();
+        assertThat(diff.changed()).containsExactly(new SeatLayoutDiff.Change(10L, STANDARD));
+    }
+
+    @Test
+    void inactiveSeatsMissingFromLayoutAreNotRemovedAgain() {
+        SeatLayoutDiff diff = SeatLayoutDiff.compute(
+                List.of(stored(10L, "A", 1, STANDARD, false), stored(11L, "A", 2, STANDARD, true)),
+                List.of());
+
+        assertThat(diff.removed()).extracting(SeatLayoutDiff.StoredSeat::id).containsExactly(11L);
+        assertThat(diff.activeCount()).isZero();
+    }
+
+    @Test
+    void lastDuplicateCellWins() {
+        SeatLayoutDiff diff = SeatLayoutDiff.compute(
+                List.of(stored(10L, "A", 1, STANDARD, true)),
+                List.of(cell("A", 1, STANDARD), cell("A", 1, VIP)));
+
+        assertThat(diff.changed()).containsExactly(new SeatLayoutDiff.Change(10L, VIP));
+        assertThat(diff.activeCount()).isEqualTo(1);
+    }
+
+    private static SeatLayoutDiff.StoredSeat stored(Long id, String row, int number, Long surchargeId,
+            boolean active) {
+        return new SeatLayoutDiff.StoredSeat(id, row, number, surchargeId, active);
+    }
+
+    private static SeatLayoutDiff.Cell cell(String row, int number, Long surchargeId) {
+        return new SeatLayoutDiff.Cell(row, number, surchargeId);
+    }
+}
@@ -0,0 +1,115 @@
+package com.cinema.service;
+
+import com.cinema.config.TmdbConfig;
+import com.cinema.model.Movie;
+import com.cinema.repository.MovieRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Sync TMDB chạy qua RestTemplate thật, trả lời bởi MockRestServiceServer.
+ */
+class TmdbServiceTest {
+
+    private static final String API_URL = "http://tmdb.test/3";
+
+    private MockRestServiceServer server;
+    private MovieRepository movieRepository;
+    private PlatformTransactionManager transactionManager;
+    private TmdbService tmdbService;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+        TmdbConfig tmdbConfig = new TmdbConfig();
+        ReflectionTestUtils.setField(tmdbConfig, "apiUrl", API_URL);
+        ReflectionTestUtils.setField(tmdbConfig, "apiToken", "test-token");
+        ReflectionTestUtils.setField(tmdbConfig, "imageBaseUrl", "http://img.test");
+        ReflectionTestUtils.setField(tmdbConfig, "syncConcurrency", 4);
+        ReflectionTestUtils.setField(tmdbConfig, "syncBatchSize", 50);
+
+        movieRepository = mock(MovieRepository.class);
+        when(movieRepository.findByTmdbIdIn(anyCollection()))
+                .thenReturn(List.of(Movie.builder().id(20L).tmdbId(2L).title("Cũ").build()));
+        when(movieRepository.findByTmdbIdIsNullAndTitleIn(anyCollection())).thenReturn(List.of());
+        when(movieRepository.saveAll(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        tmdbService = new TmdbService(restTemplate, tmdbConfig, movieRepository,
+                new TokenBucketRateLimiter(1_000, 100), new TransactionTemplate(transactionManager),
+                new SimpleMeterRegistry(), mock(MovieSearchIndex.class), mock(SuggestionIndex.class));
+
+        expectTmdb("/genre/movie/list", "{\"genres\":[{\"id\":18,\"name\":\"Chính kịch\"}]}");
+        expectTmdb("/movie/now_playing", "{\"page\":1,\"results\":["
+                + "{\"id\":1,\"title\":\"Một\"},{\"id\":2,\"title\":\"Hai\"},{\"id\":3,\"title\":\"Ba\"}]}");
+        for (int id = 1; id <= 3; id++) {
+            expectTmdb("/movie/" + id + "?", "{\"id\":" + id + ",\"title\":\"Phim " + id + "\",\"runtime\":100,"
+                    + "\"release_date\":\"2020-01-01\",\"genres\":[{\"id\":18,\"name\":\"Chính kịch\"}]}");
+        }
+    }
+
+    @Test
+    void syncImportsNewAndUpdatesExistingMovies() {
+        Map<String, Object> result = tmdbService.syncMovies("now_playing", 1);
+
+        server.verify();
+        assertThat(result).containsEntry("imported", 2).containsEntry("updated", 1).containsEntry("failed", 0);
+        assertThat(tmdbService.getSyncProgress()).containsEntry("moviesFetched", 3).containsEntry("running", false);
+    }
+
+    @Test
+    void batchFailingAtCommitIsCountedOnceAfterRetry() {
+        doThrow(new TransactionSystemException("commit failed")).doNothing().when(transactionManager).commit(any());
+
+        Map<String, Object> result = tmdbService.syncMovies("now_playing", 1);
+
+        // Lô 3 phim lỗi lúc commit, ghi lại từng phim thành công
+        assertThat(result).containsEntry("imported", 2).containsEntry("updated", 1).containsEntry("failed", 0);
+    }
+
+    @Test
+    void movieFailingOnRetryIsReportedOnce() {
+        doThrow(new TransactionSystemException("commit failed"))
+                .doNothing()
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        Map<String, Object> result = tmdbService.syncMovies("now_playing", 1);
+
+        assertThat(result).containsEntry("failed", 1);
+        assertThat((Integer) result.get("imported") + (Integer) result.get("updated")).isEqualTo(2);
+        assertThat((List<?>) result.get("errors")).hasSize(1);
+    }
+
+    private void expectTmdb(String path, String body) {
+        server.expect(requestTo(startsWith(API_URL + path)))
+                .andExpect(header("Authorization", "Bearer test-token"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,72 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstIsServedImmediately() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 10);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+
+        assertThat(elapsedMillis(startedAt)).isLessThan(500);
+    }
+
+    @Test
+    void sustainedRateIsLimitedAfterBurst() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(50, 5);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            limiter.acquire();
+        }
+
+        // 5 token có sẵn, 25 token còn lại nạp ở 50/s -> ít nhất 500ms
+        assertThat(elapsedMillis(startedAt)).isBetween(450L, 2_000L);
+    }
+
+    @Test
+    void concurrentCallersShareTheRate() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10; i++) {
+                    limiter.acquire();
+                }
+                return null;
+            });
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // 40 token, 1 có sẵn, 39 token nạp ở 100/s -> ít nhất 390ms
+        assertThat(elapsedMillis(startedAt)).isBetween(350L, 3_000L);
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cinema.service;
+
+import com.cinema.dto.response.QueueTicketResponse;
+import com.cinema.exception.ResourceNotFoundException;
+import com.cinema.repository.ShowtimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomServiceTest {
+
+    private static final Long SHOWTIME_ID = 7L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShowtimeRepository showtimeRepository;
+    private WaitingRoomService service;
+
+    @BeforeEach
+    void setUp() {
+        showtimeRepository = mock(ShowtimeRepository.class);
+        when(showtimeRepository.existsById(anyLong())).thenReturn(true);
+        // Mỗi giây chỉ cho vào 1 người, bỏ hàng sau 1 giây không poll
+        service = new WaitingRoomService(meterRegistry, showtimeRepository, true, 1, 1, 1, 1.0, 300, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejoiningReturnsTheSameTicket() {
+        QueueTicketResponse fast = join("a");
+        assertThat(fast.getStatus()).isEqualTo("ADMITTED");
+        assertThat(join("a").getToken()).isEqualTo(fast.getToken());
+
+        QueueTicketResponse waiting = join("b");
+        assertThat(waiting.getStatus()).isEqualTo("WAITING");
+        assertThat(waiting.getPosition()).isEqualTo(1);
+        for (int i = 0; i < 5; i++) {
+            assertThat(join("b")).extracting(QueueTicketResponse::getToken, QueueTicketResponse::getPosition)
+                    .containsExactly(waiting.getToken(), 1L);
+        }
+
+        assertThat(join("c").getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsUnknownShowtime() {
+        when(showtimeRepository.existsById(SHOWTIME_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> join("a")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void abandonedPositionsDoNotConsumeAdmissions() throws InterruptedException {
+        join("a"); // cho vào thẳng, cổng bắt đầu xếp hàng từ người kế tiếp
+        join("b");
+        join("c");
+        QueueTicketResponse d = join("d");
+        assertThat(d.getPosition()).isEqualTo(3);
+
+        Thread.sleep(1_100);
+        login("d");
+        service.status(d.getToken()); // chỉ d còn poll, c bỏ hàng
+        service.tick();               // b tới lượt, c bị dọn khi vẫn đang chờ
+        assertThat(meterRegistry.get("cinema.waiting-room.waiting").gauge().value()).isEqualTo(1.0);
+
+        service.tick();               // bỏ qua vị trí của c
+        assertThat(service.status(d.getToken()).getStatus()).isEqualTo("ADMITTED");
+        assertThat(meterRegistry.get("cinema.waiting-room.waiting").gauge().value()).isZero();
+    }
+
+    private QueueTicketResponse join(String username) {
+        login(username);
+        return service.join(SHOWTIME_ID);
+    }
+
+    private static void login(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null));
+    }
+}
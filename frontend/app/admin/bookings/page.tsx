@@ -52,14 +52,30 @@ const STATUS_OPTIONS = [
 
 const PAYMENT_STATUS_OPTIONS = [
   { value: 'PENDING', label: 'Chờ thanh toán', color: 'bg-yellow-100 text-yellow-700' },
-  { value: 'PAID', label: 'Đã thanh toán', color: 'bg-green-100 text-green-700' },
+  { value: 'COMPLETED', label: 'Đã thanh toán', color: 'bg-green-100 text-green-700' },
   { value: 'REFUNDED', label: 'Đã hoàn tiền', color: 'bg-purple-100 text-purple-700' },
   { value: 'FAILED', label: 'Thất bại', color: 'bg-red-100 text-red-700' },
 ];
 
+interface BookingStats {
+  totalBookings: number;
+  pendingBookings: number;
+  completedBookings: number;
+  paidRevenue: number;
+}
+
+// Filtered stats cover the most recent days only (the API requires a from/to range)
+const STATS_RANGE_DAYS = 90;
+
+const toIsoDate = (date: Date) =>
+  `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}-${String(date.getDate()).padStart(2, '0')}`;
+
 export default function BookingsManagementPage() {
   const [bookings, setBookings] = useState<Booking[]>([]);
+  const [stats, setStats] = useState<BookingStats | null>(null);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<number | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [detailModal, setDetailModal] = useState<{ open: boolean; booking: Booking | null }>({
     open: false,
     booking: null,
@@ -81,14 +97,40 @@ export default function BookingsManagementPage() {
     searchTerm: '',
   });
 
+  // Status filters are applied by the server so paging and stats cover every matching booking
+  const serverFilters = {
+    status: filters.status || undefined,
+    paymentStatus: filters.paymentStatus || undefined,
+  };
+
   useEffect(() => {
     fetchBookings();
-  }, []);
+    fetchStats();
+  }, [filters.status, filters.paymentStatus]);
+
+  const fetchStats = async () => {
+    try {
+      // Unfiltered stats come from a cached aggregate; filtered stats need a date range
+      const filtered = serverFilters.status || serverFilters.paymentStatus;
+      setStats(await adminBookingService.getStats(filtered ? { ...serverFilters, ...statsRange() } : {}));
+    } catch (error) {
+      console.error('Error fetching booking stats:', error);
+    }
+  };
+
+  const statsRange = () => {
+    const to = new Date();
+    const from = new Date(to);
+    from.setDate(from.getDate() - (STATS_RANGE_DAYS - 1));
+    return { from: toIsoDate(from), to: toIsoDate(to) };
+  };
 
-  const fetchBookings = async () => {
+  const fetchBookings = async (cursor: number | null = null) => {
     try {
-      const response = await adminBookingService.getAll();
-      setBookings(response);
+      const page = await adminBookingService.getPage({ ...serverFilters, cursor, size: 50 });
+      const content: Booking[] = page?.content ?? [];
+      setBookings(prev => (cursor ? [...prev, ...content] : content));
+      setNextCursor(page?.hasMore ? page.nextCursor : null);
     } catch (error) {
       console.error('Error fetching bookings:', error);
     } finally {
@@ -96,6 +138,13 @@ export default function BookingsManagementPage() {
     }
   };
 
+  const handleLoadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    await fetchBookings(nextCursor);
+    setLoadingMore(false);
+  };
+
   const handleStatusChangeRequest = (booking: Booking, newStatus: string) => {
     setConfirmModal({
       open: true,
@@ -113,6 +162,7 @@ export default function BookingsManagementPage() {
         b.id === confirmModal.booking!.id ? { ...b, status: confirmModal.newStatus } : b
       ));
       setConfirmModal({ open: false, booking: null, newStatus: '' });
+      fetchStats();
     } catch (error: any) {
       console.error('Error updating booking status:', error);
       alert(error.response?.data?.message || 'Có lỗi xảy ra khi cập nhật trạng thái');
@@ -126,6 +176,7 @@ export default function BookingsManagementPage() {
       await adminBookingService.delete(deleteModal.booking.id);
       setBookings(bookings.filter(b => b.id !== deleteModal.booking?.id));
       setDeleteModal({ open: false, booking: null });
+      fetchStats();
     } catch (error: any) {
       console.error('Error deleting booking:', error);
       alert(error.response?.data?.message || 'Có lỗi xảy ra khi xóa đơn đặt vé');
@@ -155,9 +206,8 @@ export default function BookingsManagementPage() {
     return PAYMENT_STATUS_OPTIONS.find(s => s.value === status) || { label: status, color: 'bg-zinc-100 text-zinc-700' };
   };
 
+  // Free-text search only narrows the pages already loaded
   const filteredBookings = bookings.filter(booking => {
-    if (filters.status && booking.status !== filters.status) return false;
-    if (filters.paymentStatus && booking.paymentStatus !== filters.paymentStatus) return false;
     if (filters.searchTerm) {
       const search = filters.searchTerm.toLowerCase();
       const code = booking.bookingCode?.toLowerCase() || '';
@@ -194,7 +244,7 @@ export default function BookingsManagementPage() {
           <div className="relative">
             <input
               type="text"
-              placeholder="Tìm kiếm..."
+              placeholder="Tìm trong danh sách đã tải..."
               value={filters.searchTerm}
               onChange={(e) => setFilters({ ...filters, searchTerm: e.target.value })}
               className="w-full pl-10 pr-4 py-2 border border-zinc-200 rounded-lg focus:outline-none focus:ring-2 focus:ring-red-500"
@@ -240,24 +290,26 @@ export default function BookingsManagementPage() {
       {/* Stats */}
       <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mb-6">
         <div className="bg-white rounded-xl shadow-sm border border-zinc-200 p-4">
-          <div className="text-2xl font-bold text-zinc-900">{bookings.length}</div>
-          <div className="text-sm text-zinc-500">Tổng đơn</div>
+          <div className="text-2xl font-bold text-zinc-900">{stats?.totalBookings ?? 0}</div>
+          <div className="text-sm text-zinc-500">
+            Tổng đơn{(filters.status || filters.paymentStatus) && ` (${STATS_RANGE_DAYS} ngày gần nhất)`}
+          </div>
         </div>
         <div className="bg-white rounded-xl shadow-sm border border-zinc-200 p-4">
           <div className="text-2xl font-bold text-yellow-600">
-            {bookings.filter(b => b.status === 'PENDING').length}
+            {stats?.pendingBookings ?? 0}
           </div>
           <div className="text-sm text-zinc-500">Chờ xử lý</div>
         </div>
         <div className="bg-white rounded-xl shadow-sm border border-zinc-200 p-4">
           <div className="text-2xl font-bold text-green-600">
-            {bookings.filter(b => b.status === 'COMPLETED').length}
+            {stats?.completedBookings ?? 0}
           </div>
           <div className="text-sm text-zinc-500">Hoàn thành</div>
         </div>
         <div className="bg-white rounded-xl shadow-sm border border-zinc-200 p-4">
           <div className="text-2xl font-bold text-red-600">
-            {formatPrice(bookings.filter(b => b.paymentStatus === 'PAID').reduce((sum, b) => sum + (b.totalAmount || 0), 0))}
+            {formatPrice(stats?.paidRevenue ?? 0)}
           </div>
           <div className="text-sm text-zinc-500">Doanh thu</div>
         </div>
@@ -377,6 +429,18 @@ export default function BookingsManagementPage() {
           </table>
         </div>
 
+        {nextCursor && (
+          <div className="flex justify-center py-4 border-t border-zinc-100">
+            <button
+              onClick={handleLoadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 text-sm font-medium text-zinc-700 bg-zinc-100 rounded-lg hover:bg-zinc-200 disabled:opacity-50"
+            >
+              {loadingMore ? 'Đang tải...' : 'Tải thêm'}
+            </button>
+          </div>
+        )}
+
         {filteredBookings.length === 0 && (
           <div className="text-center py-12">
             <svg className="w-16 h-16 text-zinc-300 mx-auto mb-4" fill="none" stroke="currentColor" viewBox="0 0 24 24">
@@ -97,12 +97,36 @@ export const adminShowtimeService = {
 };
 
 // ===================== BOOKINGS =====================
+export interface AdminBookingQuery {
+  status?: string;
+  paymentStatus?: string;
+  from?: string;
+  to?: string;
+  theaterId?: number;
+  movieId?: number;
+  cursor?: number | null;
+  size?: number;
+}
+
 export const adminBookingService = {
-  getAll: async () => {
-    const response = await api.get('/admin/bookings');
+  // Keyset pagination: pass the previous page's nextCursor as cursor
+  getPage: async (params: AdminBookingQuery = {}) => {
+    const response = await api.get('/admin/bookings', { params });
+    return response.data?.data;
+  },
+
+  // Totals over every booking matching the filters (server-side aggregate)
+  getStats: async (params: Omit<AdminBookingQuery, 'cursor' | 'size'> = {}) => {
+    const response = await api.get('/admin/bookings/stats', { params });
     return response.data?.data;
   },
 
+  // Most recent bookings (first page only)
+  getAll: async (size = 50) => {
+    const page = await adminBookingService.getPage({ size });
+    return page?.content ?? [];
+  },
+
   getById: async (id: number) => {
     const response = await api.get(`/admin/bookings/${id}`);
     return response.data?.data;
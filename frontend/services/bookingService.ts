@@ -1,9 +1,13 @@
 import { api } from '@/lib/axios';
 import { ApiResponse, Booking, BookingRequest, Payment, PaymentRequest, CalculatePriceRequest, CalculatedPriceResponse } from '@/types';
 
+const idempotencyHeaders = (key?: string) =>
+  key ? { headers: { 'Idempotency-Key': key } } : undefined;
+
 export const bookingService = {
-  async createBooking(data: BookingRequest): Promise<Booking> {
-    const response = await api.post<ApiResponse<Booking>>('/bookings', data);
+  // idempotencyKey: giữ nguyên giữa các lần retry để server trả lại đúng booking đã tạo
+  async createBooking(data: BookingRequest, idempotencyKey?: string): Promise<Booking> {
+    const response = await api.post<ApiResponse<Booking>>('/bookings', data, idempotencyHeaders(idempotencyKey));
     return response.data.data;
   },
 
@@ -34,8 +38,8 @@ export const bookingService = {
 };
 
 export const paymentService = {
-  async createPayment(data: PaymentRequest): Promise<Payment> {
-    const response = await api.post<ApiResponse<Payment>>('/payments', data);
+  async createPayment(data: PaymentRequest, idempotencyKey?: string): Promise<Payment> {
+    const response = await api.post<ApiResponse<Payment>>('/payments', data, idempotencyHeaders(idempotencyKey));
     return response.data.data;
   },
 
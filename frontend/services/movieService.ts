@@ -1,6 +1,18 @@
 import { api } from '@/lib/axios';
 import { ApiResponse, Movie, PageResponse } from '@/types';
 
+export interface SuggestionItem {
+  id: number;
+  label: string;
+  subtitle?: string;
+}
+
+export interface SuggestionResponse {
+  movies: SuggestionItem[];
+  theaters: SuggestionItem[];
+  cities: SuggestionItem[];
+}
+
 export const movieService = {
   async getAllMovies(page = 0, size = 10): Promise<PageResponse<Movie>> {
     const response = await api.get<ApiResponse<PageResponse<Movie>>>('/movies', {
@@ -69,6 +81,14 @@ export const movieService = {
     return response.data.data;
   },
 
+  // Gợi ý khi gõ (phim / rạp / thành phố), phục vụ từ bộ nhớ của backend
+  async suggest(q: string, limit = 5): Promise<SuggestionResponse> {
+    const response = await api.get<ApiResponse<SuggestionResponse>>('/suggest', {
+      params: { q, limit }
+    });
+    return response.data.data;
+  },
+
   async getAllGenres(): Promise<string[]> {
     const response = await api.get<ApiResponse<string[]>>('/movies/genres');
     return response.data.data;